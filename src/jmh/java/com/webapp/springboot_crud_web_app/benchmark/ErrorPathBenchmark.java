@@ -0,0 +1,107 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.webapp.springboot_crud_web_app.exception.ErrorResponse;
+import com.webapp.springboot_crud_web_app.exception.GlobalExceptionHandler;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of the 404 path: throwing a not-found exception from a realistic call
+ * depth and turning it into an error response.
+ * <p>
+ * {@code stackless} uses {@link ResourceNotFoundException} as shipped;
+ * {@code withStackTrace} reproduces the previous behaviour (full stack trace
+ * and {@code String.format}) for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ErrorPathBenchmark {
+
+    /**
+     * Frames between the throw site and the handler; Spring MVC plus the
+     * servlet container typically add well over a hundred.
+     */
+    @Param({"16", "128"})
+    private int stackDepth;
+
+    private GlobalExceptionHandler handler;
+    private WebRequest request;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/products/424242"));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stackless() {
+        try {
+            throwNotFound(stackDepth, nextId++);
+            throw new IllegalStateException("unreachable");
+        } catch (ResourceNotFoundException ex) {
+            return handler.handleResourceNotFoundException(ex, request);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> withStackTrace() {
+        try {
+            throwLegacyNotFound(stackDepth, nextId++);
+            throw new IllegalStateException("unreachable");
+        } catch (LegacyNotFoundException ex) {
+            return handler.handleResourceNotFoundException(new ResourceNotFoundException(ex.getMessage()), request);
+        }
+    }
+
+    private static void throwNotFound(int depth, long id) {
+        if (depth > 0) {
+            throwNotFound(depth - 1, id);
+            return;
+        }
+        throw new ResourceNotFoundException("Product", "id", id);
+    }
+
+    private static void throwLegacyNotFound(int depth, long id) {
+        if (depth > 0) {
+            throwLegacyNotFound(depth - 1, id);
+            return;
+        }
+        throw new LegacyNotFoundException("Product", "id", id);
+    }
+
+    /**
+     * The not-found exception as it was before it became stackless.
+     */
+    static class LegacyNotFoundException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LegacyNotFoundException(String resourceName, String fieldName, Object fieldValue) {
+            super(String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Order insert throughput when every order commits on its own
+ * ({@code batchSize = 1}) against committing groups of orders together, the
+ * way the group-commit writer does. Uses a file-backed database so a commit
+ * actually has to write; each invocation inserts one order and its item, and
+ * every {@code batchSize}-th invocation commits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GroupCommitBenchmark {
+
+    @Param({"1", "8", "64"})
+    private int batchSize;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insertOrder;
+    private PreparedStatement insertItem;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("group-commit");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("orders"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_email VARCHAR(255) NOT NULL, "
+                    + "total_amount DECIMAL(10, 2) NOT NULL, status VARCHAR(20) NOT NULL, created_at TIMESTAMP)");
+            statement.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT NOT NULL, "
+                    + "product_id BIGINT NOT NULL, quantity INT NOT NULL, unit_price DECIMAL(10, 2) NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        insertOrder = connection.prepareStatement("INSERT INTO orders VALUES (?, 'bench@example.com', 19.99, 'PENDING', CURRENT_TIMESTAMP)");
+        insertItem = connection.prepareStatement("INSERT INTO order_items VALUES (?, ?, 1, 1, 19.99)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        connection.commit();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        insertOrder.close();
+        insertItem.close();
+        connection.close();
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long insertOrder() throws SQLException {
+        long id = ++nextId;
+        insertOrder.setLong(1, id);
+        insertOrder.executeUpdate();
+        insertItem.setLong(1, id);
+        insertItem.setLong(2, id);
+        insertItem.executeUpdate();
+        if (id % batchSize == 0) {
+            connection.commit();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,113 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Stock write throughput for one hot product: updating {@code products.stock}
+ * in place, which serializes writers on the row lock until commit, against
+ * inserting a movement into the append-only {@code inventory_movements} ledger.
+ * Each transaction holds on for a short simulated amount of work before
+ * committing, like an order transaction that still has its items to insert.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+public class InventoryLedgerBenchmark {
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    @Param({"2000"})
+    private long workTokens;
+
+    private String url;
+    private Connection keepAlive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        url = "jdbc:h2:mem:ledger" + DATABASE_COUNTER.incrementAndGet() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        keepAlive = DriverManager.getConnection(url);
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT NOT NULL)");
+            statement.execute("CREATE TABLE inventory_movements (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "product_id BIGINT NOT NULL, quantity INT NOT NULL, type VARCHAR(20) NOT NULL, "
+                    + "compacted BOOLEAN NOT NULL, created_at TIMESTAMP)");
+            statement.execute("CREATE INDEX idx_inventory_movements_product_compacted "
+                    + "ON inventory_movements (product_id, compacted)");
+            statement.execute("INSERT INTO products VALUES (1, " + Integer.MAX_VALUE + ")");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadConnection {
+
+        private Connection connection;
+        private PreparedStatement update;
+        private PreparedStatement insert;
+
+        @Setup(Level.Trial)
+        public void setUp(InventoryLedgerBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url);
+            connection.setAutoCommit(false);
+            update = connection.prepareStatement("UPDATE products SET stock = stock - 1 WHERE id = 1");
+            insert = connection.prepareStatement("INSERT INTO inventory_movements "
+                    + "(product_id, quantity, type, compacted, created_at) VALUES (1, -1, 'ORDER', FALSE, CURRENT_TIMESTAMP)");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            update.close();
+            insert.close();
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int directUpdate(ThreadConnection thread) throws SQLException {
+        int updated = thread.update.executeUpdate();
+        Blackhole.consumeCPU(workTokens);
+        thread.connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public int ledgerInsert(ThreadConnection thread) throws SQLException {
+        int inserted = thread.insert.executeUpdate();
+        Blackhole.consumeCPU(workTokens);
+        thread.connection.commit();
+        return inserted;
+    }
+}
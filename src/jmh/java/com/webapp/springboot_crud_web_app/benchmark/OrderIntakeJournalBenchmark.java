@@ -0,0 +1,80 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webapp.springboot_crud_web_app.ordering.OrderIntakeJournal;
+
+/**
+ * Append throughput of the order intake journal for a typical order payload,
+ * with and without forcing every record to disk before it is acknowledged.
+ * After every iteration the journal is checkpointed to its end, so drained
+ * segments are deleted the way a drain that keeps up would have them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class OrderIntakeJournalBenchmark {
+
+    @Param({"false", "true"})
+    private boolean syncWrites;
+
+    @Param({"512"})
+    private int payloadBytes;
+
+    private Path directory;
+    private OrderIntakeJournal journal;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-intake");
+        journal = new OrderIntakeJournal(directory, 16 * 1024 * 1024, syncWrites);
+        payload = new byte[payloadBytes];
+        ThreadLocalRandom.current().nextBytes(payload);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() throws IOException {
+        journal.checkpoint(journal.append(payload));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public OrderIntakeJournal.Position append() throws IOException {
+        return journal.append(payload);
+    }
+}
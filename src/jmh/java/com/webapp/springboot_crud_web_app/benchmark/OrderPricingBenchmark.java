@@ -0,0 +1,94 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.util.Money;
+
+/**
+ * Time to price an order from its products' prices.
+ * <ul>
+ * <li>{@code bigDecimalPerLine}: each line multiplies and adds {@link BigDecimal}s,
+ * allocating a subtotal and a running total per line.</li>
+ * <li>{@code scaledLongPass}: each distinct product's price is converted to cents
+ * once and the lines are summed as longs, as order creation does.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderPricingBenchmark {
+
+    @Param({"1000"})
+    private int itemCount;
+
+    @Param({"50"})
+    private int productCount;
+
+    private List<Product> lineProducts;
+    private int[] quantities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Product> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setPrice(BigDecimal.valueOf(199 + i * 37L, 2));
+            products.add(product);
+        }
+        lineProducts = new ArrayList<>(itemCount);
+        quantities = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            lineProducts.add(products.get(i % productCount));
+            quantities[i] = 1 + i % 5;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalPerLine() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < quantities.length; i++) {
+            BigDecimal subtotal = lineProducts.get(i).getPrice().multiply(BigDecimal.valueOf(quantities[i]));
+            total = total.add(subtotal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal scaledLongPass() {
+        Map<Long, Long> centsByProductId = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            Product product = lineProducts.get(i);
+            Long cents = centsByProductId.get(product.getId());
+            if (cents == null) {
+                cents = Money.toCents(product.getPrice());
+                centsByProductId.put(product.getId(), cents);
+            }
+            total = Math.addExact(total, Money.times(cents, quantities[i]));
+        }
+        return Money.toBigDecimal(total);
+    }
+}
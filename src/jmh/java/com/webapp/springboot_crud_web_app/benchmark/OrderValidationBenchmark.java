@@ -0,0 +1,134 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+import com.webapp.springboot_crud_web_app.model.Product;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Per-order validation time.
+ * <ul>
+ * <li>{@code boundaryOnly}: the DTO is validated once, as with the BOUNDARY strategy.</li>
+ * <li>{@code boundaryAndEntity}: the DTO and then the order and each item entity
+ * are validated, as Hibernate's pre-insert callbacks did before.</li>
+ * <li>{@code freshValidatorPerOrder}: a validator factory is built for every
+ * order instead of reusing the shared, pre-built one.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderValidationBenchmark {
+
+    @Param({"1", "20", "1000"})
+    private int itemCount;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private OrderDTO orderDTO;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Benchmark Product");
+        product.setPrice(BigDecimal.valueOf(19.99));
+        product.setStock(1_000_000);
+
+        List<OrderItemDTO> itemDTOs = new ArrayList<>(itemCount);
+        order = new Order();
+        order.setCustomerName("Bench Customer");
+        order.setCustomerEmail("bench@example.com");
+        order.setShippingAddress("1 Benchmark Road");
+        order.setStatus(OrderStatus.PENDING);
+        for (int i = 0; i < itemCount; i++) {
+            itemDTOs.add(OrderItemDTO.builder()
+                    .productId(1L)
+                    .quantity(2)
+                    .unitPrice(BigDecimal.valueOf(19.99))
+                    .subtotal(BigDecimal.valueOf(39.98))
+                    .build());
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(2);
+            item.setUnitPrice(BigDecimal.valueOf(19.99));
+            item.setSubtotal(BigDecimal.valueOf(39.98));
+            order.getOrderItems().add(item);
+        }
+        BigDecimal total = BigDecimal.valueOf(39.98).multiply(BigDecimal.valueOf(itemCount));
+        order.setTotalAmount(total);
+
+        orderDTO = OrderDTO.builder()
+                .customerName("Bench Customer")
+                .customerEmail("bench@example.com")
+                .shippingAddress("1 Benchmark Road")
+                .totalAmount(total)
+                .status(OrderStatus.PENDING)
+                .orderItems(itemDTOs)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public int boundaryOnly() {
+        return validator.validate(orderDTO).size();
+    }
+
+    @Benchmark
+    public int boundaryAndEntity() {
+        int violations = validator.validate(orderDTO).size();
+        violations += validator.validate(order).size();
+        for (OrderItem item : order.getOrderItems()) {
+            violations += validator.validate(item).size();
+        }
+        return violations;
+    }
+
+    @Benchmark
+    public int freshValidatorPerOrder() {
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            Set<ConstraintViolation<OrderDTO>> violations = factory.getValidator().validate(orderDTO);
+            return violations.size();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.SpringbootCrudWebAppApplication;
+import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.mapper.ProductMapper;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+
+/**
+ * Listing {@value #ROWS} products in a read-only transaction, the way
+ * {@code ProductService.findAll} used to ({@code stateful}: every product
+ * loaded into the session, which keeps it until the transaction ends) against
+ * the stateless scan it uses now ({@code stateless}: each product mapped as it
+ * is read and dropped). Run with the GC profiler for the heap side:
+ * {@code gc.alloc.rate.norm} is the bytes allocated per listing of
+ * {@value #ROWS} rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReadOnlyListingBenchmark {
+
+    static final int ROWS = 100_000;
+
+    @Param({"stateful", "stateless"})
+    private String read;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductMapper productMapper;
+    private TransactionTemplate readTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringbootCrudWebAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:listing;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "app.search.enabled=false",
+                        "app.logging.sql-samples-per-second=0",
+                        "app.logging.request-samples-per-second=0",
+                        "logging.level.root=WARN")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+        readTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readTransaction.setReadOnly(true);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[] {"Product " + i, "Description of product " + i,
+                    BigDecimal.valueOf(100 + i % 9_900, 2), i % 500, now, now});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO products "
+                + "(name, description, price, stock, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> listProducts() {
+        return readTransaction.execute(status -> "stateful".equals(read)
+                ? productRepository.findAll().stream().map(productMapper::toDTO).collect(Collectors.toList())
+                : productRepository.<ProductDTO>findAllMapped(productMapper::toDTO));
+    }
+}
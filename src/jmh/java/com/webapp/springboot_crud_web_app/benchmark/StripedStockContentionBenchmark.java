@@ -0,0 +1,110 @@
+package com.webapp.springboot_crud_web_app.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Order throughput for a single hot product when its stock is held in 1, 4 or
+ * 16 stripes. Each operation decrements one random stripe and keeps the row
+ * lock for a short simulated amount of work before committing, like an order
+ * transaction that still has its items to insert.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+public class StripedStockContentionBenchmark {
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    @Param({"1", "4", "16"})
+    private int stripes;
+
+    @Param({"2000"})
+    private long workTokens;
+
+    private String url;
+    private Connection keepAlive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        url = "jdbc:h2:mem:stripes" + DATABASE_COUNTER.incrementAndGet() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        keepAlive = DriverManager.getConnection(url);
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE product_stock_stripes (product_id BIGINT NOT NULL, "
+                    + "stripe_index INT NOT NULL, quantity INT NOT NULL, PRIMARY KEY (product_id, stripe_index))");
+        }
+        try (PreparedStatement insert = keepAlive.prepareStatement(
+                "INSERT INTO product_stock_stripes VALUES (1, ?, ?)")) {
+            for (int i = 0; i < stripes; i++) {
+                insert.setInt(1, i);
+                insert.setInt(2, Integer.MAX_VALUE);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadConnection {
+
+        private Connection connection;
+        private PreparedStatement decrement;
+
+        @Setup(Level.Trial)
+        public void setUp(StripedStockContentionBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url);
+            connection.setAutoCommit(false);
+            decrement = connection.prepareStatement("UPDATE product_stock_stripes SET quantity = quantity - 1 "
+                    + "WHERE product_id = 1 AND stripe_index = ? AND quantity >= 1");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            decrement.close();
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int decrementRandomStripe(ThreadConnection thread) throws SQLException {
+        thread.decrement.setInt(1, ThreadLocalRandom.current().nextInt(stripes));
+        int updated = thread.decrement.executeUpdate();
+        Blackhole.consumeCPU(workTokens);
+        thread.connection.commit();
+        return updated;
+    }
+}
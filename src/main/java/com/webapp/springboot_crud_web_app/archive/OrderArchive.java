@@ -0,0 +1,120 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The archived orders: every archive file under {@code app.orders.archive.dir},
+ * one directory per month of order creation ({@code YYYY-MM}). Files are
+ * opened at startup and as the {@link OrderArchiver} finishes them.
+ * <p>
+ * Archived orders are served read-only; lookups check only the files whose
+ * id range covers the id. An order that changed while it was being archived
+ * is archived again later, so it can be in two files; the copy updated last
+ * is served.
+ */
+@Slf4j
+@Component
+public class OrderArchive {
+
+    private static final Comparator<OrderArchiveFile> BY_FIRST_ORDER_ID =
+            Comparator.comparingLong(OrderArchiveFile::firstOrderId);
+    private static final Comparator<OrderDTO> UPDATED_AT =
+            Comparator.comparing(OrderDTO::getUpdatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final boolean enabled;
+    private final Path directory;
+
+    // Replaced as a whole when a file is added, so lookups never lock
+    private volatile List<OrderArchiveFile> files = List.of();
+
+    @Autowired
+    public OrderArchive(@Value("${app.orders.archive.enabled:false}") boolean enabled,
+                        @Value("${app.orders.archive.dir:data/order-archive}") String directory) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<OrderArchiveFile> opened = new ArrayList<>();
+        try (DirectoryStream<Path> months = Files.newDirectoryStream(directory, "[0-9][0-9][0-9][0-9]-[0-9][0-9]")) {
+            for (Path month : months) {
+                try (DirectoryStream<Path> archives = Files.newDirectoryStream(month,
+                        OrderArchiveFile.PREFIX + "*" + OrderArchiveFile.SUFFIX)) {
+                    for (Path archive : archives) {
+                        opened.add(OrderArchiveFile.open(archive));
+                    }
+                }
+            }
+        }
+        opened.sort(BY_FIRST_ORDER_ID);
+        files = List.copyOf(opened);
+        log.info("event=order.archive.opened files={} orders={}",
+                opened.size(), opened.stream().mapToLong(OrderArchiveFile::orderCount).sum());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the directory the archive files of orders created in the month go to
+     */
+    public Path monthDirectory(YearMonth month) {
+        return directory.resolve(month.toString());
+    }
+
+    /**
+     * Makes a finished archive file available to lookups.
+     */
+    public synchronized void add(Path file) throws IOException {
+        List<OrderArchiveFile> updated = new ArrayList<>(files);
+        updated.add(OrderArchiveFile.open(file));
+        updated.sort(BY_FIRST_ORDER_ID);
+        files = List.copyOf(updated);
+    }
+
+    /**
+     * @return the archived order with its items, if it has been archived
+     */
+    public Optional<OrderDTO> find(Long orderId) {
+        if (!enabled || orderId == null) {
+            return Optional.empty();
+        }
+        OrderDTO latest = null;
+        for (OrderArchiveFile file : files) {
+            if (file.firstOrderId() > orderId) {
+                break;
+            }
+            if (file.lastOrderId() >= orderId) {
+                OrderDTO order = file.find(orderId).orElse(null);
+                if (order != null && (latest == null || UPDATED_AT.compare(order, latest) > 0)) {
+                    latest = order;
+                }
+            }
+        }
+        return Optional.ofNullable(latest);
+    }
+}
@@ -0,0 +1,168 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+
+/**
+ * Read-only view of an archive file written by {@link OrderArchiveWriter},
+ * memory-mapped so lookups read only the pages they touch.
+ * <p>
+ * Layout: deflated blocks of orders, then one index entry per block
+ * ({@code firstOrderId (long), offset (long), compressedLength (int),
+ * rawLength (int), crc32 (int)}), then the trailer ({@code indexOffset (long),
+ * blockCount (int), orderCount (long), firstOrderId (long), lastOrderId (long),
+ * version (int), magic (int)}). The index is sparse, one entry per block, and
+ * is read into memory on open; finding an order is a binary search over it
+ * followed by inflating and decoding a single block.
+ * <p>
+ * Files are at most 2 GB, the limit of a single mapping.
+ */
+public final class OrderArchiveFile {
+
+    static final String PREFIX = "orders-";
+    static final String SUFFIX = ".arc";
+    static final int MAGIC = 0x4F415243;
+    static final int VERSION = 1;
+    static final int INDEX_ENTRY_SIZE = 2 * Long.BYTES + 3 * Integer.BYTES;
+    static final int TRAILER_SIZE = 4 * Long.BYTES + 3 * Integer.BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long[] blockFirstIds;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final int[] blockRawLengths;
+    private final int[] blockChecksums;
+    private final long orderCount;
+    private final long firstOrderId;
+    private final long lastOrderId;
+
+    private OrderArchiveFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        int trailer = buffer.capacity() - TRAILER_SIZE;
+        if (trailer < 0 || buffer.getInt(trailer + TRAILER_SIZE - Integer.BYTES) != MAGIC) {
+            throw new IOException("Not an order archive: " + path);
+        }
+        if (buffer.getInt(trailer + TRAILER_SIZE - 2 * Integer.BYTES) != VERSION) {
+            throw new IOException("Unsupported order archive version: " + path);
+        }
+        long indexOffset = buffer.getLong(trailer);
+        int blockCount = buffer.getInt(trailer + Long.BYTES);
+        this.orderCount = buffer.getLong(trailer + Long.BYTES + Integer.BYTES);
+        this.firstOrderId = buffer.getLong(trailer + 2 * Long.BYTES + Integer.BYTES);
+        this.lastOrderId = buffer.getLong(trailer + 3 * Long.BYTES + Integer.BYTES);
+
+        blockFirstIds = new long[blockCount];
+        blockOffsets = new long[blockCount];
+        blockLengths = new int[blockCount];
+        blockRawLengths = new int[blockCount];
+        blockChecksums = new int[blockCount];
+        int entry = (int) indexOffset;
+        for (int i = 0; i < blockCount; i++, entry += INDEX_ENTRY_SIZE) {
+            blockFirstIds[i] = buffer.getLong(entry);
+            blockOffsets[i] = buffer.getLong(entry + Long.BYTES);
+            blockLengths[i] = buffer.getInt(entry + 2 * Long.BYTES);
+            blockRawLengths[i] = buffer.getInt(entry + 2 * Long.BYTES + Integer.BYTES);
+            blockChecksums[i] = buffer.getInt(entry + 2 * Long.BYTES + 2 * Integer.BYTES);
+        }
+    }
+
+    public static OrderArchiveFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Order archive too large to map: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            return new OrderArchiveFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static String fileName(long firstOrderId, long lastOrderId) {
+        return PREFIX + firstOrderId + "-" + lastOrderId + SUFFIX;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long orderCount() {
+        return orderCount;
+    }
+
+    public long firstOrderId() {
+        return firstOrderId;
+    }
+
+    public long lastOrderId() {
+        return lastOrderId;
+    }
+
+    /**
+     * @return the archived order with its items, if this file holds it
+     */
+    public Optional<OrderDTO> find(long orderId) {
+        if (orderId < firstOrderId || orderId > lastOrderId) {
+            return Optional.empty();
+        }
+        // The last block starting at or before the id
+        int block = Arrays.binarySearch(blockFirstIds, orderId);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        List<OrderDTO> orders = readBlock(block);
+        int low = 0;
+        int high = orders.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long id = orders.get(middle).getId();
+            if (id < orderId) {
+                low = middle + 1;
+            } else if (id > orderId) {
+                high = middle - 1;
+            } else {
+                return Optional.of(orders.get(middle));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<OrderDTO> readBlock(int block) {
+        ByteBuffer compressed = buffer.slice((int) blockOffsets[block], blockLengths[block]);
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != blockChecksums[block]) {
+            throw new IllegalStateException("Corrupt block " + block + " in order archive " + path);
+        }
+        byte[] raw = new byte[blockRawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while (inflated < raw.length && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, raw.length - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated block");
+                }
+                inflated += count;
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt block " + block + " in order archive " + path, ex);
+        } finally {
+            inflater.end();
+        }
+        return OrderBlockCodec.decode(ByteBuffer.wrap(raw));
+    }
+}
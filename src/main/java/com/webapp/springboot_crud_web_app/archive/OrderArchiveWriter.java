@@ -0,0 +1,164 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+
+/**
+ * Writes one archive file of orders, appended in ascending id order.
+ * <p>
+ * Orders are gathered into blocks of {@code blockSize}, and each block is
+ * encoded column by column ({@link OrderBlockCodec}), deflated and written
+ * out. The file ends with a sparse index holding each block's first order id
+ * and location, then a fixed-size trailer; see {@link OrderArchiveFile} for
+ * the layout. The file is written under a temporary name and only appears
+ * under its final name, {@code orders-<firstId>-<lastId>.arc}, once
+ * {@link #finish()} has forced it to disk.
+ */
+public final class OrderArchiveWriter implements Closeable {
+
+    private final Path directory;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final int blockSize;
+    private final List<OrderDTO> pending = new ArrayList<>();
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final List<Long> orderIds = new ArrayList<>();
+    private final Deflater deflater = new Deflater();
+
+    private long position;
+    private int blockCount;
+    private boolean finished;
+
+    public OrderArchiveWriter(Path directory, int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.directory = directory;
+        this.blockSize = blockSize;
+        Files.createDirectories(directory);
+        this.temporary = Files.createTempFile(directory, "orders-", OrderArchiveFile.SUFFIX + ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * @param order an order with its items; its id must be above every id appended before
+     */
+    public void append(OrderDTO order) throws IOException {
+        if (!orderIds.isEmpty() && order.getId() <= orderIds.get(orderIds.size() - 1)) {
+            throw new IllegalArgumentException("Orders must be appended in ascending id order, got " + order.getId()
+                    + " after " + orderIds.get(orderIds.size() - 1));
+        }
+        pending.add(order);
+        orderIds.add(order.getId());
+        if (pending.size() == blockSize) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * @return the ids of the orders appended so far, ascending
+     */
+    public List<Long> orderIds() {
+        return orderIds;
+    }
+
+    /**
+     * @return the number of bytes of blocks written so far
+     */
+    public long size() {
+        return position;
+    }
+
+    /**
+     * Writes the last block, the index and the trailer, forces the file to disk
+     * and moves it to its final name.
+     *
+     * @return the finished archive file
+     */
+    public Path finish() throws IOException {
+        if (orderIds.isEmpty()) {
+            throw new IllegalStateException("An archive file needs at least one order");
+        }
+        if (!pending.isEmpty()) {
+            writeBlock();
+        }
+        long indexOffset = position;
+        write(ByteBuffer.wrap(index.toByteArray()));
+        ByteBuffer trailer = ByteBuffer.allocate(OrderArchiveFile.TRAILER_SIZE);
+        trailer.putLong(indexOffset)
+                .putInt(blockCount)
+                .putLong(orderIds.size())
+                .putLong(orderIds.get(0))
+                .putLong(orderIds.get(orderIds.size() - 1))
+                .putInt(OrderArchiveFile.VERSION)
+                .putInt(OrderArchiveFile.MAGIC);
+        write(trailer.flip());
+        channel.force(true);
+        channel.close();
+
+        Path target = directory.resolve(OrderArchiveFile.fileName(orderIds.get(0), orderIds.get(orderIds.size() - 1)));
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+        deflater.end();
+        return target;
+    }
+
+    /**
+     * Discards the file unless it has been finished.
+     */
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        deflater.end();
+        channel.close();
+        Files.deleteIfExists(temporary);
+    }
+
+    private void writeBlock() throws IOException {
+        byte[] raw = OrderBlockCodec.encode(pending);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+        byte[] block = compressed.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(block);
+
+        ByteBuffer entry = ByteBuffer.allocate(OrderArchiveFile.INDEX_ENTRY_SIZE);
+        entry.putLong(pending.get(0).getId())
+                .putLong(position)
+                .putInt(block.length)
+                .putInt(raw.length)
+                .putInt((int) crc.getValue());
+        index.writeBytes(entry.array());
+
+        write(ByteBuffer.wrap(block));
+        blockCount++;
+        pending.clear();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.mapper.OrderMapper;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository.OrderVersion;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves delivered orders created more than {@code older-than-months} months
+ * ago out of the database and into the {@link OrderArchive}.
+ * <p>
+ * Works one month of order creation at a time: the month's delivered orders
+ * are read in id order, {@code batch-size} at a time with their items, and
+ * streamed into an archive file, starting a new file past
+ * {@value #MAX_FILE_BYTES} bytes. Only once a file is on disk are its orders
+ * deleted, again {@code batch-size} per transaction, so an order is always in
+ * the database, the archive, or both. The delete transaction locks the orders
+ * and deletes only those still delivered and not updated since they were
+ * read, so an order that changed in between keeps its database row. An order
+ * left in both places, by such a change or a failure, is archived again on
+ * the next run. The copies may then differ: the database row is what
+ * {@code findById} reads first, and the archive serves the most recently
+ * updated copy.
+ */
+@Slf4j
+@Component
+public class OrderArchiver {
+
+    static final int BLOCK_SIZE = 128;
+    static final long MAX_FILE_BYTES = 256L * 1024 * 1024;
+
+    private final OrderArchive orderArchive;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderMapper orderMapper;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Clock clock;
+    private final int olderThanMonths;
+    private final int batchSize;
+
+    @Autowired
+    public OrderArchiver(OrderArchive orderArchive, OrderRepository orderRepository,
+                         OrderItemRepository orderItemRepository, OrderMapper orderMapper,
+                         PlatformTransactionManager transactionManager, Clock clock,
+                         @Value("${app.orders.archive.older-than-months:12}") int olderThanMonths,
+                         @Value("${app.orders.archive.batch-size:500}") int batchSize) {
+        this.orderArchive = orderArchive;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderMapper = orderMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.olderThanMonths = olderThanMonths;
+        this.batchSize = Math.min(batchSize, BatchUtils.MAX_IN_CLAUSE_SIZE);
+    }
+
+    @Scheduled(cron = "${app.orders.archive.cron:0 45 3 * * *}")
+    public void run() {
+        if (!orderArchive.isEnabled()) {
+            return;
+        }
+        try {
+            archive();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("event=order.archive.failed error={}", ex.toString());
+        }
+    }
+
+    /**
+     * Archives every delivered order created before the start of the month
+     * {@code older-than-months} months back.
+     *
+     * @return the number of orders archived
+     */
+    public long archive() throws IOException {
+        YearMonth cutoff = YearMonth.now(clock).minusMonths(olderThanMonths);
+        LocalDateTime oldest = readTransaction.execute(status -> orderRepository
+                .findMinCreatedAtByStatusAndCreatedAtBefore(OrderStatus.DELIVERED, startOf(cutoff)));
+        if (oldest == null) {
+            return 0;
+        }
+        long archived = 0;
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            archived += archiveMonth(month);
+        }
+        return archived;
+    }
+
+    /**
+     * Archives, then deletes, the delivered orders created in the month.
+     *
+     * @return the number of orders archived
+     */
+    long archiveMonth(YearMonth month) throws IOException {
+        LocalDateTime from = startOf(month);
+        LocalDateTime before = startOf(month.plusMonths(1));
+        long archived = 0;
+        long afterId = 0;
+        OrderArchiveWriter writer = null;
+        // Update time of each order in the current file, as it was written
+        Map<Long, LocalDateTime> updatedAtById = new HashMap<>();
+        try {
+            List<OrderDTO> batch;
+            while (!(batch = readBatch(from, before, afterId)).isEmpty()) {
+                if (writer == null) {
+                    writer = new OrderArchiveWriter(orderArchive.monthDirectory(month), BLOCK_SIZE);
+                }
+                for (OrderDTO order : batch) {
+                    writer.append(order);
+                    updatedAtById.put(order.getId(), order.getUpdatedAt());
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+                if (writer.size() >= MAX_FILE_BYTES) {
+                    archived += complete(writer, updatedAtById, month, from, before);
+                    writer = null;
+                    updatedAtById.clear();
+                }
+            }
+            if (writer != null) {
+                archived += complete(writer, updatedAtById, month, from, before);
+                writer = null;
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        return archived;
+    }
+
+    private List<OrderDTO> readBatch(LocalDateTime from, LocalDateTime before, long afterId) {
+        return readTransaction.execute(status -> {
+            List<Long> ids = orderRepository.findIdsByStatusAndCreatedAtBetweenAfter(
+                    OrderStatus.DELIVERED, from, before, afterId, PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            List<OrderDTO> orders = new ArrayList<>(ids.size());
+            for (Order order : orderRepository.findAllWithItemsByIdInAndCreatedAtBetween(ids, from, before)) {
+                OrderDTO orderDTO = orderMapper.toDTO(order);
+                orderDTO.getOrderItems().sort(Comparator.comparing(OrderItemDTO::getId));
+                orders.add(orderDTO);
+            }
+            orders.sort(Comparator.comparing(OrderDTO::getId));
+            return orders;
+        });
+    }
+
+    /**
+     * Finishes the file, makes it readable, then deletes its orders from the
+     * database, except those changed since they were written.
+     *
+     * @param updatedAtById the update time of each order in the file, as written
+     * @return the number of orders in the file
+     */
+    private int complete(OrderArchiveWriter writer, Map<Long, LocalDateTime> updatedAtById, YearMonth month,
+                         LocalDateTime from, LocalDateTime before) throws IOException {
+        List<Long> orderIds = writer.orderIds();
+        Path file = writer.finish();
+        orderArchive.add(file);
+        log.info("event=order.archive.written month={} file={} orders={} bytes={}",
+                month, file.getFileName(), orderIds.size(), writer.size());
+
+        int deleted = 0;
+        for (List<Long> chunk : BatchUtils.partition(orderIds, batchSize)) {
+            Integer count = writeTransaction.execute(status -> {
+                // Locked, so none can change between this check and the deletes
+                List<Long> unchangedIds = new ArrayList<>(chunk.size());
+                for (OrderVersion version : orderRepository.findVersionsByIdInAndStatusForUpdate(
+                        chunk, OrderStatus.DELIVERED)) {
+                    if (Objects.equals(version.getUpdatedAt(), updatedAtById.get(version.getId()))) {
+                        unchangedIds.add(version.getId());
+                    }
+                }
+                if (unchangedIds.isEmpty()) {
+                    return 0;
+                }
+                orderItemRepository.deleteByOrderIdInAndOrderStatusAndOrderCreatedAtBetween(
+                        unchangedIds, OrderStatus.DELIVERED, from, before);
+                return orderRepository.deleteByIdInAndStatusAndCreatedAtBetween(
+                        unchangedIds, OrderStatus.DELIVERED, from, before);
+            });
+            deleted += count != null ? count : 0;
+        }
+        log.info("event=order.archive.deleted month={} orders={} kept={}", month, deleted, orderIds.size() - deleted);
+        return orderIds.size();
+    }
+
+    private static LocalDateTime startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay();
+    }
+}
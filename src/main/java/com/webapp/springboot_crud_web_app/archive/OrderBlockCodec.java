@@ -0,0 +1,234 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.util.Money;
+
+/**
+ * Column-wise encoding of a block of orders, ascending by id, and their items.
+ * <p>
+ * Each field is written for every order of the block before the next field,
+ * so similar values sit together and compress well: ids and creation times as
+ * deltas from the previous order, update times relative to creation, amounts
+ * as cents, all as variable-length integers, and strings as length-prefixed
+ * UTF-8. The items of all orders follow as columns of their own, after a
+ * column with each order's item count.
+ */
+final class OrderBlockCodec {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private OrderBlockCodec() {
+    }
+
+    static byte[] encode(List<OrderDTO> orders) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(orders.size() * 128);
+        writeUnsigned(out, orders.size());
+
+        long previousId = 0;
+        for (OrderDTO order : orders) {
+            writeUnsigned(out, order.getId() - previousId);
+            previousId = order.getId();
+        }
+        for (OrderDTO order : orders) {
+            out.write(order.getStatus().ordinal());
+        }
+        long previousCreatedAt = 0;
+        for (OrderDTO order : orders) {
+            long createdAt = toMicros(order.getCreatedAt());
+            writeSigned(out, createdAt - previousCreatedAt);
+            previousCreatedAt = createdAt;
+        }
+        for (OrderDTO order : orders) {
+            // 0 for no update time, otherwise one more than the zigzagged offset from creation
+            LocalDateTime updatedAt = order.getUpdatedAt();
+            writeUnsigned(out, updatedAt == null ? 0
+                    : zigzag(toMicros(updatedAt) - toMicros(order.getCreatedAt())) + 1);
+        }
+        for (OrderDTO order : orders) {
+            writeSigned(out, Money.toCents(order.getTotalAmount()));
+        }
+        for (OrderDTO order : orders) {
+            writeString(out, order.getCustomerName());
+        }
+        for (OrderDTO order : orders) {
+            writeString(out, order.getCustomerEmail());
+        }
+        for (OrderDTO order : orders) {
+            writeString(out, order.getShippingAddress());
+        }
+
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (OrderDTO order : orders) {
+            writeUnsigned(out, order.getOrderItems().size());
+            items.addAll(order.getOrderItems());
+        }
+        long previousItemId = 0;
+        for (OrderItemDTO item : items) {
+            writeSigned(out, item.getId() - previousItemId);
+            previousItemId = item.getId();
+        }
+        for (OrderItemDTO item : items) {
+            writeUnsigned(out, item.getProductId());
+        }
+        for (OrderItemDTO item : items) {
+            writeUnsigned(out, item.getQuantity());
+        }
+        for (OrderItemDTO item : items) {
+            writeSigned(out, Money.toCents(item.getUnitPrice()));
+        }
+        for (OrderItemDTO item : items) {
+            writeSigned(out, Money.toCents(item.getSubtotal()));
+        }
+        return out.toByteArray();
+    }
+
+    static List<OrderDTO> decode(ByteBuffer in) {
+        int count = (int) readUnsigned(in);
+        List<OrderDTO> orders = new ArrayList<>(count);
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += readUnsigned(in);
+            OrderDTO order = new OrderDTO();
+            order.setId(id);
+            orders.add(order);
+        }
+        for (OrderDTO order : orders) {
+            order.setStatus(STATUSES[in.get()]);
+        }
+        long createdAt = 0;
+        for (OrderDTO order : orders) {
+            createdAt += readSigned(in);
+            order.setCreatedAt(fromMicros(createdAt));
+        }
+        for (OrderDTO order : orders) {
+            long updatedAt = readUnsigned(in);
+            if (updatedAt != 0) {
+                order.setUpdatedAt(fromMicros(toMicros(order.getCreatedAt()) + unzigzag(updatedAt - 1)));
+            }
+        }
+        for (OrderDTO order : orders) {
+            order.setTotalAmount(Money.toBigDecimal(readSigned(in)));
+        }
+        for (OrderDTO order : orders) {
+            order.setCustomerName(readString(in));
+        }
+        for (OrderDTO order : orders) {
+            order.setCustomerEmail(readString(in));
+        }
+        for (OrderDTO order : orders) {
+            order.setShippingAddress(readString(in));
+        }
+
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (OrderDTO order : orders) {
+            int itemCount = (int) readUnsigned(in);
+            List<OrderItemDTO> orderItems = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                OrderItemDTO item = new OrderItemDTO();
+                item.setOrderId(order.getId());
+                orderItems.add(item);
+            }
+            order.setOrderItems(orderItems);
+            items.addAll(orderItems);
+        }
+        long itemId = 0;
+        for (OrderItemDTO item : items) {
+            itemId += readSigned(in);
+            item.setId(itemId);
+        }
+        for (OrderItemDTO item : items) {
+            item.setProductId(readUnsigned(in));
+        }
+        for (OrderItemDTO item : items) {
+            item.setQuantity((int) readUnsigned(in));
+        }
+        for (OrderItemDTO item : items) {
+            item.setUnitPrice(Money.toBigDecimal(readSigned(in)));
+        }
+        for (OrderItemDTO item : items) {
+            item.setSubtotal(Money.toBigDecimal(readSigned(in)));
+        }
+        return orders;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        Instant instant = time.toInstant(ZoneOffset.UTC);
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeUnsigned(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(out, bytes.length + 1L);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readUnsigned(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeSigned(ByteArrayOutputStream out, long value) {
+        writeUnsigned(out, zigzag(value));
+    }
+
+    private static long readSigned(ByteBuffer in) {
+        return unzigzag(readUnsigned(in));
+    }
+
+    /**
+     * Seven bits per byte, low bits first; the high bit marks that more bytes follow.
+     */
+    private static void writeUnsigned(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readUnsigned(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // Maps small negative numbers to small positive ones: 0, -1, 1, -2 -> 0, 1, 2, 3
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
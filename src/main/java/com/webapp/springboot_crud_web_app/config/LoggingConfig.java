@@ -0,0 +1,41 @@
+package com.webapp.springboot_crud_web_app.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.webapp.springboot_crud_web_app.logging.RateLimitedSampler;
+import com.webapp.springboot_crud_web_app.logging.SampledRequestLoggingFilter;
+import com.webapp.springboot_crud_web_app.logging.SampledSqlStatementInspector;
+
+/**
+ * Configuration for sampled SQL and request logging.
+ * Rates are set with {@code app.logging.sql-samples-per-second} and
+ * {@code app.logging.request-samples-per-second}; 0 turns sampling off.
+ */
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sampledSqlLoggingCustomizer(
+            @Value("${app.logging.sql-samples-per-second:0}") int samplesPerSecond) {
+        return properties -> {
+            if (samplesPerSecond > 0) {
+                properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                        new SampledSqlStatementInspector(new RateLimitedSampler(samplesPerSecond)));
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SampledRequestLoggingFilter> sampledRequestLoggingFilter(
+            @Value("${app.logging.request-samples-per-second:0}") int samplesPerSecond) {
+        FilterRegistrationBean<SampledRequestLoggingFilter> registration =
+                new FilterRegistrationBean<>(new SampledRequestLoggingFilter(new RateLimitedSampler(samplesPerSecond)));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,175 @@
+package com.webapp.springboot_crud_web_app.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
+import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
+import com.webapp.springboot_crud_web_app.mapper.OrderMapper;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.OrderItemService;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+import com.webapp.springboot_crud_web_app.sharding.OrderShardRouter;
+import com.webapp.springboot_crud_web_app.sharding.ShardRoutingDataSource;
+import com.webapp.springboot_crud_web_app.sharding.ShardedOrderItemService;
+import com.webapp.springboot_crud_web_app.sharding.ShardedOrderService;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Orders sharded by customer email, on with {@code app.orders.sharding.enabled}.
+ * Shard 0 is the main database, configured as usual under
+ * {@code spring.datasource}; shards 1 and up are listed under
+ * {@code app.orders.sharding.shards}, with the same keys, and get their schema
+ * from {@code order-shard-schema.sql} at startup. Each shard's pool reports its
+ * Hikari metrics, tagged {@code pool=shard-N}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.orders.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    static final String SHARD_SCHEMA = "order-shard-schema.sql";
+
+    // Each of these keeps state about orders or stock on the main database only
+    private static final Map<String, String> INCOMPATIBLE = Map.of(
+            "app.datasource.routing.enabled", "true",
+            "app.orders.group-commit.enabled", "true",
+            "app.orders.intake.enabled", "true",
+            "app.orders.partitions.enabled", "true",
+            "app.orders.archive.enabled", "true",
+            "app.inventory.engine.enabled", "true",
+            "app.inventory.ledger.enabled", "true");
+
+    @Bean(destroyMethod = "close")
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                         MeterRegistry meterRegistry) throws IOException {
+        checkCompatible(environment);
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> extraShards = binder
+                .bind("app.orders.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .orElseGet(List::of);
+        if (extraShards.size() + 1 > OrderShardRouter.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + (OrderShardRouter.MAX_SHARDS - 1)
+                    + " shards can be listed under app.orders.sharding.shards");
+        }
+
+        List<HikariDataSource> pools = new ArrayList<>(extraShards.size() + 1);
+        pools.add(pool(properties, binder, "spring.datasource.hikari", 0, meterRegistry));
+        for (int i = 0; i < extraShards.size(); i++) {
+            DataSourceProperties shardProperties = extraShards.get(i);
+            if (!StringUtils.hasText(shardProperties.getUrl())) {
+                throw new IllegalStateException("app.orders.sharding.shards[" + i + "].url is required");
+            }
+            HikariDataSource pool = pool(shardProperties, binder,
+                    "app.orders.sharding.shards[" + i + "].hikari", i + 1, meterRegistry);
+            pools.add(pool);
+            createSchema(pool, i + 1);
+        }
+        return new ShardRoutingDataSource(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Hibernate otherwise holds a connection for the whole request (open session
+     * in view), so the first transaction of a request would pick the shard for
+     * all of them.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionPerTransactionCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean(destroyMethod = "close")
+    public OrderShardRouter orderShardRouter(ShardRoutingDataSource shardRoutingDataSource) {
+        return new OrderShardRouter(shardRoutingDataSource.getResolvedDataSources().size());
+    }
+
+    @Bean
+    @Primary
+    public OrderService shardedOrderService(@Qualifier("orderServiceImpl") OrderService orderService,
+                                            OrderShardRouter router, OrderRepository orderRepository,
+                                            OrderItemRepository orderItemRepository,
+                                            ProductRepository productRepository, OrderMapper orderMapper,
+                                            OrderItemMapper orderItemMapper, StockMutator stockMutator,
+                                            StockReservationService reservationService,
+                                            PlatformTransactionManager transactionManager) {
+        return new ShardedOrderService(orderService, router, orderRepository, orderItemRepository,
+                productRepository, orderMapper, orderItemMapper, stockMutator, reservationService,
+                transactionManager);
+    }
+
+    @Bean
+    @Primary
+    public OrderItemService shardedOrderItemService(OrderShardRouter router,
+                                                    OrderItemRepository orderItemRepository,
+                                                    OrderRepository orderRepository,
+                                                    ProductRepository productRepository,
+                                                    OrderItemMapper orderItemMapper, StockMutator stockMutator,
+                                                    PlatformTransactionManager transactionManager) {
+        return new ShardedOrderItemService(router, orderItemRepository, orderRepository, productRepository,
+                orderItemMapper, stockMutator, transactionManager);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Binder binder, String hikariPrefix,
+                                         int shard, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("shard-" + shard);
+        dataSource.setMetricRegistry(meterRegistry);
+        return dataSource;
+    }
+
+    private static void createSchema(DataSource dataSource, int shard) throws IOException {
+        long firstOrderId = OrderShardRouter.firstId(shard);
+        String script = new ClassPathResource(SHARD_SCHEMA).getContentAsString(StandardCharsets.UTF_8)
+                .replace("${first_order_id}", Long.toString(firstOrderId))
+                .replace("${first_order_item_id}", Long.toString(firstOrderId - 1 + 50));
+        new ResourceDatabasePopulator(new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8), SHARD_SCHEMA))
+                .execute(dataSource);
+    }
+
+    private static void checkCompatible(Environment environment) {
+        INCOMPATIBLE.forEach((key, value) -> {
+            if (value.equalsIgnoreCase(environment.getProperty(key, ""))) {
+                throw new IllegalStateException(key + " cannot be used with app.orders.sharding.enabled");
+            }
+        });
+        if (environment.getProperty("app.inventory.stripes", Integer.class, 0) > 0) {
+            throw new IllegalStateException("app.inventory.stripes cannot be used with app.orders.sharding.enabled");
+        }
+    }
+}
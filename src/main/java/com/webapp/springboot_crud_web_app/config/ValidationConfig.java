@@ -0,0 +1,29 @@
+package com.webapp.springboot_crud_web_app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.webapp.springboot_crud_web_app.validation.ValidationStrategy;
+
+/**
+ * Configuration for where Bean Validation runs.
+ * <p>
+ * Request DTOs are always validated by {@code @Valid} in the controllers. With the
+ * default {@link ValidationStrategy#BOUNDARY} strategy Hibernate's pre-insert and
+ * pre-update validation of the entities is switched off, so the same constraints
+ * are not evaluated a second time on every write.
+ */
+@Configuration
+public class ValidationConfig {
+
+    static final String VALIDATION_MODE_PROPERTY = "jakarta.persistence.validation.mode";
+
+    @Bean
+    public HibernatePropertiesCustomizer entityValidationModeCustomizer(
+            @Value("${app.validation.strategy:BOUNDARY}") ValidationStrategy strategy) {
+        return properties -> properties.put(VALIDATION_MODE_PROPERTY,
+                strategy == ValidationStrategy.BOUNDARY_AND_ENTITY ? "CALLBACK" : "NONE");
+    }
+}
@@ -1,9 +1,13 @@
 package com.webapp.springboot_crud_web_app.controller;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,12 +16,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
 import com.webapp.springboot_crud_web_app.exception.ErrorResponse;
+import com.webapp.springboot_crud_web_app.inventory.LockRetryExecutor;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.ordering.OrderGroupCommitter;
 import com.webapp.springboot_crud_web_app.service.OrderService;
+import com.webapp.springboot_crud_web_app.validation.BulkValidator;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -37,28 +49,133 @@ import jakarta.validation.Valid;
 public class OrderController {
 
     private final OrderService orderService;
+    private final LockRetryExecutor lockRetryExecutor;
+    private final OrderGroupCommitter orderGroupCommitter;
+    private final BulkValidator bulkValidator;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, LockRetryExecutor lockRetryExecutor,
+                           OrderGroupCommitter orderGroupCommitter, BulkValidator bulkValidator) {
         this.orderService = orderService;
+        this.lockRetryExecutor = lockRetryExecutor;
+        this.orderGroupCommitter = orderGroupCommitter;
+        this.bulkValidator = bulkValidator;
     }
 
     /**
-     * GET /api/orders : Get all orders.
+     * GET /api/orders?status=PENDING&createdFrom=... : Get all orders, or the newest orders matching a filter.
      *
+     * @param status        the statuses to include
+     * @param createdFrom   the earliest creation time, inclusive
+     * @param createdBefore the creation time to stop before
+     * @param limit         the maximum number of filtered orders to return
      * @return the ResponseEntity with status 200 (OK) and the list of orders in body
      */
     @GetMapping
-    @Operation(summary = "Get all orders", description = "Returns a list of all available orders")
+    @Operation(summary = "Get all orders", description = "Returns a list of all available orders; with status, createdFrom or createdBefore, only the newest matching orders")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderDTO.class)))
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Limit out of range")
+    })
+    public ResponseEntity<List<OrderDTO>> getAllOrders(
+            @Parameter(description = "Comma-separated statuses to include, e.g. PENDING,CONFIRMED")
+            @RequestParam(required = false) Set<OrderStatus> status,
+            @Parameter(description = "Created at or after, e.g. 2025-01-01T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Created before, e.g. 2025-01-01T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @Parameter(description = "Maximum number of filtered orders, newest first, at most 1000")
+            @RequestParam(defaultValue = "100") int limit) {
+        if (status == null && createdFrom == null && createdBefore == null) {
+            return ResponseEntity.ok().body(orderService.findAll());
+        }
+        List<OrderDTO> orders = orderService.findAllFiltered(status, createdFrom, createdBefore, limit);
+        return ResponseEntity.ok().body(orders);
+    }
+
+    /**
+     * GET /api/orders?fields=id,customerName&include=items : Get all orders with only the requested fields.
+     *
+     * @param fields  the comma-separated fields to return
+     * @param include the comma-separated associations to embed
+     * @return the ResponseEntity with status 200 (OK) and the list of narrowed orders in body
+     */
+    @GetMapping(params = {"fields", "!ids"})
+    @Operation(summary = "Get all orders with selected fields", description = "Returns all orders, reading and returning only the requested fields; items are embedded only with include=items")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of orders"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested")
     })
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.findAll();
+    public ResponseEntity<List<Map<String, Object>>> getAllOrdersWithFields(
+            @Parameter(description = "Comma-separated fields to return, e.g. id,customerName,totalAmount", required = true)
+            @RequestParam String fields,
+            @Parameter(description = "Associations to embed, e.g. items")
+            @RequestParam(required = false) String include) {
+        List<Map<String, Object>> orders = orderService.findAllWithFields(fields, include);
         return ResponseEntity.ok().body(orders);
     }
 
+    /**
+     * GET /api/orders?ids=1,2,3 : Get several orders by id in one call.
+     *
+     * @param ids the ids of the orders to retrieve
+     * @return the ResponseEntity with status 200 (OK) and the found orders and missing ids in body
+     */
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get orders by IDs", description = "Returns the orders matching the provided IDs and reports the IDs that were not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved orders")
+    })
+    public ResponseEntity<BatchResultDTO<OrderDTO>> getOrdersByIds(
+            @Parameter(description = "Comma-separated IDs of the orders to retrieve", required = true)
+            @RequestParam List<Long> ids) {
+        BatchResultDTO<OrderDTO> result = orderService.findAllByIds(ids);
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * POST /api/orders/by-ids : Get several orders by id, for id lists too long for a query string.
+     *
+     * @param ids the ids of the orders to retrieve
+     * @return the ResponseEntity with status 200 (OK) and the found orders and missing ids in body
+     */
+    @PostMapping("/by-ids")
+    @Operation(summary = "Get orders by IDs (long lists)", description = "Same as GET /api/orders?ids=..., with the IDs supplied as a JSON array in the request body")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    public ResponseEntity<BatchResultDTO<OrderDTO>> getOrdersByIdList(
+            @Parameter(description = "IDs of the orders to retrieve", required = true)
+            @RequestBody List<Long> ids) {
+        BatchResultDTO<OrderDTO> result = orderService.findAllByIds(ids);
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * POST /api/orders/status-transitions : Move many orders to one status.
+     *
+     * @param transition the order IDs and the target status
+     * @return the ResponseEntity with status 200 (OK) and with body the IDs that were and were not moved
+     */
+    @PostMapping("/status-transitions")
+    @Operation(summary = "Move orders to a status",
+            description = "Moves every listed order whose current status allows it to the target status in one update "
+                    + "(PENDING -> CONFIRMED -> SHIPPED -> DELIVERED; PENDING or CONFIRMED -> CANCELLED)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transition applied; see changedIds and unchangedIds",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderStatusTransitionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input or a status no order can move to")
+    })
+    public ResponseEntity<OrderStatusTransitionDTO> transitionOrderStatus(
+            @Parameter(description = "Order IDs and target status", required = true)
+            @Valid @RequestBody OrderStatusTransitionDTO transition) {
+        OrderStatusTransitionDTO result = lockRetryExecutor.execute("order.status.transition",
+                () -> orderService.transitionStatus(transition.getIds(), transition.getStatus()));
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * GET /api/orders/{id} : Get order by id.
      *
@@ -89,12 +206,16 @@ public class OrderController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order successfully created",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = OrderDTO.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input")
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Product or reservation not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     public ResponseEntity<OrderDTO> createOrder(
             @Parameter(description = "Order data to create", required = true, schema = @Schema(implementation = OrderDTO.class))
             @Valid @RequestBody OrderDTO orderDTO) {
-        OrderDTO result = orderService.create(orderDTO);
+        OrderDTO result = orderGroupCommitter.isEnabled()
+                ? orderGroupCommitter.create(orderDTO)
+                : lockRetryExecutor.execute("order.create", () -> orderService.create(orderDTO));
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
                 .path("/{id}")
@@ -126,6 +247,73 @@ public class OrderController {
         return ResponseEntity.ok().body(result);
     }
 
+    /**
+     * GET /api/orders/{id}/items : Get the items of an order.
+     *
+     * @param id the id of the order
+     * @return the ResponseEntity with status 200 (OK) and the order's items in body
+     */
+    @GetMapping("/{id}/items")
+    @Operation(summary = "Get order items", description = "Returns the items of the order with the provided ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved order items"),
+            @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public ResponseEntity<List<OrderItemDTO>> getOrderItems(
+            @Parameter(description = "ID of the order", required = true)
+            @PathVariable Long id) {
+        List<OrderItemDTO> items = orderService.findItems(id);
+        return ResponseEntity.ok().body(items);
+    }
+
+    /**
+     * POST /api/orders/{id}/items : Add items to an order.
+     *
+     * @param id    the id of the order
+     * @param items the items to add
+     * @return the ResponseEntity with status 200 (OK) and with body the order with all of its items
+     */
+    @PostMapping("/{id}/items")
+    @Operation(summary = "Add order items", description = "Adds any number of items to the order in one request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items successfully added"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or insufficient stock"),
+            @ApiResponse(responseCode = "404", description = "Order or product not found")
+    })
+    public ResponseEntity<OrderDTO> addOrderItems(
+            @Parameter(description = "ID of the order", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Items to add; orderId is taken from the path", required = true)
+            @RequestBody List<OrderItemDTO> items) {
+        bulkValidator.validateAll(items, "items");
+        OrderDTO result = lockRetryExecutor.execute("order.items.add", () -> orderService.addItems(id, items));
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * PUT /api/orders/{id}/items : Replace all items of an order.
+     *
+     * @param id    the id of the order
+     * @param items the order's new items
+     * @return the ResponseEntity with status 200 (OK) and with body the order with its new items
+     */
+    @PutMapping("/{id}/items")
+    @Operation(summary = "Replace order items", description = "Replaces all items of the order in one request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items successfully replaced"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or insufficient stock"),
+            @ApiResponse(responseCode = "404", description = "Order or product not found")
+    })
+    public ResponseEntity<OrderDTO> replaceOrderItems(
+            @Parameter(description = "ID of the order", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "The order's new items; orderId is taken from the path", required = true)
+            @RequestBody List<OrderItemDTO> items) {
+        bulkValidator.validateAll(items, "items");
+        OrderDTO result = lockRetryExecutor.execute("order.items.replace", () -> orderService.replaceItems(id, items));
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * DELETE /api/orders/{id} : Delete a order.
      *
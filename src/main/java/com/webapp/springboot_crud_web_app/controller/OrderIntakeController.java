@@ -0,0 +1,87 @@
+package com.webapp.springboot_crud_web_app.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderIntakeDTO;
+import com.webapp.springboot_crud_web_app.exception.ErrorResponse;
+import com.webapp.springboot_crud_web_app.ordering.OrderIntake;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+/**
+ * REST controller for accept-then-persist order placement.
+ */
+@RestController
+@RequestMapping("/api/order-intake")
+@Tag(name = "Order Intake", description = "Order placement that does not wait for the database")
+public class OrderIntakeController {
+
+    private final OrderIntake orderIntake;
+
+    @Autowired
+    public OrderIntakeController(OrderIntake orderIntake) {
+        this.orderIntake = orderIntake;
+    }
+
+    /**
+     * POST /api/order-intake : Accept an order to be created asynchronously.
+     *
+     * @param orderDTO the order to place
+     * @return the ResponseEntity with status 202 (Accepted) and with body the provisional id
+     */
+    @PostMapping
+    @Operation(summary = "Accept an order", description = "Journals the order locally and returns a provisional id; the order is created in the database shortly after")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Order accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or order intake not enabled",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<OrderIntakeDTO> accept(
+            @Parameter(description = "Order data to place", required = true, schema = @Schema(implementation = OrderDTO.class))
+            @Valid @RequestBody OrderDTO orderDTO) {
+        OrderIntakeDTO result = orderIntake.accept(orderDTO);
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{provisionalId}")
+                .buildAndExpand(result.getProvisionalId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(result);
+    }
+
+    /**
+     * GET /api/order-intake/{provisionalId} : Follow an accepted order.
+     *
+     * @param provisionalId the id returned when the order was accepted
+     * @return the ResponseEntity with status 200 (OK) and with body the order's intake status
+     */
+    @GetMapping("/{provisionalId}")
+    @Operation(summary = "Get intake status", description = "Tells whether an accepted order is still waiting, was created (with its order id) or was rejected")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved status"),
+            @ApiResponse(responseCode = "404", description = "Unknown provisional id",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<OrderIntakeDTO> getStatus(
+            @Parameter(description = "Provisional id of the order", required = true)
+            @PathVariable String provisionalId) {
+        return ResponseEntity.ok().body(orderIntake.getStatus(provisionalId));
+    }
+}
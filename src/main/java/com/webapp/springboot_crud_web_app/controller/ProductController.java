@@ -2,7 +2,9 @@ package com.webapp.springboot_crud_web_app.controller;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,10 +14,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductPageDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductSearchResultDTO;
 import com.webapp.springboot_crud_web_app.exception.ErrorResponse;
 import com.webapp.springboot_crud_web_app.service.ProductService;
 
@@ -65,6 +72,132 @@ public class ProductController {
         return ResponseEntity.ok().body(products);
     }
 
+    /**
+     * GET /api/products?fields=id,name,price : Get all products with only the requested fields.
+     *
+     * @param fields the comma-separated fields to return
+     * @return the ResponseEntity with status 200 (OK) and the list of narrowed products in body
+     */
+    @GetMapping(params = {"fields", "!ids"})
+    @Operation(
+        summary = "Get all products with selected fields", 
+        description = "Returns all products, reading and returning only the requested fields"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved list of products"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested")
+    })
+    public ResponseEntity<List<Map<String, Object>>> getAllProductsWithFields(
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name,price", required = true)
+            @RequestParam String fields) {
+        List<Map<String, Object>> products = productService.findAllWithFields(fields);
+        return ResponseEntity.ok().body(products);
+    }
+
+    /**
+     * GET /api/products?ids=1,2,3 : Get several products by id in one call.
+     *
+     * @param ids the ids of the products to retrieve
+     * @return the ResponseEntity with status 200 (OK) and the found products and missing ids in body
+     */
+    @GetMapping(params = "ids")
+    @Operation(
+        summary = "Get products by IDs", 
+        description = "Returns the products matching the provided IDs and reports the IDs that were not found"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products")
+    })
+    public ResponseEntity<BatchResultDTO<ProductDTO>> getProductsByIds(
+            @Parameter(description = "Comma-separated IDs of the products to retrieve", required = true)
+            @RequestParam List<Long> ids) {
+        BatchResultDTO<ProductDTO> result = productService.findAllByIds(ids);
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * POST /api/products/by-ids : Get several products by id, for id lists too long for a query string.
+     *
+     * @param ids the ids of the products to retrieve
+     * @return the ResponseEntity with status 200 (OK) and the found products and missing ids in body
+     */
+    @PostMapping("/by-ids")
+    @Operation(
+        summary = "Get products by IDs (long lists)", 
+        description = "Same as GET /api/products?ids=..., with the IDs supplied as a JSON array in the request body"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+        @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    public ResponseEntity<BatchResultDTO<ProductDTO>> getProductsByIdList(
+            @Parameter(description = "IDs of the products to retrieve", required = true)
+            @RequestBody List<Long> ids) {
+        BatchResultDTO<ProductDTO> result = productService.findAllByIds(ids);
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * GET /api/products/search?q=... : Search product names and descriptions.
+     *
+     * @param q the words to search for
+     * @param page the zero-based page of results
+     * @param size the number of results per page
+     * @return the ResponseEntity with status 200 (OK) and the requested page of matches in body
+     */
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search products", 
+        description = "Returns the products whose name or description contains every word of the query, "
+                + "or a word starting with it, best match first"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully searched products"),
+        @ApiResponse(responseCode = "400", description = "Page out of range")
+    })
+    public ResponseEntity<ProductSearchResultDTO> searchProducts(
+            @Parameter(description = "Words to search for, e.g. wireless head", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Zero-based page of results")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Results per page, at most 100")
+            @RequestParam(defaultValue = "20") int size) {
+        ProductSearchResultDTO result = productService.search(q, page, size);
+        return ResponseEntity.ok().body(result);
+    }
+
+    /**
+     * GET /api/products/listing : List products matching a filter, one page at a time.
+     *
+     * @param filter the price, stock and creation time conditions
+     * @param sort the order of the listing
+     * @param cursor the nextCursor of the previous page
+     * @param size the number of products per page
+     * @return the ResponseEntity with status 200 (OK) and the page of products and next cursor in body
+     */
+    @GetMapping("/listing")
+    @Operation(
+        summary = "List products by filter", 
+        description = "Returns products matching the price, stock and creation time filters, sorted by price or "
+                + "creation time. Pass the returned nextCursor as cursor to read the following page; "
+                + "an in-stock page may be short, even empty, and still return a nextCursor"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of products"),
+        @ApiResponse(responseCode = "400", description = "Invalid sort, cursor or page size")
+    })
+    public ResponseEntity<ProductPageDTO> getProductListing(
+            @ParameterObject ProductFilterDTO filter,
+            @Parameter(description = "price, createdAt, -price or -createdAt")
+            @RequestParam(defaultValue = "price") String sort,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Products per page, at most 100")
+            @RequestParam(defaultValue = "20") int size) {
+        ProductPageDTO result = productService.findPage(filter, sort, cursor, size);
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * GET /api/products/{id} : Get product by id.
      *
@@ -0,0 +1,89 @@
+package com.webapp.springboot_crud_web_app.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.webapp.springboot_crud_web_app.dto.StockReservationDTO;
+import com.webapp.springboot_crud_web_app.exception.ErrorResponse;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+/**
+ * REST controller for time-limited stock reservations.
+ */
+@RestController
+@RequestMapping("/api/reservations")
+@Tag(name = "Reservation", description = "Stock reservation APIs")
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    @Autowired
+    public StockReservationController(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    /**
+     * POST /api/reservations : Hold stock of a product for a limited time.
+     *
+     * @param reservationDTO the product, quantity and optional TTL in seconds
+     * @return the ResponseEntity with status 201 (Created) and with body the reservation
+     */
+    @PostMapping
+    @Operation(summary = "Reserve stock", description = "Takes stock of a product and holds it until an order takes it over (see reservationIds on POST /api/orders), it is released or it expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stock successfully reserved"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or insufficient stock",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StockReservationDTO> reserve(
+            @Parameter(description = "Reservation to create", required = true)
+            @Valid @RequestBody StockReservationDTO reservationDTO) {
+        StockReservationDTO result = stockReservationService.reserve(reservationDTO);
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(result.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(result);
+    }
+
+    /**
+     * DELETE /api/reservations/{id} : Release a reservation.
+     *
+     * @param id the id of the reservation to release
+     * @return the ResponseEntity with status 204 (NO_CONTENT)
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Release a reservation", description = "Gives the reserved stock back")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Reservation successfully released"),
+            @ApiResponse(responseCode = "404", description = "Reservation not found or already expired",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<Void> release(
+            @Parameter(description = "ID of the reservation to release", required = true)
+            @PathVariable String id) {
+        stockReservationService.release(id);
+        return ResponseEntity.noContent().build();
+    }
+}
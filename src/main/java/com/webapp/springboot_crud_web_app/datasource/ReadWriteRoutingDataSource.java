@@ -0,0 +1,83 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hands out connections from the replica pool to read-only transactions and
+ * from the primary pool to everything else.
+ * <p>
+ * A read-only transaction still goes to the primary when the request is
+ * within its client's read-your-writes window ({@link ReadYourWrites}) or the
+ * replica is too far behind ({@link ReplicaLagMonitor}). The decision is made
+ * when a connection is first used, so this must sit behind a
+ * {@code LazyConnectionDataSourceProxy}: the transaction manager asks for a
+ * connection before it marks the transaction read-only. Every decision is
+ * counted in {@value #ROUTING_COUNTER}, tagged by target and reason.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String ROUTING_COUNTER = "db.routing.connections";
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter writes;
+    private final Counter outsideTransactions;
+    private final Counter pinnedReads;
+    private final Counter laggingReads;
+    private final Counter replicaReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.writes = counter(meterRegistry, Route.PRIMARY, "write");
+        this.outsideTransactions = counter(meterRegistry, Route.PRIMARY, "no_transaction");
+        this.pinnedReads = counter(meterRegistry, Route.PRIMARY, "read_your_writes");
+        this.laggingReads = counter(meterRegistry, Route.PRIMARY, "replica_lag");
+        this.replicaReads = counter(meterRegistry, Route.REPLICA, "read");
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // Schema setup, lazy loading after a transaction and other non-transactional work
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            outsideTransactions.increment();
+            return Route.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.recordWrite();
+            writes.increment();
+            return Route.PRIMARY;
+        }
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        if (lagMonitor.isLagging()) {
+            laggingReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Route target, String reason) {
+        return Counter.builder(ROUTING_COUNTER)
+                .tag("target", target.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
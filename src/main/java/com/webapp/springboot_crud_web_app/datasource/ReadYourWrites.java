@@ -0,0 +1,62 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+/**
+ * Read-your-writes state of the request being handled on the current thread,
+ * bound by {@link ReadYourWritesFilter}. Threads outside a request have no
+ * state: their read-only transactions always go to the replica, and their
+ * writes set no cookie. A request that hands a write to another thread calls
+ * {@link #recordWrite()} itself.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * @param pinned       whether the client wrote recently, so its reads must go to the primary
+     * @param onFirstWrite run when the request first writes, to remember the write past the request
+     */
+    static void begin(boolean pinned, Runnable onFirstWrite) {
+        CURRENT.set(new Context(pinned, onFirstWrite));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return whether read-only transactions on this thread must read from the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        Context context = CURRENT.get();
+        return context != null && context.pinned;
+    }
+
+    /**
+     * Records that the current request writes to the primary; its later reads,
+     * and the client's reads for the rest of the window, go there too. Does
+     * nothing outside a request.
+     */
+    public static void recordWrite() {
+        Context context = CURRENT.get();
+        if (context != null && !context.wrote) {
+            context.wrote = true;
+            context.pinned = true;
+            context.onFirstWrite.run();
+        }
+    }
+
+    private static final class Context {
+
+        private final Runnable onFirstWrite;
+        private boolean pinned;
+        private boolean wrote;
+
+        private Context(boolean pinned, Runnable onFirstWrite) {
+            this.pinned = pinned;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Gives each client a read-your-writes window. A request that writes sets the
+ * {@value #COOKIE} cookie to the time of the write; requests carrying a
+ * cookie younger than the window read from the primary, so a client sees its
+ * own changes however far the replica trails. The state travels with the
+ * client, so it holds whichever instance serves the next request.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "last-write";
+
+    private final Clock clock;
+    private final Duration window;
+
+    public ReadYourWritesFilter(Clock clock, Duration window) {
+        this.clock = clock;
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // The write happens in the service call, before the response body is written
+        ReadYourWrites.begin(wroteRecently(request), () -> response.addHeader(HttpHeaders.SET_COOKIE,
+                ResponseCookie.from(COOKIE, Long.toString(clock.millis()))
+                        .path("/")
+                        .httpOnly(true)
+                        .sameSite("Lax")
+                        .maxAge(window)
+                        .build()
+                        .toString()));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            long age = clock.millis() - Long.parseLong(cookie.getValue());
+            return age >= 0 && age < window.toMillis();
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
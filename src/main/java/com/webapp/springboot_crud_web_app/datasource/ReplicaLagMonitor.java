@@ -0,0 +1,71 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls the replica for how far it trails the primary, using a
+ * database-specific query that returns the lag in milliseconds, and reports
+ * it as the {@value #LAG_GAUGE} gauge.
+ * <p>
+ * While the lag is above the limit, or the replica cannot be queried, reads
+ * are sent to the primary. Without a query the replica is assumed to keep up.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    public static final String LAG_GAUGE = "db.replica.lag";
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+
+    private volatile double lagMillis = Double.NaN;
+    private volatile boolean lagging;
+
+    public ReplicaLagMonitor(JdbcTemplate replica, String lagQuery, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        if (StringUtils.hasText(lagQuery)) {
+            Gauge.builder(LAG_GAUGE, this, monitor -> monitor.lagMillis)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-interval-ms:1000}")
+    public void check() {
+        if (!StringUtils.hasText(lagQuery)) {
+            return;
+        }
+        boolean behind;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagMillis = lag != null ? lag : Double.NaN;
+            behind = lag == null || lag > maxLagMillis;
+        } catch (RuntimeException ex) {
+            lagMillis = Double.NaN;
+            behind = true;
+            if (!lagging) {
+                log.warn("event=db.replica.check.failed error={}", ex.toString());
+            }
+        }
+        if (behind != lagging) {
+            log.info("event=db.replica.{} lagMs={} maxLagMs={}", behind ? "behind" : "caught_up", lagMillis, maxLagMillis);
+        }
+        lagging = behind;
+    }
+
+    /**
+     * @return whether reads should avoid the replica
+     */
+    public boolean isLagging() {
+        return lagging;
+    }
+}
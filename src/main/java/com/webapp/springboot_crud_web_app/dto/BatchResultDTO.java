@@ -0,0 +1,22 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a batch lookup by IDs: the resources that were found, in request
+ * order, and the requested IDs that did not match any resource.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO<T> {
+
+    private List<T> items = new ArrayList<>();
+
+    private List<Long> missingIds = new ArrayList<>();
+}
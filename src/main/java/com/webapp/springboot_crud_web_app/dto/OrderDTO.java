@@ -5,12 +5,12 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
 import jakarta.validation.Valid;
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -44,9 +44,7 @@ public class OrderDTO {
     @Schema(example = "Main St, Anytown")
     private String shippingAddress;
     
-    @Schema(example = "99.99")
-    @NotNull(message = "Total amount is required")
-    @DecimalMin(value = "0.00", inclusive = true, message = "Total amount must be greater than or equal to 0.00")
+    @Schema(accessMode = AccessMode.READ_ONLY, example = "99.99", description = "Sum of the item subtotals")
     private BigDecimal totalAmount;
     
     @Schema(example = "PENDING")
@@ -56,6 +54,10 @@ public class OrderDTO {
     @Valid
     private List<OrderItemDTO> orderItems = new ArrayList<>();
     
+    @Schema(description = "Reservations whose held stock the new order takes over; they end when it is placed")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> reservationIds;
+    
     @Schema(accessMode = AccessMode.READ_ONLY)
     private LocalDateTime createdAt;
     @Schema(accessMode = AccessMode.READ_ONLY)
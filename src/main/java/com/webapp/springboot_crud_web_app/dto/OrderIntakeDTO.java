@@ -0,0 +1,34 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where an order accepted through the intake journal stands.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeDTO {
+
+    @Schema(accessMode = AccessMode.READ_ONLY, description = "Id to look the order up by until it is created")
+    private String provisionalId;
+
+    @Schema(accessMode = AccessMode.READ_ONLY)
+    private IntakeStatus status;
+
+    @Schema(accessMode = AccessMode.READ_ONLY, description = "Id of the created order, once status is CREATED")
+    private Long orderId;
+
+    @Schema(accessMode = AccessMode.READ_ONLY, description = "Why the order was not created, when status is REJECTED")
+    private String message;
+
+    public enum IntakeStatus {
+        ACCEPTED, CREATED, REJECTED
+    }
+}
@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -33,13 +32,9 @@ public class OrderItemDTO {
     @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
     
-    @Schema(example = "19.99")
-    @NotNull(message = "Unit price is required")
-    @DecimalMin(value = "0.00", inclusive = false, message = "Unit price must be greater than 0.00")
+    @Schema(accessMode = AccessMode.READ_ONLY, example = "19.99", description = "Product price when the item was added")
     private BigDecimal unitPrice;
     
-    @Schema(example = "39.98")
-    @NotNull(message = "Subtotal is required")
-    @DecimalMin(value = "0.00", inclusive = true, message = "Subtotal must be greater than or equal to 0.00")
+    @Schema(accessMode = AccessMode.READ_ONLY, example = "39.98", description = "unitPrice × quantity")
     private BigDecimal subtotal;
 } 
\ No newline at end of file
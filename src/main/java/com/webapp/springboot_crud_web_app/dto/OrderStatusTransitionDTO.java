@@ -0,0 +1,39 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Moves many orders to one status, and reports which of them were moved.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusTransitionDTO {
+
+    @Schema(example = "[1, 2, 3]")
+    @NotEmpty(message = "At least one order ID is required")
+    private List<Long> ids;
+
+    @Schema(example = "SHIPPED")
+    @NotNull(message = "Target status is required")
+    private OrderStatus status;
+
+    @Schema(accessMode = AccessMode.READ_ONLY, description = "Orders that were moved to the status")
+    private List<Long> changedIds = new ArrayList<>();
+
+    @Schema(accessMode = AccessMode.READ_ONLY, description = "Orders that do not exist or whose status cannot move to the target")
+    private List<Long> unchangedIds = new ArrayList<>();
+}
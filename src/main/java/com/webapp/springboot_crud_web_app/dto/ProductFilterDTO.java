@@ -0,0 +1,39 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Conditions a listed product must meet; unset conditions are not applied.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDTO {
+
+    @Schema(description = "Lowest price, inclusive")
+    private BigDecimal minPrice;
+
+    @Schema(description = "Highest price, inclusive")
+    private BigDecimal maxPrice;
+
+    @Schema(description = "Only products with stock above 0, counting stock held outside the products table")
+    private boolean inStock;
+
+    @Schema(description = "Created at or after, e.g. 2025-01-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @Schema(description = "Created before, e.g. 2025-02-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdBefore;
+}
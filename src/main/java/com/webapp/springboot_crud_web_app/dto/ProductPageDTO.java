@@ -0,0 +1,24 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a filtered product listing. Pass {@code nextCursor} back as
+ * {@code cursor} to read the page after it; it is null on the last page. An
+ * in-stock page cut short by live stock may hold fewer products than asked
+ * for, or none, and still have a {@code nextCursor}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDTO {
+
+    private List<ProductDTO> products = new ArrayList<>();
+
+    private String nextCursor;
+}
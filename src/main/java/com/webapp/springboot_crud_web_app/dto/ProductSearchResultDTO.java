@@ -0,0 +1,26 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a product search: the matching products, best match first, and
+ * how many products match in total.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+
+    private List<ProductDTO> products = new ArrayList<>();
+
+    private long totalHits;
+
+    private int page;
+
+    private int size;
+}
@@ -0,0 +1,38 @@
+package com.webapp.springboot_crud_web_app.dto;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.AccessMode;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationDTO {
+
+    @Schema(accessMode = AccessMode.READ_ONLY)
+    private String id;
+
+    @Schema(example = "1")
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @Schema(example = "2")
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @Schema(example = "900", description = "How long to hold the stock; defaults to app.reservations.default-ttl-seconds")
+    @Min(value = 1, message = "TTL must be at least 1 second")
+    private Integer ttlSeconds;
+
+    @Schema(accessMode = AccessMode.READ_ONLY)
+    private LocalDateTime expiresAt;
+}
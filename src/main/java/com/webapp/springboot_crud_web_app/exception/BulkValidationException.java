@@ -0,0 +1,27 @@
+package com.webapp.springboot_crud_web_app.exception;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when elements of a bulk request fail validation.
+ * Carries the field errors keyed by indexed property path, e.g. {@code items[3].quantity}.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BulkValidationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, String> fieldErrors;
+
+    public BulkValidationException(Map<String, String> fieldErrors) {
+        super("Validation failed", null, false, false);
+        this.fieldErrors = fieldErrors;
+    }
+
+    public Map<String, String> getFieldErrors() {
+        return fieldErrors;
+    }
+}
@@ -5,6 +5,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Exception thrown when a business rule is violated.
+ * <p>
+ * Business rule violations are reported to the client and never need a
+ * stack trace, so none is captured.
  */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BusinessRuleViolationException extends RuntimeException {
@@ -12,6 +15,6 @@ public class BusinessRuleViolationException extends RuntimeException {
     private static final long serialVersionUID = 1L;
 
     public BusinessRuleViolationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-} 
\ No newline at end of file
+}
@@ -6,6 +6,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -15,6 +17,8 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -25,6 +29,36 @@ import lombok.extern.slf4j.Slf4j;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * Name of the counter incremented for every handled error, tagged by error type.
+     */
+    public static final String ERROR_COUNTER = "api.errors";
+
+    private final Counter notFoundCounter;
+    private final Counter businessRuleCounter;
+    private final Counter validationCounter;
+    private final Counter unreadableMessageCounter;
+    private final Counter lockConflictCounter;
+    private final Counter unhandledCounter;
+
+    @Autowired
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.notFoundCounter = errorCounter(meterRegistry, "not_found", HttpStatus.NOT_FOUND);
+        this.businessRuleCounter = errorCounter(meterRegistry, "business_rule_violation", HttpStatus.BAD_REQUEST);
+        this.validationCounter = errorCounter(meterRegistry, "validation_failed", HttpStatus.BAD_REQUEST);
+        this.unreadableMessageCounter = errorCounter(meterRegistry, "message_not_readable", HttpStatus.BAD_REQUEST);
+        this.lockConflictCounter = errorCounter(meterRegistry, "lock_conflict", HttpStatus.CONFLICT);
+        this.unhandledCounter = errorCounter(meterRegistry, "unhandled", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static Counter errorCounter(MeterRegistry meterRegistry, String type, HttpStatus status) {
+        return Counter.builder(ERROR_COUNTER)
+                .description("Errors returned by the API, by error type")
+                .tag("type", type)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry);
+    }
+
     /**
      * Handle ResourceNotFoundException.
      *
@@ -36,6 +70,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
             ResourceNotFoundException ex, WebRequest request) {
         
+        notFoundCounter.increment();
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.NOT_FOUND.value(),
                 ex.getMessage(),
@@ -56,6 +91,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleBusinessRuleViolationException(
             BusinessRuleViolationException ex, WebRequest request) {
         
+        businessRuleCounter.increment();
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
                 ex.getMessage(),
@@ -76,6 +112,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ValidationErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
         
+        validationCounter.increment();
         Map<String, String> errors = new HashMap<>();
         List<ValidationErrorResponse.FieldError> fieldErrors = new ArrayList<>();
         
@@ -98,6 +135,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle BulkValidationException raised for invalid elements of a bulk request.
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return the error response entity
+     */
+    @ExceptionHandler(BulkValidationException.class)
+    public ResponseEntity<ValidationErrorResponse> handleBulkValidationException(
+            BulkValidationException ex, WebRequest request) {
+        
+        validationCounter.increment();
+        
+        ValidationErrorResponse errorResponse = new ValidationErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation failed",
+                request.getDescription(false),
+                LocalDateTime.now(),
+                ex.getFieldErrors());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handle HttpMessageNotReadableException (e.g., invalid JSON format).
      *
@@ -112,7 +172,10 @@ public class GlobalExceptionHandler {
         Map<String, String> errors = new HashMap<>();
         String errorMessage = "Invalid request format. Please ensure the request body is valid JSON and data types are correct.";
         
-        log.warn("Bad Request: Invalid JSON format", ex);
+        unreadableMessageCounter.increment();
+        // Malformed bodies are client errors; keep the stack trace out of the warn log
+        log.warn("Bad Request: Invalid JSON format: {}", ex.getMessage());
+        log.debug("Invalid JSON format details", ex);
         
         ValidationErrorResponse errorResponse = new ValidationErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
@@ -124,6 +187,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle row lock conflicts that outlasted their retries (deadlock victim, lock timeout).
+     *
+     * @param ex the exception
+     * @param request the current request
+     * @return the error response entity
+     */
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleLockConflict(
+            PessimisticLockingFailureException ex, WebRequest request) {
+        
+        lockConflictCounter.increment();
+        log.warn("event=api.lock_conflict error={}", ex.toString());
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "The request conflicted with concurrent updates, please retry",
+                request.getDescription(false),
+                LocalDateTime.now());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handle general exceptions.
      *
@@ -135,6 +220,8 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleGlobalException(
             Exception ex, WebRequest request) {
         
+        unhandledCounter.increment();
+        
         // Log the full stack trace for debugging
         log.error("Unhandled exception occurred", ex);
         
@@ -5,17 +5,52 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Exception thrown when a requested resource is not found.
+ * <p>
+ * This is an expected outcome rather than a programming error, so no stack
+ * trace is captured and the message is only built when it is first read.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
 
+    private final String resourceName;
+    private final String fieldName;
+    private final transient Object fieldValue;
+    private String message;
+
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.resourceName = null;
+        this.fieldName = null;
+        this.fieldValue = null;
+        this.message = message;
     }
 
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null && resourceName != null) {
+            message = resourceName + " not found with " + fieldName + ": '" + fieldValue + "'";
+        }
+        return message;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Object getFieldValue() {
+        return fieldValue;
     }
-} 
\ No newline at end of file
+}
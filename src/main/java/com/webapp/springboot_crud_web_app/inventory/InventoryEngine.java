@@ -0,0 +1,514 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the stock of products that are being ordered in memory and reserves it
+ * with compare-and-set, so concurrent orders for the same product don't queue
+ * on its row lock.
+ * <p>
+ * A reservation made inside a transaction is held until that transaction
+ * completes: only once it commits is the reservation appended to a local
+ * {@link InventoryJournal} and handed to the flush, so neither the journal nor
+ * the database ever sees stock taken by an order that rolled back. A crash
+ * between the order's commit and the append loses that reservation's delta.
+ * A background flush periodically writes the summed deltas to
+ * {@code products} in one JDBC batch, together with the journal checkpoint,
+ * and then drops the flushed segment. On startup, segments newer than the
+ * checkpoint are replayed into the database before any reservation is taken.
+ * <p>
+ * Counters are loaded lazily on a product's first reservation. A transaction
+ * that sets {@code products.stock} to an absolute value must call
+ * {@link #prepareStockSet(Long)} before writing it; anything else that writes
+ * the column directly must call {@link #invalidate(Long)}.
+ * <p>
+ * Appends that fail after the stock has already moved are logged and counted
+ * in {@value #JOURNAL_APPEND_FAILURE_COUNTER}, tagged by operation: those
+ * deltas are only at risk until the next flush.
+ */
+@Slf4j
+@Component
+public class InventoryEngine {
+
+    public static final String JOURNAL_APPEND_FAILURE_COUNTER = "inventory.journal.append.failures";
+
+    static final String APPLY_DELTA_SQL = "UPDATE products SET stock = stock - ? WHERE id = ?";
+    static final String SELECT_CHECKPOINT_SQL = "SELECT last_segment FROM inventory_journal_checkpoints WHERE id = 1";
+    static final String UPDATE_CHECKPOINT_SQL = "UPDATE inventory_journal_checkpoints SET last_segment = ? WHERE id = 1";
+    static final String INSERT_CHECKPOINT_SQL = "INSERT INTO inventory_journal_checkpoints (id, last_segment) VALUES (1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final Path journalDirectory;
+    private final boolean syncWrites;
+
+    private final StockCounterTable counters = new StockCounterTable();
+    // Reservations append under the read lock; a flush rotates the journal under the write lock
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    // One flush or counter load at a time, so a load never sees a half-written flush
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private InventoryJournal journal;
+    private ScheduledExecutorService flushExecutor;
+
+    @Autowired
+    public InventoryEngine(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.inventory.engine.enabled:false}") boolean enabled,
+                           @Value("${app.inventory.engine.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${app.inventory.engine.journal-dir:data/inventory-journal}") String journalDirectory,
+                           @Value("${app.inventory.engine.sync-writes:true}") boolean syncWrites) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A flush started by prepareStockSet must commit on its own, not with the caller's transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.syncWrites = syncWrites;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new InventoryJournal(journalDirectory, syncWrites);
+        recover();
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("event=inventory.engine.started journalDir={} flushIntervalMs={}", journalDirectory, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(flushIntervalMs * 10, TimeUnit.MILLISECONDS);
+        flush();
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves the given quantities, all or nothing. Inside a transaction the
+     * reservation is held until the transaction completes, and only journaled
+     * and flushed if it commits; without one it is journaled right away.
+     *
+     * @param quantitiesByProductId quantity per product id
+     * @return empty on success, otherwise the id of a product without enough stock
+     */
+    public OptionalLong reserve(Map<Long, Integer> quantitiesByProductId) {
+        List<StockCounter> reserving = loadCounters(quantitiesByProductId.keySet());
+        long[] productIds = new long[reserving.size()];
+        int[] quantities = new int[reserving.size()];
+
+        journalLock.readLock().lock();
+        try {
+            for (int i = 0; i < reserving.size(); i++) {
+                StockCounter counter = reserving.get(i);
+                productIds[i] = counter.getProductId();
+                quantities[i] = quantitiesByProductId.get(counter.getProductId());
+                if (!counter.isLoaded() || !counter.tryReserve(quantities[i])) {
+                    for (int j = 0; j < i; j++) {
+                        reserving.get(j).cancel(quantities[j]);
+                    }
+                    return OptionalLong.of(counter.getProductId());
+                }
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        commitReserved(reserving, productIds, quantities);
+                    } else {
+                        for (int i = 0; i < reserving.size(); i++) {
+                            reserving.get(i).cancel(quantities[i]);
+                        }
+                    }
+                }
+            });
+        } else {
+            journalLock.readLock().lock();
+            try {
+                appendToJournal(reserving, productIds, quantities);
+                for (int i = 0; i < reserving.size(); i++) {
+                    reserving.get(i).commit(quantities[i]);
+                }
+            } finally {
+                journalLock.readLock().unlock();
+            }
+        }
+        log.debug("event=inventory.reserved products={}", productIds.length);
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Gives back quantities reserved earlier.
+     */
+    public void release(Map<Long, Integer> quantitiesByProductId) {
+        List<StockCounter> releasing = new ArrayList<>(quantitiesByProductId.size());
+        long[] productIds = new long[quantitiesByProductId.size()];
+        int[] deltas = new int[quantitiesByProductId.size()];
+        journalLock.readLock().lock();
+        try {
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+                StockCounter counter = counters.getOrCreate(entry.getKey());
+                counter.release(entry.getValue());
+                releasing.add(counter);
+                productIds[i] = entry.getKey();
+                deltas[i] = -entry.getValue();
+                i++;
+            }
+            try {
+                journal.append(productIds, deltas);
+            } catch (IOException ex) {
+                // The counters already hold the release; it is only at risk until the next flush
+                appendFailed("release", productIds.length, ex);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        log.debug("event=inventory.released products={}", releasing.size());
+    }
+
+    /**
+     * Gives back quantities reserved earlier once the current transaction
+     * commits, or right away without one, so a rollback never returns stock
+     * that is still taken.
+     */
+    public void releaseAfterCommit(Map<Long, Integer> quantitiesByProductId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(quantitiesByProductId);
+            return;
+        }
+        Map<Long, Integer> releasing = new HashMap<>(quantitiesByProductId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(releasing);
+            }
+        });
+    }
+
+    /**
+     * @return the available stock of the product, or {@code null} if it is not held in memory
+     */
+    public Integer getAvailable(Long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter != null && counter.isLoaded() ? counter.getAvailable() : null;
+    }
+
+    /**
+     * @return the available stock of those products that are held in memory
+     */
+    public Map<Long, Integer> getAvailable(Collection<Long> productIds) {
+        if (!enabled) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Integer> available = new HashMap<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            Integer stock = getAvailable(productId);
+            if (stock != null) {
+                available.put(productId, stock);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Makes the next reservation of the product reload its stock from the database.
+     */
+    public void invalidate(Long productId) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            counter.invalidate();
+        }
+    }
+
+    /**
+     * Prepares the current transaction to set the product's {@code products.stock}
+     * to an absolute value. Every committed delta is flushed first, and no flush
+     * runs again until the transaction completes, so none of them is subtracted
+     * from the new value. Once the transaction commits, the product's counter
+     * reloads from the new value. Must be called before the row is written.
+     *
+     * @throws IllegalStateException without an active transaction, or if the flush fails
+     */
+    public void prepareStockSet(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock can only be set inside a transaction");
+        }
+        flushLock.lock();
+        boolean flushed = false;
+        try {
+            flushed = flushPending();
+        } finally {
+            if (!flushed) {
+                flushLock.unlock();
+            }
+        }
+        if (!flushed) {
+            throw new IllegalStateException("Could not flush inventory deltas before setting the stock of product "
+                    + productId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(productId);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                flushLock.unlock();
+            }
+        });
+        log.debug("event=inventory.stock_set.prepared productId={}", productId);
+    }
+
+    /**
+     * Writes all unflushed deltas to the database in one transaction.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushPending();
+    }
+
+    /**
+     * @return whether every unflushed delta was written; on failure they stay for the next flush
+     */
+    private boolean flushPending() {
+        flushLock.lock();
+        try {
+            long segment;
+            List<StockCounter> flushed = new ArrayList<>();
+            List<Integer> deltas = new ArrayList<>();
+            journalLock.writeLock().lock();
+            try {
+                segment = journal.rotate();
+                counters.forEach(counter -> {
+                    int delta = counter.drainUnflushed();
+                    if (delta != 0) {
+                        flushed.add(counter);
+                        deltas.add(delta);
+                    }
+                });
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+
+            if (!flushed.isEmpty()) {
+                List<Object[]> batch = new ArrayList<>(flushed.size());
+                for (int i = 0; i < flushed.size(); i++) {
+                    batch.add(new Object[] {deltas.get(i), flushed.get(i).getProductId()});
+                }
+                try {
+                    writeBehind(batch, segment);
+                } catch (RuntimeException ex) {
+                    for (int i = 0; i < flushed.size(); i++) {
+                        flushed.get(i).restoreUnflushed(deltas.get(i));
+                    }
+                    // The segment stays on disk until a later flush covers it
+                    log.warn("event=inventory.flush.failed segment={} products={} error={}", segment, flushed.size(), ex.toString());
+                    return false;
+                }
+            }
+            journal.deleteUpTo(segment);
+            if (!flushed.isEmpty()) {
+                log.debug("event=inventory.flushed segment={} products={}", segment, flushed.size());
+            }
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("event=inventory.flush.failed error={}", ex.toString());
+        }
+    }
+
+    /**
+     * Replays journal segments newer than the checkpoint, then starts a fresh segment.
+     */
+    private void recover() throws IOException {
+        long checkpoint = readCheckpoint();
+        long lastSegment = checkpoint;
+        Map<Long, Integer> pending = new HashMap<>();
+        for (long segment : journal.segments()) {
+            if (segment > checkpoint) {
+                journal.readDeltas(segment).forEach((productId, delta) -> pending.merge(productId, delta, Integer::sum));
+            }
+            lastSegment = Math.max(lastSegment, segment);
+        }
+
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        pending.forEach((productId, delta) -> {
+            if (delta != 0) {
+                batch.add(new Object[] {delta, productId});
+            }
+        });
+        if (lastSegment > checkpoint) {
+            writeBehind(batch, lastSegment);
+            log.info("event=inventory.recovered checkpoint={} lastSegment={} products={}", checkpoint, lastSegment, batch.size());
+        }
+        journal.deleteUpTo(lastSegment);
+        journal.open(lastSegment + 1);
+    }
+
+    private void writeBehind(List<Object[]> batch, long segment) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch);
+            }
+            if (jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, segment) == 0) {
+                jdbcTemplate.update(INSERT_CHECKPOINT_SQL, segment);
+            }
+        });
+    }
+
+    private long readCheckpoint() {
+        List<Long> checkpoints = jdbcTemplate.query(SELECT_CHECKPOINT_SQL, (rs, rowNum) -> rs.getLong(1));
+        return checkpoints.isEmpty() ? 0L : checkpoints.get(0);
+    }
+
+    /**
+     * Returns the counters of the given products, loading the ones not yet held in memory.
+     * A product missing from the database stays unloaded and cannot be reserved.
+     */
+    private List<StockCounter> loadCounters(Collection<Long> productIds) {
+        List<StockCounter> result = new ArrayList<>(productIds.size());
+        List<Long> toLoad = new ArrayList<>();
+        for (Long productId : productIds) {
+            StockCounter counter = counters.getOrCreate(productId);
+            result.add(counter);
+            if (!counter.isLoaded()) {
+                toLoad.add(productId);
+            }
+        }
+        if (toLoad.isEmpty()) {
+            return result;
+        }
+
+        flushLock.lock();
+        try {
+            Map<Long, Integer> databaseStock = new HashMap<>(toLoad.size() * 2);
+            for (List<Long> chunk : BatchUtils.partition(toLoad, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+                String sql = "SELECT id, stock FROM products WHERE id IN ("
+                        + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                jdbcTemplate.query(sql, rs -> {
+                    databaseStock.put(rs.getLong(1), rs.getInt(2));
+                }, chunk.toArray());
+            }
+            // Held reservations must not commit half-way through a load
+            journalLock.writeLock().lock();
+            try {
+                databaseStock.forEach((productId, stock) -> {
+                    StockCounter counter = counters.getOrCreate(productId);
+                    if (!counter.isLoaded()) {
+                        counter.load(stock);
+                    }
+                });
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Journals a reservation whose transaction committed and hands it to the
+     * flush. The order is already committed, so a failed append cannot undo it:
+     * the delta is still flushed, but is lost if the process dies first.
+     */
+    private void commitReserved(List<StockCounter> reserved, long[] productIds, int[] quantities) {
+        journalLock.readLock().lock();
+        try {
+            try {
+                journal.append(productIds, quantities);
+            } catch (IOException ex) {
+                appendFailed("reserve", productIds.length, ex);
+            }
+            for (int i = 0; i < reserved.size(); i++) {
+                reserved.get(i).commit(quantities[i]);
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    private void appendFailed(String operation, int products, IOException ex) {
+        meterRegistry.counter(JOURNAL_APPEND_FAILURE_COUNTER, "operation", operation).increment();
+        log.warn("event=inventory.journal.append_failed operation={} products={} error={}", operation, products, ex.toString());
+    }
+
+    private void appendToJournal(List<StockCounter> reserved, long[] productIds, int[] quantities) {
+        try {
+            journal.append(productIds, quantities);
+        } catch (IOException ex) {
+            for (int i = 0; i < reserved.size(); i++) {
+                reserved.get(i).cancel(quantities[i]);
+            }
+            throw new UncheckedIOException("Could not journal inventory reservation", ex);
+        }
+    }
+}
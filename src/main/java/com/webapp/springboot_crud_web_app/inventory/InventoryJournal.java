@@ -0,0 +1,151 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of stock deltas that have been reserved in memory
+ * but may not be in the database yet.
+ * <p>
+ * The journal is split into numbered segment files. A flush rotates to a new
+ * segment, writes the deltas of the closed one to the database and then
+ * deletes it. Each record is {@code productId (long), delta (int), crc32 (int)};
+ * replay stops at the first short or corrupt record, which is what a crash in
+ * the middle of an append leaves behind.
+ */
+final class InventoryJournal implements Closeable {
+
+    static final int RECORD_SIZE = 16;
+
+    private static final String PREFIX = "inventory-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean syncWrites;
+    private FileChannel channel;
+    private long segment;
+
+    InventoryJournal(Path directory, boolean syncWrites) throws IOException {
+        this.directory = directory;
+        this.syncWrites = syncWrites;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * @return the numbers of the segment files on disk, in ascending order
+     */
+    List<Long> segments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Reads a segment and sums its deltas per product.
+     */
+    Map<Long, Integer> readDeltas(long segmentNumber) throws IOException {
+        Map<Long, Integer> deltas = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(pathOf(segmentNumber)));
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            long productId = buffer.getLong();
+            int delta = buffer.getInt();
+            int checksum = buffer.getInt();
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            deltas.merge(productId, delta, Integer::sum);
+        }
+        return deltas;
+    }
+
+    /**
+     * Starts appending to the given segment.
+     */
+    synchronized void open(long segmentNumber) throws IOException {
+        channel = FileChannel.open(pathOf(segmentNumber),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = segmentNumber;
+    }
+
+    /**
+     * Appends one record per product in a single write.
+     */
+    synchronized void append(long[] productIds, int[] deltas) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(productIds.length * RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < productIds.length; i++) {
+            int start = buffer.position();
+            buffer.putLong(productIds[i]).putInt(deltas[i]);
+            crc.reset();
+            crc.update(buffer.array(), start, RECORD_SIZE - Integer.BYTES);
+            buffer.putInt((int) crc.getValue());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncWrites) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Closes the current segment and continues in the next one.
+     *
+     * @return the number of the closed segment
+     */
+    synchronized long rotate() throws IOException {
+        long closed = segment;
+        channel.close();
+        open(closed + 1);
+        return closed;
+    }
+
+    /**
+     * Deletes every segment up to and including the given one.
+     */
+    void deleteUpTo(long segmentNumber) throws IOException {
+        for (long existing : segments()) {
+            if (existing <= segmentNumber) {
+                Files.deleteIfExists(pathOf(existing));
+            }
+        }
+    }
+
+    synchronized long currentSegment() {
+        return segment;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private Path pathOf(long segmentNumber) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, segmentNumber, SUFFIX));
+    }
+}
@@ -0,0 +1,37 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.webapp.springboot_crud_web_app.service.InventoryLedgerService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically folds inventory ledger movements into {@code products.stock},
+ * so computing current stock only ever sums a short tail.
+ */
+@Slf4j
+@Component
+public class LedgerCompactor {
+
+    private final InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    public LedgerCompactor(InventoryLedgerService inventoryLedgerService) {
+        this.inventoryLedgerService = inventoryLedgerService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.compaction-interval-ms:5000}")
+    public void compact() {
+        if (!inventoryLedgerService.isEnabled()) {
+            return;
+        }
+        try {
+            inventoryLedgerService.compact();
+        } catch (RuntimeException ex) {
+            log.warn("event=inventory.ledger.compaction.failed error={}", ex.toString());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a transactional operation again when the database picked it as a
+ * deadlock victim or it timed out waiting for a row lock.
+ * <p>
+ * Must be called outside the operation's transaction, so each attempt gets a
+ * fresh one. Retries and give-ups are counted in {@value #LOCK_RETRY_COUNTER},
+ * tagged by operation and outcome.
+ */
+@Slf4j
+@Component
+public class LockRetryExecutor {
+
+    public static final String LOCK_RETRY_COUNTER = "db.lock.retries";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    @Autowired
+    public LockRetryExecutor(MeterRegistry meterRegistry,
+                             @Value("${app.locking.max-attempts:3}") int maxAttempts,
+                             @Value("${app.locking.backoff-ms:20}") long backoffMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (PessimisticLockingFailureException ex) {
+                // Inside a caller's transaction the whole transaction is lost; retrying here cannot help
+                if (attempt >= maxAttempts || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    meterRegistry.counter(LOCK_RETRY_COUNTER, "operation", operation, "outcome", "exhausted").increment();
+                    log.warn("event=db.lock.exhausted operation={} attempts={} error={}", operation, attempt, ex.toString());
+                    throw ex;
+                }
+                meterRegistry.counter(LOCK_RETRY_COUNTER, "operation", operation, "outcome", "retried").increment();
+                log.info("event=db.lock.retry operation={} attempt={} error={}", operation, attempt, ex.toString());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        // Jittered so the two sides of a deadlock don't collide again
+        long delay = backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically gives back the stock of expired reservations.
+ */
+@Slf4j
+@Component
+public class ReservationSweeper {
+
+    private final StockReservationService stockReservationService;
+
+    @Autowired
+    public ReservationSweeper(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.sweep-interval-ms:1000}")
+    public void sweep() {
+        try {
+            stockReservationService.releaseExpired();
+        } catch (RuntimeException ex) {
+            log.warn("event=reservation.sweep.failed error={}", ex.toString());
+        }
+    }
+}
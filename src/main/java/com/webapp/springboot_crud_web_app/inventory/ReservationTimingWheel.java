@@ -0,0 +1,94 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel of stock holds ordered by expiry.
+ * <p>
+ * Scheduling appends to the bucket of the hold's deadline tick, so it is O(1).
+ * Holds that are taken over or released early are not removed; they are
+ * dropped when their bucket comes round, which keeps cancellation O(1) as
+ * well. A deadline more than one revolution away is stored with the number
+ * of full rounds still to wait.
+ */
+public class ReservationTimingWheel {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<List<StockHold>> buckets;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis  the resolution of expiry; holds expire at most one tick late
+     * @param wheelSize   the number of buckets, rounded up to a power of two
+     * @param startMillis the time the wheel starts at
+     */
+    public ReservationTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int buckets = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = Math.max(buckets, 1) - 1;
+        this.buckets = new ArrayList<>(mask + 1);
+        for (int i = 0; i <= mask; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Adds the hold at its deadline. A hold already on the wheel stays where it is.
+     */
+    public synchronized void schedule(StockHold hold) {
+        if (hold.onWheel) {
+            return;
+        }
+        // Round up so a hold never expires before its deadline
+        long deadlineTick = Math.max((hold.getExpiresAtMillis() + tickMillis - 1) / tickMillis, currentTick);
+        hold.remainingRounds = (int) ((deadlineTick - currentTick) / (mask + 1));
+        buckets.get((int) (deadlineTick & mask)).add(hold);
+        hold.onWheel = true;
+        size++;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and removes the holds that expired on the way.
+     * Settled holds met on the way are discarded.
+     *
+     * @return the expired holds that were not settled yet
+     */
+    public synchronized List<StockHold> advance(long nowMillis) {
+        List<StockHold> expired = new ArrayList<>();
+        long nowTick = nowMillis / tickMillis;
+        for (; currentTick <= nowTick; currentTick++) {
+            List<StockHold> bucket = buckets.get((int) (currentTick & mask));
+            int kept = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                StockHold hold = bucket.get(i);
+                if (hold.isSettled()) {
+                    hold.onWheel = false;
+                    size--;
+                } else if (hold.remainingRounds > 0) {
+                    hold.remainingRounds--;
+                    bucket.set(kept++, hold);
+                } else {
+                    expired.add(hold);
+                    hold.onWheel = false;
+                    size--;
+                }
+            }
+            bucket.subList(kept, bucket.size()).clear();
+        }
+        return expired;
+    }
+
+    /**
+     * @return the number of holds in the wheel, including settled ones not yet discarded
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
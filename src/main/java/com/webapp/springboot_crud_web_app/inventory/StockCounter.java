@@ -0,0 +1,132 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stock of one product.
+ * <p>
+ * Available stock and the decrements not yet written to the database are
+ * packed into a single {@code long} so a reservation updates both with one
+ * compare-and-set: available in the high 32 bits, the signed unflushed delta
+ * in the low 32 bits. A reservation only becomes an unflushed delta once
+ * its transaction commits; until then it is held, out of the available stock
+ * but out of reach of a flush.
+ */
+final class StockCounter {
+
+    private final long productId;
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicInteger held = new AtomicInteger();
+    private volatile boolean loaded;
+
+    StockCounter(long productId) {
+        this.productId = productId;
+    }
+
+    static long pack(int available, int unflushed) {
+        return ((long) available << 32) | (unflushed & 0xFFFFFFFFL);
+    }
+
+    static int available(long state) {
+        return (int) (state >> 32);
+    }
+
+    static int unflushed(long state) {
+        return (int) state;
+    }
+
+    long getProductId() {
+        return productId;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    int getAvailable() {
+        return available(state.get());
+    }
+
+    int getUnflushed() {
+        return unflushed(state.get());
+    }
+
+    int getHeld() {
+        return held.get();
+    }
+
+    /**
+     * Holds {@code quantity} of the available stock if there is enough of it,
+     * until {@link #commit(int)} or {@link #cancel(int)}.
+     */
+    boolean tryReserve(int quantity) {
+        while (true) {
+            long current = state.get();
+            int available = available(current);
+            if (available < quantity) {
+                return false;
+            }
+            if (state.compareAndSet(current, pack(available - quantity, unflushed(current)))) {
+                held.addAndGet(quantity);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Turns a held reservation into a delta for the next flush.
+     */
+    void commit(int quantity) {
+        held.addAndGet(-quantity);
+        state.getAndUpdate(current -> pack(available(current), unflushed(current) + quantity));
+    }
+
+    /**
+     * Gives back a held reservation whose transaction did not commit.
+     */
+    void cancel(int quantity) {
+        held.addAndGet(-quantity);
+        state.getAndUpdate(current -> pack(available(current) + quantity, unflushed(current)));
+    }
+
+    /**
+     * Gives back a committed reservation. If it was already flushed the delta
+     * turns negative and the next flush adds the stock back in the database.
+     */
+    void release(int quantity) {
+        state.getAndUpdate(current -> pack(available(current) + quantity, unflushed(current) - quantity));
+    }
+
+    /**
+     * Hands the unflushed delta to a flush and resets it to zero.
+     */
+    int drainUnflushed() {
+        return unflushed(state.getAndUpdate(current -> pack(available(current), 0)));
+    }
+
+    /**
+     * Puts back a delta whose flush failed, so the next flush retries it.
+     */
+    void restoreUnflushed(int delta) {
+        state.getAndUpdate(current -> pack(available(current), unflushed(current) + delta));
+    }
+
+    /**
+     * Sets the available stock from the database value, minus what is held or
+     * reserved here but not yet flushed. Callers must keep flushes and
+     * reservations out while loading.
+     */
+    void load(int databaseStock) {
+        int heldNow = held.get();
+        state.getAndUpdate(current -> pack(databaseStock - unflushed(current) - heldNow, unflushed(current)));
+        loaded = true;
+    }
+
+    /**
+     * Forces a reload from the database before the next reservation.
+     */
+    void invalidate() {
+        loaded = false;
+    }
+}
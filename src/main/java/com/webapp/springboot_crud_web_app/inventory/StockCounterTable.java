@@ -0,0 +1,141 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.function.Consumer;
+
+/**
+ * Stock counters keyed by primitive product id.
+ * <p>
+ * Lookups are lock-free; inserts lock only one of {@value #SEGMENTS} segments.
+ * Each segment is an open-addressing table of {@code long} keys, so no
+ * {@code Long} is boxed on the reservation path. Counters are never removed,
+ * which keeps the probing simple; a deleted product's counter is just left
+ * unloaded.
+ */
+final class StockCounterTable {
+
+    private static final int SEGMENTS = 16;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long EMPTY = 0L;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    StockCounterTable() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @return the counter of the product, or {@code null} if it has none yet
+     */
+    StockCounter get(long productId) {
+        return segmentFor(productId).get(productId);
+    }
+
+    StockCounter getOrCreate(long productId) {
+        if (productId == EMPTY) {
+            throw new IllegalArgumentException("Product id 0 cannot be tracked");
+        }
+        StockCounter counter = get(productId);
+        return counter != null ? counter : segmentFor(productId).getOrCreate(productId);
+    }
+
+    void forEach(Consumer<StockCounter> action) {
+        for (Segment segment : segments) {
+            Table table = segment.table;
+            for (StockCounter counter : table.counters) {
+                if (counter != null) {
+                    action.accept(counter);
+                }
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.table.size;
+        }
+        return size;
+    }
+
+    private static long mix(long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private Segment segmentFor(long productId) {
+        return segments[(int) (mix(productId) >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static final class Table {
+
+        final long[] keys;
+        final StockCounter[] counters;
+        int size;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            counters = new StockCounter[capacity];
+        }
+
+        StockCounter find(long productId) {
+            int mask = keys.length - 1;
+            for (int i = (int) mix(productId) & mask; ; i = (i + 1) & mask) {
+                long key = keys[i];
+                if (key == productId) {
+                    // May still be null while an insert is being published; the caller then locks
+                    return counters[i];
+                }
+                if (key == EMPTY) {
+                    return null;
+                }
+            }
+        }
+
+        void insert(StockCounter counter) {
+            int mask = keys.length - 1;
+            int i = (int) mix(counter.getProductId()) & mask;
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            counters[i] = counter;
+            keys[i] = counter.getProductId();
+            size++;
+        }
+    }
+
+    private static final class Segment {
+
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+
+        StockCounter get(long productId) {
+            return table.find(productId);
+        }
+
+        synchronized StockCounter getOrCreate(long productId) {
+            Table current = table;
+            StockCounter counter = current.find(productId);
+            if (counter != null) {
+                return counter;
+            }
+            counter = new StockCounter(productId);
+            if ((current.size + 1) * 4 > current.keys.length * 3) {
+                // Grow into a new table and publish it; readers keep using the old one until then
+                Table grown = new Table(current.keys.length * 2);
+                for (StockCounter existing : current.counters) {
+                    if (existing != null) {
+                        grown.insert(existing);
+                    }
+                }
+                grown.insert(counter);
+                table = grown;
+            } else {
+                current.insert(counter);
+                // Volatile write publishes the new slot to lock-free readers
+                table = current;
+            }
+            return counter;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A time-limited hold on stock, tracked in memory by a {@link ReservationTimingWheel}.
+ * <p>
+ * An order taking it over, release and expiry race for the same hold; whichever calls
+ * {@link #settle()} first wins and the others see it as gone.
+ */
+public final class StockHold {
+
+    private final String id;
+    private final long productId;
+    private final int quantity;
+    private final long expiresAtMillis;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    // Guarded by the wheel
+    int remainingRounds;
+    boolean onWheel;
+
+    public StockHold(String id, long productId, int quantity, long expiresAtMillis) {
+        this.id = id;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * @return {@code true} if this call settled the hold, {@code false} if it was settled already
+     */
+    public boolean settle() {
+        return settled.compareAndSet(false, true);
+    }
+
+    /**
+     * Undoes {@link #settle()} when the transaction that settled the hold rolled back.
+     */
+    public void reopen() {
+        settled.set(false);
+    }
+
+    public boolean isSettled() {
+        return settled.get();
+    }
+}
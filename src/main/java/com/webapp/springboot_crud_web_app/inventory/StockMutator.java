@@ -0,0 +1,254 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository.ProductQuantity;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.InventoryLedgerService;
+import com.webapp.springboot_crud_web_app.service.StockStripeService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Takes and gives back product stock for orders, order items and
+ * reservations, wherever the current stock is kept: the inventory engine's
+ * counters if it is enabled, else the ledger if enabled, else the stock
+ * stripes if enabled, else the {@code products.stock} column.
+ * <p>
+ * Runs in the caller's transaction, so stock taken is given back by a
+ * rollback in every mode; stock given back to the engine is only released
+ * once the transaction commits. For the stock column, where the check and
+ * the change must not interleave with another order's, the products are
+ * locked with one {@code SELECT ... FOR UPDATE} per 1,000 ids, in ascending id
+ * order. The ledger checks without locking them (see
+ * {@link InventoryLedgerService#take(Map)}).
+ */
+@Slf4j
+@Component
+public class StockMutator {
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final InventoryEngine inventoryEngine;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final StockStripeService stockStripeService;
+
+    @Autowired
+    public StockMutator(ProductRepository productRepository, OrderItemRepository orderItemRepository,
+                        InventoryEngine inventoryEngine, InventoryLedgerService inventoryLedgerService,
+                        StockStripeService stockStripeService) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.inventoryEngine = inventoryEngine;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.stockStripeService = stockStripeService;
+    }
+
+    /**
+     * Takes the given quantities, all or nothing.
+     *
+     * @return the products, by id
+     * @throws ResourceNotFoundException if a product does not exist
+     * @throws BusinessRuleViolationException if a product has too little stock
+     */
+    public Map<Long, Product> take(Map<Long, Integer> quantitiesByProductId) {
+        return adjust(quantitiesByProductId.keySet(), quantitiesByProductId);
+    }
+
+    /**
+     * Gives back the given quantities.
+     */
+    public void giveBack(Map<Long, Integer> quantitiesByProductId) {
+        Map<Long, Integer> quantitiesTaken = new HashMap<>(quantitiesByProductId.size() * 2);
+        quantitiesByProductId.forEach((productId, quantity) -> quantitiesTaken.put(productId, -quantity));
+        adjust(quantitiesTaken.keySet(), quantitiesTaken);
+    }
+
+    /**
+     * Gives back the stock held by the given orders' items. Quantities are
+     * summed per product by the database, so the work grows with the number of
+     * distinct products rather than items; on the stock column they are applied
+     * with one statement per 1,000 orders.
+     */
+    public void giveBackOrders(List<Long> orderIds) {
+        for (List<Long> chunk : BatchUtils.partition(orderIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            if (mode() == Mode.COLUMN) {
+                if (!productRepository.findIdsForOrderIdInForUpdate(chunk).isEmpty()) {
+                    productRepository.restoreStockForOrderIdIn(chunk);
+                }
+                continue;
+            }
+            Map<Long, Integer> quantitiesByProductId = new LinkedHashMap<>();
+            for (ProductQuantity row : orderItemRepository.sumQuantitiesByProductIdForOrderIdIn(chunk)) {
+                quantitiesByProductId.put(row.getProductId(), Math.toIntExact(row.getQuantity()));
+            }
+            if (!quantitiesByProductId.isEmpty()) {
+                giveBack(quantitiesByProductId);
+            }
+        }
+        log.debug("event=stock.ordersGivenBack orders={}", orderIds.size());
+    }
+
+    /**
+     * Locks the products for changes still to come in the current transaction,
+     * with one {@code SELECT ... FOR UPDATE} per 1,000 ids in ascending id
+     * order. A transaction making several changes, each locking its own
+     * products, then takes every product lock in that order rather than change
+     * by change. Only the stock column is guarded by product locks; in the
+     * other modes this does nothing. Products that do not exist are skipped.
+     */
+    public void lockProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty() || mode() != Mode.COLUMN) {
+            return;
+        }
+        for (List<Long> chunk : BatchUtils.partition(new ArrayList<>(new TreeSet<>(productIds)),
+                BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            productRepository.findAllByIdInForUpdate(chunk);
+        }
+        log.debug("event=stock.locked products={}", productIds.size());
+    }
+
+    /**
+     * Takes stock for positive quantities and gives it back for negative ones,
+     * the taking all or nothing.
+     *
+     * @param productIds      every product the caller needs, for prices; the
+     *                        products in {@code quantitiesTaken} are added
+     * @param quantitiesTaken net quantity to take per product id
+     * @return the products, by id
+     * @throws ResourceNotFoundException if a product does not exist
+     * @throws BusinessRuleViolationException if a product has too little stock
+     */
+    public Map<Long, Product> adjust(Collection<Long> productIds, Map<Long, Integer> quantitiesTaken) {
+        Mode mode = mode();
+        TreeSet<Long> ids = new TreeSet<>(productIds);
+        ids.addAll(quantitiesTaken.keySet());
+        Map<Long, Product> productsById = loadProducts(ids, mode == Mode.COLUMN);
+
+        // Ascending product id, the order every other change takes its locks in
+        Map<Long, Integer> taken = new TreeMap<>();
+        Map<Long, Integer> returned = new TreeMap<>();
+        quantitiesTaken.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                taken.put(productId, quantity);
+            } else if (quantity < 0) {
+                returned.put(productId, -quantity);
+            }
+        });
+        if (taken.isEmpty() && returned.isEmpty()) {
+            return productsById;
+        }
+
+        switch (mode) {
+            case ENGINE -> {
+                OptionalLong shortProductId = taken.isEmpty() ? OptionalLong.empty() : inventoryEngine.reserve(taken);
+                if (shortProductId.isPresent()) {
+                    Long productId = shortProductId.getAsLong();
+                    Integer available = inventoryEngine.getAvailable(productId);
+                    throw insufficientStock(productsById.get(productId), available != null ? available : 0,
+                            taken.get(productId));
+                }
+                if (!returned.isEmpty()) {
+                    inventoryEngine.releaseAfterCommit(returned);
+                }
+            }
+            case LEDGER -> {
+                OptionalLong shortProductId = taken.isEmpty() ? OptionalLong.empty() : inventoryLedgerService.take(taken);
+                if (shortProductId.isPresent()) {
+                    Product product = productsById.get(shortProductId.getAsLong());
+                    throw insufficientStock(product, inventoryLedgerService.getCurrentStock(product),
+                            taken.get(product.getId()));
+                }
+                if (!returned.isEmpty()) {
+                    inventoryLedgerService.record(returned, MovementType.ORDER);
+                }
+            }
+            case STRIPES -> new TreeMap<>(quantitiesTaken).forEach((productId, quantity) -> {
+                if (quantity > 0) {
+                    stockStripeService.decrement(productsById.get(productId), quantity);
+                } else if (quantity < 0) {
+                    stockStripeService.increment(productsById.get(productId), -quantity);
+                }
+            });
+            case COLUMN -> {
+                taken.forEach((productId, quantity) -> {
+                    Product product = productsById.get(productId);
+                    if (product.getStock() < quantity) {
+                        throw insufficientStock(product, product.getStock(), quantity);
+                    }
+                });
+                taken.forEach((productId, quantity) -> {
+                    Product product = productsById.get(productId);
+                    product.setStock(product.getStock() - quantity);
+                });
+                returned.forEach((productId, quantity) -> {
+                    Product product = productsById.get(productId);
+                    product.setStock(product.getStock() + quantity);
+                });
+            }
+        }
+        log.debug("event=stock.adjusted mode={} taken={} returned={}", mode, taken.size(), returned.size());
+        return productsById;
+    }
+
+    /**
+     * Loads the products, in ascending id order, locking them if asked.
+     */
+    private Map<Long, Product> loadProducts(TreeSet<Long> ids, boolean lock) {
+        Map<Long, Product> productsById = new HashMap<>(ids.size() * 2);
+        for (List<Long> chunk : BatchUtils.partition(new ArrayList<>(ids), BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            List<Product> products = lock
+                    ? productRepository.findAllByIdInForUpdate(chunk)
+                    : productRepository.findAllById(chunk);
+            for (Product product : products) {
+                productsById.put(product.getId(), product);
+            }
+        }
+        for (Long productId : ids) {
+            if (!productsById.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+        }
+        return productsById;
+    }
+
+    private Mode mode() {
+        if (inventoryEngine.isEnabled()) {
+            return Mode.ENGINE;
+        }
+        if (inventoryLedgerService.isEnabled()) {
+            return Mode.LEDGER;
+        }
+        return stockStripeService.isEnabled() ? Mode.STRIPES : Mode.COLUMN;
+    }
+
+    private static BusinessRuleViolationException insufficientStock(Product product, int available, int requested) {
+        return new BusinessRuleViolationException(
+                "Insufficient stock for product '" + product.getName() +
+                "'. Available: " + available + ", Requested: " + requested);
+    }
+
+    /**
+     * Where the current stock is kept, in order of precedence.
+     */
+    private enum Mode {
+        ENGINE, LEDGER, STRIPES, COLUMN
+    }
+}
@@ -0,0 +1,43 @@
+package com.webapp.springboot_crud_web_app.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most a fixed number of events through per second and drops the rest.
+ * Used to keep high-volume debug output (SQL, requests) at a bounded cost.
+ */
+public class RateLimitedSampler {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int permitsPerSecond;
+    private final AtomicLong currentSecond = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger permitsUsed = new AtomicInteger();
+
+    /**
+     * @param permitsPerSecond the number of events sampled per second; 0 or less samples nothing
+     */
+    public RateLimitedSampler(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * @return {@code true} if the current event should be logged
+     */
+    public boolean sample() {
+        if (permitsPerSecond <= 0) {
+            return false;
+        }
+        long second = System.nanoTime() / NANOS_PER_SECOND;
+        long previous = currentSecond.get();
+        if (previous != second && currentSecond.compareAndSet(previous, second)) {
+            permitsUsed.set(0);
+        }
+        return permitsUsed.incrementAndGet() <= permitsPerSecond;
+    }
+
+    public int getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
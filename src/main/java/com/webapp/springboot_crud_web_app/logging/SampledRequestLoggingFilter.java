@@ -0,0 +1,39 @@
+package com.webapp.springboot_crud_web_app.logging;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs one key/value line per sampled request. Server errors are always logged.
+ */
+@Slf4j
+public class SampledRequestLoggingFilter extends OncePerRequestFilter {
+
+    private final RateLimitedSampler sampler;
+
+    public SampledRequestLoggingFilter(RateLimitedSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+            if (log.isInfoEnabled() && (status >= 500 || sampler.sample())) {
+                log.info("event=http.request method={} path={} status={} durationMs={}",
+                        request.getMethod(), request.getRequestURI(), status, (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+}
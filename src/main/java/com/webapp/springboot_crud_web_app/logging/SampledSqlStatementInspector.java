@@ -0,0 +1,29 @@
+package com.webapp.springboot_crud_web_app.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs a rate-limited sample of the SQL statements Hibernate prepares,
+ * replacing {@code show-sql}, which prints every statement.
+ */
+@Slf4j
+public class SampledSqlStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient RateLimitedSampler sampler;
+
+    public SampledSqlStatementInspector(RateLimitedSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isInfoEnabled() && sampler.sample()) {
+            log.info("event=sql.sample sql={}", sql);
+        }
+        return sql;
+    }
+}
@@ -6,6 +6,7 @@ import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
 import com.webapp.springboot_crud_web_app.model.Order;
 import com.webapp.springboot_crud_web_app.model.OrderItem;
 import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.util.Money;
 
 @Component
 public class OrderItemMapper {
@@ -25,10 +26,27 @@ public class OrderItemMapper {
                 .build();
     }
     
+    /**
+     * Prices the item at the product's current price; the client's unit price
+     * and subtotal are ignored.
+     */
     public OrderItem toEntity(OrderItemDTO orderItemDTO, Order order, Product product) {
         if (orderItemDTO == null) {
             return null;
         }
+        return toEntity(orderItemDTO, order, product, Money.toCents(product.getPrice()));
+    }
+    
+    /**
+     * Prices the item at a price snapshot taken by the caller, so an order
+     * priced in one pass converts each product's price only once.
+     *
+     * @param unitPriceCents the product's price in cents
+     */
+    public OrderItem toEntity(OrderItemDTO orderItemDTO, Order order, Product product, long unitPriceCents) {
+        if (orderItemDTO == null) {
+            return null;
+        }
         
         OrderItem orderItem = new OrderItem();
         
@@ -40,31 +58,31 @@ public class OrderItemMapper {
         orderItem.setOrder(order);
         orderItem.setProduct(product);
         orderItem.setQuantity(orderItemDTO.getQuantity());
-        orderItem.setUnitPrice(orderItemDTO.getUnitPrice());
-        orderItem.setSubtotal(orderItemDTO.getSubtotal());
+        orderItem.setUnitPrice(Money.toBigDecimal(unitPriceCents));
+        orderItem.setSubtotal(Money.toBigDecimal(Money.times(unitPriceCents, orderItemDTO.getQuantity())));
         
         return orderItem;
     }
     
+    /**
+     * Switching to another product takes that product's current price; a new
+     * quantity keeps the item's price. The subtotal is recomputed either way.
+     */
     public void updateEntityFromDTO(OrderItemDTO orderItemDTO, OrderItem orderItem, Product product) {
         if (orderItemDTO == null || orderItem == null) {
             return;
         }
         
-        if (product != null) {
+        if (product != null && (orderItem.getProduct() == null || !product.getId().equals(orderItem.getProduct().getId()))) {
             orderItem.setProduct(product);
+            orderItem.setUnitPrice(Money.toBigDecimal(Money.toCents(product.getPrice())));
         }
         
         if (orderItemDTO.getQuantity() != null) {
             orderItem.setQuantity(orderItemDTO.getQuantity());
         }
         
-        if (orderItemDTO.getUnitPrice() != null) {
-            orderItem.setUnitPrice(orderItemDTO.getUnitPrice());
-        }
-        
-        if (orderItemDTO.getSubtotal() != null) {
-            orderItem.setSubtotal(orderItemDTO.getSubtotal());
-        }
+        orderItem.setSubtotal(Money.toBigDecimal(
+                Money.times(Money.toCents(orderItem.getUnitPrice()), orderItem.getQuantity())));
     }
 } 
\ No newline at end of file
@@ -30,6 +30,14 @@ public class OrderMapper {
                 .map(orderItemMapper::toDTO)
                 .collect(Collectors.toList());
         
+        return toDTO(order, orderItemDTOs);
+    }
+    
+    /**
+     * Maps the order with items mapped elsewhere; the order's own item
+     * collection is not read, so it need not be loaded.
+     */
+    public OrderDTO toDTO(Order order, List<OrderItemDTO> orderItemDTOs) {
         return OrderDTO.builder()
                 .id(order.getId())
                 .customerName(order.getCustomerName())
@@ -58,10 +66,9 @@ public class OrderMapper {
         order.setCustomerName(orderDTO.getCustomerName());
         order.setCustomerEmail(orderDTO.getCustomerEmail());
         order.setShippingAddress(orderDTO.getShippingAddress());
-        order.setTotalAmount(orderDTO.getTotalAmount());
         order.setStatus(orderDTO.getStatus());
         
-        // Order items will be set separately
+        // Order items and the total are set separately, from the products' prices
         
         return order;
     }
@@ -83,10 +90,6 @@ public class OrderMapper {
             order.setShippingAddress(orderDTO.getShippingAddress());
         }
         
-        if (orderDTO.getTotalAmount() != null) {
-            order.setTotalAmount(orderDTO.getTotalAmount());
-        }
-        
         if (orderDTO.getStatus() != null) {
             order.setStatus(orderDTO.getStatus());
         }
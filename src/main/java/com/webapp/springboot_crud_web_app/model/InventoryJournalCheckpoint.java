@@ -0,0 +1,28 @@
+package com.webapp.springboot_crud_web_app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The last inventory journal segment whose deltas were written to {@code products}.
+ * Updated in the same transaction as the stock, so journal replay after a crash
+ * never applies a segment twice. Holds a single row.
+ */
+@Entity
+@Table(name = "inventory_journal_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryJournalCheckpoint {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_segment", nullable = false)
+    private Long lastSegment;
+}
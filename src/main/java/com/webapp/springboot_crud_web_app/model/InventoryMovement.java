@@ -0,0 +1,61 @@
+package com.webapp.springboot_crud_web_app.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One signed stock change of a product in the inventory ledger.
+ * <p>
+ * Movements are only ever inserted, so concurrent writers never contend on a
+ * row. Compaction folds them into {@code products.stock} and flags them as
+ * compacted; they are kept as the audit trail. A product's current stock is
+ * its {@code stock} column plus the movements not yet compacted.
+ */
+@Entity
+@Table(name = "inventory_movements",
+        indexes = @Index(name = "idx_inventory_movements_product_compacted", columnList = "product_id, compacted"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MovementType type;
+
+    @Column(nullable = false)
+    private boolean compacted;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum MovementType {
+        ORDER,
+        ADJUSTMENT
+    }
+}
@@ -2,10 +2,12 @@ package com.webapp.springboot_crud_web_app.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.CascadeType;
@@ -17,6 +19,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
@@ -65,17 +68,62 @@ public class Order {
     @Column(nullable = false)
     private OrderStatus status;
 
+    // Provisional id of an order accepted through the intake journal; replaying it again finds this order
+    @Column(name = "intake_id", unique = true, length = 36)
+    private String intakeId;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
-    @CreationTimestamp
-    @Column(updatable = false)
+    // Partition key of orders and, copied to each item, of order_items in the postgres schema
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    /**
+     * Stamps the creation time before the order's items are cascaded, so each
+     * item can copy it as its partition key. Truncated to the column's precision
+     * so the value held here matches the stored one in key lookups.
+     */
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+
     public enum OrderStatus {
-        PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
+        PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED;
+
+        /**
+         * @return the statuses an order may move to this one from; none for PENDING, where every order starts
+         */
+        public Set<OrderStatus> allowedFrom() {
+            return switch (this) {
+                case PENDING -> EnumSet.noneOf(OrderStatus.class);
+                case CONFIRMED -> EnumSet.of(PENDING);
+                case SHIPPED -> EnumSet.of(CONFIRMED);
+                case DELIVERED -> EnumSet.of(SHIPPED);
+                case CANCELLED -> EnumSet.of(PENDING, CONFIRMED);
+            };
+        }
+
+        /**
+         * @return whether an order in this status still holds the stock taken when it was
+         *         placed: it has neither been cancelled nor left the warehouse
+         */
+        public boolean holdsStock() {
+            return CANCELLED.allowedFrom().contains(this);
+        }
+
+        /**
+         * @return whether orders in this status are finished with and never move again. Open
+         *         orders are covered by the partial status index in {@code schema-postgresql.sql}
+         */
+        public boolean isTerminal() {
+            return this == DELIVERED || this == CANCELLED;
+        }
     }
 } 
\ No newline at end of file
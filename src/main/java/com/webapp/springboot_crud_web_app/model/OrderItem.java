@@ -1,6 +1,7 @@
 package com.webapp.springboot_crud_web_app.model;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,6 +11,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -27,8 +30,10 @@ import lombok.ToString;
 @ToString(exclude = "order")
 public class OrderItem {
 
+    // Ids come from a pooled sequence rather than IDENTITY so that item inserts can be sent as JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Order is required")
@@ -36,6 +41,10 @@ public class OrderItem {
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    // The order's createdAt, which partitions order_items alongside orders in the postgres schema
+    @Column(name = "order_created_at", nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
     @NotNull(message = "Product is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
@@ -55,4 +64,11 @@ public class OrderItem {
     @DecimalMin(value = "0.00", inclusive = true, message = "Subtotal must be greater than or equal to 0.00")
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal subtotal;
-} 
\ No newline at end of file
+
+    @PrePersist
+    void copyOrderCreatedAt() {
+        if (orderCreatedAt == null && order != null) {
+            orderCreatedAt = order.getCreatedAt();
+        }
+    }
+}
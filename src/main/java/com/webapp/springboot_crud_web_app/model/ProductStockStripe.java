@@ -0,0 +1,39 @@
+package com.webapp.springboot_crud_web_app.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One sub-counter of a product's stock when striped inventory is enabled.
+ * A product's available stock is the sum of its stripes; buyers decrement a
+ * single stripe so concurrent orders for the same product rarely lock the same row.
+ */
+@Entity
+@Table(name = "product_stock_stripes",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "stripe_index"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "stripe_index", nullable = false)
+    private Integer stripeIndex;
+
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -0,0 +1,32 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionException;
+
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Tells apart orders that were rejected from orders that could not be written.
+ */
+final class OrderFailures {
+
+    private OrderFailures() {
+    }
+
+    /**
+     * A constraint violation counts as a rejection: the database refused the
+     * order itself, and would refuse it again however often it is retried.
+     *
+     * @return true if the database failed rather than the order being rejected,
+     *         so the same order may well succeed when tried again
+     */
+    static boolean isDatabaseFailure(RuntimeException ex) {
+        if (ex instanceof DataIntegrityViolationException || ex instanceof ConstraintViolationException) {
+            return false;
+        }
+        return ex instanceof DataAccessException || ex instanceof TransactionException
+                || ex instanceof PersistenceException;
+    }
+}
@@ -0,0 +1,285 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.datasource.ReadYourWrites;
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.inventory.LockRetryExecutor;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates orders in groups: callers queue their order, and a single writer
+ * thread drains the queue in batches of up to {@code max-batch-size} orders,
+ * waiting at most {@code max-wait-ms} for a batch to fill, and creates the
+ * whole batch in one transaction, so the batch shares one commit. The
+ * products of the whole batch are locked first, in ascending id order (see
+ * {@link OrderService#lockStockFor}), so its orders don't take their locks
+ * order by order, out of the order every other transaction takes them in.
+ * <p>
+ * An order rejected by a business rule (unknown product, not enough stock)
+ * fails on its own: the batch is rolled back and created again without it.
+ * A database failure can't be pinned on one order, so the batch is then
+ * created one order per transaction instead. When the queue is full the caller
+ * creates its order itself, which bounds how long an order can wait. A caller
+ * waits at most {@code wait-timeout-ms} for its batch; an order still queued by
+ * then is withdrawn and created by the caller instead.
+ */
+@Slf4j
+@Component
+public class OrderGroupCommitter {
+
+    public static final String BATCH_SIZE_SUMMARY = "orders.group_commit.batch.size";
+    public static final String FALLBACK_COUNTER = "orders.group_commit.fallbacks";
+
+    // After this many rolled-back attempts the rest of a batch is created order by order
+    static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final OrderService orderService;
+    private final LockRetryExecutor lockRetryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitMs;
+    private final long waitTimeoutMs;
+    private final BlockingQueue<PendingOrder> queue;
+    private final DistributionSummary batchSizes;
+    private final Counter fallbacks;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public OrderGroupCommitter(OrderService orderService, LockRetryExecutor lockRetryExecutor,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${app.orders.group-commit.enabled:false}") boolean enabled,
+                               @Value("${app.orders.group-commit.max-batch-size:64}") int maxBatchSize,
+                               @Value("${app.orders.group-commit.max-wait-ms:2}") long maxWaitMs,
+                               @Value("${app.orders.group-commit.queue-capacity:1024}") int queueCapacity,
+                               @Value("${app.orders.group-commit.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.orderService = orderService;
+        this.lockRetryExecutor = lockRetryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMs = maxWaitMs;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                .description("Orders committed together by the group-commit writer")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder(FALLBACK_COUNTER)
+                .description("Batches created one order per transaction after a database failure")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "order-group-commit");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("event=orders.group_commit.started maxBatchSize={} maxWaitMs={}", maxBatchSize, maxWaitMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        // The writer drains what is already queued before it exits
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        drainAlone();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Creates the order as part of the next batch and waits for its batch to commit.
+     *
+     * @param orderDTO the order to create
+     * @return the created order
+     */
+    public OrderDTO create(OrderDTO orderDTO) {
+        // The batch writes on the writer thread, which knows nothing of the caller's request
+        ReadYourWrites.recordWrite();
+        PendingOrder pending = new PendingOrder(orderDTO);
+        if (!running || !queue.offer(pending)) {
+            return createAlone(orderDTO);
+        }
+        if (!running) {
+            // Stopped while queueing: the writer and stop() may both have drained already
+            drainAlone();
+        }
+        try {
+            return pending.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (queue.remove(pending)) {
+                return createAlone(orderDTO);
+            }
+            // Already in a batch, which may yet commit
+            throw new TransactionTimedOutException("Order batch did not complete within " + waitTimeoutMs
+                    + " ms; the order may still be created");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the order batch", ex);
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(this::completeAlone);
+            } catch (RuntimeException ex) {
+                log.error("event=orders.group_commit.failed size={}", batch.size(), ex);
+                batch.forEach(pending -> pending.future.completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+        // Nothing may be left waiting on a writer that is gone
+        drainAlone();
+    }
+
+    // Callers that queued while the committer stopped drain too; one at a time
+    private synchronized void drainAlone() {
+        for (PendingOrder pending; (pending = queue.poll()) != null; ) {
+            completeAlone(pending);
+        }
+    }
+
+    private void fillBatch(List<PendingOrder> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        List<PendingOrder> remaining = new ArrayList<>(batch);
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            if (attempt > MAX_BATCH_ATTEMPTS) {
+                remaining.forEach(this::completeAlone);
+                return;
+            }
+            BatchOutcome outcome;
+            try {
+                outcome = transactionTemplate.execute(status -> {
+                    orderService.lockStockFor(remaining.stream().map(pending -> pending.order).toList());
+                    List<OrderDTO> created = new ArrayList<>(remaining.size());
+                    for (PendingOrder pending : remaining) {
+                        try {
+                            created.add(orderService.create(pending.order));
+                        } catch (RuntimeException ex) {
+                            status.setRollbackOnly();
+                            return new BatchOutcome(created, pending, ex);
+                        }
+                    }
+                    return new BatchOutcome(created, null, null);
+                });
+            } catch (RuntimeException ex) {
+                // Failed while locking or at commit, so no single order is to blame
+                fallBackToSingleOrders(remaining, ex);
+                return;
+            }
+
+            if (outcome.rejected() == null) {
+                batchSizes.record(remaining.size());
+                for (int i = 0; i < remaining.size(); i++) {
+                    remaining.get(i).future.complete(outcome.created().get(i));
+                }
+                return;
+            }
+            if (OrderFailures.isDatabaseFailure(outcome.error())) {
+                fallBackToSingleOrders(remaining, outcome.error());
+                return;
+            }
+            log.debug("event=orders.group_commit.rejected attempt={} size={}", attempt, remaining.size());
+            outcome.rejected().future.completeExceptionally(outcome.error());
+            remaining.remove(outcome.rejected());
+        }
+    }
+
+    private void fallBackToSingleOrders(List<PendingOrder> batch, RuntimeException cause) {
+        fallbacks.increment();
+        log.warn("event=orders.group_commit.fallback size={} error={}", batch.size(), cause.toString());
+        batch.forEach(this::completeAlone);
+    }
+
+    private void completeAlone(PendingOrder pending) {
+        try {
+            pending.future.complete(createAlone(pending.order));
+        } catch (RuntimeException ex) {
+            pending.future.completeExceptionally(ex);
+        }
+    }
+
+    private OrderDTO createAlone(OrderDTO orderDTO) {
+        return lockRetryExecutor.execute("order.create", () -> orderService.create(orderDTO));
+    }
+
+    private static final class PendingOrder {
+
+        private final OrderDTO order;
+        private final CompletableFuture<OrderDTO> future = new CompletableFuture<>();
+
+        PendingOrder(OrderDTO order) {
+            this.order = order;
+        }
+    }
+
+    private record BatchOutcome(List<OrderDTO> created, PendingOrder rejected, RuntimeException error) {
+    }
+}
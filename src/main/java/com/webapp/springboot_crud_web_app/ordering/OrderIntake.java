@@ -0,0 +1,272 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderIntakeDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderIntakeDTO.IntakeStatus;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.ordering.OrderIntakeJournal.Entry;
+import com.webapp.springboot_crud_web_app.ordering.OrderIntakeJournal.Position;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accept-then-persist order placement: an order is appended to the local
+ * {@link OrderIntakeJournal} and acknowledged with a provisional id, and a
+ * background thread creates the journaled orders in the database in the
+ * order they were accepted. While the database is unavailable the drain backs
+ * off and retries the same order, so orders keep being accepted through
+ * maintenance windows and failovers.
+ * <p>
+ * Products and stock are only checked when an order is drained, so an accepted
+ * order can still be rejected; its status says so. Records left in the journal
+ * by a crash are drained after the restart. Each order carries its provisional
+ * id, so a record that was created just before the crash is not created twice.
+ */
+@Slf4j
+@Component
+public class OrderIntake {
+
+    public static final String DRAINED_COUNTER = "orders.intake.drained";
+    public static final String PENDING_GAUGE = "orders.intake.pending";
+
+    static final int DRAIN_BATCH_SIZE = 100;
+    // Outcomes of rejected orders are only kept for the most recent ones
+    static final int MAX_REMEMBERED_REJECTIONS = 10_000;
+    private static final long IDLE_WAIT_MS = 200;
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path journalDirectory;
+    private final int segmentBytes;
+    private final boolean syncWrites;
+    private final long retryBackoffMs;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> rejections = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_REMEMBERED_REJECTIONS;
+        }
+    });
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private OrderIntakeJournal journal;
+    private volatile boolean running;
+    private Thread drainer;
+
+    record IntakeRecord(String provisionalId, OrderDTO order) {
+    }
+
+    @Autowired
+    public OrderIntake(OrderService orderService, OrderRepository orderRepository, ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.orders.intake.enabled:false}") boolean enabled,
+                       @Value("${app.orders.intake.journal-dir:data/order-intake}") String journalDirectory,
+                       @Value("${app.orders.intake.segment-bytes:16777216}") int segmentBytes,
+                       @Value("${app.orders.intake.sync-writes:true}") boolean syncWrites,
+                       @Value("${app.orders.intake.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.segmentBytes = segmentBytes;
+        this.syncWrites = syncWrites;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new OrderIntakeJournal(journalDirectory, segmentBytes, syncWrites);
+        // Whatever is past the checkpoint was accepted but may not be an order yet
+        Position position = journal.checkpointed();
+        for (List<Entry> entries; !(entries = journal.read(position, DRAIN_BATCH_SIZE)).isEmpty(); ) {
+            for (Entry entry : entries) {
+                IntakeRecord record = parse(entry);
+                if (record != null) {
+                    pending.add(record.provisionalId());
+                }
+                position = entry.next();
+            }
+        }
+        meterRegistry.gaugeCollectionSize(PENDING_GAUGE, Tags.empty(), pending);
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "order-intake-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("event=orders.intake.started journalDir={} pending={}", journalDirectory, pending.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journals the order and returns before it is in the database.
+     *
+     * @param orderDTO the order to place
+     * @return the provisional id to follow the order by, with status ACCEPTED
+     */
+    public OrderIntakeDTO accept(OrderDTO orderDTO) {
+        if (!enabled) {
+            throw new BusinessRuleViolationException("Order intake is not enabled");
+        }
+        String provisionalId = UUID.randomUUID().toString();
+        pending.add(provisionalId);
+        try {
+            journal.append(objectMapper.writeValueAsBytes(new IntakeRecord(provisionalId, orderDTO)));
+        } catch (IOException ex) {
+            pending.remove(provisionalId);
+            throw new UncheckedIOException("Could not journal order " + provisionalId, ex);
+        }
+        wakeUp.release();
+        log.debug("event=orders.intake.accepted provisionalId={}", provisionalId);
+        return OrderIntakeDTO.builder()
+                .provisionalId(provisionalId)
+                .status(IntakeStatus.ACCEPTED)
+                .build();
+    }
+
+    /**
+     * @param provisionalId the id returned by {@link #accept(OrderDTO)}
+     * @return whether the order is still waiting, was created, or was rejected
+     * @throws ResourceNotFoundException if the id is unknown or its rejection has been forgotten
+     */
+    public OrderIntakeDTO getStatus(String provisionalId) {
+        OrderIntakeDTO.OrderIntakeDTOBuilder status = OrderIntakeDTO.builder().provisionalId(provisionalId);
+        // Checked before the database: an order leaves the pending set only once it is committed
+        if (pending.contains(provisionalId)) {
+            return status.status(IntakeStatus.ACCEPTED).build();
+        }
+        Order order = orderRepository.findByIntakeId(provisionalId).orElse(null);
+        if (order != null) {
+            return status.status(IntakeStatus.CREATED).orderId(order.getId()).build();
+        }
+        String rejection = rejections.get(provisionalId);
+        if (rejection != null) {
+            return status.status(IntakeStatus.REJECTED).message(rejection).build();
+        }
+        throw new ResourceNotFoundException("Order intake", "provisionalId", provisionalId);
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (!drainOnce()) {
+                    wakeUp.tryAcquire(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException ex) {
+                log.warn("event=orders.intake.drain_failed pending={} error={}", pending.size(), ex.toString());
+                try {
+                    Thread.sleep(retryBackoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the next batch of journaled orders and checkpoints past the ones
+     * that are done; a database failure stops the batch at the failing order.
+     *
+     * @return whether there was anything to drain
+     */
+    boolean drainOnce() throws IOException {
+        List<Entry> entries = journal.read(journal.checkpointed(), DRAIN_BATCH_SIZE);
+        Position drainedTo = null;
+        try {
+            for (Entry entry : entries) {
+                drain(entry);
+                drainedTo = entry.next();
+            }
+        } finally {
+            if (drainedTo != null) {
+                journal.checkpoint(drainedTo);
+            }
+        }
+        return !entries.isEmpty();
+    }
+
+    private void drain(Entry entry) {
+        IntakeRecord record = parse(entry);
+        if (record == null) {
+            meterRegistry.counter(DRAINED_COUNTER, "outcome", "unreadable").increment();
+            return;
+        }
+        try {
+            OrderDTO created = orderService.createFromIntake(record.provisionalId(), record.order());
+            meterRegistry.counter(DRAINED_COUNTER, "outcome", "created").increment();
+            log.debug("event=orders.intake.created provisionalId={} orderId={}", record.provisionalId(), created.getId());
+        } catch (RuntimeException ex) {
+            // Retried until the database is back; a constraint violation is a rejection
+            if (OrderFailures.isDatabaseFailure(ex)) {
+                throw ex;
+            }
+            rejections.put(record.provisionalId(), ex.getMessage());
+            meterRegistry.counter(DRAINED_COUNTER, "outcome", "rejected").increment();
+            log.info("event=orders.intake.rejected provisionalId={} error={}", record.provisionalId(), ex.getMessage());
+        }
+        pending.remove(record.provisionalId());
+    }
+
+    private IntakeRecord parse(Entry entry) {
+        try {
+            return objectMapper.readValue(entry.payload(), IntakeRecord.class);
+        } catch (IOException ex) {
+            // The checksum matched, so this was written by an incompatible version; skip it
+            log.error("event=orders.intake.unreadable position={} error={}", entry.next(), ex.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of accepted order requests, kept in fixed-size
+ * memory-mapped segment files until they are in the database.
+ * <p>
+ * Each record is {@code length (int), crc32 (int), payload}. The length is
+ * written last and a length of 0 marks the end of a segment, so a record only
+ * becomes visible once complete; a crash in the middle of an append leaves a
+ * record whose checksum doesn't match, and reading stops there. Whoever drains
+ * the journal reports how far it got with {@link #checkpoint(Position)}; fully
+ * drained segments are then deleted and replay after a restart starts at the
+ * checkpoint.
+ * <p>
+ * A journal is open in one place at a time: it holds an exclusive lock on a
+ * file in its directory until closed, so two processes never drain the same
+ * records. The operating system releases the lock when a process dies.
+ */
+public final class OrderIntakeJournal implements Closeable {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final String PREFIX = "intake-";
+    private static final String SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "intake.checkpoint";
+    private static final String LOCK_FILE = "intake.lock";
+    private static final byte[] ZEROS = new byte[4096];
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncWrites;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final FileChannel lockChannel;
+
+    private long writeSegment;
+    private int writeOffset;
+    private Position checkpoint;
+
+    /**
+     * Journal position: a segment number and a byte offset within it.
+     */
+    public record Position(long segment, int offset) {
+    }
+
+    /**
+     * A journaled record and the position right after it.
+     */
+    public record Entry(byte[] payload, Position next) {
+    }
+
+    /**
+     * @throws IllegalStateException if the journal is already open, in this or another process
+     */
+    public OrderIntakeJournal(Path directory, int segmentSize, boolean syncWrites) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER_SIZE + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncWrites = syncWrites;
+        Files.createDirectories(directory);
+        this.lockChannel = lock(directory);
+        try {
+            recover();
+        } catch (IOException | RuntimeException ex) {
+            lockChannel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Appends one record, forcing it to disk first if sync writes are on.
+     *
+     * @return the position right after the record
+     */
+    public synchronized Position append(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (payload.length == 0 || recordSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a journal segment");
+        }
+        if (writeOffset + recordSize > segmentSize) {
+            writeSegment++;
+            writeOffset = 0;
+            segments.put(writeSegment, map(writeSegment));
+        }
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(writeOffset + Integer.BYTES, (int) crc.getValue());
+        buffer.put(writeOffset + HEADER_SIZE, payload);
+        // The length goes in last: until then the record reads as the end of the segment
+        buffer.putInt(writeOffset, payload.length);
+        if (syncWrites) {
+            buffer.force(writeOffset, recordSize);
+        }
+        writeOffset += recordSize;
+        return new Position(writeSegment, writeOffset);
+    }
+
+    /**
+     * Reads up to {@code maxEntries} complete records starting at the given position.
+     */
+    public synchronized List<Entry> read(Position from, int maxEntries) {
+        List<Entry> entries = new ArrayList<>();
+        long segment = from.segment();
+        int offset = from.offset();
+        while (entries.size() < maxEntries && segment <= writeSegment) {
+            MappedByteBuffer buffer = segments.get(segment);
+            byte[] payload = buffer == null ? null : readRecord(buffer, offset);
+            if (payload == null) {
+                if (segment == writeSegment) {
+                    break;
+                }
+                // The rest of an older segment is empty; carry on in the next one
+                segment++;
+                offset = 0;
+                continue;
+            }
+            offset += HEADER_SIZE + payload.length;
+            entries.add(new Entry(payload, new Position(segment, offset)));
+        }
+        return entries;
+    }
+
+    /**
+     * @return the position up to which the journal has been drained
+     */
+    public synchronized Position checkpointed() {
+        return checkpoint;
+    }
+
+    /**
+     * Records that everything before the given position is in the database and
+     * deletes the segments that are entirely behind it.
+     */
+    public synchronized void checkpoint(Position drainedTo) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        buffer.putLong(drainedTo.segment()).putInt(drainedTo.offset());
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer.flip());
+            channel.force(false);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = drainedTo;
+
+        Map<Long, MappedByteBuffer> drained = segments.headMap(drainedTo.segment());
+        for (Long segment : new ArrayList<>(drained.keySet())) {
+            drained.remove(segment);
+            Files.deleteIfExists(pathOf(segment));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        // Mapped buffers are released by the garbage collector; force what is still dirty
+        if (!syncWrites) {
+            segments.values().forEach(MappedByteBuffer::force);
+        }
+        segments.clear();
+        try {
+            // Closing the channel releases the lock
+            lockChannel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static FileChannel lock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Order intake journal " + directory + " is already open elsewhere");
+        }
+        return channel;
+    }
+
+    private void recover() throws IOException {
+        checkpoint = readCheckpoint();
+        List<Long> onDisk = segmentsOnDisk();
+        for (long segment : onDisk) {
+            if (segment < checkpoint.segment()) {
+                Files.deleteIfExists(pathOf(segment));
+            } else {
+                segments.put(segment, map(segment));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(checkpoint.segment(), map(checkpoint.segment()));
+        }
+
+        // Appends continue after the last complete record; anything behind it is a torn write
+        writeSegment = segments.lastKey();
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        writeOffset = writeSegment == checkpoint.segment() ? checkpoint.offset() : 0;
+        for (byte[] payload; (payload = readRecord(buffer, writeOffset)) != null; ) {
+            writeOffset += HEADER_SIZE + payload.length;
+        }
+        for (int offset = writeOffset; offset < segmentSize; offset += ZEROS.length) {
+            buffer.put(offset, ZEROS, 0, Math.min(ZEROS.length, segmentSize - offset));
+        }
+        buffer.force();
+    }
+
+    /**
+     * @return the record's payload, or null at the end of the segment or at a corrupt record
+     */
+    private byte[] readRecord(MappedByteBuffer buffer, int offset) {
+        if (offset + HEADER_SIZE > segmentSize) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > segmentSize - offset - HEADER_SIZE) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_SIZE, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES) ? payload : null;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            List<Long> onDisk = segmentsOnDisk();
+            return new Position(onDisk.isEmpty() ? 0 : onDisk.get(0), 0);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new Position(buffer.getLong(), buffer.getInt());
+    }
+
+    private List<Long> segmentsOnDisk() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    private MappedByteBuffer map(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(pathOf(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path pathOf(long segment) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, segment, SUFFIX));
+    }
+}
@@ -0,0 +1,184 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the monthly range partitions of {@code orders} and {@code order_items}
+ * from {@code schema-postgresql.sql} ahead of time: creates the partitions for
+ * the current month and the next {@code months-ahead} months, and detaches
+ * those that ended more than {@code retention-months} ago.
+ * <p>
+ * Runs at startup and then daily. Creating a partition locks the parent table
+ * briefly, so months are created well before their first order rather than on
+ * demand. Detached partitions are left in place as standalone tables, named
+ * {@code orders_pYYYY_MM} and {@code order_items_pYYYY_MM}, to be archived or
+ * dropped without touching the live tables.
+ */
+@Slf4j
+@Component
+public class OrderPartitionMaintainer {
+
+    static final String ORDERS = "orders";
+    static final String ORDER_ITEMS = "order_items";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    @Autowired
+    public OrderPartitionMaintainer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, Clock clock,
+                                    @Value("${app.orders.partitions.enabled:false}") boolean enabled,
+                                    @Value("${app.orders.partitions.months-ahead:3}") int monthsAhead,
+                                    @Value("${app.orders.partitions.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.orders.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            try {
+                createPartitions(current.plusMonths(i));
+            } catch (RuntimeException ex) {
+                // Typically rows for that month already sit in the default partition
+                log.warn("event=order.partitions.create.failed month={} error={}", current.plusMonths(i), ex.toString());
+            }
+        }
+        try {
+            detachPartitionsBefore(current.minusMonths(retentionMonths));
+        } catch (RuntimeException ex) {
+            log.warn("event=order.partitions.detach.failed error={}", ex.toString());
+        }
+    }
+
+    /**
+     * Creates the month's partition of {@code orders} and of {@code order_items},
+     * unless they already exist.
+     */
+    public void createPartitions(YearMonth month) {
+        for (String table : List.of(ORDERS, ORDER_ITEMS)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, month)
+                    + " PARTITION OF " + table + " FOR VALUES " + bounds(month));
+        }
+        log.debug("event=order.partitions.ensured month={}", month);
+    }
+
+    /**
+     * Detaches the monthly partitions of months before {@code cutoff}, one month
+     * per transaction. The items partition goes first and loses its foreign key
+     * to {@code orders}, which would otherwise block detaching the orders it
+     * references.
+     *
+     * @return the months detached, oldest first
+     */
+    public List<YearMonth> detachPartitionsBefore(YearMonth cutoff) {
+        Set<YearMonth> itemMonths = attachedMonths(ORDER_ITEMS);
+        List<YearMonth> detached = new ArrayList<>();
+        for (YearMonth month : attachedMonths(ORDERS)) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            String orders = partitionName(ORDERS, month);
+            String orderItems = partitionName(ORDER_ITEMS, month);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (itemMonths.contains(month)) {
+                    jdbcTemplate.execute("ALTER TABLE " + ORDER_ITEMS + " DETACH PARTITION " + orderItems);
+                    for (String constraint : jdbcTemplate.queryForList("SELECT conname FROM pg_constraint "
+                            + "WHERE conrelid = ?::regclass AND confrelid = ?::regclass AND contype = 'f'",
+                            String.class, orderItems, ORDERS)) {
+                        jdbcTemplate.execute("ALTER TABLE " + orderItems + " DROP CONSTRAINT \"" + constraint + "\"");
+                    }
+                }
+                jdbcTemplate.execute("ALTER TABLE " + ORDERS + " DETACH PARTITION " + orders);
+            });
+            detached.add(month);
+            log.info("event=order.partitions.detached month={} orders={} orderItems={}", month, orders, orderItems);
+        }
+        return detached;
+    }
+
+    /**
+     * @return the months of the monthly partitions currently attached to the table, oldest first
+     */
+    private Set<YearMonth> attachedMonths(String table) {
+        Set<YearMonth> months = new TreeSet<>();
+        for (String partition : jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass", String.class, table)) {
+            monthOf(table, partition).ifPresent(months::add);
+        }
+        return months;
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + month.format(SUFFIX);
+    }
+
+    /**
+     * @return the month of a monthly partition of the table, or empty for any other
+     *         partition, such as the default one
+     */
+    static Optional<YearMonth> monthOf(String table, String partition) {
+        if (!partition.startsWith(table)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partition.substring(table.length()), SUFFIX));
+        } catch (DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the month's range as a partition bound: its first instant, inclusive,
+     *         to the first instant of the next month, exclusive
+     */
+    static String bounds(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        return "FROM ('" + from.format(BOUND) + "') TO ('" + to.format(BOUND) + "')";
+    }
+}
@@ -0,0 +1,48 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.util.Money;
+
+/**
+ * Prices new order items from the products' current prices, whatever the
+ * client sent, in cents (see {@link Money}). Shared by the unsharded and the
+ * sharded order services, which differ only in the product entity an item
+ * refers to.
+ */
+public final class OrderPricing {
+
+    private OrderPricing() {
+    }
+
+    /**
+     * Prices the items in one pass, converting each product's price once.
+     *
+     * @param productsById the products of the items, with their current prices
+     * @param itemProduct  the product entity an item refers to, by product id
+     * @param orderItems   receives the priced items, in the order of {@code itemDTOs}
+     * @return the total of the items, in cents
+     */
+    public static long priceItems(Order order, List<OrderItemDTO> itemDTOs, Map<Long, Product> productsById,
+                                  Function<Long, Product> itemProduct, OrderItemMapper orderItemMapper,
+                                  List<OrderItem> orderItems) {
+        Map<Long, Long> unitPriceCentsByProductId = new HashMap<>();
+        long totalCents = 0;
+        for (OrderItemDTO itemDTO : itemDTOs) {
+            Long productId = itemDTO.getProductId();
+            long unitPriceCents = unitPriceCentsByProductId.computeIfAbsent(productId,
+                    id -> Money.toCents(productsById.get(id).getPrice()));
+            orderItems.add(orderItemMapper.toEntity(itemDTO, order, itemProduct.apply(productId), unitPriceCents));
+            totalCents = Math.addExact(totalCents, Money.times(unitPriceCents, itemDTO.getQuantity()));
+        }
+        return totalCents;
+    }
+}
@@ -0,0 +1,177 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+
+/**
+ * Order status rules and the stock orders hold, shared by the unsharded and
+ * the sharded order services. Only orders that hold the stock taken when they
+ * were placed (see {@link OrderStatus#holdsStock()}) may have their items
+ * changed or give stock back. The order row is locked first, so a concurrent
+ * cancellation cannot give back stock for items that are still changing, and
+ * two cancellations cannot both give it back.
+ */
+public final class OrderStockPolicy {
+
+    private OrderStockPolicy() {
+    }
+
+    /**
+     * Locks the order if it still holds its stock, until the transaction ends.
+     * Of two transactions cancelling or deleting the same order, the second
+     * waits for the first and then finds the stock already given back.
+     *
+     * @return whether the order holds its stock, and is now locked
+     */
+    public static boolean lockIfHoldingStock(OrderRepository orderRepository, Long orderId) {
+        return !orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(orderId), stockHoldingStatuses()).isEmpty();
+    }
+
+    /**
+     * Locks the order for an update that sets its status, until the transaction
+     * ends, and checks that the order may move there (see
+     * {@link OrderStatus#allowedFrom()}). Setting the status it already has is
+     * not a move. The order is locked before its status is read, so an update
+     * cannot move back an order that a concurrent transaction has just moved on.
+     *
+     * @return whether the update cancels an order that holds its stock, which must then be given back
+     * @throws ResourceNotFoundException if there is no such order
+     * @throws BusinessRuleViolationException if the order may not move to {@code status}
+     */
+    public static boolean lockForStatusChange(OrderRepository orderRepository, Long orderId, OrderStatus status) {
+        Set<OrderStatus> lockableStatuses = EnumSet.of(status);
+        lockableStatuses.addAll(status.allowedFrom());
+        boolean locked = !orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(orderId), lockableStatuses)
+                .isEmpty();
+        OrderStatus current = orderRepository.findById(orderId)
+                .map(Order::getStatus)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (!locked) {
+            throw new BusinessRuleViolationException("A " + current + " order cannot be moved to status " + status);
+        }
+        return status == OrderStatus.CANCELLED && current.holdsStock();
+    }
+
+    /**
+     * Locks the order for a change to its items, until the transaction ends.
+     *
+     * @throws ResourceNotFoundException if there is no such order
+     * @throws BusinessRuleViolationException if the order no longer holds its stock
+     */
+    public static void lockForItemChange(OrderRepository orderRepository, Long orderId) {
+        if (lockIfHoldingStock(orderRepository, orderId)) {
+            return;
+        }
+        OrderStatus status = orderRepository.findById(orderId)
+                .map(Order::getStatus)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        throw new BusinessRuleViolationException("Items of a " + status + " order cannot be changed");
+    }
+
+    /**
+     * Net stock an item change takes per product id: the new items' quantities,
+     * less those of the items they replace. A negative quantity is stock to give
+     * back.
+     *
+     * @param replacedItems the items being replaced, or none when items are only added
+     * @return the quantities in product id order, without products whose quantity nets to zero
+     */
+    public static Map<Long, Integer> quantitiesTaken(List<OrderItemDTO> itemDTOs, Collection<OrderItem> replacedItems) {
+        Map<Long, Integer> quantitiesTaken = new TreeMap<>();
+        for (OrderItemDTO itemDTO : itemDTOs) {
+            quantitiesTaken.merge(itemDTO.getProductId(), itemDTO.getQuantity(), Integer::sum);
+        }
+        for (OrderItem item : replacedItems) {
+            quantitiesTaken.merge(item.getProduct().getId(), -item.getQuantity(), Integer::sum);
+        }
+        quantitiesTaken.values().removeIf(quantity -> quantity == 0);
+        return quantitiesTaken;
+    }
+
+    /**
+     * Ends the reservations a new order takes over, in the current transaction,
+     * and nets the stock they hold off what the order takes. A reservation for
+     * more than the order needs gives the rest back.
+     *
+     * @param quantitiesTaken the order's quantities per product id
+     * @param reservationIds  the reservations it takes over, if any
+     * @return the quantities still to take per product id, in product id order; negative ones are given back
+     * @throws ResourceNotFoundException if a reservation does not exist or has ended
+     * @throws BusinessRuleViolationException if a reservation is for a product the order does not contain
+     */
+    public static Map<Long, Integer> takeOverReservations(StockReservationService reservationService,
+                                                          Map<Long, Integer> quantitiesTaken,
+                                                          List<String> reservationIds) {
+        if (reservationIds == null || reservationIds.isEmpty()) {
+            return quantitiesTaken;
+        }
+        Map<Long, Integer> stillTaken = new TreeMap<>(quantitiesTaken);
+        reservationService.consume(reservationIds).forEach((productId, quantity) -> {
+            if (!quantitiesTaken.containsKey(productId)) {
+                throw new BusinessRuleViolationException(
+                        "A reservation for product " + productId + " cannot be used by an order without it");
+            }
+            stillTaken.merge(productId, -quantity, Integer::sum);
+        });
+        stillTaken.values().removeIf(quantity -> quantity == 0);
+        return stillTaken;
+    }
+
+    /**
+     * @return the statuses orders may be moved to {@code status} from
+     * @throws BusinessRuleViolationException if no order may be moved to it
+     */
+    public static Set<OrderStatus> transitionSources(OrderStatus status) {
+        Set<OrderStatus> fromStatuses = status.allowedFrom();
+        if (fromStatuses.isEmpty()) {
+            throw new BusinessRuleViolationException("Orders cannot be moved to status " + status);
+        }
+        return fromStatuses;
+    }
+
+    /**
+     * @param requestedIds the distinct ids asked for, in request order
+     * @param changed      the ids of the orders actually moved
+     * @return the requested ids split, in request order, by whether their order moved
+     */
+    public static OrderStatusTransitionDTO transitionResult(List<Long> requestedIds, OrderStatus status,
+                                                            Set<Long> changed) {
+        List<Long> changedIds = new ArrayList<>(changed.size());
+        List<Long> unchangedIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            if (changed.contains(id)) {
+                changedIds.add(id);
+            } else {
+                unchangedIds.add(id);
+            }
+        }
+        return OrderStatusTransitionDTO.builder()
+                .ids(requestedIds)
+                .status(status)
+                .changedIds(changedIds)
+                .unchangedIds(unchangedIds)
+                .build();
+    }
+
+    /**
+     * @return the statuses whose orders hold their stock: those an order may be cancelled from
+     */
+    private static Set<OrderStatus> stockHoldingStatuses() {
+        return OrderStatus.CANCELLED.allowedFrom();
+    }
+}
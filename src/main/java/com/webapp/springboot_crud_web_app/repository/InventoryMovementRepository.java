@@ -0,0 +1,54 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.springboot_crud_web_app.model.InventoryMovement;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository interface for InventoryMovement entities.
+ */
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    /**
+     * Locks and loads the oldest movements not yet folded into {@code products.stock}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM InventoryMovement m WHERE m.compacted = false ORDER BY m.id")
+    List<InventoryMovement> findUncompactedForUpdate(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE InventoryMovement m SET m.compacted = true WHERE m.id IN :ids")
+    int markCompacted(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sums the movements not yet compacted per product. Products without any are absent.
+     *
+     * @return rows of {@code [productId, sum]}
+     */
+    @Query("SELECT m.productId, SUM(m.quantity) FROM InventoryMovement m "
+            + "WHERE m.compacted = false AND m.productId IN :productIds GROUP BY m.productId")
+    List<Object[]> sumUncompactedByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Adds each product's movements not yet compacted to its stock column, in one
+     * statement, so a compaction committing meanwhile is counted exactly once.
+     *
+     * @return rows of {@code [productId, currentStock]}; products that do not exist are absent
+     */
+    @Query("SELECT p.id, p.stock + COALESCE(SUM(m.quantity), 0) FROM Product p "
+            + "LEFT JOIN InventoryMovement m ON m.productId = p.id AND m.compacted = false "
+            + "WHERE p.id IN :productIds GROUP BY p.id, p.stock")
+    List<Object[]> sumCurrentStockByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
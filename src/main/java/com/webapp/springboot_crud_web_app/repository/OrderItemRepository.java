@@ -1,8 +1,16 @@
 package com.webapp.springboot_crud_web_app.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
 import com.webapp.springboot_crud_web_app.model.OrderItem;
 
 /**
@@ -10,5 +18,47 @@ import com.webapp.springboot_crud_web_app.model.OrderItem;
  * Extends JpaRepository to provide basic CRUD operations.
  */
 @Repository
-public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-} 
\ No newline at end of file
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, OrderItemRepositoryCustom {
+
+    /**
+     * Loads the items of several orders in a single query.
+     *
+     * @param orderIds the order IDs; callers should keep this below the IN-clause limit
+     * @return the items of the given orders
+     */
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<OrderItem> findAllByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Sums the item quantities of several orders per product, in the database.
+     *
+     * @param orderIds the order IDs; callers should keep this below the IN-clause limit
+     * @return one row per distinct product, in ascending product id order
+     */
+    @Query("SELECT oi.product.id AS productId, SUM(oi.quantity) AS quantity FROM OrderItem oi "
+            + "WHERE oi.order.id IN :orderIds GROUP BY oi.product.id ORDER BY oi.product.id")
+    List<ProductQuantity> sumQuantitiesByProductIdForOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Deletes the items of several orders in a single statement, skipping the
+     * items of any order no longer in the status.
+     *
+     * @param orderIds the order IDs; callers should keep this below the IN-clause limit
+     * @return the number of items deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OrderItem oi WHERE oi.order.id IN :orderIds"
+            + " AND oi.orderCreatedAt >= :from AND oi.orderCreatedAt < :before"
+            + " AND oi.order.id IN (SELECT o.id FROM Order o WHERE o.id IN :orderIds AND o.status = :status)")
+    int deleteByOrderIdInAndOrderStatusAndOrderCreatedAtBetween(@Param("orderIds") Collection<Long> orderIds,
+                                                                @Param("status") OrderStatus status,
+                                                                @Param("from") LocalDateTime from,
+                                                                @Param("before") LocalDateTime before);
+
+    interface ProductQuantity {
+
+        Long getProductId();
+
+        Long getQuantity();
+    }
+}
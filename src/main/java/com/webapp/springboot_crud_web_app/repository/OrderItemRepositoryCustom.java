@@ -0,0 +1,21 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+
+/**
+ * Custom query methods for OrderItem entities that Spring Data cannot derive.
+ */
+public interface OrderItemRepositoryCustom {
+
+    /**
+     * Reads every order item without keeping it in the persistence context,
+     * mapping each as it is read. The order and product are not fetched.
+     *
+     * @param mapper converts an item; it must not be kept or read more than the ids of its order and product
+     * @return the mapped items
+     */
+    <T> List<T> findAllMapped(Function<? super OrderItem, ? extends T> mapper);
+}
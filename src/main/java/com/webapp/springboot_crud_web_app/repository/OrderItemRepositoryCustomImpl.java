@@ -0,0 +1,23 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Stateless-session implementation of {@link OrderItemRepositoryCustom}.
+ */
+public class OrderItemRepositoryCustomImpl implements OrderItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T> List<T> findAllMapped(Function<? super OrderItem, ? extends T> mapper) {
+        return StatelessScans.scan(entityManager, "SELECT oi FROM OrderItem oi", OrderItem.class, mapper);
+    }
+}
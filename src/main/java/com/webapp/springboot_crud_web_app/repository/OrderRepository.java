@@ -1,10 +1,178 @@
 package com.webapp.springboot_crud_web_app.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-} 
\ No newline at end of file
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    /**
+     * The non-terminal statuses, spelled exactly as in the predicate of the partial
+     * index {@code idx_orders_open_status_created_at}, so the planner can prove a
+     * query that repeats it may use that index even with bound parameters.
+     */
+    String OPEN_STATUSES_SQL = "('PENDING', 'CONFIRMED', 'SHIPPED')";
+
+    /**
+     * Loads the given orders together with their items in a single query.
+     *
+     * @param ids the order IDs; callers should keep this below the IN-clause limit
+     * @return the matching orders, in no particular order
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads the given orders together with their items, restricted to a creation time
+     * range on both tables so that the postgres schema only reads the monthly
+     * partitions of {@code orders} and {@code order_items} covering that range.
+     *
+     * @param ids the order IDs; callers should keep this below the IN-clause limit
+     * @return the matching orders created in the range, in no particular order
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i WHERE o.id IN :ids"
+            + " AND o.createdAt >= :from AND o.createdAt < :before"
+            + " AND (i.id IS NULL OR (i.orderCreatedAt >= :from AND i.orderCreatedAt < :before))")
+    List<Order> findAllWithItemsByIdInAndCreatedAtBetween(@Param("ids") Collection<Long> ids,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("before") LocalDateTime before);
+
+    /**
+     * Finds the newest orders in the given non-terminal statuses created in a time range,
+     * through the partial index on open orders.
+     *
+     * @param statuses status names, all non-terminal
+     * @return the ids of at most {@code limit} orders, newest first
+     */
+    @Query(value = "SELECT id FROM orders WHERE status IN (:statuses) AND status IN " + OPEN_STATUSES_SQL
+            + " AND created_at >= :from AND created_at < :before ORDER BY created_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findOpenIdsByStatusInAndCreatedAtBetween(@Param("statuses") Collection<String> statuses,
+                                                        @Param("from") LocalDateTime from,
+                                                        @Param("before") LocalDateTime before,
+                                                        @Param("limit") int limit);
+
+    /**
+     * Finds the newest orders in the given statuses created in a time range, through
+     * the BRIN index on {@code created_at}.
+     *
+     * @param statuses status names
+     * @return the ids of at most {@code limit} orders, newest first
+     */
+    @Query(value = "SELECT id FROM orders WHERE status IN (:statuses)"
+            + " AND created_at >= :from AND created_at < :before ORDER BY created_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsByStatusInAndCreatedAtBetween(@Param("statuses") Collection<String> statuses,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("before") LocalDateTime before,
+                                                    @Param("limit") int limit);
+
+    /**
+     * @param before exclusive upper bound, so only partitions before it are read
+     * @return the creation time of the oldest order in the status created before {@code before}, or null if none
+     */
+    @Query("SELECT MIN(o.createdAt) FROM Order o WHERE o.status = :status AND o.createdAt < :before")
+    LocalDateTime findMinCreatedAtByStatusAndCreatedAtBefore(@Param("status") OrderStatus status,
+                                                             @Param("before") LocalDateTime before);
+
+    /**
+     * Pages through the orders in a status created in a time range by ascending id.
+     *
+     * @param afterId  the last id of the previous page, or 0 for the first page
+     * @param pageable the page size
+     * @return the ids of the next page
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :before"
+            + " AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsByStatusAndCreatedAtBetweenAfter(@Param("status") OrderStatus status,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("before") LocalDateTime before,
+                                                       @Param("afterId") Long afterId,
+                                                       Pageable pageable);
+
+    /**
+     * Deletes the given orders in a single statement, skipping any no longer in the
+     * status. Their items must be deleted first.
+     *
+     * @return the number of orders deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.status = :status"
+            + " AND o.createdAt >= :from AND o.createdAt < :before")
+    int deleteByIdInAndStatusAndCreatedAtBetween(@Param("ids") Collection<Long> ids,
+                                                 @Param("status") OrderStatus status,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("before") LocalDateTime before);
+
+    /**
+     * @param intakeId the provisional id the order was accepted under
+     * @return the order created from that intake record, if it has been drained
+     */
+    Optional<Order> findByIntakeId(String intakeId);
+
+    /**
+     * Locks the given orders that are in one of the given statuses, in ascending id order.
+     *
+     * @return the ids of the locked orders
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids AND o.status IN :statuses ORDER BY o.id")
+    List<Long> findIdsByIdInAndStatusInForUpdate(@Param("ids") Collection<Long> ids,
+                                                 @Param("statuses") Collection<OrderStatus> statuses);
+
+    /**
+     * Locks the given orders that are in the status, in ascending id order.
+     *
+     * @return the locked orders' ids and update times
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.updatedAt AS updatedAt FROM Order o WHERE o.id IN :ids AND o.status = :status ORDER BY o.id")
+    List<OrderVersion> findVersionsByIdInAndStatusForUpdate(@Param("ids") Collection<Long> ids,
+                                                            @Param("status") OrderStatus status);
+
+    /**
+     * Moves the given orders to a status in a single statement, skipping any that are not in one of the given statuses.
+     *
+     * @return the number of orders moved
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = LOCAL DATETIME WHERE o.id IN :ids AND o.status IN :fromStatuses")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("fromStatuses") Collection<OrderStatus> fromStatuses,
+                     @Param("status") OrderStatus status);
+
+    /**
+     * Adds to an order's total in a single statement, without loading the order or its items.
+     *
+     * @param createdAt the order's creation time, its partition key in the postgres schema
+     * @param delta     the amount to add; negative to subtract
+     * @return 1 if the order exists, otherwise 0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.totalAmount = o.totalAmount + :delta, o.updatedAt = LOCAL DATETIME"
+            + " WHERE o.id = :id AND o.createdAt = :createdAt")
+    int addToTotalAmount(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt,
+                         @Param("delta") BigDecimal delta);
+
+    interface OrderVersion {
+
+        Long getId();
+
+        LocalDateTime getUpdatedAt();
+    }
+}
@@ -0,0 +1,30 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.model.Order;
+
+/**
+ * Custom query methods for Order entities that Spring Data cannot derive.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Selects only the given attributes of every order. Order items are not fetched.
+     *
+     * @param attributes the entity attribute names to read, in output order
+     * @return one map per order, keyed by attribute name
+     */
+    List<Map<String, Object>> findAllProjected(List<String> attributes);
+
+    /**
+     * Reads every order without keeping it in the persistence context,
+     * mapping each as it is read. Order items are not fetched.
+     *
+     * @param mapper converts an order; it must not be kept or touch the items
+     * @return the mapped orders
+     */
+    <T> List<T> findAllMapped(Function<? super Order, ? extends T> mapper);
+}
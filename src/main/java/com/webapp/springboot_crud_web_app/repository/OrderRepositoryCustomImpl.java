@@ -0,0 +1,29 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.model.Order;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Criteria-based implementation of {@link OrderRepositoryCustom}.
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(List<String> attributes) {
+        return ProjectionQueries.selectAttributes(entityManager, Order.class, attributes);
+    }
+
+    @Override
+    public <T> List<T> findAllMapped(Function<? super Order, ? extends T> mapper) {
+        return StatelessScans.scan(entityManager, "SELECT o FROM Order o", Order.class, mapper);
+    }
+}
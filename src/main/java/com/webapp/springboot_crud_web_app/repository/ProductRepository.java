@@ -1,10 +1,84 @@
 package com.webapp.springboot_crud_web_app.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.webapp.springboot_crud_web_app.model.Product;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-} 
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /**
+     * Locks and loads the given products with one {@code SELECT ... FOR UPDATE}, in ascending id order.
+     * Callers that lock several products must lock them through this method only, so that
+     * concurrent transactions always acquire the row locks in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Takes stock in a single statement if enough is available.
+     *
+     * @return 1 if the stock was decremented, 0 if there is not enough or the product does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int decrementStockIfAvailable(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Reads the searchable text of the products after {@code afterId}, in id order,
+     * so the search index can be built one page at a time without an offset scan.
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description FROM Product p "
+            + "WHERE p.id > :afterId ORDER BY p.id")
+    List<SearchableProduct> findSearchableAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Locks the products on the given orders' items, in ascending id order, ahead of
+     * {@link #restoreStockForOrderIdIn(Collection)}.
+     *
+     * @return the ids of the locked products
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN "
+            + "(SELECT oi.product.id FROM OrderItem oi WHERE oi.order.id IN :orderIds) ORDER BY p.id")
+    List<Long> findIdsForOrderIdInForUpdate(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Gives back the stock held by the given orders' items in a single statement,
+     * adding each product's summed quantity once, however many items name it.
+     *
+     * @param orderIds the order IDs; callers should keep this below the IN-clause limit
+     * @return the number of products updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products p SET stock = p.stock + "
+            + "(SELECT SUM(oi.quantity) FROM order_items oi WHERE oi.product_id = p.id AND oi.order_id IN :orderIds) "
+            + "WHERE p.id IN (SELECT oi.product_id FROM order_items oi WHERE oi.order_id IN :orderIds)",
+            nativeQuery = true)
+    int restoreStockForOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    interface SearchableProduct {
+
+        Long getId();
+
+        String getName();
+
+        String getDescription();
+    }
+}
@@ -0,0 +1,46 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
+import com.webapp.springboot_crud_web_app.model.Product;
+
+/**
+ * Custom query methods for Product entities that Spring Data cannot derive.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Selects only the given attributes of every product.
+     *
+     * @param attributes the entity attribute names to read, in output order
+     * @return one map per product, keyed by attribute name
+     */
+    List<Map<String, Object>> findAllProjected(List<String> attributes);
+
+    /**
+     * Reads every product without keeping it in the persistence context,
+     * mapping each as it is read.
+     *
+     * @param mapper converts a product; it must not be kept
+     * @return the mapped products
+     */
+    <T> List<T> findAllMapped(Function<? super Product, ? extends T> mapper);
+
+    /**
+     * Reads one page of the products matching the filter, ordered by the sort key
+     * and then id. The page starts after the given key rather than at an offset,
+     * so every page is an index range scan of {@code limit} rows however deep it is.
+     *
+     * @param filter     the conditions to apply
+     * @param sortKey    the attribute to order by
+     * @param descending whether to order from the highest key down
+     * @param afterValue the sort key value of the last product of the previous page, or null for the first page
+     * @param afterId    the id of the last product of the previous page, or null for the first page
+     * @param limit      the maximum number of products to read
+     */
+    List<Product> findPage(ProductFilterDTO filter, ProductSortKey sortKey, boolean descending,
+                           Object afterValue, Long afterId, int limit);
+}
@@ -0,0 +1,82 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
+import com.webapp.springboot_crud_web_app.model.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Criteria-based implementation of {@link ProductRepositoryCustom}.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(List<String> attributes) {
+        return ProjectionQueries.selectAttributes(entityManager, Product.class, attributes);
+    }
+
+    @Override
+    public <T> List<T> findAllMapped(Function<? super Product, ? extends T> mapper) {
+        return StatelessScans.scan(entityManager, "SELECT p FROM Product p", Product.class, mapper);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Product> findPage(ProductFilterDTO filter, ProductSortKey sortKey, boolean descending,
+                                  Object afterValue, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        Path<Comparable> key = product.get(sortKey.getAttribute());
+        Path<Long> id = product.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.getMinPrice() != null) {
+            where.add(cb.greaterThanOrEqualTo(product.get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            where.add(cb.lessThanOrEqualTo(product.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.isInStock()) {
+            where.add(cb.greaterThan(product.<Integer>get("stock"), 0));
+        }
+        if (filter.getCreatedFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(product.<LocalDateTime>get("createdAt"), filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedBefore() != null) {
+            where.add(cb.lessThan(product.<LocalDateTime>get("createdAt"), filter.getCreatedBefore()));
+        }
+        if (afterValue != null) {
+            Comparable value = (Comparable) afterValue;
+            // (key, id) > (value, afterId), plus a plain bound on key the index range scan can start from
+            where.add(descending ? cb.lessThanOrEqualTo(key, value) : cb.greaterThanOrEqualTo(key, value));
+            where.add(cb.or(
+                    descending ? cb.lessThan(key, value) : cb.greaterThan(key, value),
+                    cb.and(cb.equal(key, value), descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId))));
+        }
+
+        query.select(product)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(descending
+                        ? List.of(cb.desc(key), cb.desc(id))
+                        : List.of(cb.asc(key), cb.asc(id)));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,22 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+/**
+ * Product attributes a listing can be ordered by. Each is paired with the
+ * product id as a tie-breaker and backed by a composite index on
+ * {@code (attribute, id)}, so pages can be read by key instead of by offset.
+ */
+public enum ProductSortKey {
+
+    PRICE("price"),
+    CREATED_AT("createdAt");
+
+    private final String attribute;
+
+    ProductSortKey(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+}
@@ -0,0 +1,66 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.springboot_crud_web_app.model.ProductStockStripe;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository interface for ProductStockStripe entities.
+ */
+@Repository
+public interface ProductStockStripeRepository extends JpaRepository<ProductStockStripe, Long> {
+
+    /**
+     * Decrements a single stripe if it holds enough stock. Only that stripe's row is locked.
+     *
+     * @return 1 if the stripe was decremented, 0 if it holds less than {@code quantity} or does not exist
+     */
+    @Modifying
+    @Query("UPDATE ProductStockStripe s SET s.quantity = s.quantity - :quantity "
+            + "WHERE s.productId = :productId AND s.stripeIndex = :stripeIndex AND s.quantity >= :quantity")
+    int decrementIfAvailable(@Param("productId") Long productId,
+                             @Param("stripeIndex") int stripeIndex,
+                             @Param("quantity") int quantity);
+
+    /**
+     * Adds stock to a single stripe.
+     *
+     * @return 1 if the stripe exists, otherwise 0
+     */
+    @Modifying
+    @Query("UPDATE ProductStockStripe s SET s.quantity = s.quantity + :quantity "
+            + "WHERE s.productId = :productId AND s.stripeIndex = :stripeIndex")
+    int increment(@Param("productId") Long productId,
+                  @Param("stripeIndex") int stripeIndex,
+                  @Param("quantity") int quantity);
+
+    /**
+     * Locks and loads all stripes of a product, in stripe order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockStripe s WHERE s.productId = :productId ORDER BY s.stripeIndex")
+    List<ProductStockStripe> findAllByProductIdForUpdate(@Param("productId") Long productId);
+
+    @Modifying
+    @Query("DELETE FROM ProductStockStripe s WHERE s.productId = :productId")
+    int deleteAllByProductId(@Param("productId") Long productId);
+
+    /**
+     * Sums the stripes of each given product. Products without stripes are absent from the result.
+     *
+     * @return rows of {@code [productId, sum]}
+     */
+    @Query("SELECT s.productId, SUM(s.quantity) FROM ProductStockStripe s "
+            + "WHERE s.productId IN :productIds GROUP BY s.productId")
+    List<Object[]> sumQuantityByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
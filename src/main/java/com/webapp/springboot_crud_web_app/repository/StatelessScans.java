@@ -0,0 +1,56 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Reads whole tables through a {@link StatelessSession} on the current
+ * transaction's connection, mapping each entity as it is read.
+ * <p>
+ * A stateless session keeps no persistence context, so scanned entities get
+ * no snapshot, are never dirty-checked and are garbage as soon as they are
+ * mapped, instead of staying in the first-level cache until the request ends.
+ * Rows are fetched {@value #FETCH_SIZE} at a time rather than all at once
+ * (PostgreSQL's driver otherwise buffers the whole result). Lazy associations
+ * of scanned entities are not loaded; mappers may read their ids only.
+ */
+final class StatelessScans {
+
+    static final int FETCH_SIZE = 1000;
+
+    private StatelessScans() {
+    }
+
+    static <E, T> List<T> scan(EntityManager entityManager, String query, Class<E> entityType,
+                               Function<? super E, ? extends T> mapper) {
+        Session session = entityManager.unwrap(Session.class);
+        if (session.getHibernateFlushMode() != FlushMode.MANUAL) {
+            // What a query on the session would have done: the scan reads the database, not the session
+            session.flush();
+        }
+        List<T> results = new ArrayList<>();
+        // The connection stays the session's, in its transaction; the stateless session only borrows it
+        session.doWork(connection -> {
+            try (StatelessSession statelessSession = session.getSessionFactory().withStatelessOptions()
+                    .connection(connection)
+                    .openStatelessSession();
+                 ScrollableResults<E> rows = statelessSession.createSelectionQuery(query, entityType)
+                         .setFetchSize(FETCH_SIZE)
+                         .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    results.add(mapper.apply(rows.get()));
+                }
+            }
+        });
+        return results;
+    }
+}
@@ -0,0 +1,22 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.webapp.springboot_crud_web_app.model.StockReservation;
+
+/**
+ * Repository interface for StockReservation entities.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<String> ids);
+}
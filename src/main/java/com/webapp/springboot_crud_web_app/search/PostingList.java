@@ -0,0 +1,62 @@
+package com.webapp.springboot_crud_web_app.search;
+
+import java.util.Arrays;
+
+/**
+ * The products containing one term, with the term's weight in each.
+ * <p>
+ * Entries are kept in two parallel primitive arrays sorted by product id, so a
+ * posting costs 12 bytes and no boxing. New products have the highest ids and
+ * are appended; updates and removals of older products binary-search their slot.
+ */
+final class PostingList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private float[] weights = new float[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Sets the term's weight in a product, adding the product if it is not listed yet.
+     */
+    void put(long productId, float weight) {
+        int slot = Arrays.binarySearch(productIds, 0, size, productId);
+        if (slot >= 0) {
+            weights[slot] = weight;
+            return;
+        }
+        int insertAt = -slot - 1;
+        if (size == productIds.length) {
+            productIds = Arrays.copyOf(productIds, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(productIds, insertAt, productIds, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        productIds[insertAt] = productId;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(long productId) {
+        int slot = Arrays.binarySearch(productIds, 0, size, productId);
+        if (slot < 0) {
+            return;
+        }
+        System.arraycopy(productIds, slot + 1, productIds, slot, size - slot - 1);
+        System.arraycopy(weights, slot + 1, weights, slot, size - slot - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long productIdAt(int index) {
+        return productIds[index];
+    }
+
+    float weightAt(int index) {
+        return weights[index];
+    }
+}
@@ -0,0 +1,335 @@
+package com.webapp.springboot_crud_web_app.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository.SearchableProduct;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over product names and descriptions.
+ * <p>
+ * Text is split into lowercase letter-and-digit terms. Each term maps to a
+ * {@link PostingList} of the products containing it, and the terms are kept
+ * sorted so a query word also matches every term it is a prefix of. A product
+ * matches when it matches every query word; matches are ranked by BM25, with
+ * name terms weighted {@value #NAME_WEIGHT} times description terms and prefix
+ * matches half an exact match. Only the top {@code offset + limit} hits are
+ * kept while ranking.
+ * <p>
+ * The index is built from {@code products} at startup and kept current by the
+ * product service. A change is applied immediately and undone if its
+ * transaction rolls back, so a concurrent search may briefly see it before it
+ * commits.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float PREFIX_WEIGHT = 0.5f;
+    // A one-letter prefix could otherwise expand to most of the vocabulary
+    static final int MAX_PREFIX_TERMS = 128;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final Comparator<Hit> BEST_FIRST =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::productId);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private double totalLength;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${app.search.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long afterId = 0;
+        List<SearchableProduct> batch;
+        do {
+            batch = productRepository.findSearchableAfter(afterId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+            for (SearchableProduct product : batch) {
+                put(product.getId(), Document.of(product.getName(), product.getDescription()));
+                afterId = product.getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        log.info("event=search.index.built products={} terms={} durationMs={}",
+                documents.size(), postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds a product, or replaces what is indexed for it.
+     */
+    public void index(Long productId, String name, String description) {
+        if (!enabled) {
+            return;
+        }
+        undoOnRollback(productId, put(productId, Document.of(name, description)));
+    }
+
+    public void remove(Long productId) {
+        if (!enabled) {
+            return;
+        }
+        undoOnRollback(productId, put(productId, null));
+    }
+
+    /**
+     * @param query  words to match, each also as a prefix
+     * @param offset number of best hits to skip
+     * @param limit  maximum number of hits to return
+     * @return the ids of the matching products, best first, and how many products match
+     */
+    public Hits search(String query, int offset, int limit) {
+        Set<String> words = new LinkedHashSet<>(tokenize(query));
+        if (words.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return new Hits(List.of(), 0);
+            }
+            List<Map<Long, Float>> perWord = new ArrayList<>(words.size());
+            for (String word : words) {
+                Map<Long, Float> scores = score(word);
+                if (scores.isEmpty()) {
+                    return new Hits(List.of(), 0);
+                }
+                perWord.add(scores);
+            }
+            // Intersect starting from the rarest word, so the running set only shrinks
+            perWord.sort(Comparator.comparingInt(Map::size));
+            Map<Long, Float> matches = new HashMap<>(perWord.get(0));
+            for (int i = 1; i < perWord.size() && !matches.isEmpty(); i++) {
+                Map<Long, Float> scores = perWord.get(i);
+                Iterator<Map.Entry<Long, Float>> iterator = matches.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Long, Float> match = iterator.next();
+                    Float score = scores.get(match.getKey());
+                    if (score == null) {
+                        iterator.remove();
+                    } else {
+                        match.setValue(match.getValue() + score);
+                    }
+                }
+            }
+            return new Hits(top(matches, offset, limit), matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lowercase runs of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * BM25 score of every product containing the word or a term it is a prefix
+     * of; a product matching several such terms keeps its best score.
+     */
+    private Map<Long, Float> score(String word) {
+        Map<Long, Float> scores = new HashMap<>();
+        int documentCount = documents.size();
+        double averageLength = totalLength / documentCount;
+        NavigableMap<String, PostingList> expansions =
+                postings.subMap(word, true, word + Character.MAX_VALUE, false);
+        int expanded = 0;
+        for (Map.Entry<String, PostingList> entry : expansions.entrySet()) {
+            if (expanded++ == MAX_PREFIX_TERMS) {
+                break;
+            }
+            PostingList list = entry.getValue();
+            float factor = entry.getKey().equals(word) ? 1f : PREFIX_WEIGHT;
+            double idf = Math.log(1 + (documentCount - list.size() + 0.5) / (list.size() + 0.5));
+            for (int i = 0; i < list.size(); i++) {
+                long productId = list.productIdAt(i);
+                float weight = list.weightAt(i);
+                double norm = K1 * (1 - B + B * documents.get(productId).length() / averageLength);
+                float score = (float) (factor * idf * weight * (K1 + 1) / (weight + norm));
+                scores.merge(productId, score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static List<Long> top(Map<Long, Float> matches, int offset, int limit) {
+        int keep = offset + limit;
+        if (limit <= 0 || offset >= matches.size()) {
+            return List.of();
+        }
+        // Worst kept hit at the head, so each better one evicts it in O(log keep)
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(keep, matches.size()) + 1, BEST_FIRST.reversed());
+        for (Map.Entry<Long, Float> match : matches.entrySet()) {
+            best.add(new Hit(match.getKey(), match.getValue()));
+            if (best.size() > keep) {
+                best.poll();
+            }
+        }
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        List<Long> productIds = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = offset; i < ranked.size(); i++) {
+            productIds.add(ranked.get(i).productId());
+        }
+        return productIds;
+    }
+
+    /**
+     * Replaces the product's document, or removes it if {@code document} is null.
+     *
+     * @return the document indexed for the product before, if any
+     */
+    private Document put(Long productId, Document document) {
+        lock.writeLock().lock();
+        try {
+            Document previous = document == null ? documents.remove(productId) : documents.put(productId, document);
+            if (previous != null) {
+                for (String term : previous.terms()) {
+                    PostingList list = postings.get(term);
+                    list.remove(productId);
+                    if (list.size() == 0) {
+                        postings.remove(term);
+                    }
+                }
+                totalLength -= previous.length();
+            }
+            if (document != null) {
+                for (int i = 0; i < document.terms().length; i++) {
+                    postings.computeIfAbsent(document.terms()[i], term -> new PostingList())
+                            .put(productId, document.weights()[i]);
+                }
+                totalLength += document.length();
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remembers the first document seen for the product in the current
+     * transaction and puts it back if the transaction does not commit.
+     */
+    private void undoOnRollback(Long productId, Document previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Document> originals = (Map<Long, Document>) TransactionSynchronizationManager.getResource(this);
+        if (originals == null) {
+            Map<Long, Document> bound = new HashMap<>();
+            originals = bound;
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductSearchIndex.this);
+                    if (status != STATUS_COMMITTED) {
+                        bound.forEach(ProductSearchIndex.this::put);
+                    }
+                }
+            });
+        }
+        if (!originals.containsKey(productId)) {
+            originals.put(productId, previous);
+        }
+    }
+
+    /**
+     * The distinct terms of one product with their weighted counts, and the
+     * product's weighted length.
+     */
+    record Document(String[] terms, float[] weights, float length) {
+
+        static Document of(String name, String description) {
+            Map<String, Float> weightsByTerm = new LinkedHashMap<>();
+            for (String term : tokenize(name)) {
+                weightsByTerm.merge(term, NAME_WEIGHT, Float::sum);
+            }
+            for (String term : tokenize(description)) {
+                weightsByTerm.merge(term, 1f, Float::sum);
+            }
+            String[] terms = new String[weightsByTerm.size()];
+            float[] weights = new float[weightsByTerm.size()];
+            float length = 0;
+            int i = 0;
+            for (Map.Entry<String, Float> entry : weightsByTerm.entrySet()) {
+                terms[i] = entry.getKey();
+                weights[i] = entry.getValue();
+                length += entry.getValue();
+                i++;
+            }
+            return new Document(terms, weights, length);
+        }
+    }
+
+    private record Hit(long productId, float score) {
+    }
+
+    /**
+     * @param productIds the requested page of matching product ids, best first
+     * @param total      the number of products matching the query
+     */
+    public record Hits(List<Long> productIds, long total) {
+    }
+}
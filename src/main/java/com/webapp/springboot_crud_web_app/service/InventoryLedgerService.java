@@ -0,0 +1,55 @@
+package com.webapp.springboot_crud_web_app.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
+import com.webapp.springboot_crud_web_app.model.Product;
+
+/**
+ * Service interface for the append-only inventory ledger.
+ */
+public interface InventoryLedgerService {
+
+    /**
+     * @return {@code true} if stock changes are recorded as ledger movements
+     */
+    boolean isEnabled();
+
+    /**
+     * Appends one movement per product.
+     *
+     * @param deltasByProductId signed stock change per product id
+     */
+    void record(Map<Long, Integer> deltasByProductId, MovementType type);
+
+    /**
+     * Records the {@link MovementType#ORDER} movements taking the given
+     * quantities, all or nothing, if each product's current stock covers them.
+     * No row is locked: quantities this instance has taken in transactions that
+     * are still open count against the stock instead, so two orders cannot both
+     * take the last units. Only one instance may take stock from the ledger.
+     *
+     * @param quantitiesByProductId positive quantity per product id
+     * @return empty on success, otherwise the id of a product without enough stock
+     */
+    OptionalLong take(Map<Long, Integer> quantitiesByProductId);
+
+    /**
+     * @return the sum of the movements not yet compacted, for products that have any
+     */
+    Map<Long, Integer> getPendingDeltas(Collection<Long> productIds);
+
+    /**
+     * @return the product's stock column plus its movements not yet compacted
+     */
+    int getCurrentStock(Product product);
+
+    /**
+     * Folds the oldest movements not yet compacted into {@code products.stock}.
+     *
+     * @return the number of movements folded
+     */
+    int compact();
+}
@@ -1,8 +1,15 @@
 package com.webapp.springboot_crud_web_app.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
 
 /**
  * Service interface for managing Order entities.
@@ -17,7 +24,31 @@ public interface OrderService {
     List<OrderDTO> findAll();
 
     /**
-     * Retrieves an order by its ID.
+     * Retrieves all orders, reading and returning only the requested fields.
+     * Order items are only fetched when requested through {@code include}.
+     *
+     * @param fields  comma-separated field names, e.g. {@code id,customerName,totalAmount}; all fields if blank
+     * @param include comma-separated associations to embed; currently only {@code items}
+     * @return one map per order containing only the requested fields and associations
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if an unknown field is requested
+     */
+    List<Map<String, Object>> findAllWithFields(String fields, String include);
+
+    /**
+     * Retrieves the newest orders in the given statuses created in a time range.
+     *
+     * @param statuses      the statuses to include; all if null or empty
+     * @param createdFrom   the earliest creation time, inclusive; unbounded if null
+     * @param createdBefore the creation time to stop before; unbounded if null
+     * @param limit         the maximum number of orders to return
+     * @return the matching orders with their items, newest first
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if the limit is out of range
+     */
+    List<OrderDTO> findAllFiltered(Set<OrderStatus> statuses, LocalDateTime createdFrom,
+                                   LocalDateTime createdBefore, int limit);
+
+    /**
+     * Retrieves an order by its ID, from the order archive if it has been archived.
      *
      * @param id the ID of the order to retrieve
      * @return the order with the given ID
@@ -25,6 +56,15 @@ public interface OrderService {
      */
     OrderDTO findById(Long id);
 
+    /**
+     * Retrieves the orders with the given IDs in as few queries as possible.
+     * IDs that do not match an order are reported instead of failing the call.
+     *
+     * @param ids the IDs of the orders to retrieve
+     * @return the orders found, in request order, and the IDs that were not found
+     */
+    BatchResultDTO<OrderDTO> findAllByIds(List<Long> ids);
+
     /**
      * Creates a new order.
      *
@@ -33,6 +73,27 @@ public interface OrderService {
      */
     OrderDTO create(OrderDTO orderDTO);
 
+    /**
+     * Locks the products whose stock the given orders take, in one pass in
+     * ascending product id order, until the current transaction ends. Orders
+     * then created one after another in that transaction take no product lock
+     * out of that order, so the batch cannot deadlock with another transaction
+     * over them. Unknown products are left for {@link #create} to reject.
+     *
+     * @param orderDTOs the orders about to be created in the current transaction
+     */
+    void lockStockFor(List<OrderDTO> orderDTOs);
+
+    /**
+     * Creates an order accepted earlier through the intake journal. Creating the
+     * same intake id again returns the order created the first time.
+     *
+     * @param intakeId the provisional id the order was accepted under
+     * @param orderDTO the order data
+     * @return the created order
+     */
+    OrderDTO createFromIntake(String intakeId, OrderDTO orderDTO);
+
     /**
      * Updates an existing order.
      *
@@ -43,6 +104,47 @@ public interface OrderService {
      */
     OrderDTO update(OrderDTO orderDTO, Long id);
 
+    /**
+     * Moves many orders to one status with a set-based update. Orders that do
+     * not exist, or whose current status may not move to the target, are left as they are.
+     *
+     * @param ids    the IDs of the orders to move
+     * @param status the target status
+     * @return the target status with the IDs that were and were not moved, in request order
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if no status may move to the target
+     */
+    OrderStatusTransitionDTO transitionStatus(List<Long> ids, OrderStatus status);
+
+    /**
+     * Retrieves the items of an order.
+     *
+     * @param orderId the ID of the order
+     * @return the order's items
+     * @throws com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException if the order is not found
+     */
+    List<OrderItemDTO> findItems(Long orderId);
+
+    /**
+     * Adds items to an order, taking their stock and adding their subtotals to the total.
+     *
+     * @param orderId      the ID of the order
+     * @param orderItemDTOs the items to add
+     * @return the order with all of its items
+     * @throws com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException if the order or a product is not found
+     */
+    OrderDTO addItems(Long orderId, List<OrderItemDTO> orderItemDTOs);
+
+    /**
+     * Replaces all items of an order. Only the difference in quantity per product
+     * is taken from or given back to stock.
+     *
+     * @param orderId      the ID of the order
+     * @param orderItemDTOs the order's new items
+     * @return the order with its new items
+     * @throws com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException if the order or a product is not found
+     */
+    OrderDTO replaceItems(Long orderId, List<OrderItemDTO> orderItemDTOs);
+
     /**
      * Deletes an order by its ID.
      *
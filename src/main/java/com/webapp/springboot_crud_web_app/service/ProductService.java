@@ -1,8 +1,13 @@
 package com.webapp.springboot_crud_web_app.service;
 
 import java.util.List;
+import java.util.Map;
 
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductPageDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductSearchResultDTO;
 
 /**
  * Service interface for managing Product entities.
@@ -16,6 +21,15 @@ public interface ProductService {
      */
     List<ProductDTO> findAll();
     
+    /**
+     * Retrieves all products, reading and returning only the requested fields.
+     * 
+     * @param fields comma-separated field names, e.g. {@code id,name,price}; all fields if blank
+     * @return one map per product containing only the requested fields
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if an unknown field is requested
+     */
+    List<Map<String, Object>> findAllWithFields(String fields);
+    
     /**
      * Retrieves a product by its ID.
      * 
@@ -25,6 +39,40 @@ public interface ProductService {
      */
     ProductDTO findById(Long id);
     
+    /**
+     * Retrieves the products with the given IDs in as few queries as possible.
+     * IDs that do not match a product are reported instead of failing the call.
+     * 
+     * @param ids the IDs of the products to retrieve
+     * @return the products found, in request order, and the IDs that were not found
+     */
+    BatchResultDTO<ProductDTO> findAllByIds(List<Long> ids);
+    
+    /**
+     * Searches product names and descriptions. Every word of the query must
+     * match a word of the product, or be a prefix of one.
+     * 
+     * @param query the words to search for
+     * @param page the zero-based page of results
+     * @param size the number of results per page
+     * @return the requested page of matching products, best match first
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if search is disabled or the page is out of range
+     */
+    ProductSearchResultDTO search(String query, int page, int size);
+    
+    /**
+     * Lists the products matching a filter, one page at a time. Pages are read by
+     * key: each one continues after the cursor returned with the page before it.
+     * 
+     * @param filter the conditions products must meet
+     * @param sort {@code price}, {@code createdAt}, or either prefixed with {@code -} for descending
+     * @param cursor the {@code nextCursor} of the previous page, or null for the first page
+     * @param size the number of products per page
+     * @return the page of products and the cursor of the next page, if there is one
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if the sort, cursor or size is invalid
+     */
+    ProductPageDTO findPage(ProductFilterDTO filter, String sort, String cursor, int size);
+    
     /**
      * Creates a new product.
      * 
@@ -0,0 +1,39 @@
+package com.webapp.springboot_crud_web_app.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.webapp.springboot_crud_web_app.dto.StockReservationDTO;
+
+/**
+ * Service interface for time-limited stock reservations.
+ */
+public interface StockReservationService {
+
+    /**
+     * Takes stock for a checkout and holds it until an order takes it over, it is released or it expires.
+     */
+    StockReservationDTO reserve(StockReservationDTO reservationDTO);
+
+    /**
+     * Ends reservations whose stock an order placed in the current transaction
+     * takes over. If that transaction rolls back, the reservations stay.
+     *
+     * @return the quantity the reservations held per product id
+     * @throws com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException
+     *         if a reservation does not exist, has expired or has already ended
+     */
+    Map<Long, Integer> consume(Collection<String> ids);
+
+    /**
+     * Gives a reservation's stock back.
+     */
+    void release(String id);
+
+    /**
+     * Gives back the stock of all reservations that have expired.
+     *
+     * @return the number of reservations released
+     */
+    int releaseExpired();
+}
@@ -0,0 +1,60 @@
+package com.webapp.springboot_crud_web_app.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.webapp.springboot_crud_web_app.model.Product;
+
+/**
+ * Service interface for striped inventory, where a product's stock is split
+ * across several sub-counter rows to spread row-lock contention.
+ * Enabled by setting {@code app.inventory.stripes} to a positive stripe count.
+ */
+public interface StockStripeService {
+
+    /**
+     * @return whether striped inventory is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Takes stock from a randomly chosen stripe, falling back to the other
+     * stripes when it runs low. Products without stripes are split first.
+     *
+     * @param product  the product to take stock from
+     * @param quantity the quantity to take
+     * @throws com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException if the stripes together hold less than {@code quantity}
+     */
+    void decrement(Product product, int quantity);
+
+    /**
+     * Gives stock back to one of the product's stripes, splitting the product first if it has none.
+     *
+     * @param product  the product to give stock back to
+     * @param quantity the quantity to give back
+     */
+    void increment(Product product, int quantity);
+
+    /**
+     * Replaces a product's stripes with an even split of the given stock.
+     *
+     * @param productId the ID of the product
+     * @param stock     the total stock to split
+     */
+    void resetStock(Long productId, int stock);
+
+    /**
+     * Removes all stripes of a product.
+     *
+     * @param productId the ID of the product
+     */
+    void deleteStock(Long productId);
+
+    /**
+     * Sums the stripes of the given products.
+     *
+     * @param productIds the IDs of the products
+     * @return the striped stock per product ID; products without stripes are absent
+     */
+    Map<Long, Integer> getStock(Collection<Long> productIds);
+}
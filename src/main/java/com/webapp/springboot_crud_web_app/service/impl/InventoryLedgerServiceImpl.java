@@ -0,0 +1,231 @@
+package com.webapp.springboot_crud_web_app.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webapp.springboot_crud_web_app.model.InventoryMovement;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.InventoryMovementRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.InventoryLedgerService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implementation of the InventoryLedgerService interface.
+ * <p>
+ * Orders take stock without locking the product row. Per product, the quantity
+ * taken by transactions that are still open and the number of takes completed
+ * are packed into one {@code long}, so a take checks the stock it read and
+ * adds its quantity with one compare-and-set. The open takes are read before
+ * the stock; if a take completes before the compare-and-set, the stock is read
+ * again, since it may or may not include that take.
+ */
+@Slf4j
+@Service
+@Transactional
+public class InventoryLedgerServiceImpl implements InventoryLedgerService {
+
+    private final InventoryMovementRepository movementRepository;
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int compactionBatchSize;
+
+    private final Map<Long, AtomicLong> openTakes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InventoryLedgerServiceImpl(InventoryMovementRepository movementRepository, ProductRepository productRepository,
+                                      @Value("${app.inventory.ledger.enabled:false}") boolean enabled,
+                                      @Value("${app.inventory.ledger.compaction-batch-size:10000}") int compactionBatchSize) {
+        this.movementRepository = movementRepository;
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.compactionBatchSize = compactionBatchSize;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void record(Map<Long, Integer> deltasByProductId, MovementType type) {
+        List<InventoryMovement> movements = new ArrayList<>(deltasByProductId.size());
+        deltasByProductId.forEach((productId, delta) -> {
+            if (delta != 0) {
+                movements.add(new InventoryMovement(null, productId, delta, type, false, null));
+            }
+        });
+        movementRepository.saveAll(movements);
+        log.debug("event=inventory.ledger.recorded type={} products={}", type, movements.size());
+    }
+
+    @Override
+    public OptionalLong take(Map<Long, Integer> quantitiesByProductId) {
+        Map<Long, Integer> taken = new TreeMap<>();
+        boolean recorded = false;
+        try {
+            List<Long> toTake = new ArrayList<>(new TreeMap<>(quantitiesByProductId).keySet());
+            while (!toTake.isEmpty()) {
+                Map<Long, Long> seen = new HashMap<>(toTake.size() * 2);
+                for (Long productId : toTake) {
+                    seen.put(productId, openTakesOf(productId).get());
+                }
+                Map<Long, Integer> currentStock = getCurrentStock(toTake);
+                List<Long> stale = new ArrayList<>();
+                for (Long productId : toTake) {
+                    int quantity = quantitiesByProductId.get(productId);
+                    switch (hold(productId, quantity, currentStock.getOrDefault(productId, 0), seen.get(productId))) {
+                        case SHORT -> {
+                            return OptionalLong.of(productId);
+                        }
+                        case STALE -> stale.add(productId);
+                        case HELD -> taken.put(productId, quantity);
+                    }
+                }
+                toTake = stale;
+            }
+            Map<Long, Integer> deltasByProductId = new TreeMap<>();
+            taken.forEach((productId, quantity) -> deltasByProductId.put(productId, -quantity));
+            record(deltasByProductId, MovementType.ORDER);
+            recorded = true;
+        } finally {
+            if (!recorded) {
+                taken.forEach(this::complete);
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Committed, the movements are part of the stock read from now on; rolled back, they never were
+                    taken.forEach(InventoryLedgerServiceImpl.this::complete);
+                }
+            });
+        } else {
+            taken.forEach(this::complete);
+        }
+        log.debug("event=inventory.ledger.taken products={}", taken.size());
+        return OptionalLong.empty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getPendingDeltas(Collection<Long> productIds) {
+        List<Long> ids = BatchUtils.distinctIds(productIds);
+        Map<Long, Integer> pending = new HashMap<>(ids.size() * 2);
+        for (List<Long> chunk : BatchUtils.partition(ids, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (Object[] row : movementRepository.sumUncompactedByProductIdIn(chunk)) {
+                pending.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getCurrentStock(Product product) {
+        return product.getStock() + getPendingDeltas(List.of(product.getId())).getOrDefault(product.getId(), 0);
+    }
+
+    @Override
+    public int compact() {
+        List<InventoryMovement> movements =
+                movementRepository.findUncompactedForUpdate(PageRequest.of(0, compactionBatchSize));
+        if (movements.isEmpty()) {
+            return 0;
+        }
+
+        // Sorted so concurrent compactions update product rows in the same order
+        Map<Long, Integer> deltasByProductId = new TreeMap<>();
+        List<Long> ids = new ArrayList<>(movements.size());
+        for (InventoryMovement movement : movements) {
+            deltasByProductId.merge(movement.getProductId(), movement.getQuantity(), Integer::sum);
+            ids.add(movement.getId());
+        }
+
+        for (List<Long> chunk : BatchUtils.partition(ids, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            movementRepository.markCompacted(chunk);
+        }
+        deltasByProductId.forEach((productId, delta) -> {
+            if (delta != 0) {
+                productRepository.incrementStock(productId, delta);
+            }
+        });
+
+        log.info("event=inventory.ledger.compacted movements={} products={}", movements.size(), deltasByProductId.size());
+        return movements.size();
+    }
+
+    /**
+     * Adds {@code quantity} to the product's open takes if {@code stock}, read
+     * after {@code seen}, still covers them.
+     */
+    private Hold hold(Long productId, int quantity, int stock, long seen) {
+        AtomicLong state = openTakesOf(productId);
+        while (true) {
+            long current = state.get();
+            if (completed(current) != completed(seen)) {
+                return Hold.STALE;
+            }
+            if (stock - open(current) < quantity) {
+                return Hold.SHORT;
+            }
+            if (state.compareAndSet(current, pack(completed(current), open(current) + quantity))) {
+                return Hold.HELD;
+            }
+        }
+    }
+
+    private void complete(Long productId, int quantity) {
+        openTakesOf(productId).getAndUpdate(current -> pack(completed(current) + 1, open(current) - quantity));
+    }
+
+    private AtomicLong openTakesOf(Long productId) {
+        return openTakes.computeIfAbsent(productId, id -> new AtomicLong());
+    }
+
+    private Map<Long, Integer> getCurrentStock(List<Long> productIds) {
+        Map<Long, Integer> currentStock = new HashMap<>(productIds.size() * 2);
+        for (List<Long> chunk : BatchUtils.partition(productIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (Object[] row : movementRepository.sumCurrentStockByProductIdIn(chunk)) {
+                currentStock.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        return currentStock;
+    }
+
+    static long pack(int completed, int open) {
+        return ((long) completed << 32) | (open & 0xFFFFFFFFL);
+    }
+
+    static int completed(long state) {
+        return (int) (state >> 32);
+    }
+
+    static int open(long state) {
+        return (int) state;
+    }
+
+    private enum Hold {
+        HELD, SHORT, STALE
+    }
+}
@@ -1,7 +1,9 @@
 package com.webapp.springboot_crud_web_app.service.impl;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -9,19 +11,26 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
 import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
 import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
 import com.webapp.springboot_crud_web_app.model.Order;
 import com.webapp.springboot_crud_web_app.model.OrderItem;
 import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.ordering.OrderStockPolicy;
 import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
 import com.webapp.springboot_crud_web_app.repository.OrderRepository;
-import com.webapp.springboot_crud_web_app.repository.ProductRepository;
 import com.webapp.springboot_crud_web_app.service.OrderItemService;
+import com.webapp.springboot_crud_web_app.util.Money;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Implementation of the OrderItemService interface.
+ * <p>
+ * Adding, changing or removing an item moves its order's total and its
+ * product's stock by the difference it makes, so neither the order's other
+ * items nor the totals are reloaded. Only items of an order that still holds
+ * its stock may change, and the order stays locked until the change commits.
  */
 @Service
 @Transactional
@@ -30,84 +39,112 @@ public class OrderItemServiceImpl implements OrderItemService {
 
     private final OrderItemRepository orderItemRepository;
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
     private final OrderItemMapper orderItemMapper;
+    private final StockMutator stockMutator;
 
     @Autowired
     public OrderItemServiceImpl(OrderItemRepository orderItemRepository,
                                   OrderRepository orderRepository,
-                                  ProductRepository productRepository,
-                                  OrderItemMapper orderItemMapper) {
+                                  OrderItemMapper orderItemMapper,
+                                  StockMutator stockMutator) {
         this.orderItemRepository = orderItemRepository;
         this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
         this.orderItemMapper = orderItemMapper;
+        this.stockMutator = stockMutator;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<OrderItemDTO> findAll() {
-        log.info("Fetching all order items");
-        List<OrderItemDTO> orderItems = orderItemRepository.findAll()
-                .stream()
-                .map(orderItemMapper::toDTO)
-                .collect(Collectors.toList());
-        log.info("Successfully fetched {} order items", orderItems.size());
+        log.debug("event=orderItem.findAll");
+        List<OrderItemDTO> orderItems = orderItemRepository.findAllMapped(orderItemMapper::toDTO);
+        log.debug("event=orderItem.findAll.done count={}", orderItems.size());
         return orderItems;
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderItemDTO findById(Long id) {
-        log.info("Fetching order item by ID: {}", id);
+        log.debug("event=orderItem.findById orderItemId={}", id);
         OrderItem orderItem = orderItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("OrderItem", "id", id));
         OrderItemDTO orderItemDTO = orderItemMapper.toDTO(orderItem);
-        log.info("Successfully fetched order item: {}", orderItemDTO);
+        log.debug("event=orderItem.findById.done orderItemId={} orderId={} productId={}", id, orderItemDTO.getOrderId(), orderItemDTO.getProductId());
         return orderItemDTO;
     }
 
     @Override
     public OrderItemDTO create(OrderItemDTO orderItemDTO, Long orderId, Long productId) {
-        log.info("Creating order item for order ID: {} and product ID: {}", orderId, productId);
+        log.debug("event=orderItem.create orderId={} productId={}", orderId, productId);
 
+        OrderStockPolicy.lockForItemChange(orderRepository, orderId);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        Product product = stockMutator.take(Map.of(productId, orderItemDTO.getQuantity())).get(productId);
 
         OrderItem orderItem = orderItemMapper.toEntity(orderItemDTO, order, product);
         OrderItem savedOrderItem = orderItemRepository.save(orderItem);
         OrderItemDTO resultDTO = orderItemMapper.toDTO(savedOrderItem);
+        addToTotal(orderId, order.getCreatedAt(), Money.toCents(savedOrderItem.getSubtotal()));
 
-        log.info("Successfully created order item with ID: {}", resultDTO.getId());
+        log.info("event=orderItem.created orderItemId={} orderId={} productId={}", resultDTO.getId(), orderId, productId);
         return resultDTO;
     }
 
     @Override
     public OrderItemDTO update(OrderItemDTO orderItemDTO, Long id, Long productId) {
-        log.info("Updating order item with ID: {}", id);
+        log.debug("event=orderItem.update orderItemId={} productId={}", id, productId);
 
         OrderItem existingOrderItem = orderItemRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("OrderItem", "id", id));
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        Long orderId = existingOrderItem.getOrder().getId();
+        OrderStockPolicy.lockForItemChange(orderRepository, orderId);
+
+        Long previousProductId = existingOrderItem.getProduct().getId();
+        int previousQuantity = existingOrderItem.getQuantity();
+        long previousSubtotalCents = Money.toCents(existingOrderItem.getSubtotal());
+        int quantity = orderItemDTO.getQuantity() != null ? orderItemDTO.getQuantity() : previousQuantity;
+
+        // Net per product, so moving an item between products takes and gives back in one step
+        Map<Long, Integer> quantitiesTaken = new HashMap<>();
+        quantitiesTaken.put(previousProductId, -previousQuantity);
+        quantitiesTaken.merge(productId, quantity, Integer::sum);
+        Product product = stockMutator.adjust(List.of(productId), quantitiesTaken).get(productId);
 
         orderItemMapper.updateEntityFromDTO(orderItemDTO, existingOrderItem, product);
         OrderItem updatedOrderItem = orderItemRepository.save(existingOrderItem);
         OrderItemDTO resultDTO = orderItemMapper.toDTO(updatedOrderItem);
+        addToTotal(orderId, existingOrderItem.getOrderCreatedAt(),
+                Money.toCents(updatedOrderItem.getSubtotal()) - previousSubtotalCents);
 
-        log.info("Successfully updated order item with ID: {}", resultDTO.getId());
+        log.info("event=orderItem.updated orderItemId={}", resultDTO.getId());
         return resultDTO;
     }
 
     @Override
     public void delete(Long id) {
-        log.info("Deleting order item with ID: {}", id);
-        if (!orderItemRepository.existsById(id)) {
-            throw new ResourceNotFoundException("OrderItem", "id", id);
+        log.debug("event=orderItem.delete orderItemId={}", id);
+        OrderItem orderItem = orderItemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("OrderItem", "id", id));
+        Long orderId = orderItem.getOrder().getId();
+        OrderStockPolicy.lockForItemChange(orderRepository, orderId);
+        Long productId = orderItem.getProduct().getId();
+        int quantity = orderItem.getQuantity();
+        long subtotalCents = Money.toCents(orderItem.getSubtotal());
+
+        orderItemRepository.delete(orderItem);
+        stockMutator.giveBack(Map.of(productId, quantity));
+        addToTotal(orderId, orderItem.getOrderCreatedAt(), -subtotalCents);
+        log.info("event=orderItem.deleted orderItemId={}", id);
+    }
+
+    /**
+     * Adjusts the order's total; its creation time lets the update go straight to
+     * the order's partition.
+     */
+    private void addToTotal(Long orderId, LocalDateTime orderCreatedAt, long deltaCents) {
+        if (deltaCents != 0) {
+            orderRepository.addToTotalAmount(orderId, orderCreatedAt, Money.toBigDecimal(deltaCents));
         }
-        orderItemRepository.deleteById(id);
-        log.info("Successfully deleted order item with ID: {}", id);
     }
 } 
\ No newline at end of file
@@ -1,24 +1,45 @@
 package com.webapp.springboot_crud_web_app.service.impl;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.webapp.springboot_crud_web_app.archive.OrderArchive;
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
 import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
 import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
 import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
 import com.webapp.springboot_crud_web_app.mapper.OrderMapper;
 import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
 import com.webapp.springboot_crud_web_app.model.OrderItem;
 import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.ordering.OrderPricing;
+import com.webapp.springboot_crud_web_app.ordering.OrderStockPolicy;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
 import com.webapp.springboot_crud_web_app.repository.OrderRepository;
-import com.webapp.springboot_crud_web_app.repository.ProductRepository;
 import com.webapp.springboot_crud_web_app.service.OrderService;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+import com.webapp.springboot_crud_web_app.util.FieldSelection;
+import com.webapp.springboot_crud_web_app.util.Money;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,46 +51,215 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
+    /**
+     * Order fields that may be requested through {@code fields=}.
+     */
+    static final Set<String> SELECTABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
+            "id", "customerName", "customerEmail", "shippingAddress", "totalAmount", "status", "createdAt", "updatedAt")));
+
+    /**
+     * Associations that may be embedded through {@code include=}.
+     */
+    static final Set<String> INCLUDABLE_ASSOCIATIONS = Set.of("items");
+
+    /**
+     * Creation time bounds used when a filter leaves one open; both are valid PostgreSQL timestamps.
+     */
+    static final LocalDateTime EARLIEST_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+    static final LocalDateTime LATEST_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
-    private final ProductRepository productRepository;
     private final OrderItemMapper orderItemMapper;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final StockMutator stockMutator;
+    private final StockReservationService reservationService;
 
     @Autowired
-    public OrderServiceImpl(OrderRepository orderRepository, OrderMapper orderMapper, ProductRepository productRepository, OrderItemMapper orderItemMapper) {
+    public OrderServiceImpl(OrderRepository orderRepository, OrderMapper orderMapper, OrderItemMapper orderItemMapper,
+                            OrderItemRepository orderItemRepository, OrderArchive orderArchive,
+                            StockMutator stockMutator, StockReservationService reservationService) {
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
-        this.productRepository = productRepository;
         this.orderItemMapper = orderItemMapper;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.stockMutator = stockMutator;
+        this.reservationService = reservationService;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<OrderDTO> findAll() {
-        log.info("Fetching all orders");
-        List<OrderDTO> orders = orderRepository.findAll()
-                .stream()
-                .map(orderMapper::toDTO)
-                .collect(Collectors.toList());
-        log.info("Successfully fetched {} orders", orders.size());
+        log.debug("event=order.findAll");
+        // Two scans instead of one item load per order
+        Map<Long, List<OrderItemDTO>> itemsByOrderId = new HashMap<>();
+        for (OrderItemDTO itemDTO : orderItemRepository.findAllMapped(orderItemMapper::toDTO)) {
+            itemsByOrderId.computeIfAbsent(itemDTO.getOrderId(), id -> new ArrayList<>()).add(itemDTO);
+        }
+        List<OrderDTO> orders = orderRepository.findAllMapped(order -> orderMapper.toDTO(order,
+                itemsByOrderId.getOrDefault(order.getId(), new ArrayList<>())));
+        log.debug("event=order.findAll.done count={}", orders.size());
+        return orders;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderDTO> findAllFiltered(Set<OrderStatus> statuses, LocalDateTime createdFrom,
+                                          LocalDateTime createdBefore, int limit) {
+        if (limit < 1 || limit > BatchUtils.MAX_IN_CLAUSE_SIZE) {
+            throw new BusinessRuleViolationException(
+                    "Limit must be between 1 and " + BatchUtils.MAX_IN_CLAUSE_SIZE);
+        }
+        Set<OrderStatus> requested = statuses == null || statuses.isEmpty()
+                ? EnumSet.allOf(OrderStatus.class) : EnumSet.copyOf(statuses);
+        List<String> statusNames = requested.stream().map(Enum::name).toList();
+        LocalDateTime from = createdFrom != null ? createdFrom : EARLIEST_CREATED_AT;
+        LocalDateTime before = createdBefore != null ? createdBefore : LATEST_CREATED_AT;
+        
+        // Open statuses only: repeat the partial index predicate so the planner can pick it
+        boolean openOnly = requested.stream().noneMatch(OrderStatus::isTerminal);
+        List<Long> ids = openOnly
+                ? orderRepository.findOpenIdsByStatusInAndCreatedAtBetween(statusNames, from, before, limit)
+                : orderRepository.findIdsByStatusInAndCreatedAtBetween(statusNames, from, before, limit);
+        log.debug("event=order.findAllFiltered statuses={} openOnly={} found={}", requested, openOnly, ids.size());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // The same creation time range again, for partition pruning on orders and order_items
+        Map<Long, Order> ordersById = new HashMap<>(ids.size() * 2);
+        for (Order order : orderRepository.findAllWithItemsByIdInAndCreatedAtBetween(ids, from, before)) {
+            ordersById.put(order.getId(), order);
+        }
+        List<OrderDTO> orders = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            orders.add(orderMapper.toDTO(ordersById.get(id)));
+        }
         return orders;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllWithFields(String fields, String include) {
+        List<String> selectedFields = FieldSelection.parse(fields, SELECTABLE_FIELDS);
+        if (selectedFields.isEmpty()) {
+            selectedFields = new ArrayList<>(SELECTABLE_FIELDS);
+        }
+        boolean includeItems = FieldSelection.parse(include, INCLUDABLE_ASSOCIATIONS).contains("items");
+        if (includeItems && !selectedFields.contains("id")) {
+            // Items are matched to their order by ID
+            selectedFields = new ArrayList<>(selectedFields);
+            selectedFields.add(0, "id");
+        }
+        log.debug("event=order.findAllWithFields fields={} includeItems={}", selectedFields, includeItems);
+
+        List<Map<String, Object>> orders = orderRepository.findAllProjected(selectedFields);
+        if (includeItems) {
+            attachOrderItems(orders);
+        }
+
+        log.debug("event=order.findAllWithFields.done count={}", orders.size());
+        return orders;
+    }
+
+    private void attachOrderItems(List<Map<String, Object>> orders) {
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (Map<String, Object> order : orders) {
+            orderIds.add((Long) order.get("id"));
+        }
+
+        Map<Long, List<OrderItemDTO>> itemsByOrderId = new HashMap<>(orderIds.size() * 2);
+        for (List<Long> chunk : BatchUtils.partition(orderIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (OrderItem item : orderItemRepository.findAllByOrderIdIn(chunk)) {
+                OrderItemDTO itemDTO = orderItemMapper.toDTO(item);
+                itemsByOrderId.computeIfAbsent(itemDTO.getOrderId(), id -> new ArrayList<>()).add(itemDTO);
+            }
+        }
+
+        for (Map<String, Object> order : orders) {
+            order.put("orderItems", itemsByOrderId.getOrDefault((Long) order.get("id"), Collections.emptyList()));
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public OrderDTO findById(Long id) {
-        log.info("Fetching order by ID: {}", id);
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+        log.debug("event=order.findById orderId={}", id);
+        Order order = orderRepository.findById(id).orElse(null);
+        if (order == null) {
+            // Delivered orders moved out of the database are still served, read-only
+            OrderDTO archived = orderArchive.find(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+            log.debug("event=order.findById.archived orderId={}", id);
+            return archived;
+        }
         OrderDTO orderDTO = orderMapper.toDTO(order);
-        log.info("Successfully fetched order: {}", orderDTO);
+        log.debug("event=order.findById.done orderId={}", id);
         return orderDTO;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public BatchResultDTO<OrderDTO> findAllByIds(List<Long> ids) {
+        List<Long> requestedIds = BatchUtils.distinctIds(ids);
+        log.debug("event=order.findAllByIds requested={}", requestedIds.size());
+        Map<Long, Order> ordersById = new HashMap<>(requestedIds.size() * 2);
+
+        // Items are fetched in the same query so mapping does not trigger one load per order
+        for (List<Long> chunk : BatchUtils.partition(requestedIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (Order order : orderRepository.findAllWithItemsByIdIn(chunk)) {
+                ordersById.put(order.getId(), order);
+            }
+        }
+
+        List<OrderDTO> found = new ArrayList<>(ordersById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Order order = ordersById.get(id);
+            if (order == null) {
+                missingIds.add(id);
+            } else {
+                found.add(orderMapper.toDTO(order));
+            }
+        }
+
+        log.debug("event=order.findAllByIds.done found={} missing={}", found.size(), missingIds.size());
+        return new BatchResultDTO<>(found, missingIds);
+    }
+
     @Override
     public OrderDTO create(OrderDTO orderDTO) {
-        log.info("Creating new order");
+        return createOrder(orderDTO, null);
+    }
+
+    @Override
+    public void lockStockFor(List<OrderDTO> orderDTOs) {
+        Set<Long> productIds = orderDTOs.stream()
+                .filter(orderDTO -> orderDTO.getOrderItems() != null)
+                .flatMap(orderDTO -> orderDTO.getOrderItems().stream())
+                .map(OrderItemDTO::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        stockMutator.lockProducts(productIds);
+    }
+
+    @Override
+    public OrderDTO createFromIntake(String intakeId, OrderDTO orderDTO) {
+        // A drain interrupted after its commit replays records that are already orders
+        Order existing = orderRepository.findByIntakeId(intakeId).orElse(null);
+        if (existing != null) {
+            log.debug("event=order.intake.duplicate intakeId={} orderId={}", intakeId, existing.getId());
+            return orderMapper.toDTO(existing);
+        }
+        return createOrder(orderDTO, intakeId);
+    }
+
+    private OrderDTO createOrder(OrderDTO orderDTO, String intakeId) {
+        log.debug("event=order.create");
         Order order = orderMapper.toEntity(orderDTO);
+        order.setIntakeId(intakeId);
         
         // Validate order items and check stock
         List<OrderItemDTO> orderItemDTOs = orderDTO.getOrderItems();
@@ -77,71 +267,154 @@ public class OrderServiceImpl implements OrderService {
             throw new BusinessRuleViolationException("Order must contain at least one item");
         }
         
-        // Validate stock for each product before saving the order
-        List<Product> productsToUpdate = orderItemDTOs.stream()
-                .map(itemDTO -> {
-                    Product product = productRepository.findById(itemDTO.getProductId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemDTO.getProductId()));
-                    
-                    // Check if there's enough stock
-                    if (product.getStock() < itemDTO.getQuantity()) {
-                        throw new BusinessRuleViolationException(
-                                "Insufficient stock for product '" + product.getName() + 
-                                "'. Available: " + product.getStock() + ", Requested: " + itemDTO.getQuantity());
-                    }
-                    
-                    // Update product stock
-                    product.setStock(product.getStock() - itemDTO.getQuantity());
-                    return product;
-                })
-                .collect(Collectors.toList());
-        
-        // Save the order
-        Order savedOrder = orderRepository.save(order);
+        // Take the stock, all or nothing, wherever it is kept; what the order's reservations hold is taken already
+        Map<Long, Integer> quantitiesTaken = OrderStockPolicy.quantitiesTaken(orderItemDTOs, List.of());
+        Map<Long, Product> productsById = stockMutator.adjust(quantitiesTaken.keySet(),
+                OrderStockPolicy.takeOverReservations(reservationService, quantitiesTaken,
+                        orderDTO.getReservationIds()));
         
-        // Create and set order items
-        List<OrderItem> orderItems = orderItemDTOs.stream()
-                .map(itemDTO -> {
-                    Product product = productsToUpdate.stream()
-                            .filter(p -> p.getId().equals(itemDTO.getProductId()))
-                            .findFirst()
-                            .orElseThrow(() -> new ResourceNotFoundException("Product", "id", itemDTO.getProductId()));
-                    
-                    // Save product with updated stock
-                    productRepository.save(product);
-                    
-                    OrderItem orderItem = orderItemMapper.toEntity(itemDTO, savedOrder, product);
-                    return orderItem;
-                })
-                .collect(Collectors.toList());
+        // Price the order from the products' current prices, whatever the client sent
+        List<OrderItem> orderItems = new ArrayList<>(orderItemDTOs.size());
+        long totalCents = OrderPricing.priceItems(order, orderItemDTOs, productsById, productsById::get,
+                orderItemMapper, orderItems);
+        order.setTotalAmount(Money.toBigDecimal(totalCents));
         
+        // Save the order with its items
+        Order savedOrder = orderRepository.save(order);
         savedOrder.setOrderItems(orderItems);
         orderRepository.save(savedOrder);
 
         OrderDTO resultDTO = orderMapper.toDTO(savedOrder);
-        log.info("Successfully created order with ID: {}", resultDTO.getId());
+        log.info("event=order.created orderId={}", resultDTO.getId());
         return resultDTO;
     }
 
     @Override
     public OrderDTO update(OrderDTO orderDTO, Long id) {
-        log.info("Updating order with ID: {}", id);
+        log.debug("event=order.update orderId={}", id);
+        // Locked before it is read, so of two cancellations only the first gives the stock back, and a
+        // cancelled order cannot be reopened to give it back twice
+        boolean cancels = orderDTO.getStatus() != null
+                && OrderStockPolicy.lockForStatusChange(orderRepository, id, orderDTO.getStatus());
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
         orderMapper.updateEntityFromDTO(orderDTO, existingOrder);
         Order updatedOrder = orderRepository.save(existingOrder);
         OrderDTO resultDTO = orderMapper.toDTO(updatedOrder);
-        log.info("Successfully updated order with ID: {}", resultDTO.getId());
+        if (cancels) {
+            stockMutator.giveBackOrders(List.of(id));
+        }
+        log.info("event=order.updated orderId={}", resultDTO.getId());
+        return resultDTO;
+    }
+
+    @Override
+    public OrderStatusTransitionDTO transitionStatus(List<Long> ids, OrderStatus status) {
+        Set<OrderStatus> fromStatuses = OrderStockPolicy.transitionSources(status);
+        List<Long> requestedIds = BatchUtils.distinctIds(ids);
+        log.debug("event=order.transitionStatus requested={} status={}", requestedIds.size(), status);
+
+        // Ascending ids, so chunks lock their rows in the same order as every other bulk transition
+        List<Long> sortedIds = new ArrayList<>(requestedIds);
+        Collections.sort(sortedIds);
+        Set<Long> changed = new HashSet<>(requestedIds.size() * 2);
+        for (List<Long> chunk : BatchUtils.partition(sortedIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            List<Long> movableIds = orderRepository.findIdsByIdInAndStatusInForUpdate(chunk, fromStatuses);
+            if (!movableIds.isEmpty()) {
+                orderRepository.updateStatus(movableIds, fromStatuses, status);
+                if (status == OrderStatus.CANCELLED) {
+                    stockMutator.giveBackOrders(movableIds);
+                }
+                changed.addAll(movableIds);
+            }
+        }
+
+        OrderStatusTransitionDTO result = OrderStockPolicy.transitionResult(requestedIds, status, changed);
+        log.info("event=order.statusTransitioned status={} changed={} unchanged={}",
+                status, result.getChangedIds().size(), result.getUnchangedIds().size());
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderItemDTO> findItems(Long orderId) {
+        log.debug("event=order.findItems orderId={}", orderId);
+        if (!orderRepository.existsById(orderId)) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
+        }
+        List<OrderItemDTO> items = orderItemRepository.findAllByOrderIdIn(List.of(orderId))
+                .stream()
+                .map(orderItemMapper::toDTO)
+                .collect(Collectors.toList());
+        log.debug("event=order.findItems.done orderId={} count={}", orderId, items.size());
+        return items;
+    }
+
+    @Override
+    public OrderDTO addItems(Long orderId, List<OrderItemDTO> orderItemDTOs) {
+        return changeItems(orderId, orderItemDTOs, false);
+    }
+
+    @Override
+    public OrderDTO replaceItems(Long orderId, List<OrderItemDTO> orderItemDTOs) {
+        return changeItems(orderId, orderItemDTOs, true);
+    }
+
+    /**
+     * Adds or replaces an order's items with one query for the order and its
+     * items and one for all products involved. The order is locked first and
+     * must still hold its stock. Stock moves by the net quantity per product,
+     * through the {@link StockMutator}, new items are priced in one pass, and
+     * the items are written when the transaction flushes, as JDBC batches.
+     */
+    private OrderDTO changeItems(Long orderId, List<OrderItemDTO> orderItemDTOs, boolean replace) {
+        log.debug("event=order.changeItems orderId={} items={} replace={}", orderId, orderItemDTOs.size(), replace);
+        if (orderItemDTOs.isEmpty()) {
+            throw new BusinessRuleViolationException("Order must contain at least one item");
+        }
+        OrderStockPolicy.lockForItemChange(orderRepository, orderId);
+        List<Order> found = orderRepository.findAllWithItemsByIdIn(List.of(orderId));
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
+        }
+        Order order = found.get(0);
+
+        // Net stock taken per product: the new quantities, less those of the items being replaced
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItemDTO itemDTO : orderItemDTOs) {
+            productIds.add(itemDTO.getProductId());
+        }
+        Map<Long, Product> productsById = stockMutator.adjust(productIds,
+                OrderStockPolicy.quantitiesTaken(orderItemDTOs, replace ? order.getOrderItems() : List.of()));
+
+        List<OrderItem> orderItems = new ArrayList<>(orderItemDTOs.size() + (replace ? 0 : order.getOrderItems().size()));
+        long totalCents = 0;
+        if (!replace) {
+            orderItems.addAll(order.getOrderItems());
+            totalCents = Money.toCents(order.getTotalAmount());
+        }
+        totalCents = Math.addExact(totalCents, OrderPricing.priceItems(order, orderItemDTOs, productsById,
+                productsById::get, orderItemMapper, orderItems));
+        orderMapper.updateOrderItems(order, orderItems);
+        order.setTotalAmount(Money.toBigDecimal(totalCents));
+
+        Order savedOrder = orderRepository.save(order);
+        OrderDTO resultDTO = orderMapper.toDTO(savedOrder);
+        log.info("event=order.itemsChanged orderId={} items={} replace={}", orderId, orderItems.size(), replace);
         return resultDTO;
     }
 
     @Override
     public void delete(Long id) {
-        log.info("Deleting order with ID: {}", id);
-        if (!orderRepository.existsById(id)) {
+        log.debug("event=order.delete orderId={}", id);
+        boolean holdsStock = OrderStockPolicy.lockIfHoldingStock(orderRepository, id);
+        if (!holdsStock && !orderRepository.existsById(id)) {
             throw new ResourceNotFoundException("Order", "id", id);
         }
+        if (holdsStock) {
+            stockMutator.giveBackOrders(List.of(id));
+        }
         orderRepository.deleteById(id);
-        log.info("Successfully deleted order with ID: {}", id);
+        log.info("event=order.deleted orderId={}", id);
     }
-} 
\ No newline at end of file
+}
@@ -1,18 +1,40 @@
 package com.webapp.springboot_crud_web_app.service.impl;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductPageDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductSearchResultDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
 import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.InventoryEngine;
 import com.webapp.springboot_crud_web_app.mapper.ProductMapper;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
 import com.webapp.springboot_crud_web_app.model.Product;
 import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductSortKey;
+import com.webapp.springboot_crud_web_app.search.ProductSearchIndex;
+import com.webapp.springboot_crud_web_app.service.InventoryLedgerService;
 import com.webapp.springboot_crud_web_app.service.ProductService;
+import com.webapp.springboot_crud_web_app.service.StockStripeService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+import com.webapp.springboot_crud_web_app.util.FieldSelection;
 
 /**
  * Implementation of the ProductService interface.
@@ -21,22 +43,79 @@ import com.webapp.springboot_crud_web_app.service.ProductService;
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    /**
+     * Product fields that may be requested through {@code fields=}.
+     */
+    static final Set<String> SELECTABLE_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(
+            "id", "name", "description", "price", "stock", "createdAt", "updatedAt")));
+
+    /**
+     * Values accepted by {@code sort=}, each also prefixed with {@code -} for descending order.
+     */
+    static final Map<String, ProductSortKey> SORT_KEYS = Map.of(
+            "price", ProductSortKey.PRICE,
+            "createdAt", ProductSortKey.CREATED_AT);
+
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_SEARCH_RESULTS = 10_000;
+
+    /**
+     * Reads an {@code inStock} page may take when live stock hides which
+     * products are in stock; past them the page is returned as far as it got.
+     */
+    static final int MAX_LIVE_STOCK_READS = 10;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final StockStripeService stockStripeService;
+    private final InventoryEngine inventoryEngine;
+    private final InventoryLedgerService inventoryLedgerService;
+    private final ProductSearchIndex productSearchIndex;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper,
+                              StockStripeService stockStripeService, InventoryEngine inventoryEngine,
+                              InventoryLedgerService inventoryLedgerService, ProductSearchIndex productSearchIndex) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.stockStripeService = stockStripeService;
+        this.inventoryEngine = inventoryEngine;
+        this.inventoryLedgerService = inventoryLedgerService;
+        this.productSearchIndex = productSearchIndex;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductDTO> findAll() {
-        return productRepository.findAll()
-                .stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+        List<ProductDTO> products = productRepository.findAllMapped(productMapper::toDTO);
+        applyLiveStock(products);
+        return products;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findAllWithFields(String fields) {
+        List<String> selectedFields = FieldSelection.parse(fields, SELECTABLE_FIELDS);
+        if (selectedFields.isEmpty()) {
+            selectedFields = List.copyOf(SELECTABLE_FIELDS);
+        }
+        boolean liveStock = hasLiveStock() && selectedFields.contains("stock");
+        boolean idAdded = liveStock && !selectedFields.contains("id");
+        if (idAdded) {
+            // Live stock is looked up by product ID
+            selectedFields = new ArrayList<>(selectedFields);
+            selectedFields.add(0, "id");
+        }
+        List<Map<String, Object>> products = productRepository.findAllProjected(selectedFields);
+        if (liveStock) {
+            applyLiveStockToRows(products);
+        }
+        if (idAdded) {
+            for (Map<String, Object> row : products) {
+                row.remove("id");
+            }
+        }
+        return products;
     }
 
     @Override
@@ -45,7 +124,185 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         
-        return productMapper.toDTO(product);
+        ProductDTO productDTO = productMapper.toDTO(product);
+        applyLiveStock(List.of(productDTO));
+        return productDTO;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchResultDTO<ProductDTO> findAllByIds(List<Long> ids) {
+        List<Long> requestedIds = BatchUtils.distinctIds(ids);
+        Map<Long, Product> productsById = new HashMap<>(requestedIds.size() * 2);
+        
+        // One IN query per chunk instead of one lookup per ID
+        for (List<Long> chunk : BatchUtils.partition(requestedIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (Product product : productRepository.findAllById(chunk)) {
+                productsById.put(product.getId(), product);
+            }
+        }
+        
+        List<ProductDTO> found = new ArrayList<>(productsById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Product product = productsById.get(id);
+            if (product == null) {
+                missingIds.add(id);
+            } else {
+                found.add(productMapper.toDTO(product));
+            }
+        }
+        
+        applyLiveStock(found);
+        return new BatchResultDTO<>(found, missingIds);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchResultDTO search(String query, int page, int size) {
+        if (!productSearchIndex.isEnabled()) {
+            throw new BusinessRuleViolationException("Product search is not enabled");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE || (page + 1L) * size > MAX_SEARCH_RESULTS) {
+            throw new BusinessRuleViolationException("Search pages must have 1 to " + MAX_PAGE_SIZE
+                    + " results and stay within the first " + MAX_SEARCH_RESULTS + " results");
+        }
+        ProductSearchIndex.Hits hits = productSearchIndex.search(query, page * size, size);
+        
+        // The index ranks; one IN query loads the page, which is then put back in rank order
+        Map<Long, Product> productsById = new HashMap<>(hits.productIds().size() * 2);
+        for (Product product : productRepository.findAllById(hits.productIds())) {
+            productsById.put(product.getId(), product);
+        }
+        List<ProductDTO> products = new ArrayList<>(productsById.size());
+        for (Long id : hits.productIds()) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                products.add(productMapper.toDTO(product));
+            }
+        }
+        
+        applyLiveStock(products);
+        return new ProductSearchResultDTO(products, hits.total(), page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageDTO findPage(ProductFilterDTO filter, String sort, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessRuleViolationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        boolean descending = sort.startsWith("-");
+        ProductSortKey sortKey = SORT_KEYS.get(descending ? sort.substring(1) : sort);
+        if (sortKey == null) {
+            throw new BusinessRuleViolationException(
+                    "Unknown sort '" + sort + "'. Allowed sorts: " + String.join(",", SORT_KEYS.keySet())
+                    + ", each optionally prefixed with -");
+        }
+        
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int comma = cursor.lastIndexOf(',');
+            try {
+                String value = cursor.substring(0, comma);
+                afterValue = sortKey == ProductSortKey.PRICE ? new BigDecimal(value) : LocalDateTime.parse(value);
+                afterId = Long.valueOf(cursor.substring(comma + 1));
+            } catch (RuntimeException ex) {
+                throw new BusinessRuleViolationException("Invalid cursor '" + cursor + "' for sort '" + sort + "'");
+            }
+        }
+        
+        // One row past the page tells whether another page follows
+        boolean liveStockFilter = filter.isInStock() && hasLiveStock();
+        Map<Long, Integer> liveStock = new HashMap<>();
+        LiveStockPage livePage = liveStockFilter
+                ? findPageInLiveStock(filter, sortKey, descending, afterValue, afterId, size + 1, liveStock)
+                : null;
+        List<Product> rows = livePage != null
+                ? livePage.inStock()
+                : productRepository.findPage(filter, sortKey, descending, afterValue, afterId, size + 1);
+        List<ProductDTO> products = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            products.add(productMapper.toDTO(rows.get(i)));
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > size) {
+            nextCursor = cursorAfter(rows.get(size - 1), sortKey);
+        } else if (livePage != null && livePage.resumeAfter() != null) {
+            // Cut short: the next page resumes after the last product read, in stock or not
+            nextCursor = cursorAfter(livePage.resumeAfter(), sortKey);
+        }
+        if (liveStockFilter) {
+            products.forEach(product -> product.setStock(liveStock.get(product.getId())));
+        } else {
+            applyLiveStock(products);
+        }
+        return new ProductPageDTO(products, nextCursor);
+    }
+
+    private static String cursorAfter(Product product, ProductSortKey sortKey) {
+        Object value = sortKey == ProductSortKey.PRICE ? product.getPrice().toPlainString() : product.getCreatedAt();
+        return value + "," + product.getId();
+    }
+
+    /**
+     * Products in stock found by {@link #findPageInLiveStock}.
+     *
+     * @param resumeAfter the last product read, when the reads ran out before
+     *                    the page filled and more products may follow; otherwise null
+     */
+    private record LiveStockPage(List<Product> inStock, Product resumeAfter) {
+    }
+
+    /**
+     * With live stock the stock column can't tell which products are in stock,
+     * so products are read in key order without that condition, a page at a
+     * time, and those out of stock are skipped until enough remain or
+     * {@link #MAX_LIVE_STOCK_READS} pages have been read.
+     *
+     * @param liveStock receives the live stock of each product returned
+     * @return up to {@code limit} products in stock, in key order
+     */
+    private LiveStockPage findPageInLiveStock(ProductFilterDTO filter, ProductSortKey sortKey, boolean descending,
+                                              Object afterValue, Long afterId, int limit,
+                                              Map<Long, Integer> liveStock) {
+        ProductFilterDTO withoutStock = ProductFilterDTO.builder()
+                .minPrice(filter.getMinPrice())
+                .maxPrice(filter.getMaxPrice())
+                .createdFrom(filter.getCreatedFrom())
+                .createdBefore(filter.getCreatedBefore())
+                .build();
+        List<Product> inStock = new ArrayList<>(limit);
+        for (int reads = 0; inStock.size() < limit; reads++) {
+            List<Product> rows = productRepository.findPage(withoutStock, sortKey, descending, afterValue, afterId, limit);
+            if (rows.isEmpty()) {
+                break;
+            }
+            Map<Long, Integer> columnStock = new HashMap<>(rows.size() * 2);
+            for (Product product : rows) {
+                columnStock.put(product.getId(), product.getStock());
+            }
+            Map<Long, Integer> rowStock = getLiveStock(columnStock);
+            for (Product product : rows) {
+                int stock = rowStock.getOrDefault(product.getId(), product.getStock());
+                if (stock > 0 && inStock.size() < limit) {
+                    inStock.add(product);
+                    liveStock.put(product.getId(), stock);
+                }
+            }
+            if (rows.size() < limit) {
+                break;
+            }
+            Product last = rows.get(rows.size() - 1);
+            if (reads + 1 == MAX_LIVE_STOCK_READS && inStock.size() < limit) {
+                return new LiveStockPage(inStock, last);
+            }
+            afterValue = sortKey == ProductSortKey.PRICE ? last.getPrice() : last.getCreatedAt();
+            afterId = last.getId();
+        }
+        return new LiveStockPage(inStock, null);
     }
 
     @Override
@@ -55,6 +312,10 @@ public class ProductServiceImpl implements ProductService {
         
         Product product = productMapper.toEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        if (stockStripeService.isEnabled()) {
+            stockStripeService.resetStock(savedProduct.getId(), savedProduct.getStock());
+        }
+        productSearchIndex.index(savedProduct.getId(), savedProduct.getName(), savedProduct.getDescription());
         
         return productMapper.toDTO(savedProduct);
     }
@@ -64,18 +325,42 @@ public class ProductServiceImpl implements ProductService {
         if (productDTO.getId() == null) {
             throw new IllegalArgumentException("Product ID cannot be null for update operation");
         }
+        if (inventoryEngine.isEnabled() && productDTO.getStock() != null) {
+            // Committed deltas would otherwise be flushed against the new absolute stock
+            inventoryEngine.prepareStockSet(productDTO.getId());
+        }
         
-        // Check if the product exists
-        Product existingProduct = productRepository.findById(productDTO.getId())
+        // Check if the product exists. A ledger adjustment locks it, so no other adjustment or
+        // compaction lands between reading the stock and recording the difference; orders that
+        // commit meanwhile count against the new stock
+        boolean ledgerAdjustment = inventoryLedgerService.isEnabled() && productDTO.getStock() != null;
+        Product existingProduct = (ledgerAdjustment
+                ? productRepository.findAllByIdInForUpdate(List.of(productDTO.getId())).stream().findFirst()
+                : productRepository.findById(productDTO.getId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productDTO.getId()));
         
         // Update the product fields
+        int currentStock = ledgerAdjustment ? inventoryLedgerService.getCurrentStock(existingProduct) : 0;
+        Integer snapshotStock = existingProduct.getStock();
         productMapper.updateEntityFromDTO(productDTO, existingProduct);
+        if (ledgerAdjustment) {
+            // The stock column only changes through compaction; record the difference instead
+            existingProduct.setStock(snapshotStock);
+            inventoryLedgerService.record(
+                    Map.of(existingProduct.getId(), productDTO.getStock() - currentStock), MovementType.ADJUSTMENT);
+        }
         
         // Save and return the updated product
         Product updatedProduct = productRepository.save(existingProduct);
+        if (stockStripeService.isEnabled() && productDTO.getStock() != null) {
+            // An explicit stock update replaces whatever the stripes held
+            stockStripeService.resetStock(updatedProduct.getId(), updatedProduct.getStock());
+        }
+        productSearchIndex.index(updatedProduct.getId(), updatedProduct.getName(), updatedProduct.getDescription());
         
-        return productMapper.toDTO(updatedProduct);
+        ProductDTO result = productMapper.toDTO(updatedProduct);
+        applyLiveStock(List.of(result));
+        return result;
     }
 
     @Override
@@ -86,5 +371,87 @@ public class ProductServiceImpl implements ProductService {
         }
         
         productRepository.deleteById(id);
+        if (stockStripeService.isEnabled()) {
+            stockStripeService.deleteStock(id);
+        }
+        if (inventoryEngine.isEnabled()) {
+            invalidateAfterCommit(id);
+        }
+        productSearchIndex.remove(id);
+    }
+
+    /**
+     * Drops the engine's counter for the product once the transaction commits;
+     * a reload any earlier would read the old stock column and keep it.
+     */
+    private void invalidateAfterCommit(Long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inventoryEngine.invalidate(productId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                inventoryEngine.invalidate(productId);
+            }
+        });
+    }
+
+    /**
+     * With the inventory engine its in-memory counters, with the ledger the stock
+     * column plus uncompacted movements, and with striped inventory the stripes
+     * hold the current stock rather than the products.stock column.
+     */
+    private boolean hasLiveStock() {
+        return inventoryEngine.isEnabled() || inventoryLedgerService.isEnabled() || stockStripeService.isEnabled();
+    }
+
+    /**
+     * @param columnStock the products.stock value per product id
+     * @return the current stock of those products that have one different from the column
+     */
+    private Map<Long, Integer> getLiveStock(Map<Long, Integer> columnStock) {
+        List<Long> ids = new ArrayList<>(columnStock.keySet());
+        if (inventoryEngine.isEnabled()) {
+            return inventoryEngine.getAvailable(ids);
+        }
+        if (inventoryLedgerService.isEnabled()) {
+            Map<Long, Integer> liveStock = new HashMap<>();
+            inventoryLedgerService.getPendingDeltas(ids)
+                    .forEach((id, delta) -> liveStock.put(id, columnStock.get(id) + delta));
+            return liveStock;
+        }
+        return stockStripeService.getStock(ids);
+    }
+
+    private void applyLiveStockToRows(List<Map<String, Object>> rows) {
+        Map<Long, Integer> columnStock = new HashMap<>(rows.size() * 2);
+        for (Map<String, Object> row : rows) {
+            columnStock.put((Long) row.get("id"), (Integer) row.get("stock"));
+        }
+        Map<Long, Integer> liveStock = getLiveStock(columnStock);
+        for (Map<String, Object> row : rows) {
+            Integer stock = liveStock.get((Long) row.get("id"));
+            if (stock != null) {
+                row.put("stock", stock);
+            }
+        }
+    }
+
+    private void applyLiveStock(List<ProductDTO> products) {
+        if (!hasLiveStock() || products.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> columnStock = new HashMap<>(products.size() * 2);
+        for (ProductDTO product : products) {
+            columnStock.put(product.getId(), product.getStock());
+        }
+        Map<Long, Integer> liveStock = getLiveStock(columnStock);
+        for (ProductDTO product : products) {
+            Integer stock = liveStock.get(product.getId());
+            if (stock != null) {
+                product.setStock(stock);
+            }
+        }
     }
 } 
\ No newline at end of file
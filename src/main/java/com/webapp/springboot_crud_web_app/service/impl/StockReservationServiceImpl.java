@@ -0,0 +1,234 @@
+package com.webapp.springboot_crud_web_app.service.impl;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webapp.springboot_crud_web_app.dto.StockReservationDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.ReservationTimingWheel;
+import com.webapp.springboot_crud_web_app.inventory.StockHold;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
+import com.webapp.springboot_crud_web_app.model.StockReservation;
+import com.webapp.springboot_crud_web_app.repository.StockReservationRepository;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implementation of the StockReservationService interface.
+ * <p>
+ * Outstanding holds live in a {@link ReservationTimingWheel}, so finding the
+ * expired ones never scans the database. The {@code stock_reservations} table
+ * only lets the wheel be rebuilt after a restart. Stock is taken and given
+ * back through the {@link StockMutator}, in whichever place it is kept.
+ */
+@Slf4j
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    static final long TICK_MILLIS = 1000;
+    static final int WHEEL_SIZE = 4096;
+
+    private final StockReservationRepository reservationRepository;
+    private final StockMutator stockMutator;
+    private final Clock clock;
+    private final int defaultTtlSeconds;
+    private final int maxTtlSeconds;
+
+    private final Map<String, StockHold> holds = new ConcurrentHashMap<>();
+    private final ReservationTimingWheel wheel;
+
+    @Autowired
+    public StockReservationServiceImpl(StockReservationRepository reservationRepository, StockMutator stockMutator,
+                                       Clock clock,
+                                       @Value("${app.reservations.default-ttl-seconds:900}") int defaultTtlSeconds,
+                                       @Value("${app.reservations.max-ttl-seconds:86400}") int maxTtlSeconds) {
+        this.reservationRepository = reservationRepository;
+        this.stockMutator = stockMutator;
+        this.clock = clock;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        this.wheel = new ReservationTimingWheel(TICK_MILLIS, WHEEL_SIZE, clock.millis());
+    }
+
+    /**
+     * Puts the holds that were outstanding at shutdown back on the wheel.
+     * Those that expired in the meantime are released by the next sweep.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void restoreOutstandingHolds() {
+        List<StockReservation> outstanding = reservationRepository.findAll();
+        for (StockReservation reservation : outstanding) {
+            track(new StockHold(reservation.getId(), reservation.getProductId(), reservation.getQuantity(),
+                    toMillis(reservation.getExpiresAt())));
+        }
+        if (!outstanding.isEmpty()) {
+            log.info("event=reservation.restored count={}", outstanding.size());
+        }
+    }
+
+    @Override
+    public StockReservationDTO reserve(StockReservationDTO reservationDTO) {
+        Long productId = reservationDTO.getProductId();
+        int quantity = reservationDTO.getQuantity();
+        int ttlSeconds = reservationDTO.getTtlSeconds() != null ? reservationDTO.getTtlSeconds() : defaultTtlSeconds;
+        if (ttlSeconds > maxTtlSeconds) {
+            throw new BusinessRuleViolationException(
+                    "Reservation TTL cannot exceed " + maxTtlSeconds + " seconds");
+        }
+        log.debug("event=reservation.reserve productId={} quantity={}", productId, quantity);
+
+        stockMutator.take(Map.of(productId, quantity));
+
+        long expiresAtMillis = clock.millis() + ttlSeconds * 1000L;
+        StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), productId, quantity,
+                toLocalDateTime(expiresAtMillis), null);
+        reservationRepository.save(reservation);
+
+        StockHold hold = new StockHold(reservation.getId(), productId, quantity, expiresAtMillis);
+        // A hold whose stock was never taken must not be released later
+        afterCompletion(() -> track(hold), null);
+
+        log.info("event=reservation.created reservationId={} productId={}", reservation.getId(), productId);
+        return toDTO(hold);
+    }
+
+    @Override
+    public Map<Long, Integer> consume(Collection<String> ids) {
+        List<String> distinctIds = ids.stream().distinct().toList();
+        Map<Long, Integer> quantitiesByProductId = new TreeMap<>();
+        for (String id : distinctIds) {
+            StockHold hold = settle(id);
+            // The stock stays taken, now by the order; if the order rolls back the hold is open again
+            afterCompletion(() -> holds.remove(id), () -> retryLater(hold));
+            quantitiesByProductId.merge(hold.getProductId(), hold.getQuantity(), Integer::sum);
+        }
+        reservationRepository.deleteAllByIdIn(distinctIds);
+        log.info("event=reservation.consumed count={}", distinctIds.size());
+        return quantitiesByProductId;
+    }
+
+    @Override
+    public void release(String id) {
+        StockHold hold = settle(id);
+        stockMutator.giveBack(Map.of(hold.getProductId(), hold.getQuantity()));
+        reservationRepository.deleteById(id);
+        afterCompletion(() -> holds.remove(id), () -> retryLater(hold));
+        log.info("event=reservation.released reservationId={}", id);
+    }
+
+    @Override
+    public int releaseExpired() {
+        List<StockHold> expired = new ArrayList<>();
+        for (StockHold hold : wheel.advance(clock.millis())) {
+            if (hold.settle()) {
+                expired.add(hold);
+            }
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        for (List<StockHold> batch : BatchUtils.partition(expired, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            // One stock update per product, however many carts held it
+            Map<Long, Integer> quantitiesByProductId = new HashMap<>();
+            List<String> ids = new ArrayList<>(batch.size());
+            for (StockHold hold : batch) {
+                quantitiesByProductId.merge(hold.getProductId(), hold.getQuantity(), Integer::sum);
+                ids.add(hold.getId());
+            }
+            stockMutator.giveBack(quantitiesByProductId);
+            reservationRepository.deleteAllByIdIn(ids);
+        }
+
+        afterCompletion(() -> expired.forEach(hold -> holds.remove(hold.getId())), () -> {
+            // Retry on the next sweep
+            expired.forEach(this::retryLater);
+        });
+        log.info("event=reservation.expired count={}", expired.size());
+        return expired.size();
+    }
+
+    private StockHold settle(String id) {
+        StockHold hold = holds.get(id);
+        if (hold == null || !hold.settle()) {
+            throw new ResourceNotFoundException("Reservation", "id", id);
+        }
+        return hold;
+    }
+
+    /**
+     * Reopens a hold whose settling rolled back. The wheel discards settled
+     * holds when their bucket comes round, so it is scheduled again in case
+     * that happened meanwhile; otherwise it would never expire.
+     */
+    private void retryLater(StockHold hold) {
+        hold.reopen();
+        wheel.schedule(hold);
+    }
+
+    private void track(StockHold hold) {
+        holds.put(hold.getId(), hold);
+        wheel.schedule(hold);
+    }
+
+    /**
+     * Runs {@code onCommit} once the current transaction commits and {@code onRollback}
+     * if it does not; without a transaction, runs {@code onCommit} right away.
+     */
+    private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else if (onRollback != null) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private StockReservationDTO toDTO(StockHold hold) {
+        return StockReservationDTO.builder()
+                .id(hold.getId())
+                .productId(hold.getProductId())
+                .quantity(hold.getQuantity())
+                .expiresAt(toLocalDateTime(hold.getExpiresAtMillis()))
+                .build();
+    }
+
+    private LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,157 @@
+package com.webapp.springboot_crud_web_app.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.model.ProductStockStripe;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductStockStripeRepository;
+import com.webapp.springboot_crud_web_app.service.StockStripeService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+
+/**
+ * Implementation of the StockStripeService interface.
+ * <p>
+ * A product's stripes are only ever created or replaced with its product row
+ * locked, so two transactions can't both split the same product.
+ */
+@Service
+@Transactional
+public class StockStripeServiceImpl implements StockStripeService {
+
+    private final ProductStockStripeRepository stripeRepository;
+    private final ProductRepository productRepository;
+    private final int stripeCount;
+
+    @Autowired
+    public StockStripeServiceImpl(ProductStockStripeRepository stripeRepository, ProductRepository productRepository,
+                                  @Value("${app.inventory.stripes:0}") int stripeCount) {
+        this.stripeRepository = stripeRepository;
+        this.productRepository = productRepository;
+        this.stripeCount = stripeCount;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return stripeCount > 0;
+    }
+
+    @Override
+    public void decrement(Product product, int quantity) {
+        Long productId = product.getId();
+        
+        // Fast path: a single conditional update on one stripe, starting at a random one
+        int start = ThreadLocalRandom.current().nextInt(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            if (stripeRepository.decrementIfAvailable(productId, (start + i) % stripeCount, quantity) == 1) {
+                return;
+            }
+        }
+        
+        // No single stripe covers the quantity: lock all stripes and take across them
+        List<ProductStockStripe> stripes = stripeRepository.findAllByProductIdForUpdate(productId);
+        if (stripes.isEmpty()) {
+            // First order since striping was enabled for this product; the empty
+            // stripe query locked nothing, so the product row guards the split
+            int stock = lockProduct(productId).getStock();
+            stripes = stripeRepository.findAllByProductIdForUpdate(productId);
+            if (stripes.isEmpty()) {
+                stripes = createStripes(productId, stock);
+            }
+        }
+        
+        int available = 0;
+        for (ProductStockStripe stripe : stripes) {
+            available += stripe.getQuantity();
+        }
+        if (available < quantity) {
+            throw new BusinessRuleViolationException(
+                    "Insufficient stock for product '" + product.getName() + 
+                    "'. Available: " + available + ", Requested: " + quantity);
+        }
+        
+        int remaining = quantity;
+        for (ProductStockStripe stripe : stripes) {
+            int taken = Math.min(remaining, stripe.getQuantity());
+            stripe.setQuantity(stripe.getQuantity() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        stripeRepository.saveAllAndFlush(stripes);
+    }
+
+    @Override
+    public void increment(Product product, int quantity) {
+        Long productId = product.getId();
+        if (stripeRepository.increment(productId, ThreadLocalRandom.current().nextInt(stripeCount), quantity) == 1) {
+            return;
+        }
+        
+        // Not split yet: split the stock column first, under the product lock as in decrement
+        int stock = lockProduct(productId).getStock();
+        List<ProductStockStripe> stripes = stripeRepository.findAllByProductIdForUpdate(productId);
+        if (stripes.isEmpty()) {
+            stripes = createStripes(productId, stock);
+        }
+        ProductStockStripe stripe = stripes.get(0);
+        stripe.setQuantity(stripe.getQuantity() + quantity);
+        stripeRepository.saveAllAndFlush(stripes);
+    }
+
+    @Override
+    public void resetStock(Long productId, int stock) {
+        lockProduct(productId);
+        stripeRepository.deleteAllByProductId(productId);
+        createStripes(productId, stock);
+    }
+
+    @Override
+    public void deleteStock(Long productId) {
+        stripeRepository.deleteAllByProductId(productId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getStock(Collection<Long> productIds) {
+        List<Long> ids = BatchUtils.distinctIds(productIds);
+        Map<Long, Integer> stockByProductId = new HashMap<>(ids.size() * 2);
+        for (List<Long> chunk : BatchUtils.partition(ids, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+            for (Object[] row : stripeRepository.sumQuantityByProductIdIn(chunk)) {
+                stockByProductId.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+        }
+        return stockByProductId;
+    }
+
+    private Product lockProduct(Long productId) {
+        List<Product> locked = productRepository.findAllByIdInForUpdate(List.of(productId));
+        if (locked.isEmpty()) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return locked.get(0);
+    }
+
+    private List<ProductStockStripe> createStripes(Long productId, int stock) {
+        int base = stock / stripeCount;
+        int remainder = stock % stripeCount;
+        List<ProductStockStripe> stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new ProductStockStripe(null, productId, i, base + (i < remainder ? 1 : 0)));
+        }
+        return stripeRepository.saveAllAndFlush(stripes);
+    }
+}
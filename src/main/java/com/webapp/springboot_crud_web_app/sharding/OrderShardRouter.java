@@ -0,0 +1,165 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Places orders on shards and runs work against them.
+ * <p>
+ * An order lives on the shard picked by a hash of its customer email when it
+ * is created, and its id carries that shard in the bits from
+ * {@value #SHARD_SHIFT} up, so it is found again without the email and stays
+ * put if the email changes or shards are added. Ids stay below 2<sup>53</sup>,
+ * exact as JSON numbers. Shard 0 is the main database, which also holds the
+ * products, so orders placed before sharding keep their ids.
+ * <p>
+ * {@link #onShard} picks the database for the transactions started inside
+ * it; {@link #scatter} runs the same work on several shards in parallel.
+ */
+public class OrderShardRouter implements AutoCloseable {
+
+    public static final int SHARD_SHIFT = 48;
+    public static final int MAX_SHARDS = 32;
+    public static final int MAIN_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final int shardCount;
+    private final ExecutorService executor;
+
+    public OrderShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        this.shardCount = shardCount;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shardCount, task -> {
+            Thread thread = new Thread(task, "order-shard-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the shard whose database transactions started on this thread use
+     */
+    static int currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard != null ? shard : MAIN_SHARD;
+    }
+
+    /**
+     * @return the lowest order id handed out on the shard
+     */
+    public static long firstId(int shard) {
+        return ((long) shard << SHARD_SHIFT) + 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @return the shard a new order of this customer goes to
+     */
+    public int shardFor(String customerEmail) {
+        CRC32 crc = new CRC32();
+        crc.update(customerEmail.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    /**
+     * @return the shard holding the order, or -1 if no shard can hold the id
+     */
+    public int shardOf(Long orderId) {
+        if (orderId == null || orderId < 1) {
+            return -1;
+        }
+        long shard = orderId >>> SHARD_SHIFT;
+        return shard < shardCount ? (int) shard : -1;
+    }
+
+    /**
+     * Runs the action with transactions it starts going to the shard. A
+     * transaction already in progress keeps the database it started on.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SHARD.set(previous);
+            } else {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs the action on every shard in parallel.
+     *
+     * @return the results, in shard order
+     */
+    public <T> List<T> scatter(IntFunction<T> action) {
+        return scatter(IntStream.range(0, shardCount).boxed().toList(), action);
+    }
+
+    /**
+     * Runs the action on each of the given shards in parallel. Every shard
+     * finishes before a failure is rethrown, so none is left running.
+     *
+     * @return the results, in the order of {@code shards}
+     */
+    public <T> List<T> scatter(List<Integer> shards, IntFunction<T> action) {
+        if (shards.size() == 1) {
+            int shard = shards.get(0);
+            return Collections.singletonList(onShard(shard, () -> action.apply(shard)));
+        }
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            futures.add(executor.submit(() -> onShard(shard, () -> action.apply(shard))));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException ex) {
+                RuntimeException cause = ex.getCause() instanceof RuntimeException runtime
+                        ? runtime : new IllegalStateException("Shard operation failed", ex.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for shards", ex);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
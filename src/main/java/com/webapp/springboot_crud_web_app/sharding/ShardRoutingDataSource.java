@@ -0,0 +1,52 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Hands out connections from the pool of the shard selected with
+ * {@link OrderShardRouter#onShard}, and from shard 0, the main database,
+ * otherwise. Like any routing data source it must sit behind a
+ * {@code LazyConnectionDataSourceProxy}, so the pool is picked when a
+ * transaction first uses its connection rather than when it begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    /**
+     * @param shards one pool per shard, shard 0 first
+     */
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(OrderShardRouter.MAIN_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return OrderShardRouter.currentShard();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
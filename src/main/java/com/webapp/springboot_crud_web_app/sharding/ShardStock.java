@@ -0,0 +1,95 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.ordering.OrderStockPolicy;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Product stock, on the main database, for order changes made on a shard,
+ * moved through the {@link StockMutator} like any other order's.
+ * <p>
+ * Stock is taken in a transaction of its own, nested in the order's
+ * transaction on its shard, and given back only once that transaction has
+ * committed; stock taken for a change that then fails is given back too. A
+ * failure in between can leave stock too low but never oversells, and is
+ * logged as {@code event=order.shard.stock_return_failed}.
+ */
+@Slf4j
+class ShardStock {
+
+    private final OrderShardRouter router;
+    private final StockMutator stockMutator;
+    private final TransactionTemplate stockTransaction;
+
+    ShardStock(OrderShardRouter router, StockMutator stockMutator, PlatformTransactionManager transactionManager) {
+        this.router = router;
+        this.stockMutator = stockMutator;
+        // Runs while the order's shard transaction is open, which it must not join
+        this.stockTransaction = new TransactionTemplate(transactionManager);
+        this.stockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Takes stock, in ascending product id order.
+     *
+     * @param productIds      every product the caller needs, for prices
+     * @param quantitiesTaken quantity to take per product id
+     * @return the products, by id
+     */
+    Map<Long, Product> take(Collection<Long> productIds, Map<Long, Integer> quantitiesTaken) {
+        return router.onShard(OrderShardRouter.MAIN_SHARD, () -> stockTransaction.execute(tx ->
+                stockMutator.adjust(productIds, quantitiesTaken)));
+    }
+
+    /**
+     * Takes stock for a new order, ending the reservations it takes over in
+     * the same transaction. Once this returns, the order holds the full
+     * quantities, so a failed order gives all of them back.
+     *
+     * @param quantitiesTaken the order's quantities per product id
+     * @return the products, by id
+     */
+    Map<Long, Product> takeOver(Map<Long, Integer> quantitiesTaken, List<String> reservationIds,
+                                StockReservationService reservationService) {
+        return router.onShard(OrderShardRouter.MAIN_SHARD, () -> stockTransaction.execute(tx ->
+                stockMutator.adjust(quantitiesTaken.keySet(),
+                        OrderStockPolicy.takeOverReservations(reservationService, quantitiesTaken, reservationIds))));
+    }
+
+    void giveBack(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return;
+        }
+        try {
+            router.onShard(OrderShardRouter.MAIN_SHARD, () -> stockTransaction.execute(tx -> {
+                stockMutator.giveBack(quantitiesByProductId);
+                return null;
+            }));
+        } catch (RuntimeException ex) {
+            log.error("event=order.shard.stock_return_failed quantities={} error={}", quantitiesByProductId, ex.toString());
+            throw ex;
+        }
+    }
+
+    /**
+     * Gives back stock taken for a change that failed, keeping the change's failure as the one thrown.
+     */
+    void giveBackAfterFailure(Map<Long, Integer> taken, RuntimeException failure) {
+        try {
+            giveBack(taken);
+        } catch (RuntimeException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+}
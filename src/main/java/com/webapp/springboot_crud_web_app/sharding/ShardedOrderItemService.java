@@ -0,0 +1,192 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
+import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.ordering.OrderStockPolicy;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.OrderItemService;
+import com.webapp.springboot_crud_web_app.util.Money;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link OrderItemService} over orders sharded by customer email.
+ * <p>
+ * Item ids are unique across shards but, unlike order ids, do not say which
+ * shard holds the item: Hibernate hands them out from a pool refilled from
+ * whichever shard it is on at the time. An item is therefore looked up on
+ * every shard in parallel, then changed on the one holding it, with stock
+ * moved through {@link ShardStock}.
+ */
+@Slf4j
+public class ShardedOrderItemService implements OrderItemService {
+
+    private final OrderShardRouter router;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final OrderItemMapper orderItemMapper;
+    private final ShardStock stock;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public ShardedOrderItemService(OrderShardRouter router, OrderItemRepository orderItemRepository,
+                                   OrderRepository orderRepository, ProductRepository productRepository,
+                                   OrderItemMapper orderItemMapper, StockMutator stockMutator,
+                                   PlatformTransactionManager transactionManager) {
+        this.router = router;
+        this.orderItemRepository = orderItemRepository;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.orderItemMapper = orderItemMapper;
+        this.stock = new ShardStock(router, stockMutator, transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public List<OrderItemDTO> findAll() {
+        List<OrderItemDTO> orderItems = new ArrayList<>();
+        router.scatter(shard -> readTransaction.execute(tx ->
+                        orderItemRepository.<OrderItemDTO>findAllMapped(orderItemMapper::toDTO)))
+                .forEach(orderItems::addAll);
+        return orderItems;
+    }
+
+    @Override
+    public OrderItemDTO findById(Long id) {
+        return router.scatter(shard -> readTransaction.execute(tx -> orderItemRepository.findById(id)
+                        .map(orderItemMapper::toDTO)
+                        .orElse(null)))
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("OrderItem", "id", id));
+    }
+
+    @Override
+    public OrderItemDTO create(OrderItemDTO orderItemDTO, Long orderId, Long productId) {
+        int shard = router.shardOf(orderId);
+        if (shard < 0) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
+        }
+        Map<Long, Integer> taken = new TreeMap<>();
+        try {
+            OrderItemDTO created = router.onShard(shard, () -> writeTransaction.execute(tx -> {
+                OrderStockPolicy.lockForItemChange(orderRepository, orderId);
+                Order order = orderRepository.findById(orderId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+                Map<Long, Integer> quantities = Map.of(productId, orderItemDTO.getQuantity());
+                Product product = stock.take(Set.of(productId), quantities).get(productId);
+                taken.putAll(quantities);
+
+                OrderItem orderItem = orderItemMapper.toEntity(orderItemDTO, order,
+                        productRepository.getReferenceById(productId), Money.toCents(product.getPrice()));
+                OrderItem savedOrderItem = orderItemRepository.save(orderItem);
+                orderRepository.addToTotalAmount(orderId, order.getCreatedAt(), savedOrderItem.getSubtotal());
+                return orderItemMapper.toDTO(savedOrderItem);
+            }));
+            log.info("event=orderItem.created orderItemId={} orderId={} productId={}", created.getId(), orderId, productId);
+            return created;
+        } catch (RuntimeException ex) {
+            stock.giveBackAfterFailure(taken, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public OrderItemDTO update(OrderItemDTO orderItemDTO, Long id, Long productId) {
+        int shard = locate(id);
+        Map<Long, Integer> taken = new TreeMap<>();
+        Map<Long, Integer> released = new TreeMap<>();
+        OrderItemDTO updated;
+        try {
+            updated = router.onShard(shard, () -> writeTransaction.execute(tx -> {
+                OrderItem existingOrderItem = orderItemRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("OrderItem", "id", id));
+                OrderStockPolicy.lockForItemChange(orderRepository, existingOrderItem.getOrder().getId());
+                Long previousProductId = existingOrderItem.getProduct().getId();
+                int previousQuantity = existingOrderItem.getQuantity();
+                long previousSubtotalCents = Money.toCents(existingOrderItem.getSubtotal());
+                int quantity = orderItemDTO.getQuantity() != null ? orderItemDTO.getQuantity() : previousQuantity;
+
+                Map<Long, Integer> quantitiesTaken = new TreeMap<>();
+                quantitiesTaken.put(previousProductId, -previousQuantity);
+                quantitiesTaken.merge(productId, quantity, Integer::sum);
+                Map<Long, Integer> positive = new TreeMap<>();
+                quantitiesTaken.forEach((takenProductId, delta) -> {
+                    if (delta > 0) {
+                        positive.put(takenProductId, delta);
+                    } else if (delta < 0) {
+                        released.put(takenProductId, -delta);
+                    }
+                });
+                Product product = stock.take(Set.of(productId), positive).get(productId);
+                taken.putAll(positive);
+
+                orderItemMapper.updateEntityFromDTO(orderItemDTO, existingOrderItem, product);
+                // The mapper keeps the main database's copy; the shard's session needs its own reference
+                existingOrderItem.setProduct(productRepository.getReferenceById(productId));
+                OrderItem updatedOrderItem = orderItemRepository.save(existingOrderItem);
+                long deltaCents = Money.toCents(updatedOrderItem.getSubtotal()) - previousSubtotalCents;
+                if (deltaCents != 0) {
+                    orderRepository.addToTotalAmount(existingOrderItem.getOrder().getId(),
+                            existingOrderItem.getOrderCreatedAt(), Money.toBigDecimal(deltaCents));
+                }
+                return orderItemMapper.toDTO(updatedOrderItem);
+            }));
+        } catch (RuntimeException ex) {
+            stock.giveBackAfterFailure(taken, ex);
+            throw ex;
+        }
+        stock.giveBack(released);
+        log.info("event=orderItem.updated orderItemId={}", id);
+        return updated;
+    }
+
+    @Override
+    public void delete(Long id) {
+        Map<Long, Integer> released = router.onShard(locate(id), () -> writeTransaction.execute(tx -> {
+            OrderItem orderItem = orderItemRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("OrderItem", "id", id));
+            OrderStockPolicy.lockForItemChange(orderRepository, orderItem.getOrder().getId());
+            Map<Long, Integer> quantities = Map.of(orderItem.getProduct().getId(), orderItem.getQuantity());
+            orderItemRepository.delete(orderItem);
+            orderRepository.addToTotalAmount(orderItem.getOrder().getId(), orderItem.getOrderCreatedAt(),
+                    orderItem.getSubtotal().negate());
+            return quantities;
+        }));
+        stock.giveBack(released);
+        log.info("event=orderItem.deleted orderItemId={}", id);
+    }
+
+    /**
+     * @return the shard holding the item
+     */
+    private int locate(Long id) {
+        List<Boolean> found = router.scatter(shard -> readTransaction.execute(tx -> orderItemRepository.existsById(id)));
+        int shard = found.indexOf(Boolean.TRUE);
+        if (shard < 0) {
+            throw new ResourceNotFoundException("OrderItem", "id", id);
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,381 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
+import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
+import com.webapp.springboot_crud_web_app.mapper.OrderMapper;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.ordering.OrderPricing;
+import com.webapp.springboot_crud_web_app.ordering.OrderStockPolicy;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository.ProductQuantity;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+import com.webapp.springboot_crud_web_app.service.StockReservationService;
+import com.webapp.springboot_crud_web_app.util.BatchUtils;
+import com.webapp.springboot_crud_web_app.util.Money;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link OrderService} over orders sharded by customer email.
+ * <p>
+ * Work on a single order runs on the order's shard; reads there are served by
+ * the unsharded service, unchanged. Listings run on every shard in parallel
+ * and are merged. Products stay on the main database, so changes that move
+ * stock do so through {@link ShardStock}.
+ */
+@Slf4j
+public class ShardedOrderService implements OrderService {
+
+    private static final Comparator<OrderDTO> NEWEST_FIRST =
+            Comparator.comparing(OrderDTO::getCreatedAt).thenComparing(OrderDTO::getId).reversed();
+
+    private final OrderService shardLocal;
+    private final OrderShardRouter router;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final OrderMapper orderMapper;
+    private final OrderItemMapper orderItemMapper;
+    private final ShardStock stock;
+    private final StockReservationService reservationService;
+    private final TransactionTemplate writeTransaction;
+
+    /**
+     * @param shardLocal the unsharded service, run against whichever shard is selected
+     */
+    public ShardedOrderService(OrderService shardLocal, OrderShardRouter router, OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository, ProductRepository productRepository,
+                               OrderMapper orderMapper, OrderItemMapper orderItemMapper, StockMutator stockMutator,
+                               StockReservationService reservationService,
+                               PlatformTransactionManager transactionManager) {
+        this.shardLocal = shardLocal;
+        this.router = router;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.orderMapper = orderMapper;
+        this.orderItemMapper = orderItemMapper;
+        this.stock = new ShardStock(router, stockMutator, transactionManager);
+        this.reservationService = reservationService;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public List<OrderDTO> findAll() {
+        List<OrderDTO> orders = new ArrayList<>();
+        router.scatter(shard -> shardLocal.findAll()).forEach(orders::addAll);
+        log.debug("event=order.findAll.sharded count={}", orders.size());
+        return orders;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllWithFields(String fields, String include) {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        router.scatter(shard -> shardLocal.findAllWithFields(fields, include)).forEach(orders::addAll);
+        return orders;
+    }
+
+    @Override
+    public List<OrderDTO> findAllFiltered(Set<OrderStatus> statuses, LocalDateTime createdFrom,
+                                          LocalDateTime createdBefore, int limit) {
+        // Each shard returns its newest orders; the newest of those are the newest overall
+        List<OrderDTO> orders = new ArrayList<>();
+        router.scatter(shard -> shardLocal.findAllFiltered(statuses, createdFrom, createdBefore, limit))
+                .forEach(orders::addAll);
+        orders.sort(NEWEST_FIRST);
+        return orders.size() > limit ? new ArrayList<>(orders.subList(0, limit)) : orders;
+    }
+
+    @Override
+    public OrderDTO findById(Long id) {
+        return router.onShard(requireShard(id), () -> shardLocal.findById(id));
+    }
+
+    @Override
+    public BatchResultDTO<OrderDTO> findAllByIds(List<Long> ids) {
+        List<Long> requestedIds = BatchUtils.distinctIds(ids);
+        Map<Integer, List<Long>> idsByShard = groupByShard(requestedIds);
+        Map<Long, OrderDTO> ordersById = new HashMap<>(requestedIds.size() * 2);
+        List<Integer> shards = new ArrayList<>(idsByShard.keySet());
+        for (BatchResultDTO<OrderDTO> result : router.scatter(shards,
+                shard -> shardLocal.findAllByIds(idsByShard.get(shard)))) {
+            result.getItems().forEach(order -> ordersById.put(order.getId(), order));
+        }
+
+        List<OrderDTO> found = new ArrayList<>(ordersById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            OrderDTO order = ordersById.get(id);
+            if (order == null) {
+                missingIds.add(id);
+            } else {
+                found.add(order);
+            }
+        }
+        return new BatchResultDTO<>(found, missingIds);
+    }
+
+    @Override
+    public OrderDTO create(OrderDTO orderDTO) {
+        return createOrder(orderDTO, null);
+    }
+
+    @Override
+    public void lockStockFor(List<OrderDTO> orderDTOs) {
+        // Each order takes its stock in a transaction of its own, which commits before the next order's
+    }
+
+    @Override
+    public OrderDTO createFromIntake(String intakeId, OrderDTO orderDTO) {
+        // A replayed intake record finds its order on the shard the customer maps to
+        int shard = router.shardFor(orderDTO.getCustomerEmail());
+        OrderDTO existing = router.onShard(shard, () -> writeTransaction.execute(tx ->
+                orderRepository.findByIntakeId(intakeId).map(orderMapper::toDTO).orElse(null)));
+        if (existing != null) {
+            log.debug("event=order.intake.duplicate intakeId={} orderId={}", intakeId, existing.getId());
+            return existing;
+        }
+        return createOrder(orderDTO, intakeId);
+    }
+
+    private OrderDTO createOrder(OrderDTO orderDTO, String intakeId) {
+        List<OrderItemDTO> orderItemDTOs = orderDTO.getOrderItems();
+        if (orderItemDTOs == null || orderItemDTOs.isEmpty()) {
+            throw new BusinessRuleViolationException("Order must contain at least one item");
+        }
+        Map<Long, Integer> quantitiesByProductId = OrderStockPolicy.quantitiesTaken(orderItemDTOs, List.of());
+        int shard = router.shardFor(orderDTO.getCustomerEmail());
+        Map<Long, Integer> taken = new TreeMap<>();
+        try {
+            OrderDTO created = router.onShard(shard, () -> writeTransaction.execute(tx -> {
+                Map<Long, Product> productsById = stock.takeOver(quantitiesByProductId, orderDTO.getReservationIds(),
+                        reservationService);
+                taken.putAll(quantitiesByProductId);
+
+                Order order = orderMapper.toEntity(orderDTO);
+                order.setIntakeId(intakeId);
+                // Products live on the main database; items refer to them by id only
+                List<OrderItem> orderItems = new ArrayList<>(orderItemDTOs.size());
+                long totalCents = OrderPricing.priceItems(order, orderItemDTOs, productsById,
+                        productRepository::getReferenceById, orderItemMapper, orderItems);
+                order.setTotalAmount(Money.toBigDecimal(totalCents));
+                Order savedOrder = orderRepository.save(order);
+                savedOrder.setOrderItems(orderItems);
+                orderRepository.save(savedOrder);
+                return orderMapper.toDTO(savedOrder);
+            }));
+            log.info("event=order.created orderId={} shard={}", created.getId(), shard);
+            return created;
+        } catch (RuntimeException ex) {
+            stock.giveBackAfterFailure(taken, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public OrderDTO update(OrderDTO orderDTO, Long id) {
+        Map<Long, Integer> released = new TreeMap<>();
+        OrderDTO updated = router.onShard(requireShard(id), () -> writeTransaction.execute(tx -> {
+            // Locked before it is read, so of two cancellations only the first gives the stock back, and a
+            // cancelled order cannot be reopened to give it back twice
+            boolean cancels = orderDTO.getStatus() != null
+                    && OrderStockPolicy.lockForStatusChange(orderRepository, id, orderDTO.getStatus());
+            Order existingOrder = orderRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+            orderMapper.updateEntityFromDTO(orderDTO, existingOrder);
+            Order updatedOrder = orderRepository.save(existingOrder);
+            if (cancels) {
+                released.putAll(itemQuantities(List.of(id)));
+            }
+            return orderMapper.toDTO(updatedOrder);
+        }));
+        stock.giveBack(released);
+        log.info("event=order.updated orderId={}", id);
+        return updated;
+    }
+
+    @Override
+    public OrderStatusTransitionDTO transitionStatus(List<Long> ids, OrderStatus status) {
+        Set<OrderStatus> fromStatuses = OrderStockPolicy.transitionSources(status);
+        List<Long> requestedIds = BatchUtils.distinctIds(ids);
+        Map<Integer, List<Long>> idsByShard = groupByShard(requestedIds);
+
+        // Each shard commits on its own and gives back the stock of the orders it cancelled
+        Set<Long> changed = new HashSet<>(requestedIds.size() * 2);
+        for (List<Long> shardChanged : router.scatter(new ArrayList<>(idsByShard.keySet()), shard -> {
+            Map<Long, Integer> released = new TreeMap<>();
+            List<Long> movedIds = writeTransaction.execute(tx -> {
+                List<Long> sortedIds = new ArrayList<>(idsByShard.get(shard));
+                Collections.sort(sortedIds);
+                List<Long> moved = new ArrayList<>();
+                for (List<Long> chunk : BatchUtils.partition(sortedIds, BatchUtils.MAX_IN_CLAUSE_SIZE)) {
+                    List<Long> movableIds = orderRepository.findIdsByIdInAndStatusInForUpdate(chunk, fromStatuses);
+                    if (!movableIds.isEmpty()) {
+                        orderRepository.updateStatus(movableIds, fromStatuses, status);
+                        if (status == OrderStatus.CANCELLED) {
+                            itemQuantities(movableIds).forEach((productId, quantity) ->
+                                    released.merge(productId, quantity, Integer::sum));
+                        }
+                        moved.addAll(movableIds);
+                    }
+                }
+                return moved;
+            });
+            stock.giveBack(released);
+            return movedIds;
+        })) {
+            changed.addAll(shardChanged);
+        }
+
+        OrderStatusTransitionDTO result = OrderStockPolicy.transitionResult(requestedIds, status, changed);
+        log.info("event=order.statusTransitioned status={} changed={} unchanged={} shards={}",
+                status, result.getChangedIds().size(), result.getUnchangedIds().size(), idsByShard.size());
+        return result;
+    }
+
+    @Override
+    public List<OrderItemDTO> findItems(Long orderId) {
+        return router.onShard(requireShard(orderId), () -> shardLocal.findItems(orderId));
+    }
+
+    @Override
+    public OrderDTO addItems(Long orderId, List<OrderItemDTO> orderItemDTOs) {
+        return changeItems(orderId, orderItemDTOs, false);
+    }
+
+    @Override
+    public OrderDTO replaceItems(Long orderId, List<OrderItemDTO> orderItemDTOs) {
+        return changeItems(orderId, orderItemDTOs, true);
+    }
+
+    /**
+     * Adds or replaces an order's items with the order locked on its shard, so
+     * the items being replaced cannot change while stock for the new ones is
+     * taken on the main database.
+     */
+    private OrderDTO changeItems(Long orderId, List<OrderItemDTO> orderItemDTOs, boolean replace) {
+        if (orderItemDTOs.isEmpty()) {
+            throw new BusinessRuleViolationException("Order must contain at least one item");
+        }
+        int shard = requireShard(orderId);
+        Map<Long, Integer> taken = new TreeMap<>();
+        Map<Long, Integer> released = new TreeMap<>();
+        OrderDTO result;
+        try {
+            result = router.onShard(shard, () -> writeTransaction.execute(tx -> {
+                OrderStockPolicy.lockForItemChange(orderRepository, orderId);
+                Order order = orderRepository.findAllWithItemsByIdIn(List.of(orderId)).get(0);
+
+                // Net stock taken per product: the new quantities, less those of the items being replaced
+                Set<Long> pricedProductIds = new HashSet<>();
+                for (OrderItemDTO itemDTO : orderItemDTOs) {
+                    pricedProductIds.add(itemDTO.getProductId());
+                }
+                Map<Long, Integer> quantitiesTaken = OrderStockPolicy.quantitiesTaken(orderItemDTOs,
+                        replace ? order.getOrderItems() : List.of());
+                Map<Long, Integer> positive = new TreeMap<>();
+                quantitiesTaken.forEach((productId, quantity) -> {
+                    if (quantity > 0) {
+                        positive.put(productId, quantity);
+                    } else {
+                        released.put(productId, -quantity);
+                    }
+                });
+                Map<Long, Product> productsById = stock.take(pricedProductIds, positive);
+                taken.putAll(positive);
+
+                List<OrderItem> orderItems = new ArrayList<>(orderItemDTOs.size() + (replace ? 0 : order.getOrderItems().size()));
+                long totalCents = 0;
+                if (!replace) {
+                    orderItems.addAll(order.getOrderItems());
+                    totalCents = Money.toCents(order.getTotalAmount());
+                }
+                totalCents = Math.addExact(totalCents, OrderPricing.priceItems(order, orderItemDTOs, productsById,
+                        productRepository::getReferenceById, orderItemMapper, orderItems));
+                orderMapper.updateOrderItems(order, orderItems);
+                order.setTotalAmount(Money.toBigDecimal(totalCents));
+                return orderMapper.toDTO(orderRepository.save(order));
+            }));
+        } catch (RuntimeException ex) {
+            stock.giveBackAfterFailure(taken, ex);
+            throw ex;
+        }
+        stock.giveBack(released);
+        log.info("event=order.itemsChanged orderId={} items={} replace={}", orderId, orderItemDTOs.size(), replace);
+        return result;
+    }
+
+    @Override
+    public void delete(Long id) {
+        Map<Long, Integer> released = router.onShard(requireShard(id), () -> writeTransaction.execute(tx -> {
+            boolean holdsStock = OrderStockPolicy.lockIfHoldingStock(orderRepository, id);
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+            Map<Long, Integer> quantities = holdsStock ? itemQuantities(List.of(id)) : Map.of();
+            orderRepository.delete(order);
+            return quantities;
+        }));
+        stock.giveBack(released);
+        log.info("event=order.deleted orderId={}", id);
+    }
+
+    /**
+     * @return the quantity the orders' items hold per product id
+     */
+    private Map<Long, Integer> itemQuantities(Collection<Long> orderIds) {
+        Map<Long, Integer> quantitiesByProductId = new LinkedHashMap<>();
+        for (ProductQuantity row : orderItemRepository.sumQuantitiesByProductIdForOrderIdIn(orderIds)) {
+            quantitiesByProductId.put(row.getProductId(), Math.toIntExact(row.getQuantity()));
+        }
+        return quantitiesByProductId;
+    }
+
+    /**
+     * Groups ids by the shard holding them, in shard order; ids no shard can hold are left out.
+     */
+    private Map<Integer, List<Long>> groupByShard(List<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (Long id : ids) {
+            int shard = router.shardOf(id);
+            if (shard >= 0) {
+                idsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(id);
+            }
+        }
+        return idsByShard;
+    }
+
+    private int requireShard(Long orderId) {
+        int shard = router.shardOf(orderId);
+        if (shard < 0) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,60 @@
+package com.webapp.springboot_crud_web_app.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Helpers for splitting large ID sets into query-sized chunks.
+ */
+public final class BatchUtils {
+
+    /**
+     * Maximum number of IDs bound into a single {@code IN (...)} clause.
+     * Keeps statements well below driver and database parameter limits.
+     */
+    public static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private BatchUtils() {
+    }
+
+    /**
+     * Removes nulls and duplicates while preserving the original order.
+     *
+     * @param ids the IDs as supplied by the caller
+     * @return the distinct, non-null IDs in encounter order
+     */
+    public static List<Long> distinctIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id != null) {
+                distinct.add(id);
+            }
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Splits a list into consecutive sublists of at most {@code size} elements.
+     *
+     * @param values the list to split
+     * @param size   the maximum chunk size
+     * @return the chunks, as views over the original list
+     */
+    public static <T> List<List<T>> partition(List<T> values, int size) {
+        Objects.requireNonNull(values, "values");
+        if (size <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        List<List<T>> chunks = new ArrayList<>((values.size() + size - 1) / size);
+        for (int from = 0; from < values.size(); from += size) {
+            chunks.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return chunks;
+    }
+}
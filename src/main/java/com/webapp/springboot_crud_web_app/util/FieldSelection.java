@@ -0,0 +1,44 @@
+package com.webapp.springboot_crud_web_app.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+
+/**
+ * Parses comma-separated field lists such as {@code fields=id,name,price}.
+ */
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    /**
+     * Parses a comma-separated list of names and checks each one against the allowed names.
+     *
+     * @param spec    the raw parameter value, may be null or blank
+     * @param allowed the names that may be requested
+     * @return the requested names in request order without duplicates; empty if none were given
+     * @throws BusinessRuleViolationException if a name is not allowed
+     */
+    public static List<String> parse(String spec, Set<String> allowed) {
+        LinkedHashSet<String> selected = new LinkedHashSet<>();
+        if (spec == null || spec.isBlank()) {
+            return new ArrayList<>(selected);
+        }
+        for (String part : spec.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BusinessRuleViolationException(
+                        "Unknown field '" + name + "'. Allowed fields: " + String.join(",", allowed));
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+}
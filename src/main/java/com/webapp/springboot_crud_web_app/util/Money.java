@@ -0,0 +1,45 @@
+package com.webapp.springboot_crud_web_app.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic on amounts held as a long count of cents.
+ * <p>
+ * Prices and totals are stored with two decimals, so summing and multiplying
+ * them as scaled longs is exact and allocation-free; amounts are turned into
+ * {@link BigDecimal} only where they leave for an entity or DTO. Overflow
+ * throws {@link ArithmeticException} rather than wrapping.
+ */
+public final class Money {
+
+    /**
+     * Decimal places of every stored amount.
+     */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @param amount an amount, rounded half-up to cents if it has more decimals
+     * @return the amount in cents
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return the amount with {@link #SCALE} decimals
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * @return {@code cents × quantity}
+     */
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+}
@@ -0,0 +1,48 @@
+package com.webapp.springboot_crud_web_app.validation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.webapp.springboot_crud_web_app.exception.BulkValidationException;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Validates collections of request objects with the application's shared,
+ * pre-built {@link Validator}, for bulk paths where {@code @Valid} on a
+ * controller parameter does not apply.
+ */
+@Component
+public class BulkValidator {
+
+    private final Validator validator;
+
+    @Autowired
+    public BulkValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Validates every element and reports all violations at once.
+     *
+     * @param elements the objects to validate
+     * @param path     the property name of the collection, used to prefix reported fields, e.g. {@code items}
+     * @throws BulkValidationException if any element violates a constraint
+     */
+    public <T> void validateAll(List<T> elements, String path) {
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        for (int i = 0; i < elements.size(); i++) {
+            for (ConstraintViolation<T> violation : validator.validate(elements.get(i))) {
+                fieldErrors.put(path + "[" + i + "]." + violation.getPropertyPath(), violation.getMessage());
+            }
+        }
+        if (!fieldErrors.isEmpty()) {
+            throw new BulkValidationException(fieldErrors);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.webapp.springboot_crud_web_app.validation;
+
+/**
+ * Where Bean Validation constraints are enforced.
+ * Selected with the {@code app.validation.strategy} property.
+ */
+public enum ValidationStrategy {
+
+    /**
+     * Validate request DTOs once at the API boundary. Entities built by the
+     * service layer from validated DTOs are trusted and not re-validated by
+     * Hibernate before insert and update.
+     */
+    BOUNDARY,
+
+    /**
+     * Validate request DTOs at the API boundary and re-validate every entity
+     * in Hibernate's pre-insert and pre-update callbacks.
+     */
+    BOUNDARY_AND_ENTITY
+}
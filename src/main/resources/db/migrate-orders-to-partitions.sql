@@ -0,0 +1,52 @@
+-- One-off upgrade of a postgres database whose orders and order_items were
+-- created by Hibernate (ddl-auto: update), before they were partitioned. With
+-- the application stopped, run from the repository root:
+--
+--   psql -d ecommercedb -f src/main/resources/db/migrate-orders-to-partitions.sql
+--
+-- Everything happens in one transaction. The old tables are kept as
+-- orders_unpartitioned and order_items_unpartitioned; drop them once the
+-- application runs on the new ones.
+
+\set ON_ERROR_STOP on
+
+BEGIN;
+
+-- Move the old tables, and the names of their keys and indexes, out of the way
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER INDEX IF EXISTS order_items_pkey RENAME TO order_items_unpartitioned_pkey;
+ALTER INDEX IF EXISTS orders_pkey RENAME TO orders_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_orders_open_status_created_at;
+DROP INDEX IF EXISTS brin_orders_created_at;
+
+-- Frees the name orders_id_seq; the new sequence continues past the copied ids below
+ALTER TABLE orders_unpartitioned ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+\ir ../schema-postgresql.sql
+
+-- Monthly partitions for every month holding orders, up to the current one.
+-- Rows left in the default partitions would stop OrderPartitionMaintainer from
+-- creating those months later.
+SELECT format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+              t.name || to_char(m.month, '"_p"YYYY_MM'), t.name, m.month, m.month + interval '1 month')
+FROM generate_series((SELECT date_trunc('month', min(created_at)) FROM orders_unpartitioned),
+                     date_trunc('month', localtimestamp), interval '1 month') AS m (month)
+CROSS JOIN (VALUES (1, 'orders'), (2, 'order_items')) AS t (n, name)
+ORDER BY m.month, t.n
+\gexec
+
+INSERT INTO orders (id, customer_name, customer_email, shipping_address, total_amount, status, intake_id,
+                    created_at, updated_at)
+SELECT id, customer_name, customer_email, shipping_address, total_amount, status, intake_id,
+       created_at, updated_at
+FROM orders_unpartitioned;
+
+INSERT INTO order_items (id, order_id, order_created_at, product_id, quantity, unit_price, subtotal)
+SELECT i.id, i.order_id, o.created_at, i.product_id, i.quantity, i.unit_price, i.subtotal
+FROM order_items_unpartitioned i
+JOIN orders_unpartitioned o ON o.id = i.order_id;
+
+SELECT setval('orders_id_seq', COALESCE(max(id), 0) + 1, false) FROM orders;
+
+COMMIT;
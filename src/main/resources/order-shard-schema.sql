@@ -0,0 +1,39 @@
+-- Schema of order shards 1 and up, run on each at startup (shard 0 is the main
+-- database, whose schema is set up as usual). Every statement is idempotent and
+-- runs on H2 and PostgreSQL; keep it in step with the Order and OrderItem mappings.
+--
+-- ${first_order_id} and ${first_order_item_id} are filled in per shard: ids start
+-- at shard << 48, so an order id names its shard and no id is used on two shards.
+-- Products stay on the main database, so product_id has no foreign key here.
+
+CREATE TABLE IF NOT EXISTS orders (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY (START WITH ${first_order_id}) PRIMARY KEY,
+    customer_name    varchar(255)   NOT NULL,
+    customer_email   varchar(255)   NOT NULL,
+    shipping_address varchar(500)   NOT NULL,
+    total_amount     numeric(10, 2) NOT NULL,
+    status           varchar(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    intake_id        varchar(36)    UNIQUE,
+    created_at       timestamp(6)   NOT NULL,
+    updated_at       timestamp(6)
+);
+
+-- Matches OrderItem's pooled sequence generator (allocationSize 50): the first
+-- value is the top of the first block of ids
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH ${first_order_item_id} INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id               bigint         PRIMARY KEY,
+    order_id         bigint         NOT NULL REFERENCES orders (id),
+    order_created_at timestamp(6)   NOT NULL,
+    product_id       bigint         NOT NULL,
+    quantity         integer        NOT NULL,
+    unit_price       numeric(10, 2) NOT NULL,
+    subtotal         numeric(10, 2) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items (product_id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at ON orders (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders (created_at);
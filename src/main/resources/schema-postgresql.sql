@@ -0,0 +1,123 @@
+-- Schema of the postgres profile, which runs with ddl-auto: none. Every statement
+-- is idempotent and the script runs on each startup; keep it in step with the
+-- JPA mappings, which still generate the H2 schema of the other profiles.
+
+CREATE TABLE IF NOT EXISTS products (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        varchar(255)   NOT NULL,
+    description varchar(1000),
+    price       numeric(10, 2) NOT NULL,
+    stock       integer        NOT NULL,
+    created_at  timestamp(6),
+    updated_at  timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products (created_at, id);
+
+-- Orders and their items are range-partitioned by month on the order's creation
+-- time; OrderPartitionMaintainer creates upcoming months and detaches expired
+-- ones. A partitioned table's primary and unique keys must include the partition
+-- key, hence (id, created_at). Rows outside every monthly partition land in the
+-- default partitions instead of failing.
+--
+-- CREATE TABLE IF NOT EXISTS would leave tables created by Hibernate in place, and
+-- the statements after it would fail on them obscurely. Stop here instead: such a
+-- database is upgraded once by db/migrate-orders-to-partitions.sql. The message is
+-- cast per row, so the error only fires when a plain table is found.
+SELECT CAST(relname || ' is not partitioned; stop the application and run db/migrate-orders-to-partitions.sql'
+            AS integer)
+FROM pg_class
+WHERE oid IN (to_regclass('orders'), to_regclass('order_items')) AND relkind = 'r';
+
+CREATE SEQUENCE IF NOT EXISTS orders_id_seq;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id               bigint         NOT NULL DEFAULT nextval('orders_id_seq'),
+    customer_name    varchar(255)   NOT NULL,
+    customer_email   varchar(255)   NOT NULL,
+    shipping_address varchar(500)   NOT NULL,
+    total_amount     numeric(10, 2) NOT NULL,
+    status           varchar(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    intake_id        varchar(36),
+    created_at       timestamp(6)   NOT NULL,
+    updated_at       timestamp(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+
+CREATE TABLE IF NOT EXISTS orders_default PARTITION OF orders DEFAULT;
+
+-- Not unique: a unique index would have to include created_at. Each intake journal
+-- is locked by the one process draining it, whose single drain thread looks the id
+-- up before creating the order.
+CREATE INDEX IF NOT EXISTS idx_orders_intake_id ON orders (intake_id);
+
+-- Matches OrderItem's pooled sequence generator (allocationSize 50)
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id               bigint         NOT NULL,
+    order_id         bigint         NOT NULL,
+    order_created_at timestamp(6)   NOT NULL,
+    product_id       bigint         NOT NULL REFERENCES products (id),
+    quantity         integer        NOT NULL,
+    unit_price       numeric(10, 2) NOT NULL,
+    subtotal         numeric(10, 2) NOT NULL,
+    PRIMARY KEY (id, order_created_at),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id, order_created_at)
+        REFERENCES orders (id, created_at)
+) PARTITION BY RANGE (order_created_at);
+
+CREATE TABLE IF NOT EXISTS order_items_default PARTITION OF order_items DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items (product_id);
+
+-- Orders that can still move. Delivered and cancelled orders are never indexed,
+-- so the index stays the size of the open backlog however large orders grows.
+-- Queries must repeat this predicate (OrderRepository.OPEN_STATUSES_SQL) to use it.
+CREATE INDEX IF NOT EXISTS idx_orders_open_status_created_at
+    ON orders (status, created_at)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'SHIPPED');
+
+-- Orders are inserted in created_at order, so each block range covers a narrow
+-- time span; the index holds one summary per 32 pages instead of one entry per row,
+-- and autovacuum summarizes each range once it fills.
+CREATE INDEX IF NOT EXISTS brin_orders_created_at
+    ON orders USING brin (created_at) WITH (pages_per_range = 32, autosummarize = on);
+
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id         bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id bigint      NOT NULL,
+    quantity   integer     NOT NULL,
+    type       varchar(20) NOT NULL,
+    compacted  boolean     NOT NULL,
+    created_at timestamp(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_product_compacted
+    ON inventory_movements (product_id, compacted);
+
+CREATE TABLE IF NOT EXISTS product_stock_stripes (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id   bigint  NOT NULL,
+    stripe_index integer NOT NULL,
+    quantity     integer NOT NULL,
+    UNIQUE (product_id, stripe_index)
+);
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id         varchar(36)  PRIMARY KEY,
+    product_id bigint       NOT NULL,
+    quantity   integer      NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    created_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_journal_checkpoints (
+    id           integer PRIMARY KEY,
+    last_segment bigint  NOT NULL
+);
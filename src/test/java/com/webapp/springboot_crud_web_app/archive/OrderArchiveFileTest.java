@@ -0,0 +1,143 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+
+class OrderArchiveFileTest {
+
+    // Small enough that the orders below span several blocks
+    private static final int BLOCK_SIZE = 16;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void find_ShouldReturnEveryArchivedOrderAcrossBlocks() throws IOException {
+        // Arrange: ids 10, 13, 16, ... so lookups also hit gaps between them
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(order(10 + 3L * i, i));
+        }
+        Path file = write(orders);
+
+        // Act
+        OrderArchiveFile archive = OrderArchiveFile.open(file);
+
+        // Assert
+        assertEquals("orders-10-307.arc", file.getFileName().toString());
+        assertEquals(100, archive.orderCount());
+        for (OrderDTO order : orders) {
+            assertEquals(Optional.of(order), archive.find(order.getId()));
+        }
+        assertEquals(Optional.empty(), archive.find(11));
+        assertEquals(Optional.empty(), archive.find(9));
+        assertEquals(Optional.empty(), archive.find(308));
+    }
+
+    @Test
+    void find_ShouldKeepMissingUpdateTimesAndNonAsciiText() throws IOException {
+        // Arrange
+        OrderDTO order = order(5L, 0);
+        order.setUpdatedAt(null);
+        order.setCustomerName("Zoë Ångström");
+        order.setShippingAddress("1 Rue de l'Église, Orléans");
+
+        // Act
+        OrderArchiveFile archive = OrderArchiveFile.open(write(List.of(order)));
+
+        // Assert
+        assertEquals(Optional.of(order), archive.find(5L));
+    }
+
+    @Test
+    void append_OutOfIdOrder_ShouldFailAndLeaveNoFile() throws IOException {
+        // Arrange
+        try (OrderArchiveWriter writer = new OrderArchiveWriter(directory, BLOCK_SIZE)) {
+            writer.append(order(2L, 0));
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> writer.append(order(1L, 1)));
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void find_InCorruptBlock_ShouldFail() throws IOException {
+        // Arrange
+        Path file = write(List.of(order(1L, 0), order(2L, 1)));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x5A, 0x5A, 0x5A}), 4);
+        }
+        OrderArchiveFile archive = OrderArchiveFile.open(file);
+
+        // Act & Assert
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> archive.find(1L));
+        assertTrue(ex.getMessage().startsWith("Corrupt block 0"));
+    }
+
+    @Test
+    void open_FileThatIsNotAnArchive_ShouldFail() throws IOException {
+        // Arrange
+        Path file = Files.write(directory.resolve("orders-1-1.arc"), new byte[64]);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> OrderArchiveFile.open(file));
+    }
+
+    private Path write(List<OrderDTO> orders) throws IOException {
+        try (OrderArchiveWriter writer = new OrderArchiveWriter(directory, BLOCK_SIZE)) {
+            for (OrderDTO order : orders) {
+                writer.append(order);
+            }
+            return writer.finish();
+        }
+    }
+
+    private static OrderDTO order(long id, int i) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (int j = 0; j < i % 4; j++) {
+            items.add(OrderItemDTO.builder()
+                    .id(id * 10 + j)
+                    .orderId(id)
+                    .productId(1L + j)
+                    .quantity(j + 1)
+                    .unitPrice(new BigDecimal("19.99"))
+                    .subtotal(new BigDecimal("19.99").multiply(BigDecimal.valueOf(j + 1)))
+                    .build());
+        }
+        LocalDateTime createdAt = START.plusMinutes(7L * i);
+        return OrderDTO.builder()
+                .id(id)
+                .customerName("Customer " + i)
+                .customerEmail("customer" + i + "@example.com")
+                .shippingAddress(i + " Archive Street")
+                .totalAmount(new BigDecimal("19.99").multiply(BigDecimal.valueOf(items.size())).setScale(2))
+                .status(OrderStatus.DELIVERED)
+                .orderItems(items)
+                .createdAt(createdAt)
+                .updatedAt(createdAt.plusDays(3))
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.webapp.springboot_crud_web_app.archive;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.model.Order;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.model.OrderItem;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+
+@SpringBootTest(properties = {
+        "app.orders.archive.enabled=true",
+        "app.orders.archive.older-than-months=12"
+})
+@ActiveProfiles("test")
+@Transactional
+class OrderArchiverTest {
+
+    @TempDir
+    static Path archiveDirectory;
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.orders.archive.dir", () -> archiveDirectory.toString());
+    }
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private Clock clock;
+
+    @Test
+    void archive_ShouldMoveOldDeliveredOrdersToFilesAndStillServeThem() throws IOException {
+        // Arrange
+        Product product = new Product();
+        product.setName("Archived Product");
+        product.setPrice(new BigDecimal("12.50"));
+        product.setStock(100);
+        productRepository.save(product);
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        Order oldDelivered = saveOrder(product, OrderStatus.DELIVERED, now.minusMonths(14));
+        Order oldPending = saveOrder(product, OrderStatus.PENDING, now.minusMonths(14));
+        Order recentDelivered = saveOrder(product, OrderStatus.DELIVERED, now.minusMonths(1));
+
+        // Act
+        long archived = orderArchiver.archive();
+
+        // Assert
+        assertTrue(archived >= 1);
+        assertFalse(orderRepository.existsById(oldDelivered.getId()));
+        assertTrue(orderRepository.existsById(oldPending.getId()));
+        assertTrue(orderRepository.existsById(recentDelivered.getId()));
+        try (var files = Files.list(archiveDirectory.resolve(YearMonth.from(now.minusMonths(14)).toString()))) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().endsWith(".arc")));
+        }
+
+        OrderDTO served = orderService.findById(oldDelivered.getId());
+        assertEquals(OrderStatus.DELIVERED, served.getStatus());
+        assertEquals("archived@example.com", served.getCustomerEmail());
+        assertEquals(1, served.getOrderItems().size());
+        assertEquals(new BigDecimal("25.00"), served.getOrderItems().get(0).getSubtotal());
+        assertEquals(product.getId(), served.getOrderItems().get(0).getProductId());
+    }
+
+    private Order saveOrder(Product product, OrderStatus status, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setCustomerName("Archived Customer");
+        order.setCustomerEmail("archived@example.com");
+        order.setShippingAddress("1 Archive Street");
+        order.setTotalAmount(new BigDecimal("25.00"));
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("12.50"));
+        item.setSubtotal(new BigDecimal("25.00"));
+        order.getOrderItems().add(item);
+
+        return orderRepository.saveAndFlush(order);
+    }
+}
@@ -0,0 +1,38 @@
+package com.webapp.springboot_crud_web_app.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.webapp.springboot_crud_web_app.validation.ValidationStrategy;
+
+class ValidationConfigTest {
+
+    private final ValidationConfig validationConfig = new ValidationConfig();
+
+    @Test
+    void boundaryStrategy_ShouldDisableEntityValidation() {
+        // Arrange
+        Map<String, Object> properties = new HashMap<>();
+
+        // Act
+        validationConfig.entityValidationModeCustomizer(ValidationStrategy.BOUNDARY).customize(properties);
+
+        // Assert
+        assertEquals("NONE", properties.get(ValidationConfig.VALIDATION_MODE_PROPERTY));
+    }
+
+    @Test
+    void boundaryAndEntityStrategy_ShouldEnableEntityValidationCallbacks() {
+        // Arrange
+        Map<String, Object> properties = new HashMap<>();
+
+        // Act
+        validationConfig.entityValidationModeCustomizer(ValidationStrategy.BOUNDARY_AND_ENTITY).customize(properties);
+
+        // Assert
+        assertEquals("CALLBACK", properties.get(ValidationConfig.VALIDATION_MODE_PROPERTY));
+    }
+}
@@ -2,7 +2,9 @@ package com.webapp.springboot_crud_web_app.controller;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webapp.springboot_crud_web_app.dto.OrderDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
 import com.webapp.springboot_crud_web_app.dto.ProductDTO;
 import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
 import com.webapp.springboot_crud_web_app.service.OrderService;
@@ -151,7 +154,7 @@ public class OrderControllerIntegrationTest {
         
         // Prepare update data
         createdOrder.setCustomerName("Updated Customer");
-        createdOrder.setStatus(OrderStatus.SHIPPED);
+        createdOrder.setStatus(OrderStatus.CONFIRMED);
         
         mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}", createdOrder.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -159,7 +162,20 @@ public class OrderControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(createdOrder.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.customerName").value("Updated Customer"))
-                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("SHIPPED"));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("CONFIRMED"));
+    }
+    
+    @Test
+    void updateOrder_StatusItCannotMoveTo_ReturnsBadRequest() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        createdOrder.setStatus(OrderStatus.SHIPPED);
+        
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}", createdOrder.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createdOrder)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        
+        assertEquals(OrderStatus.PENDING, orderService.findById(createdOrder.getId()).getStatus());
     }
     
     @Test
@@ -187,6 +203,68 @@ public class OrderControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
     
+    @Test
+    void deleteOrder_PendingOrder_GivesBackItsStock() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        createTestOrder();
+        assertEquals(96, productService.findById(product1.getId()).getStock());
+        
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/orders/{id}", createdOrder.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+        
+        assertEquals(98, productService.findById(product1.getId()).getStock());
+        assertEquals(49, productService.findById(product2.getId()).getStock());
+    }
+    
+    @Test
+    void cancelOrders_PendingOrders_GiveBackTheirStockOnce() throws Exception {
+        OrderDTO first = createTestOrder();
+        OrderDTO second = createTestOrder();
+        OrderStatusTransitionDTO transition = OrderStatusTransitionDTO.builder()
+                .ids(List.of(first.getId(), second.getId()))
+                .status(OrderStatus.CANCELLED)
+                .build();
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transition)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        first.setStatus(OrderStatus.CANCELLED);
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}", first.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(first)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        
+        assertEquals(100, productService.findById(product1.getId()).getStock());
+        assertEquals(50, productService.findById(product2.getId()).getStock());
+    }
+    
+    @Test
+    void updateOrder_ReopeningCancelledOrder_IsRejectedAndStockIsGivenBackOnce() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        createdOrder.setStatus(OrderStatus.CANCELLED);
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}", createdOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createdOrder)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        
+        createdOrder.setStatus(OrderStatus.PENDING);
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}", createdOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createdOrder)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        createdOrder.setStatus(OrderStatus.CANCELLED);
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}", createdOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createdOrder)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/orders/{id}", createdOrder.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+        
+        assertEquals(100, productService.findById(product1.getId()).getStock());
+        assertEquals(50, productService.findById(product2.getId()).getStock());
+    }
+    
     @Test
     void deleteOrder_NonExistingOrder_ReturnsNotFound() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/orders/999999")
@@ -194,6 +272,107 @@ public class OrderControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
     
+    @Test
+    void transitionOrderStatus_MixedOrders_MovesOnlyThoseThatMayMove() throws Exception {
+        OrderDTO pending = createTestOrder();
+        OrderDTO shipped = createTestOrder();
+        orderService.transitionStatus(List.of(shipped.getId()), OrderStatus.CONFIRMED);
+        orderService.transitionStatus(List.of(shipped.getId()), OrderStatus.SHIPPED);
+        OrderStatusTransitionDTO transition = OrderStatusTransitionDTO.builder()
+                .ids(List.of(shipped.getId(), pending.getId(), 999999L))
+                .status(OrderStatus.CANCELLED)
+                .build();
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transition)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("CANCELLED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changedIds.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changedIds[0]").value(pending.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.unchangedIds.length()").value(2));
+        
+        assertEquals(OrderStatus.CANCELLED, orderService.findById(pending.getId()).getStatus());
+        assertEquals(OrderStatus.SHIPPED, orderService.findById(shipped.getId()).getStatus());
+    }
+    
+    @Test
+    void transitionOrderStatus_NoIds_ReturnsBadRequest() throws Exception {
+        OrderStatusTransitionDTO transition = OrderStatusTransitionDTO.builder()
+                .ids(List.of())
+                .status(OrderStatus.SHIPPED)
+                .build();
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/status-transitions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(transition)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[?(@.field == 'ids')]").exists());
+    }
+    
+    @Test
+    void addOrderItems_SeveralItems_AppendsThemAndAddsToTotalAndStock() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        List<OrderItemDTO> items = List.of(
+                OrderItemDTO.builder().productId(product2.getId()).quantity(3).build(),
+                OrderItemDTO.builder().productId(product1.getId()).quantity(1).build());
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/{id}/items", createdOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orderItems.length()").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orderItems[2].subtotal").value(149.97))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalAmount").value(259.93));
+        
+        assertEquals(97, productService.findById(product1.getId()).getStock());
+        assertEquals(46, productService.findById(product2.getId()).getStock());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/{id}/items", createdOrder.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(4));
+    }
+    
+    @Test
+    void replaceOrderItems_FewerItems_ReplacesThemAndGivesBackStock() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        List<OrderItemDTO> items = List.of(OrderItemDTO.builder().productId(product1.getId()).quantity(1).build());
+        
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/orders/{id}/items", createdOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orderItems.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orderItems[0].quantity").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalAmount").value(19.99));
+        
+        assertEquals(99, productService.findById(product1.getId()).getStock());
+        assertEquals(50, productService.findById(product2.getId()).getStock());
+    }
+    
+    @Test
+    void addOrderItems_InvalidQuantity_ReturnsBadRequestForThatItem() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        List<OrderItemDTO> items = List.of(
+                OrderItemDTO.builder().productId(product1.getId()).quantity(1).build(),
+                OrderItemDTO.builder().productId(product2.getId()).quantity(0).build());
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/{id}/items", createdOrder.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[?(@.field == 'items[1].quantity')]").exists());
+    }
+    
+    @Test
+    void addOrderItems_NonExistingOrder_ReturnsNotFound() throws Exception {
+        List<OrderItemDTO> items = List.of(OrderItemDTO.builder().productId(product1.getId()).quantity(1).build());
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/999999/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+    
     @Test
     void createOrder_InvalidEmail_ReturnsBadRequest() throws Exception {
         OrderDTO orderDTO = createTestOrderDTO();
@@ -352,6 +531,85 @@ public class OrderControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.errors[?(@.field == 'orderItems[0].quantity')]").exists());
     }
     
+    @Test
+    void getAllOrders_FilteredByStatusAndCreatedAt_ReturnsOnlyMatchingOrders() throws Exception {
+        OrderDTO pending = createTestOrder();
+        OrderDTO cancelled = createTestOrder();
+        orderService.transitionStatus(List.of(cancelled.getId()), OrderStatus.CANCELLED);
+        String createdFrom = pending.getCreatedAt().minusHours(2).toString();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("status", "PENDING,CONFIRMED")
+                        .param("createdFrom", createdFrom))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + pending.getId() + ")]").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + cancelled.getId() + ")]").doesNotExist());
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("status", "CANCELLED")
+                        .param("createdBefore", createdFrom))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + cancelled.getId() + ")]").doesNotExist());
+    }
+    
+    @Test
+    void getAllOrders_FilterLimitTooLarge_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("status", "PENDING")
+                        .param("limit", "5000"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+    
+    @Test
+    void getOrdersByIds_ReturnsFoundOrdersAndMissingIds() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                .param("ids", createdOrder.getId() + ",999999")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(createdOrder.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].orderItems.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds[0]").value(999999));
+    }
+    
+    @Test
+    void getOrdersByIdList_ReturnsFoundOrdersAndMissingIds() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/by-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(createdOrder.getId(), 999999L))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].customerName").value("Test Customer"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds[0]").value(999999));
+    }
+    
+    @Test
+    void getAllOrdersWithFields_WithoutInclude_OmitsItems() throws Exception {
+        createTestOrder();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                .param("fields", "id,totalAmount")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].totalAmount").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].customerName").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].orderItems").doesNotExist());
+    }
+    
+    @Test
+    void getAllOrdersWithFields_IncludeItems_EmbedsItems() throws Exception {
+        OrderDTO createdOrder = createTestOrder();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                .param("fields", "customerName")
+                .param("include", "items")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + createdOrder.getId() + ")].orderItems[0].productId").exists());
+    }
+    
     /**
      * Helper method to create a test order DTO without saving it
      */
@@ -0,0 +1,153 @@
+package com.webapp.springboot_crud_web_app.controller;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderIntakeDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderIntakeDTO.IntakeStatus;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.service.ProductService;
+
+/**
+ * Orders are created by the drain thread in their own transactions, so this
+ * test runs against its own database and cleans up after itself.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderintakedb;DB_CLOSE_DELAY=-1",
+        "app.orders.intake.enabled=true",
+        "app.orders.intake.sync-writes=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class OrderIntakeControllerIntegrationTest {
+
+    @TempDir
+    static Path journalDirectory;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.orders.intake.journal-dir", () -> journalDirectory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() {
+        product = productService.create(ProductDTO.builder()
+                .name("Journaled Product")
+                .description("Product ordered through the intake journal")
+                .price(BigDecimal.valueOf(12.50))
+                .stock(10)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        productService.delete(product.getId());
+    }
+
+    @Test
+    void accept_ValidOrder_ReturnsAcceptedAndIsCreatedLater() throws Exception {
+        OrderIntakeDTO accepted = accept(order(product.getId(), 4));
+
+        OrderIntakeDTO status = awaitOutcome(accepted.getProvisionalId());
+
+        assertEquals(IntakeStatus.CREATED, status.getStatus());
+        assertEquals(accepted.getProvisionalId(), orderRepository.findById(status.getOrderId()).orElseThrow().getIntakeId());
+        assertEquals(6, productService.findById(product.getId()).getStock());
+    }
+
+    @Test
+    void accept_OrderForUnknownProduct_IsAcceptedThenRejected() throws Exception {
+        OrderIntakeDTO accepted = accept(order(999_999L, 1));
+
+        OrderIntakeDTO status = awaitOutcome(accepted.getProvisionalId());
+
+        assertEquals(IntakeStatus.REJECTED, status.getStatus());
+        assertEquals("Product not found with id: '999999'", status.getMessage());
+    }
+
+    @Test
+    void getStatus_UnknownProvisionalId_ReturnsNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/order-intake/{provisionalId}", "no-such-id"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    private OrderIntakeDTO accept(OrderDTO order) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/order-intake")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().exists("Location"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("ACCEPTED"))
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), OrderIntakeDTO.class);
+    }
+
+    private OrderIntakeDTO awaitOutcome(String provisionalId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/order-intake/{provisionalId}", provisionalId))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andReturn();
+            OrderIntakeDTO status = objectMapper.readValue(result.getResponse().getContentAsString(), OrderIntakeDTO.class);
+            if (status.getStatus() != IntakeStatus.ACCEPTED || System.currentTimeMillis() > deadline) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static OrderDTO order(Long productId, int quantity) {
+        OrderItemDTO item = OrderItemDTO.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(BigDecimal.valueOf(12.50))
+                .subtotal(BigDecimal.valueOf(12.50).multiply(BigDecimal.valueOf(quantity)))
+                .build();
+        return OrderDTO.builder()
+                .customerName("Intake Customer")
+                .customerEmail("intake@example.com")
+                .shippingAddress("3 Journal Road")
+                .totalAmount(item.getSubtotal())
+                .status(OrderStatus.PENDING)
+                .orderItems(List.of(item))
+                .build();
+    }
+}
@@ -3,6 +3,7 @@ package com.webapp.springboot_crud_web_app.controller;
 import java.math.BigDecimal;
 import java.util.Arrays;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -240,6 +241,42 @@ public class OrderItemControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.status().isNotFound()); // Expect 404 Not Found
     }
     
+    @Test
+    void orderItemChanges_ShouldMoveOrderTotalAndStockByTheirDifference() throws Exception {
+        // Arrange
+        OrderItemDTO createdOrderItem = createTestOrderItem();
+        assertEquals(new BigDecimal("59.97"), orderService.findById(order.getId()).getTotalAmount());
+        assertEquals(97, productService.findById(product.getId()).getStock());
+        createdOrderItem.setQuantity(5);
+
+        // Act
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/order-items/{id}", createdOrderItem.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createdOrderItem)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        BigDecimal totalAfterUpdate = orderService.findById(order.getId()).getTotalAmount();
+        int stockAfterUpdate = productService.findById(product.getId()).getStock();
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/order-items/{id}", createdOrderItem.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+
+        // Assert
+        assertEquals(new BigDecimal("119.94"), totalAfterUpdate);
+        assertEquals(94, stockAfterUpdate);
+        assertEquals(new BigDecimal("19.99"), orderService.findById(order.getId()).getTotalAmount());
+        assertEquals(99, productService.findById(product.getId()).getStock());
+    }
+    
+    @Test
+    void createOrderItem_MoreThanInStock_ReturnsBadRequest() throws Exception {
+        OrderItemDTO orderItemDTO = createTestOrderItemDTO();
+        orderItemDTO.setQuantity(1000);
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/order-items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(orderItemDTO)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+    
     /**
      * Helper method to create a test order item DTO without saving it
      */
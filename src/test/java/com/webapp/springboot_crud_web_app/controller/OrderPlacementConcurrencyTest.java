@@ -0,0 +1,156 @@
+package com.webapp.springboot_crud_web_app.controller;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.service.ProductService;
+
+/**
+ * Places orders that name the same two products in opposite orders from
+ * several threads at once. Not {@code @Transactional}: every request has to
+ * commit on its own for the row locks to actually contend.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class OrderPlacementConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 10;
+    private static final int INITIAL_STOCK = 1_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private ProductDTO productA;
+    private ProductDTO productB;
+    private final Queue<Long> createdOrderIds = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        productA = productService.create(ProductDTO.builder()
+                .name("Contended Product A")
+                .description("First product of the crossed orders")
+                .price(BigDecimal.valueOf(10.00))
+                .stock(INITIAL_STOCK)
+                .build());
+        productB = productService.create(ProductDTO.builder()
+                .name("Contended Product B")
+                .description("Second product of the crossed orders")
+                .price(BigDecimal.valueOf(20.00))
+                .stock(INITIAL_STOCK)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAllById(createdOrderIds);
+        productService.delete(productA.getId());
+        productService.delete(productB.getId());
+    }
+
+    @Test
+    void createOrder_CrossedProductOrderInParallel_AllSucceedAndStockAddsUp() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> failures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                // Half the threads name A first, the other half B first
+                boolean aFirst = t % 2 == 0;
+                String body = objectMapper.writeValueAsString(aFirst
+                        ? crossedOrder(productA, productB)
+                        : crossedOrder(productB, productA));
+                failures.add(executor.submit(() -> {
+                    start.await();
+                    int failed = 0;
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(body))
+                                .andReturn();
+                        if (result.getResponse().getStatus() == 201) {
+                            createdOrderIds.add(objectMapper.readValue(
+                                    result.getResponse().getContentAsString(), OrderDTO.class).getId());
+                        } else {
+                            failed++;
+                        }
+                    }
+                    return failed;
+                }));
+            }
+            start.countDown();
+
+            int failed = 0;
+            for (Future<Integer> future : failures) {
+                failed += future.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(0, failed);
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        int placed = THREADS * ORDERS_PER_THREAD;
+        assertEquals(placed, createdOrderIds.size());
+        assertEquals(INITIAL_STOCK - placed, productService.findById(productA.getId()).getStock());
+        assertEquals(INITIAL_STOCK - placed, productService.findById(productB.getId()).getStock());
+    }
+
+    private OrderDTO crossedOrder(ProductDTO first, ProductDTO second) {
+        return OrderDTO.builder()
+                .customerName("Concurrent Customer")
+                .customerEmail("concurrent@example.com")
+                .shippingAddress("1 Contention Way")
+                .totalAmount(first.getPrice().add(second.getPrice()))
+                .status(OrderStatus.PENDING)
+                .orderItems(List.of(orderItem(first), orderItem(second)))
+                .build();
+    }
+
+    private OrderItemDTO orderItem(ProductDTO product) {
+        return OrderItemDTO.builder()
+                .productId(product.getId())
+                .quantity(1)
+                .unitPrice(product.getPrice())
+                .subtotal(product.getPrice())
+                .build();
+    }
+}
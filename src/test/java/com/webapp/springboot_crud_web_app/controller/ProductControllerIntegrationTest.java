@@ -1,6 +1,7 @@
 package com.webapp.springboot_crud_web_app.controller;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -197,6 +198,140 @@ public class ProductControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.errors[?(@.field == 'description')]").exists());
     }
     
+    @Test
+    void getProductsByIds_ReturnsFoundProductsAndMissingIds() throws Exception {
+        ProductDTO first = createTestProduct();
+        ProductDTO second = createTestProduct();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products")
+                .param("ids", second.getId() + "," + first.getId() + ",999999")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(second.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[1].id").value(first.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds[0]").value(999999));
+    }
+    
+    @Test
+    void getProductsByIdList_ReturnsFoundProductsAndMissingIds() throws Exception {
+        ProductDTO createdProduct = createTestProduct();
+        
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/products/by-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(createdProduct.getId(), 999999L))))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].name").value(createdProduct.getName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds[0]").value(999999));
+    }
+    
+    @Test
+    void getAllProductsWithFields_ReturnsOnlyRequestedFields() throws Exception {
+        createTestProduct();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products")
+                .param("fields", "id,name")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].description").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].price").doesNotExist());
+    }
+    
+    @Test
+    void getAllProductsWithFields_UnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products")
+                .param("fields", "id,unknown")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+    
+    @Test
+    void searchProducts_ReturnsRankedMatchesAndFollowsUpdates() throws Exception {
+        ProductDTO kettle = productService.create(ProductDTO.builder()
+                .name("Zephyrite Kettle")
+                .description("Stainless steel, 1.7 litres")
+                .price(BigDecimal.valueOf(39.99))
+                .stock(10)
+                .build());
+        ProductDTO mug = productService.create(ProductDTO.builder()
+                .name("Travel Mug")
+                .description("Fits the zephyrite kettle spout")
+                .price(BigDecimal.valueOf(9.99))
+                .stock(30)
+                .build());
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/search")
+                        .param("q", "zephyr kett"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalHits").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[0].id").value(kettle.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[1].id").value(mug.getId()));
+        
+        mug.setDescription("Keeps coffee hot");
+        productService.update(mug);
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/search")
+                        .param("q", "zephyrite")
+                        .param("size", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalHits").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[0].name").value("Zephyrite Kettle"));
+    }
+    
+    @Test
+    void searchProducts_PageTooLarge_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/search")
+                        .param("q", "lamp")
+                        .param("size", "500"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+    
+    @Test
+    void getProductListing_InStockByPrice_PagesWithCursor() throws Exception {
+        ProductDTO first = createPricedProduct("12345.01", 5);
+        createPricedProduct("12345.02", 0);
+        ProductDTO last = createPricedProduct("12345.03", 5);
+        
+        String body = mockMvc.perform(MockMvcRequestBuilders.get("/api/products/listing")
+                        .param("minPrice", "12345")
+                        .param("maxPrice", "12346")
+                        .param("inStock", "true")
+                        .param("size", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[0].id").value(first.getId()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+        
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/listing")
+                        .param("minPrice", "12345")
+                        .param("maxPrice", "12346")
+                        .param("inStock", "true")
+                        .param("size", "1")
+                        .param("cursor", cursor))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[0].id").value(last.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+    
+    @Test
+    void getProductListing_UnknownSort_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/listing")
+                        .param("sort", "stock"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+    
+    private ProductDTO createPricedProduct(String price, int stock) {
+        return productService.create(ProductDTO.builder()
+                .name("Listed Product " + price)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .build());
+    }
+    
     /**
      * Helper method to create a test product DTO without saving it
      */
@@ -0,0 +1,141 @@
+package com.webapp.springboot_crud_web_app.controller;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.dto.StockReservationDTO;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.service.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+public class StockReservationControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() {
+        product = productService.create(ProductDTO.builder()
+                .name("Reserved Product")
+                .description("Product held during checkout")
+                .price(BigDecimal.valueOf(9.99))
+                .stock(5)
+                .build());
+    }
+
+    @Test
+    void reserve_ValidInput_ReturnsCreatedAndTakesStock() throws Exception {
+        StockReservationDTO reservation = StockReservationDTO.builder()
+                .productId(product.getId())
+                .quantity(3)
+                .ttlSeconds(60)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.productId").value(product.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.quantity").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.expiresAt").exists());
+
+        assertEquals(2, productService.findById(product.getId()).getStock());
+    }
+
+    @Test
+    void reserve_MoreThanAvailable_ReturnsBadRequest() throws Exception {
+        StockReservationDTO reservation = StockReservationDTO.builder()
+                .productId(product.getId())
+                .quantity(6)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        assertEquals(5, productService.findById(product.getId()).getStock());
+    }
+
+    @Test
+    void reserve_NonExistingProduct_ReturnsNotFound() throws Exception {
+        StockReservationDTO reservation = StockReservationDTO.builder()
+                .productId(999999L)
+                .quantity(1)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void reserve_MissingQuantity_ReturnsBadRequest() throws Exception {
+        StockReservationDTO reservation = StockReservationDTO.builder()
+                .productId(product.getId())
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservation)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void createOrder_WithUnknownReservation_ReturnsNotFoundAndTakesNoStock() throws Exception {
+        OrderDTO order = OrderDTO.builder()
+                .customerName("Test Customer")
+                .customerEmail("test@example.com")
+                .shippingAddress("123 Test Street")
+                .status(OrderStatus.PENDING)
+                .orderItems(List.of(OrderItemDTO.builder()
+                        .productId(product.getId())
+                        .quantity(2)
+                        .build()))
+                .reservationIds(List.of("unknown"))
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        assertEquals(5, productService.findById(product.getId()).getStock());
+    }
+
+    @Test
+    void release_UnknownReservation_ReturnsNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/reservations/{id}", "unknown"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+}
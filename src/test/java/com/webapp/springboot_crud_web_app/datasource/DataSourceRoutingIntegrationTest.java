@@ -0,0 +1,148 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+import java.math.BigDecimal;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica. The
+ * replica has no application tables, so a request that reaches it fails.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.routing.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:routingprimary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routingreplica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.lag-query=SELECT 0",
+        // Built in a read-only transaction at startup, which would go to the empty replica
+        "app.search.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DataSourceRoutingIntegrationTest {
+
+    private static final String READ_PROBE = "SELECT source FROM route_probe";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        probe(primaryDataSource, "primary");
+        probe(replicaDataSource, "replica");
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldReadFromReplica() {
+        // Act
+        String source = transaction(true).execute(status -> jdbcTemplate.queryForObject(READ_PROBE, String.class));
+
+        // Assert
+        assertEquals("replica", source);
+    }
+
+    @Test
+    void readWriteTransaction_ShouldReadFromPrimary() {
+        // Act
+        String source = transaction(false).execute(status -> jdbcTemplate.queryForObject(READ_PROBE, String.class));
+
+        // Assert
+        assertEquals("primary", source);
+    }
+
+    @Test
+    void readOnlyTransaction_WithinReadYourWritesWindow_ShouldReadFromPrimary() {
+        // Arrange
+        ReadYourWrites.begin(true, () -> { });
+
+        // Act
+        String source;
+        try {
+            source = transaction(true).execute(status -> jdbcTemplate.queryForObject(READ_PROBE, String.class));
+        } finally {
+            ReadYourWrites.end();
+        }
+
+        // Assert
+        assertEquals("primary", source);
+    }
+
+    @Test
+    void createThenRead_WithLastWriteCookie_ShouldReadOwnWriteFromPrimary() throws Exception {
+        // Arrange
+        ProductDTO productDTO = ProductDTO.builder()
+                .name("Routed Product")
+                .description("Written to the primary")
+                .price(BigDecimal.valueOf(9.99))
+                .stock(5)
+                .build();
+
+        // Act
+        MockHttpServletResponse created = mockMvc.perform(MockMvcRequestBuilders.post("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDTO)))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andReturn().getResponse();
+        Cookie lastWrite = created.getCookie(ReadYourWritesFilter.COOKIE);
+        Long id = objectMapper.readValue(created.getContentAsString(), ProductDTO.class).getId();
+
+        // Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/{id}", id).cookie(lastWrite))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Routed Product"));
+    }
+
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private static void probe(DataSource dataSource, String source) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS route_probe (source VARCHAR(16))");
+        jdbc.update("DELETE FROM route_probe");
+        jdbc.update("INSERT INTO route_probe (source) VALUES (?)", source);
+    }
+}
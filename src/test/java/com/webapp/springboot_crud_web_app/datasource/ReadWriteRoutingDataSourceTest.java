@@ -0,0 +1,104 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webapp.springboot_crud_web_app.datasource.ReadWriteRoutingDataSource.Route;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ReadWriteRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ReadYourWrites.end();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldRouteToReplica() {
+        // Arrange
+        inTransaction(true);
+
+        // Act & Assert
+        assertEquals(Route.REPLICA, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("replica", "read"));
+    }
+
+    @Test
+    void readOnlyTransaction_WhenReplicaLags_ShouldRouteToPrimary() {
+        // Arrange
+        inTransaction(true);
+        when(lagMonitor.isLagging()).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("primary", "replica_lag"));
+    }
+
+    @Test
+    void writeTransaction_ShouldRouteToPrimaryAndPinLaterReadsOfTheRequest() {
+        // Arrange
+        int[] firstWrites = new int[1];
+        ReadYourWrites.begin(false, () -> firstWrites[0]++);
+
+        // Act
+        inTransaction(false);
+        Object writeRoute = dataSource.determineCurrentLookupKey();
+        Object secondWriteRoute = dataSource.determineCurrentLookupKey();
+        inTransaction(true);
+        Object readRoute = dataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(Route.PRIMARY, writeRoute);
+        assertEquals(Route.PRIMARY, secondWriteRoute);
+        assertEquals(Route.PRIMARY, readRoute);
+        assertEquals(1, firstWrites[0]);
+        assertEquals(1.0, count("primary", "read_your_writes"));
+    }
+
+    @Test
+    void outsideTransaction_ShouldRouteToPrimary() {
+        // Act & Assert
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1.0, count("primary", "no_transaction"));
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private double count(String target, String reason) {
+        return meterRegistry.get(ReadWriteRoutingDataSource.ROUTING_COUNTER)
+                .tag("target", target).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,76 @@
+package com.webapp.springboot_crud_web_app.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    private static final String LAG_QUERY = "SELECT lag";
+
+    @Mock
+    private JdbcTemplate replica;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new ReplicaLagMonitor(replica, LAG_QUERY, 2000, meterRegistry);
+    }
+
+    @Test
+    void check_WhenLagExceedsLimit_ShouldReportLaggingUntilCaughtUp() {
+        // Arrange
+        when(replica.queryForObject(LAG_QUERY, Double.class)).thenReturn(3500.0, 150.0);
+
+        // Act & Assert
+        monitor.check();
+        assertTrue(monitor.isLagging());
+        assertEquals(3500.0, meterRegistry.get(ReplicaLagMonitor.LAG_GAUGE).gauge().value());
+
+        monitor.check();
+        assertFalse(monitor.isLagging());
+        assertEquals(150.0, meterRegistry.get(ReplicaLagMonitor.LAG_GAUGE).gauge().value());
+    }
+
+    @Test
+    void check_WhenReplicaUnreachable_ShouldReportLagging() {
+        // Arrange
+        when(replica.queryForObject(LAG_QUERY, Double.class))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // Act
+        monitor.check();
+
+        // Assert
+        assertTrue(monitor.isLagging());
+        assertTrue(Double.isNaN(meterRegistry.get(ReplicaLagMonitor.LAG_GAUGE).gauge().value()));
+    }
+
+    @Test
+    void check_WithoutLagQuery_ShouldNeverReportLagging() {
+        // Arrange
+        ReplicaLagMonitor unchecked = new ReplicaLagMonitor(replica, "", 2000, meterRegistry);
+
+        // Act
+        unchecked.check();
+
+        // Assert
+        assertFalse(unchecked.isLagging());
+        verifyNoInteractions(replica);
+    }
+}
@@ -2,16 +2,17 @@ package com.webapp.springboot_crud_web_app.exception;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -20,17 +21,22 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.context.request.WebRequest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class GlobalExceptionHandlerTest {
 
-    @InjectMocks
     private GlobalExceptionHandler exceptionHandler;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @Mock
     private WebRequest webRequest;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        exceptionHandler = new GlobalExceptionHandler(meterRegistry);
         when(webRequest.getDescription(false)).thenReturn("test/uri");
     }
 
@@ -144,4 +150,60 @@ class GlobalExceptionHandlerTest {
         assertEquals("test/uri", errorResponse.getPath());
         assertNotNull(errorResponse.getTimestamp());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void handleResourceNotFoundException_ShouldIncrementErrorCounterByType() {
+        // Act
+        exceptionHandler.handleResourceNotFoundException(new ResourceNotFoundException("Product", "id", 1L), webRequest);
+        exceptionHandler.handleResourceNotFoundException(new ResourceNotFoundException("Product", "id", 2L), webRequest);
+        exceptionHandler.handleBusinessRuleViolationException(new BusinessRuleViolationException("rule"), webRequest);
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get(GlobalExceptionHandler.ERROR_COUNTER).tag("type", "not_found").counter().count());
+        assertEquals(1.0, meterRegistry.get(GlobalExceptionHandler.ERROR_COUNTER).tag("type", "business_rule_violation").counter().count());
+    }
+
+    @Test
+    void resourceNotFoundException_ShouldFormatMessageLazilyWithoutStackTrace() {
+        // Act
+        ResourceNotFoundException ex = new ResourceNotFoundException("Product", "id", 42L);
+
+        // Assert
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals("Product not found with id: '42'", ex.getMessage());
+        assertEquals(0, new BusinessRuleViolationException("rule").getStackTrace().length);
+    }
+
+    @Test
+    void handleBulkValidationException_ShouldReturnIndexedFieldErrors() {
+        // Arrange
+        BulkValidationException ex = new BulkValidationException(
+                Map.of("items[2].quantity", "Quantity must be at least 1"));
+
+        // Act
+        ResponseEntity<ValidationErrorResponse> responseEntity = exceptionHandler.handleBulkValidationException(ex, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        ValidationErrorResponse errorResponse = responseEntity.getBody();
+        assertNotNull(errorResponse);
+        assertEquals(1, errorResponse.getErrors().size());
+        assertEquals("items[2].quantity", errorResponse.getErrors().get(0).getField());
+    }
+
+    @Test
+    void handlePessimisticLockingFailure_ShouldReturnConflictAndCountIt() {
+        // Arrange
+        PessimisticLockingFailureException ex = new PessimisticLockingFailureException("Deadlock detected");
+
+        // Act
+        ResponseEntity<ErrorResponse> responseEntity = exceptionHandler.handleLockConflict(ex, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        ErrorResponse errorResponse = responseEntity.getBody();
+        assertNotNull(errorResponse);
+        assertEquals(HttpStatus.CONFLICT.value(), errorResponse.getStatus());
+        assertEquals(1.0, meterRegistry.get(GlobalExceptionHandler.ERROR_COUNTER).tag("type", "lock_conflict").counter().count());
+    }
+}
@@ -0,0 +1,189 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventoryEngineTest {
+
+    // Long enough that the background flush never runs during a test
+    private static final long FLUSH_INTERVAL_MS = 60_000;
+
+    @TempDir
+    Path journalDirectory;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:inventory-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE inventory_journal_checkpoints (id INT PRIMARY KEY, last_segment BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO products (id, stock) VALUES (1, 10), (2, 5)");
+        meterRegistry = new SimpleMeterRegistry();
+
+        engine = newEngine();
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        engine.stop();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void reserve_ThenFlush_ShouldWriteDecrementsAndCheckpoint() {
+        // Act
+        OptionalLong result = engine.reserve(Map.of(1L, 3, 2L, 5));
+        engine.flush();
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(7, stockOf(1L));
+        assertEquals(0, stockOf(2L));
+        assertEquals(7, engine.getAvailable(1L));
+        assertEquals(1L, jdbcTemplate.queryForObject(InventoryEngine.SELECT_CHECKPOINT_SQL, Long.class));
+    }
+
+    @Test
+    void reserve_WhenOneProductIsShort_ShouldReserveNothing() {
+        // Act
+        OptionalLong result = engine.reserve(Map.of(1L, 3, 2L, 6));
+        engine.flush();
+
+        // Assert
+        assertEquals(OptionalLong.of(2L), result);
+        assertEquals(10, engine.getAvailable(1L));
+        assertEquals(10, stockOf(1L));
+    }
+
+    @Test
+    void reserve_InRolledBackTransaction_ShouldReleaseStock() {
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            engine.reserve(Map.of(1L, 4));
+            status.setRollbackOnly();
+        });
+        engine.flush();
+
+        // Assert
+        assertEquals(10, engine.getAvailable(1L));
+        assertEquals(10, stockOf(1L));
+    }
+
+    @Test
+    void reserve_InTransaction_ShouldOnlyFlushOnceCommitted() {
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            engine.reserve(Map.of(1L, 4));
+            engine.flush();
+
+            // Assert: held, but not flushed
+            assertEquals(6, engine.getAvailable(1L));
+            assertEquals(10, stockOf(1L));
+        });
+        engine.flush();
+
+        // Assert
+        assertEquals(6, engine.getAvailable(1L));
+        assertEquals(6, stockOf(1L));
+    }
+
+    @Test
+    void start_AfterCrash_ShouldReplayUnflushedJournal() throws Exception {
+        // Arrange: reserve without flushing or stopping, as if the process died
+        engine.reserve(Map.of(1L, 2));
+        engine.reserve(Map.of(1L, 1, 2L, 4));
+        assertEquals(10, stockOf(1L));
+
+        // Act
+        engine = newEngine();
+        engine.start();
+
+        // Assert
+        assertEquals(7, stockOf(1L));
+        assertEquals(1, stockOf(2L));
+        assertTrue(engine.reserve(Map.of(1L, 7)).isEmpty());
+        assertEquals(OptionalLong.of(1L), engine.reserve(Map.of(1L, 1)));
+    }
+
+    @Test
+    void invalidate_ShouldReloadStockSetInDatabase() {
+        // Arrange
+        engine.reserve(Map.of(1L, 2));
+        jdbcTemplate.update("UPDATE products SET stock = 50 WHERE id = 1");
+
+        // Act
+        engine.invalidate(1L);
+        engine.reserve(Map.of(1L, 1));
+
+        // Assert: the unflushed 2 still count against the new stock
+        assertEquals(47, engine.getAvailable(1L));
+    }
+
+    @Test
+    void prepareStockSet_AfterCommittedReservation_ShouldKeepTheNewStockWhenFlushed() {
+        // Arrange: committed but not yet flushed
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> engine.reserve(Map.of(1L, 3)));
+
+        // Act: an update setting the stock to 50
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            engine.prepareStockSet(1L);
+            jdbcTemplate.update("UPDATE products SET stock = 50 WHERE id = 1");
+        });
+        engine.flush();
+
+        // Assert
+        assertEquals(50, stockOf(1L));
+        assertTrue(engine.reserve(Map.of(1L, 1)).isEmpty());
+        assertEquals(49, engine.getAvailable(1L));
+    }
+
+    @Test
+    void release_WhenJournalAppendFails_ShouldCountFailureAndKeepRelease() throws Exception {
+        // Arrange: a stopped engine's journal is closed, so every append fails
+        engine.reserve(Map.of(1L, 4));
+        InventoryEngine stopped = engine;
+        stopped.stop();
+        engine = newEngine();
+        engine.start();
+
+        // Act
+        stopped.release(Map.of(1L, 4));
+
+        // Assert
+        assertEquals(10, stopped.getAvailable(1L));
+        assertEquals(1.0, meterRegistry.counter(InventoryEngine.JOURNAL_APPEND_FAILURE_COUNTER,
+                "operation", "release").count());
+    }
+
+    private InventoryEngine newEngine() {
+        return new InventoryEngine(jdbcTemplate, transactionManager, meterRegistry, true, FLUSH_INTERVAL_MS,
+                journalDirectory.toString(), false);
+    }
+
+    private int stockOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InventoryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readDeltas_ShouldSumRecordsPerProduct() throws IOException {
+        // Arrange
+        try (InventoryJournal journal = new InventoryJournal(directory, false)) {
+            journal.open(1);
+            journal.append(new long[] {1L, 2L}, new int[] {3, 5});
+            journal.append(new long[] {1L}, new int[] {-1});
+
+            // Act
+            Map<Long, Integer> deltas = journal.readDeltas(1);
+
+            // Assert
+            assertEquals(Map.of(1L, 2, 2L, 5), deltas);
+        }
+    }
+
+    @Test
+    void readDeltas_ShouldStopAtTornRecord() throws IOException {
+        // Arrange
+        try (InventoryJournal journal = new InventoryJournal(directory, false)) {
+            journal.open(1);
+            journal.append(new long[] {1L}, new int[] {3});
+        }
+        Path segment = Files.list(directory).findFirst().orElseThrow();
+        // Half a record, as left by a crash in the middle of an append
+        Files.write(segment, new byte[InventoryJournal.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+        // Act
+        Map<Long, Integer> deltas = new InventoryJournal(directory, false).readDeltas(1);
+
+        // Assert
+        assertEquals(Map.of(1L, 3), deltas);
+    }
+
+    @Test
+    void rotate_ShouldContinueInNextSegmentAndDeleteOldOnes() throws IOException {
+        // Arrange
+        try (InventoryJournal journal = new InventoryJournal(directory, false)) {
+            journal.open(7);
+            journal.append(new long[] {1L}, new int[] {1});
+
+            // Act
+            long closed = journal.rotate();
+            journal.append(new long[] {1L}, new int[] {2});
+
+            // Assert
+            assertEquals(7, closed);
+            assertEquals(List.of(7L, 8L), journal.segments());
+            journal.deleteUpTo(closed);
+            assertEquals(List.of(8L), journal.segments());
+            assertEquals(Map.of(1L, 2), journal.readDeltas(8));
+        }
+    }
+}
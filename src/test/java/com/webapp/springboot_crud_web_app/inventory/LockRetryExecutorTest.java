@@ -0,0 +1,72 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LockRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LockRetryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new LockRetryExecutor(meterRegistry, 3, 0);
+    }
+
+    @Test
+    void execute_WhenLockFailsThenSucceeds_ShouldRetryAndCountRetries() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String result = executor.execute("order.create", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("Deadlock detected");
+            }
+            return "created";
+        });
+
+        // Assert
+        assertEquals("created", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get(LockRetryExecutor.LOCK_RETRY_COUNTER)
+                .tag("operation", "order.create").tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void execute_WhenLockKeepsFailing_ShouldGiveUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(PessimisticLockingFailureException.class, () -> executor.execute("order.create", () -> {
+            calls.incrementAndGet();
+            throw new CannotAcquireLockException("Lock wait timeout");
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.get(LockRetryExecutor.LOCK_RETRY_COUNTER)
+                .tag("operation", "order.create").tag("outcome", "exhausted").counter().count());
+    }
+
+    @Test
+    void execute_WhenOtherExceptionIsThrown_ShouldNotRetry() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> executor.execute("order.create", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, calls.get());
+    }
+}
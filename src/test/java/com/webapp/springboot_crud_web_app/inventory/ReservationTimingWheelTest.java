@@ -0,0 +1,108 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ReservationTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void advance_ShouldReturnHoldsOnlyOnceTheirDeadlinePassed() {
+        // Arrange
+        ReservationTimingWheel wheel = new ReservationTimingWheel(TICK, 8, 0);
+        StockHold early = new StockHold("early", 1L, 1, 2_000);
+        StockHold late = new StockHold("late", 1L, 1, 5_500);
+        wheel.schedule(early);
+        wheel.schedule(late);
+
+        // Act
+        List<StockHold> atOne = wheel.advance(1_999);
+        List<StockHold> atTwo = wheel.advance(2_000);
+        List<StockHold> atFive = wheel.advance(5_999);
+        List<StockHold> atSix = wheel.advance(6_000);
+
+        // Assert
+        assertTrue(atOne.isEmpty());
+        assertEquals(List.of(early), atTwo);
+        assertTrue(atFive.isEmpty());
+        assertEquals(List.of(late), atSix);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_WithDeadlineBeyondOneRevolution_ShouldWaitFullRounds() {
+        // Arrange: 4 buckets of 1s, so 10s is two rounds and two ticks away
+        ReservationTimingWheel wheel = new ReservationTimingWheel(TICK, 4, 0);
+        StockHold hold = new StockHold("far", 1L, 1, 10_000);
+        wheel.schedule(hold);
+
+        // Act
+        List<StockHold> beforeDeadline = wheel.advance(9_999);
+        List<StockHold> atDeadline = wheel.advance(10_000);
+
+        // Assert
+        assertTrue(beforeDeadline.isEmpty());
+        assertEquals(List.of(hold), atDeadline);
+    }
+
+    @Test
+    void advance_ShouldDropSettledHolds() {
+        // Arrange
+        ReservationTimingWheel wheel = new ReservationTimingWheel(TICK, 8, 0);
+        StockHold takenOver = new StockHold("taken-over", 1L, 1, 1_000);
+        StockHold abandoned = new StockHold("abandoned", 1L, 1, 1_000);
+        wheel.schedule(takenOver);
+        wheel.schedule(abandoned);
+        takenOver.settle();
+
+        // Act
+        List<StockHold> expired = wheel.advance(1_000);
+
+        // Assert
+        assertEquals(List.of(abandoned), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_WithDeadlineInThePast_ShouldExpireOnNextAdvance() {
+        // Arrange
+        ReservationTimingWheel wheel = new ReservationTimingWheel(TICK, 8, 0);
+        wheel.advance(5_000);
+        StockHold overdue = new StockHold("overdue", 1L, 1, 1_000);
+
+        // Act
+        wheel.schedule(overdue);
+        List<StockHold> expired = wheel.advance(6_000);
+
+        // Assert
+        assertEquals(List.of(overdue), expired);
+    }
+
+    @Test
+    void schedule_WhenReopenedHoldWasDropped_ShouldExpireItAgainButNeverTwice() {
+        // Arrange: settled, dropped when its bucket came round, then reopened
+        ReservationTimingWheel wheel = new ReservationTimingWheel(TICK, 8, 0);
+        StockHold dropped = new StockHold("dropped", 1L, 1, 1_000);
+        StockHold stillQueued = new StockHold("queued", 1L, 1, 3_000);
+        wheel.schedule(dropped);
+        wheel.schedule(stillQueued);
+        dropped.settle();
+        stillQueued.settle();
+        wheel.advance(1_000);
+        dropped.reopen();
+        stillQueued.reopen();
+
+        // Act
+        wheel.schedule(dropped);
+        wheel.schedule(stillQueued);
+        List<StockHold> expired = wheel.advance(3_000);
+
+        // Assert
+        assertEquals(List.of(dropped, stillQueued), expired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,128 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class StockCounterTableTest {
+
+    @Test
+    void getOrCreate_ShouldReturnSameCounterAcrossGrowth() {
+        // Arrange
+        StockCounterTable table = new StockCounterTable();
+        StockCounter first = table.getOrCreate(1L);
+
+        // Act
+        for (long id = 2; id <= 10_000; id++) {
+            table.getOrCreate(id);
+        }
+
+        // Assert
+        assertSame(first, table.get(1L));
+        assertEquals(10_000, table.size());
+        assertEquals(10_000L, table.get(10_000L).getProductId());
+        assertNull(table.get(10_001L));
+    }
+
+    @Test
+    void tryReserve_ThenCommit_ShouldTrackAvailableAndUnflushed() {
+        // Arrange
+        StockCounter counter = new StockCounter(1L);
+        counter.load(10);
+
+        // Act
+        boolean reserved = counter.tryReserve(4);
+        boolean overReserved = counter.tryReserve(7);
+        int unflushedWhileHeld = counter.getUnflushed();
+        counter.commit(4);
+        counter.release(1);
+
+        // Assert
+        assertTrue(reserved);
+        assertFalse(overReserved);
+        assertEquals(0, unflushedWhileHeld);
+        assertEquals(0, counter.getHeld());
+        assertEquals(7, counter.getAvailable());
+        assertEquals(3, counter.drainUnflushed());
+        assertEquals(0, counter.getUnflushed());
+    }
+
+    @Test
+    void cancel_ShouldGiveBackHeldStockWithoutUnflushedDelta() {
+        // Arrange
+        StockCounter counter = new StockCounter(1L);
+        counter.load(10);
+        counter.tryReserve(4);
+
+        // Act
+        counter.cancel(4);
+
+        // Assert
+        assertEquals(10, counter.getAvailable());
+        assertEquals(0, counter.getHeld());
+        assertEquals(0, counter.getUnflushed());
+    }
+
+    @Test
+    void load_ShouldSubtractHeldReservations() {
+        // Arrange
+        StockCounter counter = new StockCounter(1L);
+        counter.load(10);
+        counter.tryReserve(4);
+        counter.invalidate();
+
+        // Act: the database still says 10 because the 4 were not committed yet
+        counter.load(10);
+
+        // Assert
+        assertTrue(counter.isLoaded());
+        assertEquals(6, counter.getAvailable());
+    }
+
+    @Test
+    void tryReserve_UnderContention_ShouldNeverOversell() throws Exception {
+        // Arrange
+        StockCounterTable table = new StockCounterTable();
+        table.getOrCreate(42L).load(1_000);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (table.getOrCreate(42L).tryReserve(1)) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1_000, total);
+        assertEquals(0, table.get(42L).getAvailable());
+        assertEquals(1_000, table.get(42L).getHeld());
+    }
+}
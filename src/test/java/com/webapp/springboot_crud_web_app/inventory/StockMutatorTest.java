@@ -0,0 +1,241 @@
+package com.webapp.springboot_crud_web_app.inventory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository.ProductQuantity;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.InventoryLedgerService;
+import com.webapp.springboot_crud_web_app.service.StockStripeService;
+
+@ExtendWith(MockitoExtension.class)
+class StockMutatorTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private InventoryEngine inventoryEngine;
+
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private StockStripeService stockStripeService;
+
+    @InjectMocks
+    private StockMutator stockMutator;
+
+    @Test
+    void adjust_WithStockColumn_ShouldLockProductsAndMoveStockBothWays() {
+        // Arrange
+        Product first = product(1L, 5);
+        Product second = product(2L, 5);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        // Act
+        Map<Long, Product> products = stockMutator.adjust(List.of(2L), Map.of(1L, -2, 2L, 3));
+
+        // Assert
+        assertEquals(Map.of(1L, first, 2L, second), products);
+        assertEquals(7, first.getStock());
+        assertEquals(2, second.getStock());
+    }
+
+    @Test
+    void lockProducts_WithStockColumn_ShouldLockEachProductOnceInAscendingOrder() {
+        // Act
+        stockMutator.lockProducts(List.of(3L, 1L, 2L, 1L));
+
+        // Assert
+        verify(productRepository).findAllByIdInForUpdate(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void lockProducts_WithLedger_ShouldLockNothing() {
+        // Arrange
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+
+        // Act
+        stockMutator.lockProducts(List.of(1L, 2L));
+
+        // Assert
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+    }
+
+    @Test
+    void take_WithStockColumn_WhenOneProductIsShort_ShouldTakeNothing() {
+        // Arrange
+        Product plenty = product(1L, 10);
+        Product scarce = product(2L, 1);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(plenty, scarce));
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> stockMutator.take(Map.of(1L, 2, 2L, 2)));
+        assertEquals("Insufficient stock for product 'Product 2'. Available: 1, Requested: 2", ex.getMessage());
+        assertEquals(10, plenty.getStock());
+        assertEquals(1, scarce.getStock());
+    }
+
+    @Test
+    void take_WhenProductDoesNotExist_ShouldThrowException() {
+        // Arrange
+        when(productRepository.findAllByIdInForUpdate(List.of(999L))).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> stockMutator.take(Map.of(999L, 1)));
+    }
+
+    @Test
+    void adjust_WithLedger_ShouldTakeWithoutLockingAndRecordWhatIsReturned() {
+        // Arrange
+        Product first = product(1L, 5);
+        Product second = product(2L, 5);
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(inventoryLedgerService.take(Map.of(2L, 3))).thenReturn(OptionalLong.empty());
+
+        // Act
+        stockMutator.adjust(List.of(2L), Map.of(1L, -2, 2L, 3));
+
+        // Assert
+        verify(inventoryLedgerService).record(Map.of(1L, 2), MovementType.ORDER);
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+        assertEquals(5, second.getStock());
+    }
+
+    @Test
+    void take_WithLedger_WhenShort_ShouldRecordNothing() {
+        // Arrange
+        Product product = product(1L, 5);
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+        when(inventoryLedgerService.take(Map.of(1L, 2))).thenReturn(OptionalLong.of(1L));
+        when(inventoryLedgerService.getCurrentStock(product)).thenReturn(1);
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> stockMutator.take(Map.of(1L, 2)));
+        assertEquals("Insufficient stock for product 'Product 1'. Available: 1, Requested: 2", ex.getMessage());
+        verify(inventoryLedgerService, never()).record(any(), any());
+    }
+
+    @Test
+    void adjust_WithEngine_ShouldReserveTakenAndReleaseReturnedAfterCommit() {
+        // Arrange
+        Product first = product(1L, 5);
+        Product second = product(2L, 5);
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(inventoryEngine.reserve(Map.of(2L, 3))).thenReturn(OptionalLong.empty());
+
+        // Act
+        stockMutator.adjust(List.of(2L), Map.of(1L, -2, 2L, 3));
+
+        // Assert
+        InOrder inOrder = inOrder(inventoryEngine);
+        inOrder.verify(inventoryEngine).reserve(Map.of(2L, 3));
+        inOrder.verify(inventoryEngine).releaseAfterCommit(Map.of(1L, 2));
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+    }
+
+    @Test
+    void adjust_WithEngine_WhenShort_ShouldReleaseNothing() {
+        // Arrange
+        Product first = product(1L, 5);
+        Product second = product(2L, 5);
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(inventoryEngine.reserve(Map.of(2L, 3))).thenReturn(OptionalLong.of(2L));
+        when(inventoryEngine.getAvailable(2L)).thenReturn(1);
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> stockMutator.adjust(List.of(2L), Map.of(1L, -2, 2L, 3)));
+        assertEquals("Insufficient stock for product 'Product 2'. Available: 1, Requested: 3", ex.getMessage());
+        verify(inventoryEngine, never()).releaseAfterCommit(any());
+    }
+
+    @Test
+    void adjust_WithStripes_ShouldMoveStockInProductIdOrder() {
+        // Arrange
+        Product first = product(1L, 5);
+        Product second = product(2L, 5);
+        when(stockStripeService.isEnabled()).thenReturn(true);
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        // Act
+        stockMutator.adjust(List.of(1L), Map.of(1L, 2, 2L, -3));
+
+        // Assert
+        InOrder inOrder = inOrder(stockStripeService);
+        inOrder.verify(stockStripeService).decrement(first, 2);
+        inOrder.verify(stockStripeService).increment(second, 3);
+    }
+
+    @Test
+    void giveBackOrders_WithStockColumn_ShouldLockProductsAndRestoreInOneStatement() {
+        // Arrange
+        when(productRepository.findIdsForOrderIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        // Act
+        stockMutator.giveBackOrders(List.of(1L, 2L));
+
+        // Assert
+        InOrder inOrder = inOrder(productRepository);
+        inOrder.verify(productRepository).findIdsForOrderIdInForUpdate(List.of(1L, 2L));
+        inOrder.verify(productRepository).restoreStockForOrderIdIn(List.of(1L, 2L));
+        verify(orderItemRepository, never()).sumQuantitiesByProductIdForOrderIdIn(any());
+    }
+
+    @Test
+    void giveBackOrders_WithLedger_ShouldRecordSummedQuantities() {
+        // Arrange
+        ProductQuantity row = mock(ProductQuantity.class);
+        when(row.getProductId()).thenReturn(1L);
+        when(row.getQuantity()).thenReturn(5L);
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        when(orderItemRepository.sumQuantitiesByProductIdForOrderIdIn(List.of(1L, 2L))).thenReturn(List.of(row));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product(1L, 5)));
+
+        // Act
+        stockMutator.giveBackOrders(List.of(1L, 2L));
+
+        // Assert
+        verify(inventoryLedgerService).record(Map.of(1L, 5), MovementType.ORDER);
+        verify(productRepository, never()).restoreStockForOrderIdIn(any());
+    }
+
+    private static Product product(Long id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,37 @@
+package com.webapp.springboot_crud_web_app.logging;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RateLimitedSamplerTest {
+
+    @Test
+    void sample_ShouldAllowAtMostPermitsPerSecond() {
+        // Arrange
+        RateLimitedSampler sampler = new RateLimitedSampler(1_000_000);
+        RateLimitedSampler tightSampler = new RateLimitedSampler(2);
+
+        // Act
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (tightSampler.sample()) {
+                sampled++;
+            }
+        }
+
+        // Assert
+        assertTrue(sampler.sample());
+        // At most two per second; the loop may straddle one second boundary
+        assertTrue(sampled >= 2 && sampled <= 4);
+    }
+
+    @Test
+    void sample_WithZeroRate_ShouldNeverSample() {
+        // Arrange
+        RateLimitedSampler sampler = new RateLimitedSampler(0);
+
+        // Act & Assert
+        assertFalse(sampler.sample());
+    }
+}
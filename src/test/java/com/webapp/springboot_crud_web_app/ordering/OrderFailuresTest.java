@@ -0,0 +1,34 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+
+class OrderFailuresTest {
+
+    @Test
+    void isDatabaseFailure_WhenDatabaseIsUnavailable_ShouldReturnTrue() {
+        assertTrue(OrderFailures.isDatabaseFailure(new QueryTimeoutException("timed out")));
+        assertTrue(OrderFailures.isDatabaseFailure(new CannotCreateTransactionException("no connection")));
+    }
+
+    @Test
+    void isDatabaseFailure_WhenOrderBreaksAConstraint_ShouldReturnFalse() {
+        assertFalse(OrderFailures.isDatabaseFailure(new DataIntegrityViolationException("value too long")));
+        assertFalse(OrderFailures.isDatabaseFailure(
+                new ConstraintViolationException("check failed", new SQLException("check failed"), "orders_status_check")));
+    }
+
+    @Test
+    void isDatabaseFailure_WhenOrderIsRejected_ShouldReturnFalse() {
+        assertFalse(OrderFailures.isDatabaseFailure(new BusinessRuleViolationException("Order must contain at least one item")));
+    }
+}
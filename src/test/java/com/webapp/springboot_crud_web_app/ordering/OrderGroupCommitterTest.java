@@ -0,0 +1,275 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.LockRetryExecutor;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.repository.OrderRepository;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+import com.webapp.springboot_crud_web_app.service.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs against its own database: batches commit on the writer thread, so
+ * nothing here can be rolled back by a test transaction.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:groupcommitdb;DB_CLOSE_DELAY=-1",
+        "app.orders.group-commit.enabled=true",
+        "app.orders.group-commit.max-wait-ms=50"
+})
+@ActiveProfiles("test")
+class OrderGroupCommitterTest {
+
+    private static final int VALID_ORDERS = 6;
+
+    @Autowired
+    private OrderGroupCommitter orderGroupCommitter;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    void setUp() {
+        product = productService.create(ProductDTO.builder()
+                .name("Batched Product")
+                .description("Product ordered by grouped commits")
+                .price(BigDecimal.valueOf(4.00))
+                .stock(20)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        productService.delete(product.getId());
+    }
+
+    @Test
+    void create_ConcurrentOrders_ShouldShareCommitsAndFailRejectedOrdersAlone() throws Exception {
+        // Arrange
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < VALID_ORDERS; i++) {
+            orders.add(order(product.getId(), 2));
+        }
+        orders.add(order(999_999L, 1));
+        orders.add(order(product.getId(), 500));
+        ExecutorService executor = Executors.newFixedThreadPool(orders.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderDTO>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (OrderDTO order : orders) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return orderGroupCommitter.create(order);
+                }));
+            }
+            start.countDown();
+            for (Future<OrderDTO> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException ignored) {
+                    // Checked per order below
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        for (int i = 0; i < VALID_ORDERS; i++) {
+            assertNotNull(results.get(i).get().getId());
+        }
+        assertInstanceOf(ResourceNotFoundException.class, failureOf(results.get(VALID_ORDERS)));
+        assertInstanceOf(BusinessRuleViolationException.class, failureOf(results.get(VALID_ORDERS + 1)));
+        assertEquals(VALID_ORDERS, orderRepository.count());
+        assertEquals(20 - VALID_ORDERS * 2, productService.findById(product.getId()).getStock());
+        assertTrue(meterRegistry.get(OrderGroupCommitter.BATCH_SIZE_SUMMARY).summary().max() > 1);
+    }
+
+    @Test
+    void create_WhenWriterIsStuck_ShouldTimeOutAndCreateStillQueuedOrdersAlone() throws Exception {
+        // Arrange
+        OrderService orderService = mock(OrderService.class);
+        LockRetryExecutor lockRetryExecutor = mock(LockRetryExecutor.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        OrderDTO stuck = order(1L, 1);
+        OrderDTO queued = order(1L, 2);
+        OrderDTO created = OrderDTO.builder().id(2L).build();
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(orderService.create(stuck)).thenAnswer(invocation -> {
+            release.await();
+            return stuck;
+        });
+        when(orderService.create(queued)).thenReturn(created);
+        when(lockRetryExecutor.execute(eq("order.create"), any())).thenAnswer(
+                invocation -> invocation.<Supplier<OrderDTO>>getArgument(1).get());
+        OrderGroupCommitter committer = new OrderGroupCommitter(orderService, lockRetryExecutor, transactionManager,
+                new SimpleMeterRegistry(), true, 1, 0, 4, 200);
+        committer.start();
+
+        // Act & Assert
+        try {
+            // Taken by the writer, which then hangs on it
+            assertThrows(TransactionTimedOutException.class, () -> committer.create(stuck));
+            // Still queued behind it when the wait runs out
+            assertSame(created, committer.create(queued));
+        } finally {
+            release.countDown();
+            committer.stop();
+        }
+    }
+
+    @Test
+    void create_ShouldLockTheBatchsStockBeforeCreatingItsOrders() throws Exception {
+        // Arrange
+        OrderService orderService = mock(OrderService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        OrderDTO order = order(1L, 1);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(orderService.create(order)).thenReturn(order);
+        OrderGroupCommitter committer = new OrderGroupCommitter(orderService, mock(LockRetryExecutor.class),
+                transactionManager, new SimpleMeterRegistry(), true, 1, 0, 4, 10_000);
+        committer.start();
+
+        // Act
+        try {
+            committer.create(order);
+        } finally {
+            committer.stop();
+        }
+
+        // Assert
+        InOrder inOrder = inOrder(orderService);
+        inOrder.verify(orderService).lockStockFor(List.of(order));
+        inOrder.verify(orderService).create(order);
+    }
+
+    @Test
+    void create_WhenBatchDeadlocks_ShouldCreateItsOrdersAlone() throws Exception {
+        // Arrange
+        OrderService orderService = mock(OrderService.class);
+        LockRetryExecutor lockRetryExecutor = mock(LockRetryExecutor.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        OrderDTO order = order(1L, 1);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(orderService.create(order))
+                .thenThrow(new CannotAcquireLockException("Deadlock detected"))
+                .thenReturn(order);
+        when(lockRetryExecutor.execute(eq("order.create"), any())).thenAnswer(
+                invocation -> invocation.<Supplier<OrderDTO>>getArgument(1).get());
+        OrderGroupCommitter committer = new OrderGroupCommitter(orderService, lockRetryExecutor, transactionManager,
+                registry, true, 1, 0, 4, 10_000);
+        committer.start();
+
+        // Act
+        OrderDTO result;
+        try {
+            result = committer.create(order);
+        } finally {
+            committer.stop();
+        }
+
+        // Assert
+        assertSame(order, result);
+        assertEquals(1.0, registry.get(OrderGroupCommitter.FALLBACK_COUNTER).counter().count());
+    }
+
+    @Test
+    void create_AfterStop_ShouldCreateOrderAlone() throws Exception {
+        // Arrange
+        OrderService orderService = mock(OrderService.class);
+        LockRetryExecutor lockRetryExecutor = mock(LockRetryExecutor.class);
+        OrderDTO order = order(1L, 1);
+        when(lockRetryExecutor.execute(eq("order.create"), any())).thenAnswer(
+                invocation -> invocation.<Supplier<OrderDTO>>getArgument(1).get());
+        when(orderService.create(order)).thenReturn(order);
+        OrderGroupCommitter committer = new OrderGroupCommitter(orderService, lockRetryExecutor,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, 1, 0, 4, 200);
+        committer.start();
+        committer.stop();
+
+        // Act
+        OrderDTO result = committer.create(order);
+
+        // Assert
+        assertSame(order, result);
+    }
+
+    private static Throwable failureOf(Future<OrderDTO> result) throws InterruptedException {
+        try {
+            result.get();
+            return null;
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        }
+    }
+
+    private static OrderDTO order(Long productId, int quantity) {
+        OrderItemDTO item = OrderItemDTO.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(BigDecimal.valueOf(4.00))
+                .subtotal(BigDecimal.valueOf(4.00).multiply(BigDecimal.valueOf(quantity)))
+                .build();
+        return OrderDTO.builder()
+                .customerName("Batch Customer")
+                .customerEmail("batch@example.com")
+                .shippingAddress("2 Commit Street")
+                .totalAmount(item.getSubtotal())
+                .status(OrderStatus.PENDING)
+                .orderItems(List.of(item))
+                .build();
+    }
+}
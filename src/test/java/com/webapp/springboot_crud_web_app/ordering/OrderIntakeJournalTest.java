@@ -0,0 +1,201 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.webapp.springboot_crud_web_app.ordering.OrderIntakeJournal.Entry;
+import com.webapp.springboot_crud_web_app.ordering.OrderIntakeJournal.Position;
+
+class OrderIntakeJournalTest {
+
+    // Small enough that a few dozen records span several segments
+    private static final int SEGMENT_SIZE = 256;
+    private static final int HALT_STATUS = 137;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnRecordsAcrossSegmentsInAppendOrder() throws IOException {
+        // Arrange
+        try (OrderIntakeJournal journal = new OrderIntakeJournal(directory, SEGMENT_SIZE, false)) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(payload(i));
+            }
+
+            // Act
+            List<String> records = readAll(journal);
+
+            // Assert
+            assertEquals(expected(0, 40), records);
+            assertTrue(segmentFiles().size() > 1);
+        }
+    }
+
+    @Test
+    void checkpoint_ShouldSurviveReopenAndDeleteDrainedSegments() throws IOException {
+        // Arrange
+        Position drainedTo;
+        try (OrderIntakeJournal journal = new OrderIntakeJournal(directory, SEGMENT_SIZE, false)) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(payload(i));
+            }
+            List<Entry> entries = journal.read(journal.checkpointed(), 30);
+            drainedTo = entries.get(entries.size() - 1).next();
+
+            // Act
+            journal.checkpoint(drainedTo);
+        }
+
+        // Assert
+        try (OrderIntakeJournal reopened = new OrderIntakeJournal(directory, SEGMENT_SIZE, false)) {
+            assertEquals(drainedTo, reopened.checkpointed());
+            assertEquals(expected(30, 40), readAll(reopened));
+            assertFalse(segmentFiles().contains(String.format("intake-%020d.journal", 0)));
+        }
+    }
+
+    @Test
+    void open_WhenJournalIsAlreadyOpen_ShouldThrowUntilItIsClosed() throws IOException {
+        // Arrange
+        OrderIntakeJournal journal = new OrderIntakeJournal(directory, SEGMENT_SIZE, false);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new OrderIntakeJournal(directory, SEGMENT_SIZE, false));
+        journal.close();
+        new OrderIntakeJournal(directory, SEGMENT_SIZE, false).close();
+    }
+
+    @Test
+    void open_ShouldDropTornRecordAndAppendAfterLastCompleteOne() throws IOException {
+        // Arrange
+        Position afterFirst;
+        try (OrderIntakeJournal journal = new OrderIntakeJournal(directory, SEGMENT_SIZE, false)) {
+            afterFirst = journal.append(payload(0));
+            journal.append(payload(1));
+        }
+        // A payload byte that never reached the disk, as left by a crash in the middle of an append
+        try (FileChannel channel = FileChannel.open(directory.resolve(segmentFiles().get(0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'#'}), afterFirst.offset() + OrderIntakeJournal.HEADER_SIZE);
+        }
+
+        // Act
+        try (OrderIntakeJournal reopened = new OrderIntakeJournal(directory, SEGMENT_SIZE, false)) {
+            List<String> afterCrash = readAll(reopened);
+            reopened.append(payload(2));
+
+            // Assert
+            assertEquals(expected(0, 1), afterCrash);
+            assertEquals(List.of("order-0", "order-2"), readAll(reopened));
+        }
+    }
+
+    @Test
+    void drain_WhenProcessIsKilledBetweenCommitAndCheckpoint_ShouldRedeliverOnlyTheUncheckpointedTail() throws Exception {
+        // Arrange
+        int total = 50;
+        int crashAfter = 23;
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                CrashingDrainer.class.getName(),
+                directory.toString(), String.valueOf(total), String.valueOf(crashAfter))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        // Act
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        List<String> drainedBeforeCrash = Files.readAllLines(directory.resolve(CrashingDrainer.SINK));
+        List<String> replayed;
+        try (OrderIntakeJournal reopened = new OrderIntakeJournal(directory, SEGMENT_SIZE, true)) {
+            replayed = readAll(reopened);
+        }
+
+        // Assert
+        assertEquals(HALT_STATUS, process.exitValue());
+        assertEquals(expected(0, crashAfter), drainedBeforeCrash);
+        // Drained in batches of 10: the last 3 were written but never checkpointed
+        assertEquals(expected(20, total), replayed);
+        Set<String> delivered = new HashSet<>(drainedBeforeCrash);
+        delivered.addAll(replayed);
+        assertEquals(new HashSet<>(expected(0, total)), delivered);
+    }
+
+    /**
+     * Journals orders, then drains them into a file in batches of 10, and halts
+     * the JVM right after a record reached the file but before its batch was
+     * checkpointed, the way a crash after the database commit would.
+     */
+    public static final class CrashingDrainer {
+
+        static final String SINK = "drained.txt";
+
+        public static void main(String[] args) throws IOException {
+            Path directory = Path.of(args[0]);
+            int total = Integer.parseInt(args[1]);
+            int crashAfter = Integer.parseInt(args[2]);
+            OrderIntakeJournal journal = new OrderIntakeJournal(directory, SEGMENT_SIZE, true);
+            for (int i = 0; i < total; i++) {
+                journal.append(payload(i));
+            }
+            int drained = 0;
+            while (true) {
+                List<Entry> entries = journal.read(journal.checkpointed(), 10);
+                for (Entry entry : entries) {
+                    Files.writeString(directory.resolve(SINK), new String(entry.payload(), StandardCharsets.UTF_8) + "\n",
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+                    if (++drained == crashAfter) {
+                        Runtime.getRuntime().halt(HALT_STATUS);
+                    }
+                }
+                journal.checkpoint(entries.get(entries.size() - 1).next());
+            }
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("order-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> expected(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "order-" + i).collect(Collectors.toList());
+    }
+
+    private static List<String> readAll(OrderIntakeJournal journal) {
+        List<String> records = new ArrayList<>();
+        for (Entry entry : journal.read(journal.checkpointed(), Integer.MAX_VALUE)) {
+            records.add(new String(entry.payload(), StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".journal"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
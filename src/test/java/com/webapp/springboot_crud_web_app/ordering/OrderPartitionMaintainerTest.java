@@ -0,0 +1,111 @@
+package com.webapp.springboot_crud_web_app.ordering;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPartitionMaintainerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void maintain_ShouldCreateCurrentAndUpcomingMonthsAndDetachExpiredOnes() {
+        // Arrange
+        OrderPartitionMaintainer maintainer = maintainer(true);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("orders")))
+                .thenReturn(List.of("orders_default", "orders_p2024_10", "orders_p2024_08", "orders_p2024_09"));
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("order_items")))
+                .thenReturn(List.of("order_items_default", "order_items_p2024_09", "order_items_p2024_10"));
+        when(jdbcTemplate.queryForList(contains("pg_constraint"), eq(String.class), anyString(), anyString()))
+                .thenReturn(List.of("fk_order_items_order"));
+
+        // Act
+        maintainer.maintain();
+
+        // Assert
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS orders_p2026_10 PARTITION OF orders "
+                + "FOR VALUES FROM ('2026-10-01 00:00:00') TO ('2026-11-01 00:00:00')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS order_items_p2026_12 PARTITION OF order_items "
+                + "FOR VALUES FROM ('2026-12-01 00:00:00') TO ('2027-01-01 00:00:00')");
+        verify(jdbcTemplate, never()).execute(contains("p2027_01 PARTITION OF"));
+
+        InOrder detaches = inOrder(jdbcTemplate);
+        detaches.verify(jdbcTemplate).execute("ALTER TABLE orders DETACH PARTITION orders_p2024_08");
+        detaches.verify(jdbcTemplate).execute("ALTER TABLE order_items DETACH PARTITION order_items_p2024_09");
+        detaches.verify(jdbcTemplate)
+                .execute("ALTER TABLE order_items_p2024_09 DROP CONSTRAINT \"fk_order_items_order\"");
+        detaches.verify(jdbcTemplate).execute("ALTER TABLE orders DETACH PARTITION orders_p2024_09");
+        verify(jdbcTemplate, never()).execute(contains("DETACH PARTITION order_items_p2024_08"));
+        verify(jdbcTemplate, never()).execute(contains("p2024_10"));
+    }
+
+    @Test
+    void maintain_WhenDisabled_ShouldNotTouchTheDatabase() {
+        // Act
+        maintainer(false).maintain();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void maintain_WhenCreatingOneMonthFails_ShouldStillCreateTheOthers() {
+        // Arrange
+        OrderPartitionMaintainer maintainer = maintainer(true);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), anyString())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).startsWith("CREATE TABLE IF NOT EXISTS orders_p2026_11 ")) {
+                throw new IllegalStateException("default partition holds rows");
+            }
+            return null;
+        }).when(jdbcTemplate).execute(anyString());
+
+        // Act
+        maintainer.maintain();
+
+        // Assert
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS orders_p2026_12 "));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS order_items_p2026_12 "));
+    }
+
+    @Test
+    void monthOf_ShouldParseMonthlyPartitionsOnly() {
+        // Act & Assert
+        assertEquals(Optional.of(YearMonth.of(2025, 3)), OrderPartitionMaintainer.monthOf("orders", "orders_p2025_03"));
+        assertEquals(Optional.empty(), OrderPartitionMaintainer.monthOf("orders", "orders_default"));
+        assertEquals("order_items_p2025_03", OrderPartitionMaintainer.partitionName("order_items", YearMonth.of(2025, 3)));
+    }
+
+    private OrderPartitionMaintainer maintainer(boolean enabled) {
+        return new OrderPartitionMaintainer(jdbcTemplate, transactionManager, CLOCK, enabled, 2, 24);
+    }
+}
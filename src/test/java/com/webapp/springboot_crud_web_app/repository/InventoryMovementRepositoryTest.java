@@ -0,0 +1,46 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.webapp.springboot_crud_web_app.model.InventoryMovement;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class InventoryMovementRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Test
+    void sumUncompactedByProductIdIn_ShouldIgnoreCompactedMovements() {
+        // Arrange
+        InventoryMovement folded = entityManager.persist(new InventoryMovement(null, 5L, -4, MovementType.ORDER, false, null));
+        entityManager.persist(new InventoryMovement(null, 5L, -2, MovementType.ORDER, false, null));
+        entityManager.persist(new InventoryMovement(null, 5L, 10, MovementType.ADJUSTMENT, false, null));
+        entityManager.flush();
+        movementRepository.markCompacted(List.of(folded.getId()));
+        entityManager.clear();
+
+        // Act
+        List<Object[]> sums = movementRepository.sumUncompactedByProductIdIn(List.of(5L, 6L));
+        List<InventoryMovement> pending = movementRepository.findUncompactedForUpdate(PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(sums).hasSize(1);
+        assertThat(sums.get(0)[0]).isEqualTo(5L);
+        assertThat(((Number) sums.get(0)[1]).intValue()).isEqualTo(8);
+        assertThat(pending).extracting(InventoryMovement::getQuantity).containsExactly(-2, 10);
+    }
+}
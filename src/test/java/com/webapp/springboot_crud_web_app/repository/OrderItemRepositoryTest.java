@@ -117,6 +117,25 @@ class OrderItemRepositoryTest {
                              .containsExactlyInAnyOrder(39.98, 59.97);
     }
 
+    @Test
+    void findAllMapped_ShouldSeeUnflushedItemsAndReadTheirOrderAndProductIds() {
+        // Arrange: left unflushed, as a write transaction may leave it before listing
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        orderItem.setProduct(product);
+        orderItem.setQuantity(4);
+        orderItem.setUnitPrice(BigDecimal.valueOf(19.99));
+        orderItem.setSubtotal(BigDecimal.valueOf(79.96));
+        entityManager.persist(orderItem);
+
+        // Act
+        List<List<Long>> ids = orderItemRepository.findAllMapped(
+                item -> List.of(item.getId(), item.getOrder().getId(), item.getProduct().getId()));
+
+        // Assert
+        assertThat(ids).containsExactly(List.of(orderItem.getId(), order.getId(), product.getId()));
+    }
+
     @Test
     void save_ShouldPersistNewOrderItem() {
         // Arrange
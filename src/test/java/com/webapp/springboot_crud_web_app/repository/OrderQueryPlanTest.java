@@ -0,0 +1,145 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webapp.springboot_crud_web_app.ordering.OrderPartitionMaintainer;
+
+/**
+ * Checks on PostgreSQL that filtered order queries only read the monthly
+ * partitions of {@code orders} their creation time range covers, that they use
+ * the partial index on open orders and the BRIN index on {@code created_at}
+ * from {@code schema-postgresql.sql}, and that both stay small. The statements
+ * mirror the native queries of {@link OrderRepository}. Indexes on a
+ * partitioned table exist once per partition, so plans and sizes are checked
+ * against those.
+ * <p>
+ * Needs the database of the {@code postgres} profile, so it only runs with
+ * {@code POSTGRES_TESTS=true}.
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TESTS", matches = "true")
+@Transactional
+class OrderQueryPlanTest {
+
+    private static final int ORDERS = 200_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderPartitionMaintainer orderPartitionMaintainer;
+
+    @BeforeEach
+    void setUp() {
+        // January to May 2020; rolled back with the rows
+        for (YearMonth month = YearMonth.of(2020, 1); month.isBefore(YearMonth.of(2020, 6)); month = month.plusMonths(1)) {
+            orderPartitionMaintainer.createPartitions(month);
+        }
+        // One order a minute from 2020 on; one in a hundred still pending
+        jdbcTemplate.update("INSERT INTO orders "
+                + "(customer_name, customer_email, shipping_address, total_amount, status, created_at, updated_at) "
+                + "SELECT 'Plan Customer', 'plan@example.com', '1 Plan Street', 10.00, "
+                + "CASE WHEN g % 100 = 0 THEN 'PENDING' ELSE 'DELIVERED' END, "
+                + "TIMESTAMP '2020-01-01' + g * INTERVAL '1 minute', now() "
+                + "FROM generate_series(1, ?) g", ORDERS);
+        for (String brin : leafIndexes("brin_orders_created_at")) {
+            jdbcTemplate.queryForObject("SELECT brin_summarize_new_values(?::regclass)", Integer.class, brin);
+        }
+        jdbcTemplate.execute("ANALYZE orders");
+    }
+
+    @Test
+    void openStatusQuery_WithBoundParameters_ShouldUsePartialIndex() {
+        // Arrange: a generic plan cannot see the status value, only the repeated index predicate
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        jdbcTemplate.execute("PREPARE open_orders(varchar, timestamp, timestamp, int) AS "
+                + "SELECT id FROM orders WHERE status IN ($1) AND status IN " + OrderRepository.OPEN_STATUSES_SQL
+                + " AND created_at >= $2 AND created_at < $3 ORDER BY created_at DESC, id DESC LIMIT $4");
+
+        // Act
+        String plan;
+        try {
+            plan = String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN EXECUTE open_orders('PENDING', '2020-02-01', '2020-02-01 02:00', 100)", String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE open_orders");
+        }
+
+        // Assert: bound parameters still prune all but February at executor startup
+        assertThat(plan).contains(leafIndex("idx_orders_open_status_created_at", "orders_p2020_02"))
+                .contains("Subplans Removed").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void anyStatusQuery_ShouldUseBrinIndexOnCreatedAt() {
+        // Act
+        String plan = explain("SELECT id FROM orders WHERE status IN ('PENDING', 'DELIVERED') "
+                + "AND created_at >= TIMESTAMP '2020-03-01' AND created_at < TIMESTAMP '2020-03-01 02:00' "
+                + "ORDER BY created_at DESC, id DESC LIMIT 100");
+
+        // Assert
+        assertThat(plan).contains(leafIndex("brin_orders_created_at", "orders_p2020_03")).doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void createdAtRangeQuery_ShouldOnlyScanPartitionsOfThatRange() {
+        // Act
+        String plan = explain("SELECT id FROM orders WHERE status IN ('DELIVERED') "
+                + "AND created_at >= TIMESTAMP '2020-03-20' AND created_at < TIMESTAMP '2020-04-10' "
+                + "ORDER BY created_at DESC, id DESC LIMIT 100");
+
+        // Assert
+        assertThat(plan).contains("orders_p2020_03").contains("orders_p2020_04")
+                .doesNotContain("orders_p2020_02").doesNotContain("orders_p2020_05").doesNotContain("orders_default");
+    }
+
+    @Test
+    void indexes_ShouldStaySmallRelativeToPrimaryKey() {
+        // Act
+        long primaryKey = partitionedSize("orders_pkey");
+        long openOrders = partitionedSize("idx_orders_open_status_created_at");
+        long brin = partitionedSize("brin_orders_created_at");
+
+        // Assert: a BRIN index has a fixed three-page minimum in each partition
+        assertThat(openOrders).isLessThan(primaryKey / 10);
+        assertThat(brin).isLessThan(primaryKey / 20);
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    /**
+     * @return the indexes of the partitions that make up a partitioned index
+     */
+    private List<String> leafIndexes(String index) {
+        return jdbcTemplate.queryForList(
+                "SELECT relid::regclass::text FROM pg_partition_tree(?::regclass) WHERE isleaf", String.class, index);
+    }
+
+    /**
+     * @return the index of the partitioned index on the given partition
+     */
+    private String leafIndex(String index, String partition) {
+        return jdbcTemplate.queryForObject("SELECT t.relid::regclass::text FROM pg_partition_tree(?::regclass) t "
+                + "JOIN pg_index i ON i.indexrelid = t.relid WHERE t.isleaf AND i.indrelid = ?::regclass",
+                String.class, index, partition);
+    }
+
+    private long partitionedSize(String index) {
+        return jdbcTemplate.queryForObject("SELECT sum(pg_relation_size(relid)) FROM pg_partition_tree(?::regclass)",
+                Long.class, index);
+    }
+}
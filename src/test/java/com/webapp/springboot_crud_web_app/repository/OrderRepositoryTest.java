@@ -1,6 +1,7 @@
 package com.webapp.springboot_crud_web_app.repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -247,6 +248,76 @@ class OrderRepositoryTest {
         assertThat(loadedItem.getQuantity()).isEqualTo(2);
         assertThat(loadedItem.getUnitPrice()).isEqualByComparingTo(BigDecimal.valueOf(19.99));
         assertThat(loadedItem.getSubtotal()).isEqualByComparingTo(BigDecimal.valueOf(39.98));
+        assertThat(loadedItem.getOrderCreatedAt()).isNotNull().isEqualTo(loadedOrder.getCreatedAt());
+    }
+
+    @Test
+    void findAllWithItemsByIdInAndCreatedAtBetween_ShouldOnlyReturnOrdersCreatedInRange() {
+        // Arrange
+        Product product = new Product();
+        product.setName("Partitioned Product");
+        product.setPrice(BigDecimal.valueOf(5.00));
+        product.setStock(10);
+        entityManager.persist(product);
+
+        LocalDateTime now = LocalDateTime.now();
+        Order recent = orderWithItem("Recent Customer", now, product);
+        Order old = orderWithItem("Old Customer", now.minusDays(40), product);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Order> found = orderRepository.findAllWithItemsByIdInAndCreatedAtBetween(
+                List.of(recent.getId(), old.getId()), now.minusDays(1), now.plusDays(1));
+
+        // Assert
+        assertThat(found).extracting(Order::getId).containsExactly(recent.getId());
+        assertThat(found.get(0).getOrderItems()).hasSize(1);
+    }
+
+    @Test
+    void addToTotalAmount_ShouldOnlyMatchTheOrdersCreationTime() {
+        // Arrange
+        Order order = new Order();
+        order.setCustomerName("Total Customer");
+        order.setCustomerEmail("total@example.com");
+        order.setShippingAddress("Total Address");
+        order.setTotalAmount(BigDecimal.valueOf(10.00));
+        order.setStatus(OrderStatus.PENDING);
+        entityManager.persist(order);
+        entityManager.flush();
+
+        // Act
+        int wrongCreatedAt = orderRepository.addToTotalAmount(order.getId(), order.getCreatedAt().minusDays(1),
+                BigDecimal.ONE);
+        int updated = orderRepository.addToTotalAmount(order.getId(), order.getCreatedAt(), BigDecimal.ONE);
+
+        // Assert
+        assertThat(wrongCreatedAt).isZero();
+        assertThat(updated).isEqualTo(1);
+        assertThat(entityManager.find(Order.class, order.getId()).getTotalAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(11.00));
+    }
+
+    private Order orderWithItem(String customerName, LocalDateTime createdAt, Product product) {
+        Order order = new Order();
+        order.setCustomerName(customerName);
+        order.setCustomerEmail("partition@example.com");
+        order.setShippingAddress("Partition Address");
+        order.setTotalAmount(BigDecimal.valueOf(5.00));
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(createdAt);
+
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        orderItem.setProduct(product);
+        orderItem.setQuantity(1);
+        orderItem.setUnitPrice(BigDecimal.valueOf(5.00));
+        orderItem.setSubtotal(BigDecimal.valueOf(5.00));
+        order.getOrderItems().add(orderItem);
+
+        entityManager.persist(order);
+        return order;
     }
 
     @Test
@@ -0,0 +1,85 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks on PostgreSQL that filtered product listings, including deep pages,
+ * are read as a range of the {@code (key, id)} indexes instead of a scan and
+ * sort of {@code products}. The statements mirror what
+ * {@link ProductRepositoryCustom#findPage} generates.
+ * <p>
+ * Needs the database of the {@code postgres} profile, so it only runs with
+ * {@code POSTGRES_TESTS=true}.
+ */
+@SpringBootTest
+@ActiveProfiles("postgres")
+@EnabledIfEnvironmentVariable(named = "POSTGRES_TESTS", matches = "true")
+@Transactional
+class ProductQueryPlanTest {
+
+    private static final int PRODUCTS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            rows.add(new Object[] {"Plan Product " + i, (i % 1000) + 0.99, i % 10, now.minusMinutes(i), now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (name, price, stock, created_at, updated_at) VALUES (?, ?, ?, ?, ?)", rows);
+        // Planner statistics for the new rows; rolled back with them
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    @Test
+    void priceListing_DeepPage_ShouldRangeScanPriceIdIndex() {
+        // Act
+        String plan = explain("SELECT * FROM products WHERE price <= 900 AND stock > 0 "
+                + "AND price >= 750.99 AND (price > 750.99 OR (price = 750.99 AND id > 15000)) "
+                + "ORDER BY price, id LIMIT 21");
+
+        // Assert
+        assertThat(plan).contains("idx_products_price_id").doesNotContain("Sort").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void priceListing_Descending_ShouldScanPriceIdIndexBackward() {
+        // Act
+        String plan = explain("SELECT * FROM products WHERE stock > 0 "
+                + "AND price <= 120.99 AND (price < 120.99 OR (price = 120.99 AND id < 5000)) "
+                + "ORDER BY price DESC, id DESC LIMIT 21");
+
+        // Assert
+        assertThat(plan).contains("Index Scan Backward using idx_products_price_id").doesNotContain("Sort");
+    }
+
+    @Test
+    void createdAtListing_ShouldRangeScanCreatedAtIdIndex() {
+        // Act
+        String plan = explain("SELECT * FROM products WHERE created_at >= now() - interval '2 days' "
+                + "ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        // Assert
+        assertThat(plan).contains("idx_products_created_at_id").doesNotContain("Sort");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
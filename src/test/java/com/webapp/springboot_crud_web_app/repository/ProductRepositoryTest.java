@@ -2,6 +2,7 @@ package com.webapp.springboot_crud_web_app.repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
 import com.webapp.springboot_crud_web_app.model.Product;
 
 @DataJpaTest
@@ -81,6 +83,26 @@ class ProductRepositoryTest {
         assertThat(products).extracting(Product::getName).containsExactlyInAnyOrder("Product 1", "Product 2");
     }
 
+    @Test
+    void findAllMapped_ShouldReadEveryProductWithoutManagingIt() {
+        // Arrange
+        Product product = new Product();
+        product.setName("Scanned Product");
+        product.setDescription("Scanned Description");
+        product.setPrice(BigDecimal.valueOf(5.50));
+        product.setStock(3);
+        entityManager.persist(product);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        List<Product> products = productRepository.findAllMapped(scanned -> scanned);
+
+        // Assert
+        assertThat(products).extracting(Product::getName).containsExactly("Scanned Product");
+        assertThat(entityManager.getEntityManager().contains(products.get(0))).isFalse();
+    }
+
     @Test
     void save_ShouldPersistNewProduct() {
         // Arrange
@@ -187,4 +209,64 @@ class ProductRepositoryTest {
         Product afterDelete = entityManager.find(Product.class, product.getId());
         assertThat(afterDelete).isNull();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void findAllProjected_ShouldReturnOnlyRequestedAttributes() {
+        // Arrange
+        Product product = new Product();
+        product.setName("Projected Product");
+        product.setDescription("Long description that should not be read");
+        product.setPrice(BigDecimal.valueOf(5.50));
+        product.setStock(3);
+        
+        entityManager.persist(product);
+        entityManager.flush();
+        entityManager.clear();
+        
+        // Act
+        List<Map<String, Object>> rows = productRepository.findAllProjected(List.of("id", "name", "price"));
+        
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "name", "price");
+        assertThat(rows.get(0).get("name")).isEqualTo("Projected Product");
+        assertThat((BigDecimal) rows.get(0).get("price")).isEqualByComparingTo(BigDecimal.valueOf(5.50));
+    }
+
+    @Test
+    void findPage_ShouldContinueAfterKeyAcrossEqualPricesAndSkipOutOfStock() {
+        // Arrange
+        Product cheap = persistProduct("Cheap", 5.00, 1);
+        Product firstTen = persistProduct("First Ten", 10.00, 4);
+        Product secondTen = persistProduct("Second Ten", 10.00, 2);
+        persistProduct("Sold Out", 7.00, 0);
+        Product dear = persistProduct("Dear", 20.00, 9);
+        persistProduct("Too Dear", 99.00, 9);
+        entityManager.flush();
+        entityManager.clear();
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .maxPrice(BigDecimal.valueOf(50))
+                .inStock(true)
+                .build();
+        
+        // Act
+        List<Product> firstPage = productRepository.findPage(filter, ProductSortKey.PRICE, false, null, null, 2);
+        List<Product> secondPage = productRepository.findPage(filter, ProductSortKey.PRICE, false,
+                firstTen.getPrice(), firstTen.getId(), 2);
+        List<Product> descending = productRepository.findPage(filter, ProductSortKey.PRICE, true,
+                secondTen.getPrice(), secondTen.getId(), 10);
+        
+        // Assert
+        assertThat(firstPage).extracting(Product::getId).containsExactly(cheap.getId(), firstTen.getId());
+        assertThat(secondPage).extracting(Product::getId).containsExactly(secondTen.getId(), dear.getId());
+        assertThat(descending).extracting(Product::getId).containsExactly(firstTen.getId(), cheap.getId());
+    }
+
+    private Product persistProduct(String name, double price, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(BigDecimal.valueOf(price));
+        product.setStock(stock);
+        return entityManager.persist(product);
+    }
+}
@@ -0,0 +1,43 @@
+package com.webapp.springboot_crud_web_app.repository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.webapp.springboot_crud_web_app.model.ProductStockStripe;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ProductStockStripeRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductStockStripeRepository stripeRepository;
+
+    @Test
+    void decrementIfAvailable_ShouldOnlyDecrementWhenStripeHoldsEnough() {
+        // Arrange
+        entityManager.persist(new ProductStockStripe(null, 7L, 0, 5));
+        entityManager.persist(new ProductStockStripe(null, 7L, 1, 1));
+        entityManager.flush();
+        
+        // Act
+        int updated = stripeRepository.decrementIfAvailable(7L, 0, 3);
+        int rejected = stripeRepository.decrementIfAvailable(7L, 1, 3);
+        entityManager.clear();
+        
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(rejected).isZero();
+        List<Object[]> sums = stripeRepository.sumQuantityByProductIdIn(List.of(7L));
+        assertThat(sums).hasSize(1);
+        assertThat(((Number) sums.get(0)[1]).intValue()).isEqualTo(3);
+    }
+}
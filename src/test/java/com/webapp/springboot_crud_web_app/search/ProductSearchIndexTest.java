@@ -0,0 +1,83 @@
+package com.webapp.springboot_crud_web_app.search;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null, true);
+        index.index(1L, "Wireless Mouse", "Ergonomic, with a USB receiver");
+        index.index(2L, "USB Cable", "Works with any wireless mouse dongle");
+        index.index(3L, "Desk Lamp", "Warm white light");
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        ProductSearchIndex.Hits hits = index.search("Wireless", 0, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), hits.productIds());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndRequireEveryWord() {
+        // Act
+        ProductSearchIndex.Hits prefixes = index.search("wire mou", 0, 10);
+        ProductSearchIndex.Hits both = index.search("wire cable", 0, 10);
+        ProductSearchIndex.Hits none = index.search("lamp cable", 0, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), prefixes.productIds());
+        assertEquals(List.of(2L), both.productIds());
+        assertEquals(0, none.total());
+    }
+
+    @Test
+    void index_WhenProductChangesOrIsRemoved_ShouldDropItsOldTerms() {
+        // Act
+        index.index(3L, "Floor Lamp", "Tall");
+        ProductSearchIndex.Hits afterUpdate = index.search("desk", 0, 10);
+        index.remove(1L);
+        ProductSearchIndex.Hits afterRemove = index.search("ergonomic", 0, 10);
+
+        // Assert
+        assertTrue(afterUpdate.productIds().isEmpty());
+        assertEquals(List.of(3L), index.search("floor", 0, 10).productIds());
+        assertTrue(afterRemove.productIds().isEmpty());
+        assertEquals(List.of(2L), index.search("mouse", 0, 10).productIds());
+    }
+
+    @Test
+    void search_ShouldPageThroughEqualHitsInIdOrder() {
+        // Arrange
+        for (long id = 10; id < 15; id++) {
+            index.index(id, "Bulb", null);
+        }
+
+        // Act
+        ProductSearchIndex.Hits secondPage = index.search("bulb", 2, 2);
+        ProductSearchIndex.Hits beyondLast = index.search("bulb", 6, 2);
+
+        // Assert
+        assertEquals(List.of(12L, 13L), secondPage.productIds());
+        assertEquals(5, secondPage.total());
+        assertTrue(beyondLast.productIds().isEmpty());
+    }
+
+    @Test
+    void tokenize_ShouldSplitOnPunctuationAndLowercase() {
+        // Act & Assert
+        assertEquals(List.of("usb", "c", "4k", "hdmi"), ProductSearchIndex.tokenize("USB-C/4K HDMI!"));
+        assertTrue(ProductSearchIndex.tokenize("  --  ").isEmpty());
+    }
+}
@@ -0,0 +1,192 @@
+package com.webapp.springboot_crud_web_app.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webapp.springboot_crud_web_app.model.InventoryMovement;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.InventoryMovementRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.impl.InventoryLedgerServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryLedgerServiceTest {
+
+    @Mock
+    private InventoryMovementRepository movementRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private InventoryLedgerServiceImpl inventoryLedgerService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryLedgerService = new InventoryLedgerServiceImpl(movementRepository, productRepository, true, 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_ShouldAppendOneMovementPerNonZeroDelta() {
+        // Act
+        inventoryLedgerService.record(Map.of(1L, -2, 2L, 0), MovementType.ORDER);
+
+        // Assert
+        ArgumentCaptor<List<InventoryMovement>> saved = ArgumentCaptor.forClass(List.class);
+        verify(movementRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(1L, saved.getValue().get(0).getProductId());
+        assertEquals(-2, saved.getValue().get(0).getQuantity());
+        assertEquals(MovementType.ORDER, saved.getValue().get(0).getType());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void take_WithEnoughStock_ShouldRecordOrderMovements() {
+        // Arrange
+        when(movementRepository.sumCurrentStockByProductIdIn(List.of(1L))).thenReturn(stockRows(1L, 10));
+
+        // Act
+        OptionalLong result = inventoryLedgerService.take(Map.of(1L, 4));
+
+        // Assert
+        assertEquals(OptionalLong.empty(), result);
+        ArgumentCaptor<List<InventoryMovement>> saved = ArgumentCaptor.forClass(List.class);
+        verify(movementRepository).saveAll(saved.capture());
+        assertEquals(-4, saved.getValue().get(0).getQuantity());
+        assertEquals(MovementType.ORDER, saved.getValue().get(0).getType());
+    }
+
+    @Test
+    void take_WhileAnotherTakeIsOpen_ShouldCountItAgainstStockUntilItCompletes() {
+        // Arrange: the database does not see takes whose transaction is still open
+        when(movementRepository.sumCurrentStockByProductIdIn(List.of(1L))).thenReturn(stockRows(1L, 10));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(OptionalLong.empty(), inventoryLedgerService.take(Map.of(1L, 8)));
+
+            // Act
+            OptionalLong whileOpen = inventoryLedgerService.take(Map.of(1L, 3));
+            completeSynchronizations(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            // Assert
+            assertEquals(OptionalLong.of(1L), whileOpen);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(OptionalLong.empty(), inventoryLedgerService.take(Map.of(1L, 3)));
+    }
+
+    @Test
+    void take_WhenAnOpenTakeCompletesWhileStockIsRead_ShouldReadStockAgain() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            when(movementRepository.sumCurrentStockByProductIdIn(List.of(1L)))
+                    .thenReturn(stockRows(1L, 10))
+                    .thenAnswer(invocation -> {
+                        // The first take commits after this read began, so the stock read may miss it
+                        completeSynchronizations(TransactionSynchronization.STATUS_COMMITTED);
+                        return stockRows(1L, 10);
+                    })
+                    .thenReturn(stockRows(1L, 2));
+            inventoryLedgerService.take(Map.of(1L, 8));
+
+            // Act
+            OptionalLong result = inventoryLedgerService.take(Map.of(1L, 3));
+
+            // Assert
+            assertEquals(OptionalLong.of(1L), result);
+            verify(movementRepository, times(3)).sumCurrentStockByProductIdIn(List.of(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getCurrentStock_ShouldAddUncompactedMovementsToStockColumn() {
+        // Arrange
+        Product product = new Product(1L, "Product", null, BigDecimal.ONE, 50, null, null);
+        List<Object[]> sums = new ArrayList<>();
+        sums.add(new Object[] {1L, -8L});
+        when(movementRepository.sumUncompactedByProductIdIn(List.of(1L))).thenReturn(sums);
+
+        // Act
+        int stock = inventoryLedgerService.getCurrentStock(product);
+
+        // Assert
+        assertEquals(42, stock);
+    }
+
+    @Test
+    void compact_ShouldMarkMovementsAndFoldNetDeltasInProductOrder() {
+        // Arrange
+        List<InventoryMovement> movements = List.of(
+                new InventoryMovement(10L, 2L, -3, MovementType.ORDER, false, null),
+                new InventoryMovement(11L, 1L, -1, MovementType.ORDER, false, null),
+                new InventoryMovement(12L, 2L, 10, MovementType.ADJUSTMENT, false, null),
+                new InventoryMovement(13L, 1L, 1, MovementType.ADJUSTMENT, false, null));
+        when(movementRepository.findUncompactedForUpdate(any(Pageable.class))).thenReturn(movements);
+
+        // Act
+        int compacted = inventoryLedgerService.compact();
+
+        // Assert
+        assertEquals(4, compacted);
+        InOrder order = inOrder(movementRepository, productRepository);
+        order.verify(movementRepository).markCompacted(List.of(10L, 11L, 12L, 13L));
+        order.verify(productRepository).incrementStock(2L, 7);
+        // Product 1 nets to zero and is not touched
+        verify(productRepository, never()).incrementStock(1L, 0);
+    }
+
+    @Test
+    void compact_WithNothingToCompact_ShouldDoNothing() {
+        // Arrange
+        when(movementRepository.findUncompactedForUpdate(any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        // Act
+        int compacted = inventoryLedgerService.compact();
+
+        // Assert
+        assertEquals(0, compacted);
+        verify(productRepository, never()).incrementStock(anyLong(), anyInt());
+    }
+
+    private static List<Object[]> stockRows(Long productId, long stock) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {productId, stock});
+        return rows;
+    }
+
+    private static void completeSynchronizations(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
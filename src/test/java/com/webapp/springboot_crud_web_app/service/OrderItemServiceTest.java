@@ -4,7 +4,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -14,9 +17,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -24,7 +29,9 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
 import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
 import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
 import com.webapp.springboot_crud_web_app.model.Order;
 import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
@@ -32,7 +39,6 @@ import com.webapp.springboot_crud_web_app.model.OrderItem;
 import com.webapp.springboot_crud_web_app.model.Product;
 import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
 import com.webapp.springboot_crud_web_app.repository.OrderRepository;
-import com.webapp.springboot_crud_web_app.repository.ProductRepository;
 import com.webapp.springboot_crud_web_app.service.impl.OrderItemServiceImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,10 +51,10 @@ class OrderItemServiceTest {
     private OrderRepository orderRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private OrderItemMapper orderItemMapper;
 
     @Mock
-    private OrderItemMapper orderItemMapper;
+    private StockMutator stockMutator;
 
     @InjectMocks
     private OrderItemServiceImpl orderItemService;
@@ -90,6 +96,7 @@ class OrderItemServiceTest {
         orderItem1 = new OrderItem();
         orderItem1.setId(1L);
         orderItem1.setOrder(order);
+        orderItem1.setOrderCreatedAt(now);
         orderItem1.setProduct(product);
         orderItem1.setQuantity(2);
         orderItem1.setUnitPrice(BigDecimal.valueOf(19.99));
@@ -98,6 +105,7 @@ class OrderItemServiceTest {
         orderItem2 = new OrderItem();
         orderItem2.setId(2L);
         orderItem2.setOrder(order);
+        orderItem2.setOrderCreatedAt(now);
         orderItem2.setProduct(product);
         orderItem2.setQuantity(3);
         orderItem2.setUnitPrice(BigDecimal.valueOf(19.99));
@@ -127,7 +135,10 @@ class OrderItemServiceTest {
     void findAll_ShouldReturnAllOrderItems() {
         // Arrange
         List<OrderItem> orderItems = Arrays.asList(orderItem1, orderItem2);
-        when(orderItemRepository.findAll()).thenReturn(orderItems);
+        when(orderItemRepository.findAllMapped(any())).thenAnswer(invocation -> {
+            Function<OrderItem, OrderItemDTO> mapper = invocation.getArgument(0);
+            return orderItems.stream().map(mapper).collect(Collectors.toList());
+        });
         when(orderItemMapper.toDTO(orderItem1)).thenReturn(orderItemDTO1);
         when(orderItemMapper.toDTO(orderItem2)).thenReturn(orderItemDTO2);
 
@@ -138,7 +149,7 @@ class OrderItemServiceTest {
         assertEquals(2, result.size());
         assertEquals(orderItemDTO1, result.get(0));
         assertEquals(orderItemDTO2, result.get(1));
-        verify(orderItemRepository).findAll();
+        verify(orderItemRepository).findAllMapped(any());
         verify(orderItemMapper, times(2)).toDTO(any(OrderItem.class));
     }
 
@@ -178,8 +189,9 @@ class OrderItemServiceTest {
                 .subtotal(BigDecimal.valueOf(39.98))
                 .build();
 
+        lockable(1L);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockMutator.take(Map.of(1L, 2))).thenReturn(Map.of(1L, product));
         when(orderItemMapper.toEntity(inputDTO, order, product)).thenReturn(orderItem1);
         when(orderItemRepository.save(orderItem1)).thenReturn(orderItem1);
         when(orderItemMapper.toDTO(orderItem1)).thenReturn(orderItemDTO1);
@@ -190,11 +202,29 @@ class OrderItemServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(orderItemDTO1, result);
-        verify(orderRepository).findById(1L);
-        verify(productRepository).findById(1L);
+        InOrder inOrder = inOrder(orderRepository, stockMutator);
+        inOrder.verify(orderRepository).findIdsByIdInAndStatusInForUpdate(List.of(1L), OrderStatus.CANCELLED.allowedFrom());
+        inOrder.verify(stockMutator).take(Map.of(1L, 2));
         verify(orderItemMapper).toEntity(inputDTO, order, product);
         verify(orderItemRepository).save(orderItem1);
         verify(orderItemMapper).toDTO(orderItem1);
+        verify(orderRepository).addToTotalAmount(1L, now, new BigDecimal("39.98"));
+        verify(orderItemRepository, never()).findAll();
+    }
+
+    @Test
+    void create_WhenStockIsShort_ShouldThrowAndNotChangeTotal() {
+        // Arrange
+        OrderItemDTO inputDTO = OrderItemDTO.builder().quantity(2).build();
+        lockable(1L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(stockMutator.take(Map.of(1L, 2))).thenThrow(new BusinessRuleViolationException(
+                "Insufficient stock for product 'Test Product'. Available: 1, Requested: 2"));
+
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> orderItemService.create(inputDTO, 1L, 1L));
+        verify(orderItemRepository, never()).save(any());
+        verify(orderRepository, never()).addToTotalAmount(anyLong(), any(), any());
     }
 
     @Test
@@ -211,11 +241,26 @@ class OrderItemServiceTest {
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderItemService.create(inputDTO, 999L, 1L));
         verify(orderRepository).findById(999L);
-        verify(productRepository, never()).findById(anyLong());
+        verify(stockMutator, never()).take(any());
         verify(orderItemMapper, never()).toEntity(any(), any(), any());
         verify(orderItemRepository, never()).save(any());
     }
 
+    @Test
+    void create_WhenOrderHasShipped_ShouldThrowAndTakeNoStock() {
+        // Arrange
+        OrderItemDTO inputDTO = OrderItemDTO.builder().quantity(2).build();
+        order.setStatus(OrderStatus.SHIPPED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderItemService.create(inputDTO, 1L, 1L));
+        assertEquals("Items of a SHIPPED order cannot be changed", ex.getMessage());
+        verify(stockMutator, never()).take(any());
+        verify(orderItemRepository, never()).save(any());
+    }
+
     @Test
     void create_WhenProductDoesNotExist_ShouldThrowException() {
         // Arrange
@@ -225,13 +270,12 @@ class OrderItemServiceTest {
                 .subtotal(BigDecimal.valueOf(39.98))
                 .build();
 
+        lockable(1L);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(stockMutator.take(Map.of(999L, 2))).thenThrow(new ResourceNotFoundException("Product", "id", 999L));
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderItemService.create(inputDTO, 1L, 999L));
-        verify(orderRepository).findById(1L);
-        verify(productRepository).findById(999L);
         verify(orderItemMapper, never()).toEntity(any(), any(), any());
         verify(orderItemRepository, never()).save(any());
     }
@@ -263,7 +307,8 @@ class OrderItemServiceTest {
                 .build();
 
         when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem1));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        lockable(1L);
+        when(stockMutator.adjust(List.of(1L), Map.of(1L, 2))).thenReturn(Map.of(1L, product));
         doNothing().when(orderItemMapper).updateEntityFromDTO(inputDTO, orderItem1, product);
         when(orderItemRepository.save(orderItem1)).thenReturn(updatedOrderItem);
         when(orderItemMapper.toDTO(updatedOrderItem)).thenReturn(updatedDTO);
@@ -275,10 +320,42 @@ class OrderItemServiceTest {
         assertNotNull(result);
         assertEquals(updatedDTO, result);
         verify(orderItemRepository).findById(1L);
-        verify(productRepository).findById(1L);
+        verify(stockMutator).adjust(List.of(1L), Map.of(1L, 2));
         verify(orderItemMapper).updateEntityFromDTO(inputDTO, orderItem1, product);
         verify(orderItemRepository).save(orderItem1);
         verify(orderItemMapper).toDTO(updatedOrderItem);
+        verify(orderRepository).addToTotalAmount(1L, now, new BigDecimal("39.98"));
+    }
+
+    @Test
+    void update_WhenProductChanges_ShouldGiveBackOldStockAndTakeNewInOneStep() {
+        // Arrange
+        Product cheaperProduct = new Product();
+        cheaperProduct.setId(2L);
+        cheaperProduct.setName("Cheaper Product");
+        cheaperProduct.setPrice(new BigDecimal("5.00"));
+        cheaperProduct.setStock(10);
+        OrderItemDTO inputDTO = OrderItemDTO.builder().quantity(3).build();
+        OrderItem movedOrderItem = new OrderItem();
+        movedOrderItem.setId(1L);
+        movedOrderItem.setOrder(order);
+        movedOrderItem.setProduct(cheaperProduct);
+        movedOrderItem.setQuantity(3);
+        movedOrderItem.setUnitPrice(new BigDecimal("5.00"));
+        movedOrderItem.setSubtotal(new BigDecimal("15.00"));
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem1));
+        lockable(1L);
+        when(stockMutator.adjust(List.of(2L), Map.of(1L, -2, 2L, 3)))
+                .thenReturn(Map.of(1L, product, 2L, cheaperProduct));
+        when(orderItemRepository.save(orderItem1)).thenReturn(movedOrderItem);
+        when(orderItemMapper.toDTO(movedOrderItem)).thenReturn(orderItemDTO1);
+
+        // Act
+        orderItemService.update(inputDTO, 1L, 2L);
+
+        // Assert
+        verify(orderItemMapper).updateEntityFromDTO(inputDTO, orderItem1, cheaperProduct);
+        verify(orderRepository).addToTotalAmount(1L, now, new BigDecimal("-24.98"));
     }
 
     @Test
@@ -295,7 +372,7 @@ class OrderItemServiceTest {
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderItemService.update(inputDTO, 999L, 1L));
         verify(orderItemRepository).findById(999L);
-        verify(productRepository, never()).findById(anyLong());
+        verify(stockMutator, never()).adjust(any(), any());
         verify(orderItemMapper, never()).updateEntityFromDTO(any(), any(), any());
         verify(orderItemRepository, never()).save(any());
     }
@@ -310,12 +387,13 @@ class OrderItemServiceTest {
                 .build();
 
         when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem1));
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        lockable(1L);
+        when(stockMutator.adjust(List.of(999L), Map.of(1L, -2, 999L, 4)))
+                .thenThrow(new ResourceNotFoundException("Product", "id", 999L));
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderItemService.update(inputDTO, 1L, 999L));
         verify(orderItemRepository).findById(1L);
-        verify(productRepository).findById(999L);
         verify(orderItemMapper, never()).updateEntityFromDTO(any(), any(), any());
         verify(orderItemRepository, never()).save(any());
     }
@@ -323,25 +401,49 @@ class OrderItemServiceTest {
     @Test
     void delete_WhenOrderItemExists_ShouldDeleteOrderItem() {
         // Arrange
-        when(orderItemRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(orderItemRepository).deleteById(1L);
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem1));
+        lockable(1L);
+        doNothing().when(orderItemRepository).delete(orderItem1);
 
         // Act
         orderItemService.delete(1L);
 
         // Assert
-        verify(orderItemRepository).existsById(1L);
-        verify(orderItemRepository).deleteById(1L);
+        verify(orderItemRepository).findById(1L);
+        verify(orderItemRepository).delete(orderItem1);
+        verify(stockMutator).giveBack(Map.of(1L, 2));
+        verify(orderRepository).addToTotalAmount(1L, now, new BigDecimal("-39.98"));
+    }
+
+    @Test
+    void delete_WhenOrderIsCancelled_ShouldThrowAndGiveBackNothing() {
+        // Arrange: a cancelled order's stock has already been given back
+        order.setStatus(OrderStatus.CANCELLED);
+        when(orderItemRepository.findById(1L)).thenReturn(Optional.of(orderItem1));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> orderItemService.delete(1L));
+        verify(orderItemRepository, never()).delete(any());
+        verify(stockMutator, never()).giveBack(any());
     }
 
     @Test
     void delete_WhenOrderItemDoesNotExist_ShouldThrowException() {
         // Arrange
-        when(orderItemRepository.existsById(999L)).thenReturn(false);
+        when(orderItemRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderItemService.delete(999L));
-        verify(orderItemRepository).existsById(999L);
-        verify(orderItemRepository, never()).deleteById(anyLong());
+        verify(orderItemRepository).findById(999L);
+        verify(orderItemRepository, never()).delete(any());
+    }
+
+    /**
+     * Lets the order be locked for an item change, as an order that still holds its stock.
+     */
+    private void lockable(Long orderId) {
+        when(orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(orderId), OrderStatus.CANCELLED.allowedFrom()))
+                .thenReturn(List.of(orderId));
     }
 } 
\ No newline at end of file
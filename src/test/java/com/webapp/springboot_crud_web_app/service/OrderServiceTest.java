@@ -5,8 +5,15 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -15,26 +22,35 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.webapp.springboot_crud_web_app.archive.OrderArchive;
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderDTO;
 import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderStatusTransitionDTO;
 import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
 import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.InventoryEngine;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
 import com.webapp.springboot_crud_web_app.mapper.OrderItemMapper;
 import com.webapp.springboot_crud_web_app.mapper.OrderMapper;
 import com.webapp.springboot_crud_web_app.model.Order;
 import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
 import com.webapp.springboot_crud_web_app.model.OrderItem;
 import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.OrderItemRepository;
 import com.webapp.springboot_crud_web_app.repository.OrderRepository;
 import com.webapp.springboot_crud_web_app.repository.ProductRepository;
 import com.webapp.springboot_crud_web_app.service.impl.OrderServiceImpl;
@@ -54,7 +70,24 @@ class OrderServiceTest {
     @Mock
     private OrderItemMapper orderItemMapper;
 
-    @InjectMocks
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
+    @Mock
+    private StockStripeService stockStripeService;
+
+    @Mock
+    private InventoryEngine inventoryEngine;
+
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private OrderArchive orderArchive;
+
+    @Mock
+    private StockReservationService reservationService;
+
     private OrderServiceImpl orderService;
 
     private OrderDTO orderDTO1;
@@ -69,6 +102,10 @@ class OrderServiceTest {
     @BeforeEach
     void setUp() {
         now = LocalDateTime.now();
+        StockMutator stockMutator = new StockMutator(productRepository, orderItemRepository, inventoryEngine,
+                inventoryLedgerService, stockStripeService);
+        orderService = new OrderServiceImpl(orderRepository, orderMapper, orderItemMapper, orderItemRepository,
+                orderArchive, stockMutator, reservationService);
 
         // Set up products
         product1 = new Product();
@@ -149,19 +186,29 @@ class OrderServiceTest {
     void findAll_ShouldReturnAllOrders() {
         // Arrange
         List<Order> orders = Arrays.asList(order1, order2);
-        when(orderRepository.findAll()).thenReturn(orders);
-        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
-        when(orderMapper.toDTO(order2)).thenReturn(orderDTO2);
+        orderItem1.setOrder(order1);
+        orderItemDTO1.setOrderId(1L);
+        when(orderItemRepository.findAllMapped(any())).thenAnswer(invocation -> {
+            Function<OrderItem, OrderItemDTO> mapper = invocation.getArgument(0);
+            return List.of(orderItem1).stream().map(mapper).collect(Collectors.toList());
+        });
+        when(orderItemMapper.toDTO(orderItem1)).thenReturn(orderItemDTO1);
+        when(orderRepository.findAllMapped(any())).thenAnswer(invocation -> {
+            Function<Order, OrderDTO> mapper = invocation.getArgument(0);
+            return orders.stream().map(mapper).collect(Collectors.toList());
+        });
+        when(orderMapper.toDTO(order1, List.of(orderItemDTO1))).thenReturn(orderDTO1);
+        when(orderMapper.toDTO(order2, List.of())).thenReturn(orderDTO2);
 
         // Act
         List<OrderDTO> result = orderService.findAll();
 
-        // Assert
+        // Assert: items come from one scan, not from each order's collection
         assertEquals(2, result.size());
         assertEquals(orderDTO1, result.get(0));
         assertEquals(orderDTO2, result.get(1));
-        verify(orderRepository).findAll();
-        verify(orderMapper, times(2)).toDTO(any(Order.class));
+        verify(orderRepository, never()).findAll();
+        verify(orderMapper, never()).toDTO(any(Order.class));
     }
 
     @Test
@@ -188,6 +235,21 @@ class OrderServiceTest {
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderService.findById(999L));
         verify(orderRepository).findById(999L);
+        verify(orderArchive).find(999L);
+        verify(orderMapper, never()).toDTO(any(Order.class));
+    }
+
+    @Test
+    void findById_WhenOrderIsArchived_ShouldReturnArchivedOrder() {
+        // Arrange
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderArchive.find(1L)).thenReturn(Optional.of(orderDTO1));
+
+        // Act
+        OrderDTO result = orderService.findById(1L);
+
+        // Assert
+        assertEquals(orderDTO1, result);
         verify(orderMapper, never()).toDTO(any(Order.class));
     }
 
@@ -195,9 +257,9 @@ class OrderServiceTest {
     void create_WithValidOrder_ShouldCreateOrder() {
         // Arrange
         when(orderMapper.toEntity(orderDTO1)).thenReturn(order1);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product1));
         when(orderRepository.save(order1)).thenReturn(order1);
-        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class))).thenReturn(orderItem1);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
         when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
 
         // Act
@@ -207,15 +269,296 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals(orderDTO1, result);
         verify(orderMapper).toEntity(orderDTO1);
-        verify(productRepository).findById(1L);
+        verify(productRepository).findAllByIdInForUpdate(List.of(1L));
         verify(orderRepository, times(2)).save(order1);
-        verify(productRepository).save(product1);
         verify(orderMapper).toDTO(order1);
 
         // Verify stock was reduced
         assertEquals(98, product1.getStock());
     }
 
+    @Test
+    void create_WithReservations_ShouldTakeOnlyWhatTheyDoNotHold() {
+        // Arrange
+        OrderDTO reservedOrderDTO = OrderDTO.builder()
+                .customerName("John Doe")
+                .customerEmail("john.doe@example.com")
+                .shippingAddress("123 Main St, Anytown")
+                .orderItems(List.of(OrderItemDTO.builder().productId(1L).quantity(5).build()))
+                .reservationIds(List.of("r-1", "r-2"))
+                .build();
+        when(reservationService.consume(List.of("r-1", "r-2"))).thenReturn(Map.of(1L, 3));
+        when(orderMapper.toEntity(reservedOrderDTO)).thenReturn(order1);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product1));
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.create(reservedOrderDTO);
+
+        // Assert
+        verify(reservationService).consume(List.of("r-1", "r-2"));
+        verify(orderRepository, times(2)).save(order1);
+        assertEquals(98, product1.getStock());
+    }
+
+    @Test
+    void create_WithReservationForProductNotOrdered_ShouldThrowException() {
+        // Arrange
+        OrderDTO reservedOrderDTO = OrderDTO.builder()
+                .customerName("John Doe")
+                .customerEmail("john.doe@example.com")
+                .shippingAddress("123 Main St, Anytown")
+                .orderItems(List.of(OrderItemDTO.builder().productId(1L).quantity(2).build()))
+                .reservationIds(List.of("r-1"))
+                .build();
+        when(reservationService.consume(List.of("r-1"))).thenReturn(Map.of(2L, 1));
+        when(orderMapper.toEntity(reservedOrderDTO)).thenReturn(order1);
+
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> orderService.create(reservedOrderDTO));
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void create_WithClientSuppliedPrices_ShouldPriceFromProducts() {
+        // Arrange
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Second Product");
+        product2.setPrice(new BigDecimal("0.10"));
+        product2.setStock(10);
+        OrderItemDTO underpricedItemDTO = OrderItemDTO.builder()
+                .productId(1L)
+                .quantity(2)
+                .unitPrice(new BigDecimal("0.01"))
+                .subtotal(new BigDecimal("0.02"))
+                .build();
+        OrderItemDTO secondItemDTO = OrderItemDTO.builder().productId(2L).quantity(3).build();
+        OrderDTO underpricedOrderDTO = OrderDTO.builder()
+                .customerName("John Doe")
+                .customerEmail("john.doe@example.com")
+                .shippingAddress("123 Main St, Anytown")
+                .totalAmount(new BigDecimal("0.02"))
+                .orderItems(Arrays.asList(underpricedItemDTO, secondItemDTO))
+                .build();
+        Order order = new Order();
+        when(orderMapper.toEntity(underpricedOrderDTO)).thenReturn(order);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+        when(orderRepository.save(order)).thenReturn(order);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
+        when(orderMapper.toDTO(order)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.create(underpricedOrderDTO);
+
+        // Assert
+        assertEquals(new BigDecimal("40.28"), order.getTotalAmount());
+        verify(orderItemMapper).toEntity(underpricedItemDTO, order, product1, 1999L);
+        verify(orderItemMapper).toEntity(secondItemDTO, order, product2, 10L);
+    }
+
+    @Test
+    void transitionStatus_ShouldUpdateMovableOrdersInOneStatementAndReportTheRest() {
+        // Arrange
+        when(orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(1L, 2L, 3L), Set.of(OrderStatus.CONFIRMED)))
+                .thenReturn(List.of(1L, 3L));
+
+        // Act
+        OrderStatusTransitionDTO result = orderService.transitionStatus(List.of(3L, 1L, 2L, 1L), OrderStatus.SHIPPED);
+
+        // Assert
+        verify(orderRepository).updateStatus(List.of(1L, 3L), Set.of(OrderStatus.CONFIRMED), OrderStatus.SHIPPED);
+        verify(orderRepository, never()).findById(anyLong());
+        assertEquals(OrderStatus.SHIPPED, result.getStatus());
+        assertEquals(List.of(3L, 1L), result.getChangedIds());
+        assertEquals(List.of(2L), result.getUnchangedIds());
+    }
+
+    @Test
+    void transitionStatus_ToPending_ShouldThrowException() {
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderService.transitionStatus(List.of(1L), OrderStatus.PENDING));
+        assertEquals("Orders cannot be moved to status PENDING", ex.getMessage());
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void replaceItems_ShouldLoadOrderAndProductsOnceAndTakeOnlyNetStock() {
+        // Arrange
+        OrderItemDTO largerItemDTO = OrderItemDTO.builder().productId(1L).quantity(5).build();
+        lockable(1L);
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L))).thenReturn(List.of(order1));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product1));
+        when(orderItemMapper.toEntity(largerItemDTO, order1, product1, 1999L)).thenReturn(orderItem1);
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.replaceItems(1L, List.of(largerItemDTO));
+
+        // Assert
+        verify(orderMapper).updateOrderItems(order1, List.of(orderItem1));
+        verify(productRepository, never()).findById(anyLong());
+        assertEquals(97, product1.getStock());
+        assertEquals(new BigDecimal("99.95"), order1.getTotalAmount());
+    }
+
+    @Test
+    void addItems_WhenOrderDoesNotExist_ShouldThrowException() {
+        // Arrange
+        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> orderService.addItems(999L, List.of(orderItemDTO1)));
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+    }
+
+    @Test
+    void addItems_WhenOrderHasShipped_ShouldThrowAndTakeNoStock() {
+        // Arrange
+        order1.setStatus(OrderStatus.SHIPPED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
+
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> orderService.addItems(1L, List.of(orderItemDTO1)));
+        verify(orderRepository, never()).findAllWithItemsByIdIn(any());
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+        assertEquals(100, product1.getStock());
+    }
+
+    @Test
+    void replaceItems_WithLedgerEnabled_ShouldRecordNetMovementAndNotChangeStockColumn() {
+        // Arrange
+        OrderItemDTO largerItemDTO = OrderItemDTO.builder().productId(1L).quantity(5).build();
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        lockable(1L);
+        when(orderRepository.findAllWithItemsByIdIn(List.of(1L))).thenReturn(List.of(order1));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product1));
+        when(inventoryLedgerService.take(Map.of(1L, 3))).thenReturn(OptionalLong.empty());
+        when(orderItemMapper.toEntity(largerItemDTO, order1, product1, 1999L)).thenReturn(orderItem1);
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.replaceItems(1L, List.of(largerItemDTO));
+
+        // Assert
+        verify(inventoryLedgerService).take(Map.of(1L, 3));
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+        assertEquals(100, product1.getStock());
+    }
+
+    @Test
+    void create_WithProductsOutOfIdOrder_ShouldLockThemInAscendingIdOrderOnce() {
+        // Arrange
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Second Product");
+        product2.setPrice(BigDecimal.valueOf(5.00));
+        product2.setStock(10);
+        OrderItemDTO secondItemDTO = OrderItemDTO.builder().productId(2L).quantity(3).build();
+        OrderItemDTO repeatedItemDTO = OrderItemDTO.builder().productId(1L).quantity(1).build();
+        OrderDTO crossedOrderDTO = OrderDTO.builder()
+                .customerName("John Doe")
+                .customerEmail("john.doe@example.com")
+                .shippingAddress("123 Main St, Anytown")
+                .orderItems(Arrays.asList(secondItemDTO, orderItemDTO1, repeatedItemDTO))
+                .build();
+        when(orderMapper.toEntity(crossedOrderDTO)).thenReturn(order1);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.create(crossedOrderDTO);
+
+        // Assert
+        verify(productRepository).findAllByIdInForUpdate(List.of(1L, 2L));
+        verify(productRepository, never()).findById(anyLong());
+        assertEquals(97, product1.getStock());
+        assertEquals(7, product2.getStock());
+    }
+
+    @Test
+    void create_WithInventoryEngineEnabled_ShouldReserveInMemoryAndNotSaveProduct() {
+        // Arrange
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(orderMapper.toEntity(orderDTO1)).thenReturn(order1);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product1));
+        when(inventoryEngine.reserve(Map.of(1L, 2))).thenReturn(OptionalLong.empty());
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        OrderDTO result = orderService.create(orderDTO1);
+
+        // Assert
+        assertEquals(orderDTO1, result);
+        verify(inventoryEngine).reserve(Map.of(1L, 2));
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+        assertEquals(100, product1.getStock());
+    }
+
+    @Test
+    void create_WithInventoryEngineShortOfStock_ShouldThrowException() {
+        // Arrange
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(orderMapper.toEntity(orderDTO1)).thenReturn(order1);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product1));
+        when(inventoryEngine.reserve(Map.of(1L, 2))).thenReturn(OptionalLong.of(1L));
+        when(inventoryEngine.getAvailable(1L)).thenReturn(1);
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderService.create(orderDTO1));
+        assertEquals("Insufficient stock for product 'Test Product'. Available: 1, Requested: 2", ex.getMessage());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void create_WithLedgerEnabled_ShouldTakeStockWithoutLockingOrChangingStockColumn() {
+        // Arrange
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        when(orderMapper.toEntity(orderDTO1)).thenReturn(order1);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product1));
+        when(inventoryLedgerService.take(Map.of(1L, 2))).thenReturn(OptionalLong.empty());
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.create(orderDTO1);
+
+        // Assert
+        verify(inventoryLedgerService).take(Map.of(1L, 2));
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+        assertEquals(100, product1.getStock());
+    }
+
+    @Test
+    void create_WithLedgerShortOfStock_ShouldThrowException() {
+        // Arrange
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        when(orderMapper.toEntity(orderDTO1)).thenReturn(order1);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product1));
+        when(inventoryLedgerService.take(Map.of(1L, 2))).thenReturn(OptionalLong.of(1L));
+        when(inventoryLedgerService.getCurrentStock(product1)).thenReturn(1);
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderService.create(orderDTO1));
+        assertEquals("Insufficient stock for product 'Test Product'. Available: 1, Requested: 2", ex.getMessage());
+        verify(inventoryLedgerService, never()).record(any(), any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void create_WithEmptyOrderItems_ShouldThrowException() {
         // Arrange
@@ -257,7 +600,7 @@ class OrderServiceTest {
         largeOrder.setCustomerEmail("john.doe@example.com");
         
         when(orderMapper.toEntity(largeOrderDTO)).thenReturn(largeOrder);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product1));
 
         // Act & Assert
         assertThrows(BusinessRuleViolationException.class, () -> orderService.create(largeOrderDTO));
@@ -265,6 +608,40 @@ class OrderServiceTest {
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void createFromIntake_WhenAlreadyCreated_ShouldReturnExistingOrderWithoutCreatingAgain() {
+        // Arrange
+        order1.setIntakeId("intake-1");
+        when(orderRepository.findByIntakeId("intake-1")).thenReturn(Optional.of(order1));
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        OrderDTO result = orderService.createFromIntake("intake-1", orderDTO1);
+
+        // Assert
+        assertEquals(orderDTO1, result);
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(productRepository, never()).findAllByIdInForUpdate(any());
+    }
+
+    @Test
+    void createFromIntake_WhenNew_ShouldCreateOrderUnderIntakeId() {
+        // Arrange
+        when(orderRepository.findByIntakeId("intake-2")).thenReturn(Optional.empty());
+        when(orderMapper.toEntity(orderDTO1)).thenReturn(order1);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product1));
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderItemMapper.toEntity(any(OrderItemDTO.class), any(Order.class), any(Product.class), anyLong())).thenReturn(orderItem1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.createFromIntake("intake-2", orderDTO1);
+
+        // Assert
+        assertEquals("intake-2", order1.getIntakeId());
+        verify(orderRepository, times(2)).save(order1);
+    }
+
     @Test
     void create_WithInvalidProductId_ShouldThrowException() {
         // Arrange
@@ -289,7 +666,7 @@ class OrderServiceTest {
         invalidOrder.setCustomerEmail("john.doe@example.com");
         
         when(orderMapper.toEntity(invalidOrderDTO)).thenReturn(invalidOrder);
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findAllByIdInForUpdate(List.of(999L))).thenReturn(List.of());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderService.create(invalidOrderDTO));
@@ -329,6 +706,7 @@ class OrderServiceTest {
                 .updatedAt(now)
                 .build();
 
+        statusLockable(1L, OrderStatus.CONFIRMED);
         when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
         doNothing().when(orderMapper).updateEntityFromDTO(updateDTO, order1);
         when(orderRepository.save(order1)).thenReturn(updatedOrder);
@@ -340,7 +718,7 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(updatedDTO, result);
-        verify(orderRepository).findById(1L);
+        verify(orderRepository, times(2)).findById(1L);
         verify(orderMapper).updateEntityFromDTO(updateDTO, order1);
         verify(orderRepository).save(order1);
         verify(orderMapper).toDTO(updatedOrder);
@@ -364,27 +742,240 @@ class OrderServiceTest {
     }
 
     @Test
-    void delete_WhenOrderExists_ShouldDeleteOrder() {
+    void delete_WhenOrderExists_ShouldRestoreStockAndDeleteOrder() {
         // Arrange
-        when(orderRepository.existsById(1L)).thenReturn(true);
+        lockable(1L);
+        when(productRepository.findIdsForOrderIdInForUpdate(List.of(1L))).thenReturn(List.of(1L));
         doNothing().when(orderRepository).deleteById(1L);
 
         // Act
         orderService.delete(1L);
 
         // Assert
-        verify(orderRepository).existsById(1L);
+        InOrder inOrder = inOrder(productRepository, orderRepository);
+        inOrder.verify(orderRepository).findIdsByIdInAndStatusInForUpdate(List.of(1L), OrderStatus.CANCELLED.allowedFrom());
+        inOrder.verify(productRepository).findIdsForOrderIdInForUpdate(List.of(1L));
+        inOrder.verify(productRepository).restoreStockForOrderIdIn(List.of(1L));
+        inOrder.verify(orderRepository).deleteById(1L);
+    }
+
+    @Test
+    void delete_WhenOrderNoLongerHoldsStock_ShouldNotRestoreStock() {
+        // Arrange: shipped, or cancelled by a transaction that committed first
+        when(orderRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        orderService.delete(1L);
+
+        // Assert
+        verify(productRepository, never()).restoreStockForOrderIdIn(any());
         verify(orderRepository).deleteById(1L);
     }
 
     @Test
     void delete_WhenOrderDoesNotExist_ShouldThrowException() {
-        // Arrange
-        when(orderRepository.existsById(999L)).thenReturn(false);
-
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> orderService.delete(999L));
         verify(orderRepository).existsById(999L);
         verify(orderRepository, never()).deleteById(anyLong());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void update_ToCancelled_ShouldRestoreStockInOneStatement() {
+        // Arrange
+        OrderDTO cancelDTO = OrderDTO.builder()
+                .id(1L)
+                .status(OrderStatus.CANCELLED)
+                .build();
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+        statusLockable(1L, OrderStatus.CANCELLED);
+        when(productRepository.findIdsForOrderIdInForUpdate(List.of(1L))).thenReturn(List.of(1L));
+
+        // Act
+        orderService.update(cancelDTO, 1L);
+
+        // Assert: the order is locked before it is read
+        InOrder inOrder = inOrder(orderRepository);
+        inOrder.verify(orderRepository).findIdsByIdInAndStatusInForUpdate(List.of(1L),
+                Set.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+        inOrder.verify(orderRepository).findById(1L);
+        verify(productRepository).restoreStockForOrderIdIn(List.of(1L));
+        verify(productRepository, never()).incrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void update_AlreadyCancelled_ShouldNotRestoreStockAgain() {
+        // Arrange: cancelled by a transaction that committed first
+        order1.setStatus(OrderStatus.CANCELLED);
+        OrderDTO cancelDTO = OrderDTO.builder()
+                .id(1L)
+                .status(OrderStatus.CANCELLED)
+                .build();
+        statusLockable(1L, OrderStatus.CANCELLED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        orderService.update(cancelDTO, 1L);
+
+        // Assert
+        verify(productRepository, never()).findIdsForOrderIdInForUpdate(any());
+        verify(productRepository, never()).restoreStockForOrderIdIn(any());
+    }
+
+    @Test
+    void update_ReopeningCancelledOrder_ShouldBeRejectedSoCancellingAgainRestoresNoStock() {
+        // Arrange: PENDING may not be reached from CANCELLED, so its lock finds nothing
+        order1.setStatus(OrderStatus.CANCELLED);
+        OrderDTO reopenDTO = OrderDTO.builder()
+                .id(1L)
+                .status(OrderStatus.PENDING)
+                .build();
+        OrderDTO cancelDTO = OrderDTO.builder()
+                .id(1L)
+                .status(OrderStatus.CANCELLED)
+                .build();
+        when(orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(1L), Set.of(OrderStatus.PENDING)))
+                .thenReturn(List.of());
+        statusLockable(1L, OrderStatus.CANCELLED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order1));
+        when(orderRepository.save(order1)).thenReturn(order1);
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+
+        // Act
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderService.update(reopenDTO, 1L));
+        orderService.update(cancelDTO, 1L);
+
+        // Assert
+        assertEquals("A CANCELLED order cannot be moved to status PENDING", ex.getMessage());
+        assertEquals(OrderStatus.CANCELLED, order1.getStatus());
+        verify(orderMapper, never()).updateEntityFromDTO(reopenDTO, order1);
+        verify(productRepository, never()).findIdsForOrderIdInForUpdate(any());
+        verify(productRepository, never()).restoreStockForOrderIdIn(any());
+    }
+
+    @Test
+    void transitionStatus_ToCancelledWithEngineEnabled_ShouldReleaseSummedQuantitiesAfterCommit() {
+        // Arrange
+        OrderItemRepository.ProductQuantity row = mock(OrderItemRepository.ProductQuantity.class);
+        when(row.getProductId()).thenReturn(1L);
+        when(row.getQuantity()).thenReturn(5L);
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(1L, 2L),
+                Set.of(OrderStatus.PENDING, OrderStatus.CONFIRMED))).thenReturn(List.of(1L, 2L));
+        when(orderItemRepository.sumQuantitiesByProductIdForOrderIdIn(List.of(1L, 2L))).thenReturn(List.of(row));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product1));
+
+        // Act
+        orderService.transitionStatus(List.of(2L, 1L), OrderStatus.CANCELLED);
+
+        // Assert
+        verify(inventoryEngine).releaseAfterCommit(Map.of(1L, 5));
+        verify(inventoryEngine, never()).release(any());
+        verify(productRepository, never()).restoreStockForOrderIdIn(any());
+    }
+
+    @Test
+    void findAllFiltered_WithOpenStatuses_ShouldUsePartialIndexQueryAndKeepItsOrder() {
+        // Arrange
+        LocalDateTime from = now.minusHours(2);
+        when(orderRepository.findOpenIdsByStatusInAndCreatedAtBetween(List.of("PENDING"), from,
+                OrderServiceImpl.LATEST_CREATED_AT, 50)).thenReturn(List.of(2L, 1L));
+        when(orderRepository.findAllWithItemsByIdInAndCreatedAtBetween(List.of(2L, 1L), from,
+                OrderServiceImpl.LATEST_CREATED_AT)).thenReturn(List.of(order1, order2));
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+        when(orderMapper.toDTO(order2)).thenReturn(orderDTO2);
+
+        // Act
+        List<OrderDTO> result = orderService.findAllFiltered(Set.of(OrderStatus.PENDING), from, null, 50);
+
+        // Assert
+        assertEquals(List.of(orderDTO2, orderDTO1), result);
+        verify(orderRepository, never()).findIdsByStatusInAndCreatedAtBetween(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findAllFiltered_WithTerminalStatus_ShouldUseCreatedAtRangeQuery() {
+        // Arrange
+        LocalDateTime before = now.minusDays(1);
+        when(orderRepository.findIdsByStatusInAndCreatedAtBetween(List.of("PENDING", "DELIVERED"),
+                OrderServiceImpl.EARLIEST_CREATED_AT, before, 100)).thenReturn(List.of());
+
+        // Act
+        List<OrderDTO> result = orderService.findAllFiltered(
+                Set.of(OrderStatus.DELIVERED, OrderStatus.PENDING), null, before, 100);
+
+        // Assert
+        assertEquals(List.of(), result);
+        verify(orderRepository, never()).findOpenIdsByStatusInAndCreatedAtBetween(any(), any(), any(), anyInt());
+        verify(orderRepository, never()).findAllWithItemsByIdInAndCreatedAtBetween(any(), any(), any());
+    }
+
+    @Test
+    void findAllByIds_ShouldLoadOrdersInOneQueryAndReportMissingIds() {
+        // Arrange
+        when(orderRepository.findAllWithItemsByIdIn(Arrays.asList(1L, 2L, 999L))).thenReturn(Arrays.asList(order2, order1));
+        when(orderMapper.toDTO(order1)).thenReturn(orderDTO1);
+        when(orderMapper.toDTO(order2)).thenReturn(orderDTO2);
+
+        // Act
+        BatchResultDTO<OrderDTO> result = orderService.findAllByIds(Arrays.asList(1L, 2L, 999L));
+
+        // Assert
+        assertEquals(Arrays.asList(orderDTO1, orderDTO2), result.getItems());
+        assertEquals(Arrays.asList(999L), result.getMissingIds());
+        verify(orderRepository, times(1)).findAllWithItemsByIdIn(any());
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findAllWithFields_WithItemsIncluded_ShouldAttachItemsAndAddId() {
+        // Arrange
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1L);
+        row.put("customerName", "John Doe");
+        when(orderRepository.findAllProjected(Arrays.asList("id", "customerName"))).thenReturn(new ArrayList<>(List.of(row)));
+        when(orderItemRepository.findAllByOrderIdIn(Arrays.asList(1L))).thenReturn(Arrays.asList(orderItem1));
+        OrderItemDTO itemDTO = OrderItemDTO.builder().id(1L).orderId(1L).productId(1L).quantity(2).build();
+        when(orderItemMapper.toDTO(orderItem1)).thenReturn(itemDTO);
+
+        // Act
+        List<Map<String, Object>> result = orderService.findAllWithFields("customerName", "items");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(Arrays.asList(itemDTO), result.get(0).get("orderItems"));
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void findAllWithFields_WithoutItems_ShouldNotFetchItems() {
+        // Arrange
+        when(orderRepository.findAllProjected(Arrays.asList("id", "totalAmount"))).thenReturn(new ArrayList<>());
+
+        // Act
+        orderService.findAllWithFields("id,totalAmount", null);
+
+        // Assert
+        verify(orderItemRepository, never()).findAllByOrderIdIn(any());
+    }
+
+    /**
+     * Lets the order be locked for an item change, as an order that still holds its stock.
+     */
+    private void lockable(Long orderId) {
+        when(orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(orderId), OrderStatus.CANCELLED.allowedFrom()))
+                .thenReturn(List.of(orderId));
+    }
+
+    private void statusLockable(Long orderId, OrderStatus status) {
+        Set<OrderStatus> lockableStatuses = new HashSet<>(status.allowedFrom());
+        lockableStatuses.add(status);
+        when(orderRepository.findIdsByIdInAndStatusInForUpdate(List.of(orderId), lockableStatuses))
+                .thenReturn(List.of(orderId));
+    }
+}
@@ -3,31 +3,51 @@ package com.webapp.springboot_crud_web_app.service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.webapp.springboot_crud_web_app.dto.BatchResultDTO;
 import com.webapp.springboot_crud_web_app.dto.ProductDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductFilterDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductPageDTO;
+import com.webapp.springboot_crud_web_app.dto.ProductSearchResultDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
 import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.InventoryEngine;
 import com.webapp.springboot_crud_web_app.mapper.ProductMapper;
+import com.webapp.springboot_crud_web_app.model.InventoryMovement.MovementType;
 import com.webapp.springboot_crud_web_app.model.Product;
 import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductSortKey;
+import com.webapp.springboot_crud_web_app.search.ProductSearchIndex;
 import com.webapp.springboot_crud_web_app.service.impl.ProductServiceImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +59,18 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private StockStripeService stockStripeService;
+
+    @Mock
+    private InventoryEngine inventoryEngine;
+
+    @Mock
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -98,7 +130,10 @@ class ProductServiceTest {
     void findAll_ShouldReturnAllProducts() {
         // Arrange
         List<Product> products = Arrays.asList(product1, product2);
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllMapped(any())).thenAnswer(invocation -> {
+            Function<Product, ProductDTO> mapper = invocation.getArgument(0);
+            return products.stream().map(mapper).collect(Collectors.toList());
+        });
         when(productMapper.toDTO(product1)).thenReturn(productDTO1);
         when(productMapper.toDTO(product2)).thenReturn(productDTO2);
 
@@ -109,7 +144,8 @@ class ProductServiceTest {
         assertEquals(2, result.size());
         assertEquals(productDTO1, result.get(0));
         assertEquals(productDTO2, result.get(1));
-        verify(productRepository).findAll();
+        verify(productRepository).findAllMapped(any());
+        verify(productRepository, never()).findAll();
         verify(productMapper, times(2)).toDTO(any(Product.class));
     }
 
@@ -188,6 +224,7 @@ class ProductServiceTest {
         verify(productMapper).toEntity(inputDTO);
         verify(productRepository).save(newProduct);
         verify(productMapper).toDTO(savedProduct);
+        verify(productSearchIndex).index(3L, "New Product", "New Description");
     }
 
     @Test
@@ -237,6 +274,41 @@ class ProductServiceTest {
         verify(productMapper).toDTO(updatedProduct);
     }
 
+    @Test
+    void update_WithLedgerEnabled_ShouldRecordAdjustmentInsteadOfOverwritingStock() {
+        // Arrange
+        ProductDTO updateDTO = ProductDTO.builder()
+                .id(1L)
+                .name("Test Product 1")
+                .price(BigDecimal.valueOf(19.99))
+                .stock(120)
+                .build();
+        ProductDTO updatedDTO = ProductDTO.builder().id(1L).stock(100).build();
+
+        when(inventoryLedgerService.isEnabled()).thenReturn(true);
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product1));
+        when(inventoryLedgerService.getCurrentStock(product1)).thenReturn(90);
+        doAnswer(invocation -> {
+            product1.setStock(120);
+            return null;
+        }).when(productMapper).updateEntityFromDTO(updateDTO, product1);
+        when(productRepository.save(product1)).thenReturn(product1);
+        when(productMapper.toDTO(product1)).thenReturn(updatedDTO);
+        when(inventoryLedgerService.getPendingDeltas(List.of(1L))).thenReturn(Map.of(1L, 20));
+
+        // Act
+        ProductDTO result = productService.update(updateDTO);
+
+        // Assert
+        InOrder inOrder = inOrder(productRepository, inventoryLedgerService);
+        inOrder.verify(productRepository).findAllByIdInForUpdate(List.of(1L));
+        inOrder.verify(inventoryLedgerService).getCurrentStock(product1);
+        inOrder.verify(inventoryLedgerService).record(Map.of(1L, 30), MovementType.ADJUSTMENT);
+        verify(productRepository, never()).findById(1L);
+        assertEquals(100, product1.getStock());
+        assertEquals(120, result.getStock());
+    }
+
     @Test
     void update_WhenProductDoesNotExist_ShouldThrowException() {
         // Arrange
@@ -278,6 +350,7 @@ class ProductServiceTest {
         // Assert
         verify(productRepository).existsById(1L);
         verify(productRepository).deleteById(1L);
+        verify(productSearchIndex).remove(1L);
     }
 
     @Test
@@ -290,4 +363,158 @@ class ProductServiceTest {
         verify(productRepository).existsById(999L);
         verify(productRepository, never()).deleteById(anyLong());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void findAllByIds_ShouldReturnFoundProductsAndReportMissingIds() {
+        // Arrange
+        when(productRepository.findAllById(Arrays.asList(2L, 1L, 999L))).thenReturn(Arrays.asList(product1, product2));
+        when(productMapper.toDTO(product1)).thenReturn(productDTO1);
+        when(productMapper.toDTO(product2)).thenReturn(productDTO2);
+
+        // Act
+        BatchResultDTO<ProductDTO> result = productService.findAllByIds(Arrays.asList(2L, 1L, 2L, 999L));
+
+        // Assert
+        assertEquals(Arrays.asList(productDTO2, productDTO1), result.getItems());
+        assertEquals(Arrays.asList(999L), result.getMissingIds());
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void findAllWithFields_ShouldQueryOnlyRequestedFields() {
+        // Arrange
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "name", "Test Product 1"));
+        when(productRepository.findAllProjected(Arrays.asList("id", "name"))).thenReturn(rows);
+
+        // Act
+        List<Map<String, Object>> result = productService.findAllWithFields("id, name,id");
+
+        // Assert
+        assertEquals(rows, result);
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void findAllWithFields_StockWithoutIdAndLiveStock_ShouldApplyLiveStockAndLeaveIdOut() {
+        // Arrange
+        Map<String, Object> row = new HashMap<>(Map.of("id", 1L, "name", "Test Product 1", "stock", 100));
+        when(stockStripeService.isEnabled()).thenReturn(true);
+        when(productRepository.findAllProjected(Arrays.asList("id", "name", "stock"))).thenReturn(List.of(row));
+        when(stockStripeService.getStock(List.of(1L))).thenReturn(Map.of(1L, 7));
+
+        // Act
+        List<Map<String, Object>> result = productService.findAllWithFields("name,stock");
+
+        // Assert
+        assertEquals(List.of(Map.of("name", "Test Product 1", "stock", 7)), result);
+    }
+
+    @Test
+    void findAllWithFields_WithUnknownField_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> productService.findAllWithFields("id,secret"));
+        verify(productRepository, never()).findAllProjected(any());
+    }
+
+    @Test
+    void search_ShouldLoadRankedPageInOneQueryAndKeepRankOrder() {
+        // Arrange
+        when(productSearchIndex.isEnabled()).thenReturn(true);
+        when(productSearchIndex.search("test prod", 10, 10))
+                .thenReturn(new ProductSearchIndex.Hits(List.of(2L, 1L), 12));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(Arrays.asList(product1, product2));
+        when(productMapper.toDTO(product1)).thenReturn(productDTO1);
+        when(productMapper.toDTO(product2)).thenReturn(productDTO2);
+
+        // Act
+        ProductSearchResultDTO result = productService.search("test prod", 1, 10);
+
+        // Assert
+        assertEquals(Arrays.asList(productDTO2, productDTO1), result.getProducts());
+        assertEquals(12, result.getTotalHits());
+        assertEquals(1, result.getPage());
+        assertEquals(10, result.getSize());
+    }
+
+    @Test
+    void search_WithOversizedPage_ShouldThrowException() {
+        // Arrange
+        when(productSearchIndex.isEnabled()).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> productService.search("test", 0, 101));
+        verify(productSearchIndex, never()).search(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void findPage_ShouldContinueAfterCursorAndReturnCursorOfLastProduct() {
+        // Arrange
+        ProductFilterDTO filter = ProductFilterDTO.builder().inStock(true).build();
+        when(productRepository.findPage(filter, ProductSortKey.PRICE, true, new BigDecimal("49.99"), 7L, 2))
+                .thenReturn(Arrays.asList(product2, product1));
+        when(productMapper.toDTO(product2)).thenReturn(productDTO2);
+
+        // Act
+        ProductPageDTO result = productService.findPage(filter, "-price", "49.99,7", 1);
+
+        // Assert
+        assertEquals(List.of(productDTO2), result.getProducts());
+        assertEquals("29.99,2", result.getNextCursor());
+        verify(productMapper, never()).toDTO(product1);
+    }
+
+    @Test
+    void findPage_InStockWithStripes_ShouldSkipProductsWhoseStripesAreEmpty() {
+        // Arrange
+        ProductFilterDTO filter = ProductFilterDTO.builder().inStock(true).build();
+        ProductFilterDTO withoutStock = new ProductFilterDTO();
+        when(stockStripeService.isEnabled()).thenReturn(true);
+        when(productRepository.findPage(withoutStock, ProductSortKey.PRICE, false, null, null, 2))
+                .thenReturn(Arrays.asList(product1, product2));
+        when(productRepository.findPage(withoutStock, ProductSortKey.PRICE, false, product2.getPrice(), 2L, 2))
+                .thenReturn(List.of());
+        when(stockStripeService.getStock(any())).thenReturn(Map.of(1L, 0, 2L, 7));
+        when(productMapper.toDTO(product2)).thenReturn(productDTO2);
+
+        // Act
+        ProductPageDTO result = productService.findPage(filter, "price", null, 1);
+
+        // Assert
+        assertEquals(List.of(productDTO2), result.getProducts());
+        assertEquals(7, productDTO2.getStock());
+        assertNull(result.getNextCursor());
+        verify(productMapper, never()).toDTO(product1);
+    }
+
+    @Test
+    void findPage_InStockWithStripesAllSoldOut_ShouldStopAfterReadLimitWithCursorOfLastRead() {
+        // Arrange
+        ProductFilterDTO filter = ProductFilterDTO.builder().inStock(true).build();
+        ProductFilterDTO withoutStock = new ProductFilterDTO();
+        when(stockStripeService.isEnabled()).thenReturn(true);
+        when(productRepository.findPage(eq(withoutStock), eq(ProductSortKey.PRICE), eq(false), any(), any(), eq(2)))
+                .thenReturn(Arrays.asList(product1, product2));
+        when(stockStripeService.getStock(any())).thenReturn(Map.of(1L, 0, 2L, 0));
+
+        // Act
+        ProductPageDTO result = productService.findPage(filter, "price", null, 1);
+
+        // Assert
+        assertEquals(List.of(), result.getProducts());
+        assertEquals("29.99,2", result.getNextCursor());
+        verify(productRepository, times(10))
+                .findPage(eq(withoutStock), eq(ProductSortKey.PRICE), eq(false), any(), any(), eq(2));
+    }
+
+    @Test
+    void findPage_WithUnknownSortOrBadCursor_ShouldThrowException() {
+        // Arrange
+        ProductFilterDTO filter = new ProductFilterDTO();
+
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class, () -> productService.findPage(filter, "name", null, 20));
+        assertThrows(BusinessRuleViolationException.class,
+                () -> productService.findPage(filter, "createdAt", "yesterday,3", 20));
+        verify(productRepository, never()).findPage(any(), any(), anyBoolean(), any(), any(), anyInt());
+    }
+}
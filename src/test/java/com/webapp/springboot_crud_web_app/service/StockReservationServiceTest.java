@@ -0,0 +1,254 @@
+package com.webapp.springboot_crud_web_app.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webapp.springboot_crud_web_app.dto.StockReservationDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.exception.ResourceNotFoundException;
+import com.webapp.springboot_crud_web_app.inventory.StockMutator;
+import com.webapp.springboot_crud_web_app.model.StockReservation;
+import com.webapp.springboot_crud_web_app.repository.StockReservationRepository;
+import com.webapp.springboot_crud_web_app.service.impl.StockReservationServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private StockMutator stockMutator;
+
+    private MutableClock clock;
+
+    private StockReservationServiceImpl stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(1_000_000L);
+        stockReservationService = new StockReservationServiceImpl(
+                reservationRepository, stockMutator, clock, 60, 3600);
+    }
+
+    @Test
+    void reserve_WhenStockAvailable_ShouldTakeStockAndSaveReservation() {
+        // Act
+        StockReservationDTO result = stockReservationService.reserve(reservation(1L, 2, null));
+
+        // Assert
+        verify(stockMutator).take(Map.of(1L, 2));
+        assertNotNull(result.getId());
+        assertEquals(1L, result.getProductId());
+        assertEquals(2, result.getQuantity());
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(reservationRepository).save(saved.capture());
+        assertEquals(result.getId(), saved.getValue().getId());
+        assertEquals(clock.instant().plusSeconds(60), saved.getValue().getExpiresAt().toInstant(ZoneOffset.UTC));
+    }
+
+    @Test
+    void reserve_WhenStockInsufficient_ShouldThrowException() {
+        // Arrange
+        when(stockMutator.take(Map.of(1L, 2))).thenThrow(new BusinessRuleViolationException(
+                "Insufficient stock for product 'Hot Product'. Available: 1, Requested: 2"));
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> stockReservationService.reserve(reservation(1L, 2, null)));
+        assertEquals("Insufficient stock for product 'Hot Product'. Available: 1, Requested: 2", ex.getMessage());
+        verify(reservationRepository, never()).save(any(StockReservation.class));
+    }
+
+    @Test
+    void reserve_WithTtlAboveMaximum_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(BusinessRuleViolationException.class,
+                () -> stockReservationService.reserve(reservation(1L, 2, 7200)));
+        verify(stockMutator, never()).take(any());
+    }
+
+    @Test
+    void release_ShouldGiveStockBackAndDeleteReservation() {
+        // Arrange
+        String id = stockReservationService.reserve(reservation(1L, 2, null)).getId();
+
+        // Act
+        stockReservationService.release(id);
+
+        // Assert
+        verify(stockMutator).giveBack(Map.of(1L, 2));
+        verify(reservationRepository).deleteById(id);
+        assertThrows(ResourceNotFoundException.class, () -> stockReservationService.release(id));
+    }
+
+    @Test
+    void consume_ShouldReturnHeldQuantitiesPerProductAndNotExpireLater() {
+        // Arrange
+        String first = stockReservationService.reserve(reservation(1L, 2, null)).getId();
+        String second = stockReservationService.reserve(reservation(1L, 3, null)).getId();
+        String other = stockReservationService.reserve(reservation(2L, 1, null)).getId();
+
+        // Act
+        Map<Long, Integer> held = stockReservationService.consume(List.of(first, second, other, first));
+        clock.advanceSeconds(120);
+        int expired = stockReservationService.releaseExpired();
+
+        // Assert
+        assertEquals(Map.of(1L, 5, 2L, 1), held);
+        verify(reservationRepository).deleteAllByIdIn(List.of(first, second, other));
+        assertEquals(0, expired);
+        verify(stockMutator, never()).giveBack(any());
+        assertThrows(ResourceNotFoundException.class, () -> stockReservationService.consume(List.of(first)));
+    }
+
+    @Test
+    void consume_WhenOrderRollsBack_ShouldKeepReservationsHeld() {
+        // Arrange
+        String id = stockReservationService.reserve(reservation(1L, 2, 30)).getId();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(ResourceNotFoundException.class,
+                    () -> stockReservationService.consume(List.of(id, "unknown")));
+
+            // Act
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        clock.advanceSeconds(31);
+        int expired = stockReservationService.releaseExpired();
+
+        // Assert
+        assertEquals(1, expired);
+        verify(stockMutator).giveBack(Map.of(1L, 2));
+    }
+
+    @Test
+    void releaseExpired_ShouldGiveBackStockOncePerProduct() {
+        // Arrange
+        String first = stockReservationService.reserve(reservation(1L, 2, 30)).getId();
+        String second = stockReservationService.reserve(reservation(1L, 3, 30)).getId();
+
+        // Act
+        int beforeExpiry = stockReservationService.releaseExpired();
+        clock.advanceSeconds(31);
+        int afterExpiry = stockReservationService.releaseExpired();
+
+        // Assert
+        assertEquals(0, beforeExpiry);
+        assertEquals(2, afterExpiry);
+        verify(stockMutator).giveBack(Map.of(1L, 5));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(reservationRepository).deleteAllByIdIn(deleted.capture());
+        assertEquals(2, deleted.getValue().size());
+        assertThrows(ResourceNotFoundException.class, () -> stockReservationService.consume(List.of(first)));
+        assertThrows(ResourceNotFoundException.class, () -> stockReservationService.consume(List.of(second)));
+    }
+
+    @Test
+    void restoreOutstandingHolds_ShouldExpireReservationsFromBeforeRestart() {
+        // Arrange
+        StockReservation outstanding = new StockReservation("r-1", 1L, 4,
+                clock.instant().minusSeconds(5).atZone(ZoneOffset.UTC).toLocalDateTime(), null);
+        when(reservationRepository.findAll()).thenReturn(List.of(outstanding));
+
+        // Act
+        stockReservationService.restoreOutstandingHolds();
+        int expired = stockReservationService.releaseExpired();
+
+        // Assert
+        assertEquals(1, expired);
+        verify(stockMutator).giveBack(Map.of(1L, 4));
+    }
+
+    @Test
+    void release_WhenRolledBackAfterItsDeadlinePassed_ShouldStillExpireLater() {
+        // Arrange
+        String id = stockReservationService.reserve(reservation(1L, 2, 30)).getId();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockReservationService.release(id);
+            // The sweep drops the settled hold while the release is still open
+            clock.advanceSeconds(31);
+            assertEquals(0, stockReservationService.releaseExpired());
+
+            // Act
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        clock.advanceSeconds(1);
+        int expired = stockReservationService.releaseExpired();
+
+        // Assert
+        assertEquals(1, expired);
+    }
+
+    private static StockReservationDTO reservation(Long productId, int quantity, Integer ttlSeconds) {
+        return StockReservationDTO.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .ttlSeconds(ttlSeconds)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advanceSeconds(long seconds) {
+            millis += seconds * 1000;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
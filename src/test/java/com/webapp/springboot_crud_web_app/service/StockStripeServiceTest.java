@@ -0,0 +1,142 @@
+package com.webapp.springboot_crud_web_app.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.model.ProductStockStripe;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.repository.ProductStockStripeRepository;
+import com.webapp.springboot_crud_web_app.service.impl.StockStripeServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+class StockStripeServiceTest {
+
+    private static final int STRIPES = 4;
+
+    @Mock
+    private ProductStockStripeRepository stripeRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private StockStripeServiceImpl stockStripeService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        stockStripeService = new StockStripeServiceImpl(stripeRepository, productRepository, STRIPES);
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Hot Product");
+        product.setPrice(BigDecimal.valueOf(9.99));
+        product.setStock(10);
+    }
+
+    @Test
+    void decrement_WhenOneStripeHasEnough_ShouldUpdateOnlyThatStripe() {
+        // Arrange
+        when(stripeRepository.decrementIfAvailable(eq(1L), anyInt(), eq(2))).thenReturn(1);
+
+        // Act
+        stockStripeService.decrement(product, 2);
+
+        // Assert
+        verify(stripeRepository, times(1)).decrementIfAvailable(eq(1L), anyInt(), eq(2));
+        verify(stripeRepository, never()).findAllByProductIdForUpdate(1L);
+    }
+
+    @Test
+    void decrement_WhenNoSingleStripeHasEnough_ShouldTakeAcrossStripes() {
+        // Arrange
+        List<ProductStockStripe> stripes = new ArrayList<>(Arrays.asList(
+                new ProductStockStripe(1L, 1L, 0, 3),
+                new ProductStockStripe(2L, 1L, 1, 3),
+                new ProductStockStripe(3L, 1L, 2, 2),
+                new ProductStockStripe(4L, 1L, 3, 2)));
+        when(stripeRepository.decrementIfAvailable(eq(1L), anyInt(), eq(7))).thenReturn(0);
+        when(stripeRepository.findAllByProductIdForUpdate(1L)).thenReturn(stripes);
+
+        // Act
+        stockStripeService.decrement(product, 7);
+
+        // Assert
+        verify(stripeRepository, times(STRIPES)).decrementIfAvailable(eq(1L), anyInt(), eq(7));
+        assertEquals(3, stripes.stream().mapToInt(ProductStockStripe::getQuantity).sum());
+        assertEquals(0, stripes.get(0).getQuantity());
+        assertEquals(0, stripes.get(1).getQuantity());
+        assertEquals(1, stripes.get(2).getQuantity());
+        verify(stripeRepository).saveAllAndFlush(stripes);
+    }
+
+    @Test
+    void decrement_WhenStripesHoldTooLittle_ShouldThrowException() {
+        // Arrange
+        when(stripeRepository.decrementIfAvailable(eq(1L), anyInt(), eq(20))).thenReturn(0);
+        when(stripeRepository.findAllByProductIdForUpdate(1L)).thenReturn(Collections.singletonList(
+                new ProductStockStripe(1L, 1L, 0, 5)));
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> stockStripeService.decrement(product, 20));
+        assertTrue(ex.getMessage().contains("Available: 5"));
+        verify(stripeRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void decrement_WhenProductHasNoStripes_ShouldLockProductBeforeSplittingIt() {
+        // Arrange
+        when(stripeRepository.decrementIfAvailable(eq(1L), anyInt(), eq(7))).thenReturn(0);
+        when(stripeRepository.findAllByProductIdForUpdate(1L)).thenReturn(Collections.emptyList());
+        when(productRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(product));
+        when(stripeRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        stockStripeService.decrement(product, 7);
+
+        // Assert
+        InOrder inOrder = inOrder(productRepository, stripeRepository);
+        inOrder.verify(productRepository).findAllByIdInForUpdate(List.of(1L));
+        inOrder.verify(stripeRepository).findAllByProductIdForUpdate(1L);
+        inOrder.verify(stripeRepository, times(2)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void getStock_ShouldSumStripesPerProduct() {
+        // Arrange
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {1L, 10L});
+        when(stripeRepository.sumQuantityByProductIdIn(Arrays.asList(1L, 2L))).thenReturn(rows);
+
+        // Act
+        Map<Long, Integer> stock = stockStripeService.getStock(Arrays.asList(1L, 2L));
+
+        // Assert
+        assertEquals(Map.of(1L, 10), stock);
+    }
+}
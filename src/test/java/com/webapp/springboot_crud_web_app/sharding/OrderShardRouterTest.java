@@ -0,0 +1,85 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OrderShardRouterTest {
+
+    private final OrderShardRouter router = new OrderShardRouter(4);
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    @Test
+    void shardFor_ShouldIgnoreCaseAndSurroundingSpaceAndStayInRange() {
+        // Act
+        int shard = router.shardFor("Alice@Example.com");
+
+        // Assert
+        assertEquals(shard, router.shardFor("  alice@example.com "));
+        for (int i = 0; i < 100; i++) {
+            int other = router.shardFor("customer" + i + "@example.com");
+            assertTrue(other >= 0 && other < 4);
+        }
+    }
+
+    @Test
+    void shardOf_ShouldReadTheShardFromTheId() {
+        // Assert
+        assertEquals(0, router.shardOf(1L));
+        assertEquals(3, router.shardOf(OrderShardRouter.firstId(3)));
+        assertEquals(3, router.shardOf(OrderShardRouter.firstId(4) - 1));
+        assertEquals(-1, router.shardOf(OrderShardRouter.firstId(4)));
+        assertEquals(-1, router.shardOf(0L));
+        assertEquals(-1, router.shardOf(null));
+    }
+
+    @Test
+    void onShard_ShouldSelectTheShardOnlyInside() {
+        // Act
+        int inside = router.onShard(2, () -> router.onShard(1, OrderShardRouter::currentShard) * 10
+                + OrderShardRouter.currentShard());
+
+        // Assert
+        assertEquals(12, inside);
+        assertEquals(OrderShardRouter.MAIN_SHARD, OrderShardRouter.currentShard());
+    }
+
+    @Test
+    void scatter_ShouldRunOnEveryShardAndKeepShardOrder() {
+        // Act
+        List<Integer> shards = router.scatter(shard -> OrderShardRouter.currentShard());
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3), shards);
+    }
+
+    @Test
+    void scatter_WhenShardsFail_ShouldRethrowTheFirstWithTheOthersSuppressed() {
+        // Arrange
+        IllegalStateException first = new IllegalStateException("shard 1");
+
+        // Act
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> router.scatter(shard -> {
+            if (shard == 1) {
+                throw first;
+            }
+            if (shard == 3) {
+                throw new IllegalArgumentException("shard 3");
+            }
+            return shard;
+        }));
+
+        // Assert
+        assertSame(first, thrown);
+        assertEquals(1, thrown.getSuppressed().length);
+    }
+}
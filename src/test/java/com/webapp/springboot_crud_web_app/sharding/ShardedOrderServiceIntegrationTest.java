@@ -0,0 +1,238 @@
+package com.webapp.springboot_crud_web_app.sharding;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.webapp.springboot_crud_web_app.dto.OrderDTO;
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.exception.BusinessRuleViolationException;
+import com.webapp.springboot_crud_web_app.model.Order.OrderStatus;
+import com.webapp.springboot_crud_web_app.model.Product;
+import com.webapp.springboot_crud_web_app.repository.ProductRepository;
+import com.webapp.springboot_crud_web_app.service.OrderItemService;
+import com.webapp.springboot_crud_web_app.service.OrderService;
+
+/**
+ * Three in-memory H2 databases: the main one, which is also shard 0, and two
+ * more shards. Not transactional, as every shard commits on its own.
+ */
+@SpringBootTest(properties = {
+        "app.orders.sharding.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:ordershard0;DB_CLOSE_DELAY=-1",
+        "app.orders.sharding.shards[0].url=jdbc:h2:mem:ordershard1;DB_CLOSE_DELAY=-1",
+        "app.orders.sharding.shards[0].username=sa",
+        "app.orders.sharding.shards[1].url=jdbc:h2:mem:ordershard2;DB_CLOSE_DELAY=-1",
+        "app.orders.sharding.shards[1].username=sa"
+})
+@ActiveProfiles("test")
+class ShardedOrderServiceIntegrationTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private OrderShardRouter router;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void create_ShouldPlaceOrdersOnTheirCustomersShard() {
+        // Arrange
+        Product product = product(100);
+        List<String> emails = emailsCoveringEveryShard("spread");
+
+        // Act
+        List<OrderDTO> created = new ArrayList<>();
+        for (String email : emails) {
+            created.add(orderService.create(order(email, product, 2)));
+        }
+
+        // Assert
+        Set<Integer> shards = new HashSet<>();
+        for (OrderDTO order : created) {
+            int shard = router.shardOf(order.getId());
+            assertEquals(router.shardFor(order.getCustomerEmail()), shard);
+            assertEquals(1, countOrders(shard, order.getId()));
+            assertEquals(order.getCustomerEmail(), orderService.findById(order.getId()).getCustomerEmail());
+            shards.add(shard);
+        }
+        assertEquals(Set.of(0, 1, 2), shards);
+        assertEquals(100 - 2 * emails.size(), stock(product));
+        List<Long> listed = orderService.findAll().stream().map(OrderDTO::getId).toList();
+        assertTrue(listed.containsAll(created.stream().map(OrderDTO::getId).toList()));
+    }
+
+    @Test
+    void findAllFiltered_ShouldMergeTheNewestOrdersOfEveryShard() {
+        // Arrange
+        Product product = product(100);
+        for (String email : emailsCoveringEveryShard("filtered")) {
+            orderService.create(order(email, product, 1));
+        }
+
+        // Act
+        List<OrderDTO> newest = orderService.findAllFiltered(Set.of(OrderStatus.PENDING), null, null, 2);
+
+        // Assert
+        assertEquals(2, newest.size());
+        assertTrue(!newest.get(0).getCreatedAt().isBefore(newest.get(1).getCreatedAt()));
+    }
+
+    @Test
+    void create_WithInsufficientStock_ShouldLeaveNoOrderAndStockUnchanged() {
+        // Arrange
+        Product plenty = product(10);
+        Product scarce = product(1);
+        OrderDTO order = order(emailOnShard(2, "scarce"), plenty, 3);
+        order.getOrderItems().add(OrderItemDTO.builder().productId(scarce.getId()).quantity(2).build());
+        long ordersBefore = countOrders(2);
+
+        // Act
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderService.create(order));
+
+        // Assert
+        assertTrue(ex.getMessage().contains("Insufficient stock"));
+        assertEquals(ordersBefore, countOrders(2));
+        assertEquals(10, stock(plenty));
+        assertEquals(1, stock(scarce));
+    }
+
+    @Test
+    void cancel_ShouldGiveStockBackToTheMainDatabase() {
+        // Arrange
+        Product product = product(10);
+        OrderDTO created = orderService.create(order(emailOnShard(1, "cancel"), product, 4));
+
+        // Act
+        orderService.transitionStatus(List.of(created.getId()), OrderStatus.CANCELLED);
+
+        // Assert
+        assertEquals(OrderStatus.CANCELLED, orderService.findById(created.getId()).getStatus());
+        assertEquals(10, stock(product));
+    }
+
+    @Test
+    void replaceItems_ShouldMoveStockByTheDifference() {
+        // Arrange
+        Product first = product(10);
+        Product second = product(10);
+        OrderDTO created = orderService.create(order(emailOnShard(2, "replace"), first, 4));
+
+        // Act
+        OrderDTO replaced = orderService.replaceItems(created.getId(), List.of(
+                OrderItemDTO.builder().productId(first.getId()).quantity(1).build(),
+                OrderItemDTO.builder().productId(second.getId()).quantity(3).build()));
+
+        // Assert
+        assertEquals(2, replaced.getOrderItems().size());
+        assertEquals(new BigDecimal("20.00"), replaced.getTotalAmount());
+        assertEquals(9, stock(first));
+        assertEquals(7, stock(second));
+    }
+
+    @Test
+    void replaceItems_OfShippedOrder_ShouldBeRejectedAndLeaveStockUnchanged() {
+        // Arrange
+        Product product = product(10);
+        OrderDTO created = orderService.create(order(emailOnShard(1, "shipped"), product, 2));
+        orderService.transitionStatus(List.of(created.getId()), OrderStatus.CONFIRMED);
+        orderService.transitionStatus(List.of(created.getId()), OrderStatus.SHIPPED);
+        List<OrderItemDTO> replacement = List.of(OrderItemDTO.builder().productId(product.getId()).quantity(5).build());
+
+        // Act & Assert
+        BusinessRuleViolationException ex = assertThrows(BusinessRuleViolationException.class,
+                () -> orderService.replaceItems(created.getId(), replacement));
+        assertEquals("Items of a SHIPPED order cannot be changed", ex.getMessage());
+        assertEquals(8, stock(product));
+    }
+
+    @Test
+    void orderItems_ShouldBeFoundAndChangedOnTheirShard() {
+        // Arrange
+        Product product = product(10);
+        OrderDTO created = orderService.create(order(emailOnShard(1, "items"), product, 1));
+
+        // Act
+        OrderItemDTO added = orderItemService.create(
+                OrderItemDTO.builder().quantity(2).build(), created.getId(), product.getId());
+        orderItemService.delete(created.getOrderItems().get(0).getId());
+
+        // Assert
+        assertEquals(created.getId(), orderItemService.findById(added.getId()).getOrderId());
+        assertEquals(new BigDecimal("10.00"), orderService.findById(created.getId()).getTotalAmount());
+        assertEquals(8, stock(product));
+        assertInstanceOf(ShardedOrderItemService.class, orderItemService);
+    }
+
+    private List<String> emailsCoveringEveryShard(String prefix) {
+        List<String> emails = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            emails.add(emailOnShard(shard, prefix));
+        }
+        return emails;
+    }
+
+    private String emailOnShard(int shard, String prefix) {
+        for (int i = 0; ; i++) {
+            String email = prefix + i + "@example.com";
+            if (router.shardFor(email) == shard) {
+                return email;
+            }
+        }
+    }
+
+    private Product product(int stock) {
+        Product product = new Product();
+        product.setName("Sharded Product");
+        product.setPrice(new BigDecimal("5.00"));
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    private static OrderDTO order(String email, Product product, int quantity) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        items.add(OrderItemDTO.builder().productId(product.getId()).quantity(quantity).build());
+        return OrderDTO.builder()
+                .customerName("Sharded Customer")
+                .customerEmail(email)
+                .shippingAddress("1 Shard Street")
+                .status(OrderStatus.PENDING)
+                .orderItems(items)
+                .build();
+    }
+
+    private long countOrders(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.shard(shard))
+                .queryForObject("SELECT COUNT(*) FROM orders", Long.class);
+    }
+
+    private long countOrders(int shard, Long orderId) {
+        return new JdbcTemplate(shardRoutingDataSource.shard(shard))
+                .queryForObject("SELECT COUNT(*) FROM orders WHERE id = ?", Long.class, orderId);
+    }
+}
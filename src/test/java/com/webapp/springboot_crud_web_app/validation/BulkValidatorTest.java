@@ -0,0 +1,67 @@
+package com.webapp.springboot_crud_web_app.validation;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.webapp.springboot_crud_web_app.dto.OrderItemDTO;
+import com.webapp.springboot_crud_web_app.exception.BulkValidationException;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+
+class BulkValidatorTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static BulkValidator bulkValidator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        bulkValidator = new BulkValidator(validatorFactory.getValidator());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validateAll_WithValidElements_ShouldPass() {
+        // Arrange
+        OrderItemDTO item = validItem();
+
+        // Act & Assert
+        assertDoesNotThrow(() -> bulkValidator.validateAll(Arrays.asList(item, validItem()), "items"));
+    }
+
+    @Test
+    void validateAll_WithInvalidElement_ShouldReportIndexedField() {
+        // Arrange
+        OrderItemDTO invalid = validItem();
+        invalid.setQuantity(0);
+
+        // Act
+        BulkValidationException ex = assertThrows(BulkValidationException.class,
+                () -> bulkValidator.validateAll(Arrays.asList(validItem(), invalid), "items"));
+
+        // Assert
+        assertEquals(1, ex.getFieldErrors().size());
+        assertEquals("Quantity must be at least 1", ex.getFieldErrors().get("items[1].quantity"));
+    }
+
+    private OrderItemDTO validItem() {
+        return OrderItemDTO.builder()
+                .productId(1L)
+                .quantity(2)
+                .unitPrice(BigDecimal.valueOf(19.99))
+                .subtotal(BigDecimal.valueOf(39.98))
+                .build();
+    }
+}